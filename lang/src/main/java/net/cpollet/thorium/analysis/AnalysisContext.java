@@ -21,11 +21,13 @@ import net.cpollet.thorium.analysis.data.symbol.Symbol;
 import net.cpollet.thorium.data.method.MethodTable;
 import net.cpollet.thorium.data.symbol.SymbolTable;
 import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.antlr.ThoriumParser;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeProperty;
 
 import java.util.ArrayList;
-import java.util.LinkedList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Set;
 
@@ -33,56 +35,166 @@ import java.util.Set;
  * @author Christophe Pollet
  */
 public class AnalysisContext {
-    private final ParseTreeTypes types = new ParseTreeTypes();
-    private final ParseTreeSymbolTables symbolTables = new ParseTreeSymbolTables();
-    private final List<Symbol> symbols = new LinkedList<>();
+    private final NodeAnnotations annotations;
+    private final ScopeTree scopes;
+    private final List<Symbol> symbols = new ArrayList<>();
     private final List<ThoriumSemanticException> exceptions = new ArrayList<>();
+    private final List<DeferredMethodBody> deferredMethodBodies = new ArrayList<>();
+    private final Set<ThoriumParser.MethodDefinitionContext> deferredMethods = Collections.newSetFromMap(new IdentityHashMap<>());
 
-    private SymbolTable<Symbol> currentSymbolTable;
+    private int currentScope;
     private MethodTable methodTable;
 
+    /**
+     * A method body left aside by the analysis of the enclosing statements, with the scope it must be analyzed in and
+     * the number of exceptions and symbols recorded before it, to merge its own at the same place.
+     */
+    static class DeferredMethodBody {
+        private final ThoriumParser.MethodDefinitionContext methodDefinition;
+        private final int scope;
+        private final int exceptionsOffset;
+        private final int symbolsOffset;
+
+        private DeferredMethodBody(ThoriumParser.MethodDefinitionContext methodDefinition, int scope, int exceptionsOffset, int symbolsOffset) {
+            this.methodDefinition = methodDefinition;
+            this.scope = scope;
+            this.exceptionsOffset = exceptionsOffset;
+            this.symbolsOffset = symbolsOffset;
+        }
+
+        ThoriumParser.MethodDefinitionContext getMethodDefinition() {
+            return methodDefinition;
+        }
+
+        ThoriumParser.StatementsContext getStatements() {
+            return methodDefinition.statements();
+        }
+    }
+
     public AnalysisContext() {
-        this.currentSymbolTable = new SymbolTable<>();
-        this.methodTable = new MethodTable();
+        this(new SymbolTable<>());
     }
 
     public AnalysisContext(SymbolTable<Symbol> currentSymbolTable) {
-        this.currentSymbolTable = currentSymbolTable;
+        this.annotations = new NodeAnnotations();
+        this.scopes = new ScopeTree(currentSymbolTable);
+        this.currentScope = ScopeTree.ROOT;
         this.methodTable = new MethodTable();
     }
 
-    public Set<Type> getNodeTypes(ParseTree ctx) {
-        return types.get(ctx);
+    private AnalysisContext(AnalysisContext parent, int scope) {
+        this.annotations = parent.annotations;
+        this.scopes = parent.scopes;
+        this.currentScope = scope;
+        this.methodTable = parent.methodTable;
+    }
+
+    /**
+     * Numbers the nodes of the tree at once, so that their annotations are stored in arrays sized once and that
+     * distinct subtrees can be annotated concurrently.
+     */
+    void index(ParseTree tree) {
+        annotations.index(tree);
+    }
+
+    /**
+     * Leaves the body of the method aside, to be analyzed in the current scope once the enclosing statements are. A
+     * method is deferred once, the first time.
+     */
+    void deferMethodBody(ThoriumParser.MethodDefinitionContext ctx) {
+        if (deferredMethods.add(ctx)) {
+            deferredMethodBodies.add(new DeferredMethodBody(ctx, currentScope, exceptions.size(), symbols.size()));
+        }
+    }
+
+    List<DeferredMethodBody> getDeferredMethodBodies() {
+        return deferredMethodBodies;
+    }
+
+    /**
+     * Returns a context to analyze the deferred method body in, sharing this context's annotations, scopes and method
+     * table but recording its own symbols and exceptions.
+     */
+    AnalysisContext fork(DeferredMethodBody methodBody) {
+        return new AnalysisContext(this, methodBody.scope);
+    }
+
+    /**
+     * Merges the symbols and exceptions of the contexts forked for each deferred method body, in order, where the
+     * method bodies were deferred. The result does not depend on the order the method bodies were analyzed in.
+     */
+    void merge(List<AnalysisContext> forks) {
+        List<ThoriumSemanticException> mergedExceptions = new ArrayList<>();
+        List<Symbol> mergedSymbols = new ArrayList<>();
+        int exceptionsOffset = 0;
+        int symbolsOffset = 0;
+
+        for (int i = 0; i < deferredMethodBodies.size(); i++) {
+            DeferredMethodBody methodBody = deferredMethodBodies.get(i);
+
+            mergedExceptions.addAll(exceptions.subList(exceptionsOffset, methodBody.exceptionsOffset));
+            mergedExceptions.addAll(forks.get(i).exceptions);
+            exceptionsOffset = methodBody.exceptionsOffset;
+
+            mergedSymbols.addAll(symbols.subList(symbolsOffset, methodBody.symbolsOffset));
+            mergedSymbols.addAll(forks.get(i).symbols);
+            symbolsOffset = methodBody.symbolsOffset;
+        }
+
+        mergedExceptions.addAll(exceptions.subList(exceptionsOffset, exceptions.size()));
+        mergedSymbols.addAll(symbols.subList(symbolsOffset, symbols.size()));
+
+        exceptions.clear();
+        exceptions.addAll(mergedExceptions);
+        symbols.clear();
+        symbols.addAll(mergedSymbols);
+        deferredMethodBodies.clear();
+    }
+
+    public int getNodeTypes(ParseTree ctx) {
+        return annotations.getTypes(ctx);
+    }
+
+    public boolean hasNodeTypes(ParseTree ctx) {
+        return annotations.hasTypes(ctx);
+    }
+
+    public void setNodeTypes(ParseTree ctx, int types) {
+        annotations.setTypes(ctx, types);
     }
 
-    public void setNodeTypes(ParseTree ctx, Set<Type> types) {
-        this.types.put(ctx, types);
+    /**
+     * Gives the types of the rule nodes of tree at once, see {@link NodeAnnotations#deferTypes(ParseTree, int[])}.
+     */
+    void deferNodeTypes(ParseTree tree, int[] types) {
+        annotations.deferTypes(tree, types);
     }
 
     public ParseTreeProperty<Type> getTypesOfAllNodes() {
-        return types.reduce();
+        return annotations.reduceTypes();
     }
 
     public SymbolTable<Symbol> getSymbolTable() {
-        return currentSymbolTable;
+        return scopes.get(currentScope);
     }
 
     public SymbolTable<Symbol> getSymbolTable(ParseTree ctx) {
-        return symbolTables.get(ctx);
+        int scope = annotations.getScope(ctx);
+        return scope == NodeAnnotations.NO_SCOPE ? null : scopes.get(scope);
     }
 
     public void storeSymbolTable(ParseTree ctx) {
-        if (symbolTables.get(ctx) == null) {
-            symbolTables.put(ctx, currentSymbolTable);
+        if (annotations.getScope(ctx) == NodeAnnotations.NO_SCOPE) {
+            annotations.setScope(ctx, currentScope);
         }
     }
 
     public void wrapSymbolTable() {
-        currentSymbolTable = currentSymbolTable.wrap();
+        currentScope = scopes.wrap(currentScope);
     }
 
     public void unwrapSymbolTable() {
-        currentSymbolTable = currentSymbolTable.unwrap();
+        currentScope = scopes.parent(currentScope);
     }
 
     public List<Symbol> getSymbols() {
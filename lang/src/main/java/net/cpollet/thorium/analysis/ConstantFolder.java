@@ -0,0 +1,367 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import net.cpollet.thorium.antlr.ThoriumBaseListener;
+import net.cpollet.thorium.antlr.ThoriumBaseVisitor;
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.data.method.Method;
+import net.cpollet.thorium.data.method.MethodEvaluationContext;
+import net.cpollet.thorium.data.method.MethodNotFoundException;
+import net.cpollet.thorium.data.symbol.SymbolTable;
+import net.cpollet.thorium.execution.ExecutionContext;
+import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.types.Types;
+import net.cpollet.thorium.values.DirectValue;
+import net.cpollet.thorium.values.Value;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeProperty;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Computes, at compile time, the value of the expressions made of literals and constants, using the operators of
+ * {@link net.cpollet.thorium.types.IntegerType}, {@link net.cpollet.thorium.types.FloatType} and
+ * {@link net.cpollet.thorium.types.BooleanType}. A constant is propagated to the expressions using it unless it is
+ * assigned somewhere; constants are not propagated into method bodies.
+ * <p>
+ * When the types computed by {@link SemanticAnalyser} are given, it also simplifies {@code x * 0} to {@code 0},
+ * {@code x + 0} and {@code x * 1} to {@code x}, and {@code !!b} to {@code b}, when doing so does not change the
+ * value nor its type.
+ *
+ * @author Christophe Pollet
+ */
+public class ConstantFolder extends ThoriumBaseVisitor<DirectValue> {
+    private final ParseTreeProperty<Type> types;
+    private final ParseTreeProperty<DirectValue> constants = new ParseTreeProperty<>();
+    private final ParseTreeProperty<ParseTree> simplifications = new ParseTreeProperty<>();
+    private final ExecutionContext executionContext = ExecutionContext.createEmpty();
+    private final Set<String> assignedConstants = new HashSet<>();
+    private SymbolTable<DirectValue> scope = new SymbolTable<>();
+
+    public ConstantFolder() {
+        this(new ParseTreeProperty<>());
+    }
+
+    public ConstantFolder(ParseTreeProperty<Type> types) {
+        this.types = types;
+    }
+
+    public ConstantFolding fold(ParseTree tree) {
+        ParseTreeWalker.DEFAULT.walk(new ThoriumBaseListener() {
+            @Override
+            public void enterAssignmentExpression(ThoriumParser.AssignmentExpressionContext ctx) {
+                if (ctx.identifier() instanceof ThoriumParser.ConstantNameContext) {
+                    assignedConstants.add(ctx.identifier().getText());
+                }
+            }
+        }, tree);
+
+        visit(tree);
+
+        return new ConstantFolding(constants, simplifications);
+    }
+
+    @Override
+    protected DirectValue aggregateResult(DirectValue aggregate, DirectValue nextResult) {
+        return null;
+    }
+
+    //region Statements
+
+    @Override
+    public DirectValue visitConstantDeclarationStatement(ThoriumParser.ConstantDeclarationStatementContext ctx) {
+        String name = ctx.UCIdentifier().getText();
+        DirectValue value = visit(ctx.expression());
+
+        scope.insert(name, assignedConstants.contains(name) ? null : value);
+
+        return null;
+    }
+
+    @Override
+    public DirectValue visitStatementsBlock(ThoriumParser.StatementsBlockContext ctx) {
+        return visitInNestedScope(ctx.statements());
+    }
+
+    private DirectValue visitInNestedScope(ParseTree ctx) {
+        scope = scope.wrap();
+        visit(ctx);
+        scope = scope.unwrap();
+
+        return null;
+    }
+
+    @Override
+    public DirectValue visitIfStatement(ThoriumParser.IfStatementContext ctx) {
+        visit(ctx.expression());
+        visitInNestedScope(ctx.statements());
+
+        if (ctx.elseStatement() != null) {
+            visit(ctx.elseStatement());
+        }
+
+        return null;
+    }
+
+    @Override
+    public DirectValue visitElseStatement(ThoriumParser.ElseStatementContext ctx) {
+        if (ctx.statements() != null) {
+            return visitInNestedScope(ctx.statements());
+        }
+
+        return visit(ctx.ifStatement());
+    }
+
+    @Override
+    public DirectValue visitWhileLoopStatement(ThoriumParser.WhileLoopStatementContext ctx) {
+        scope = scope.wrap();
+        visitChildren(ctx);
+        scope = scope.unwrap();
+
+        return null;
+    }
+
+    @Override
+    public DirectValue visitForLoopStatement(ThoriumParser.ForLoopStatementContext ctx) {
+        scope = scope.wrap();
+        visitChildren(ctx);
+        scope = scope.unwrap();
+
+        return null;
+    }
+
+    @Override
+    public DirectValue visitMethodDefinition(ThoriumParser.MethodDefinitionContext ctx) {
+        SymbolTable<DirectValue> enclosingScope = scope;
+
+        scope = new SymbolTable<>();
+        visitChildren(ctx);
+        scope = enclosingScope;
+
+        return null;
+    }
+
+    //endregion
+
+    //region Expressions
+
+    @Override
+    public DirectValue visitNotExpression(ThoriumParser.NotExpressionContext ctx) {
+        DirectValue operand = visit(ctx.expression());
+
+        if (operand != null) {
+            return constant(ctx, apply(ctx.op.getText(), new Type[]{operand.type()}, operand));
+        }
+
+        ThoriumParser.ExpressionContext operandCtx = unwrap(ctx.expression());
+
+        if (operandCtx instanceof ThoriumParser.NotExpressionContext) {
+            ThoriumParser.ExpressionContext negatedCtx = ((ThoriumParser.NotExpressionContext) operandCtx).expression();
+
+            if (types.get(negatedCtx) == Types.BOOLEAN) {
+                simplifications.put(ctx, negatedCtx);
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    public DirectValue visitMultiplicationExpression(ThoriumParser.MultiplicationExpressionContext ctx) {
+        return binaryOperator(ctx, ctx.op.getText(), ctx.expression(0), ctx.expression(1));
+    }
+
+    private DirectValue binaryOperator(ThoriumParser.ExpressionContext ctx, String operator, ThoriumParser.ExpressionContext leftCtx, ThoriumParser.ExpressionContext rightCtx) {
+        DirectValue left = visit(leftCtx);
+        DirectValue right = visit(rightCtx);
+
+        if (left != null && right != null) {
+            return constant(ctx, apply(operator, new Type[]{left.type(), right.type()}, left, right));
+        }
+
+        if (left != null) {
+            return simplify(ctx, operator, left, rightCtx, true);
+        }
+
+        if (right != null) {
+            return simplify(ctx, operator, right, leftCtx, false);
+        }
+
+        return null;
+    }
+
+    /**
+     * Simplifies an operator having one constant operand. The operator is applied to the constant and to a value of
+     * the other operand's type that has no value: if the result still has a value, the other operand does not matter
+     * and, when it has no side effect, the whole expression is constant.
+     */
+    private DirectValue simplify(ThoriumParser.ExpressionContext ctx, String operator, DirectValue constant, ThoriumParser.ExpressionContext operandCtx, boolean constantIsLeft) {
+        Type type = types.get(operandCtx);
+
+        if (type == null || type.id() == Type.Id.VOID) {
+            return null;
+        }
+
+        if (isPure(operandCtx)) {
+            DirectValue unknown = DirectValue.build(type.nullable());
+            DirectValue result = constantIsLeft
+                    ? apply(operator, new Type[]{constant.type(), type}, constant, unknown)
+                    : apply(operator, new Type[]{type, constant.type()}, unknown, constant);
+
+            if (result != null && result.hasValue()) {
+                return constant(ctx, result);
+            }
+        }
+
+        if (isIdentity(operator, constant, type)) {
+            simplifications.put(ctx, operandCtx);
+        }
+
+        return null;
+    }
+
+    private static boolean isIdentity(String operator, DirectValue constant, Type type) {
+        switch (operator) {
+            case "+":
+                return type == Types.INTEGER && constant.equals(DirectValue.build(0L));
+            case "*":
+                return (type == Types.INTEGER || type == Types.FLOAT) && constant.equals(DirectValue.build(1L)) ||
+                        type == Types.FLOAT && constant.equals(DirectValue.build(1.0));
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Returns whether evaluating ctx has no side effect.
+     */
+    private static boolean isPure(ThoriumParser.ExpressionContext ctx) {
+        if (ctx instanceof ThoriumParser.LiteralExpressionContext) {
+            ThoriumParser.LiteralContext literalCtx = ((ThoriumParser.LiteralExpressionContext) ctx).literal();
+
+            return !(literalCtx instanceof ThoriumParser.IdentifierLiteralContext) ||
+                    !(((ThoriumParser.IdentifierLiteralContext) literalCtx).identifier() instanceof ThoriumParser.ObjectOrClassNameContext);
+        }
+
+        if (ctx instanceof ThoriumParser.ParenthesisExpressionContext ||
+                ctx instanceof ThoriumParser.NotExpressionContext ||
+                ctx instanceof ThoriumParser.MultiplicationExpressionContext ||
+                ctx instanceof ThoriumParser.AdditionExpressionContext ||
+                ctx instanceof ThoriumParser.OrderComparisonExpressionContext) {
+            return ctx.getRuleContexts(ThoriumParser.ExpressionContext.class).stream()
+                    .allMatch(ConstantFolder::isPure);
+        }
+
+        return false;
+    }
+
+    private static ThoriumParser.ExpressionContext unwrap(ThoriumParser.ExpressionContext ctx) {
+        while (ctx instanceof ThoriumParser.ParenthesisExpressionContext) {
+            ctx = ((ThoriumParser.ParenthesisExpressionContext) ctx).expression();
+        }
+
+        return ctx;
+    }
+
+    private DirectValue apply(String operator, Type[] operandTypes, Value... operands) {
+        Method method;
+
+        try {
+            method = operandTypes[0].lookupMethod(operator, Arrays.asList(operandTypes).subList(1, operandTypes.length));
+        } catch (MethodNotFoundException e) {
+            return null;
+        }
+
+        return method.apply(new MethodEvaluationContext(executionContext, operands)).value();
+    }
+
+    private DirectValue constant(ParseTree ctx, DirectValue value) {
+        if (value != null) {
+            constants.put(ctx, value);
+        }
+
+        return value;
+    }
+
+    @Override
+    public DirectValue visitAdditionExpression(ThoriumParser.AdditionExpressionContext ctx) {
+        return binaryOperator(ctx, ctx.op.getText(), ctx.expression(0), ctx.expression(1));
+    }
+
+    @Override
+    public DirectValue visitOrderComparisonExpression(ThoriumParser.OrderComparisonExpressionContext ctx) {
+        return binaryOperator(ctx, ctx.op.getText(), ctx.expression(0), ctx.expression(1));
+    }
+
+    @Override
+    public DirectValue visitLiteralExpression(ThoriumParser.LiteralExpressionContext ctx) {
+        return constant(ctx, visit(ctx.literal()));
+    }
+
+    @Override
+    public DirectValue visitParenthesisExpression(ThoriumParser.ParenthesisExpressionContext ctx) {
+        return constant(ctx, visit(ctx.expression()));
+    }
+
+    @Override
+    public DirectValue visitAssignmentExpression(ThoriumParser.AssignmentExpressionContext ctx) {
+        visit(ctx.expression());
+
+        return null;
+    }
+
+    //endregion
+
+    //region Values
+
+    @Override
+    public DirectValue visitIntegerLiteral(ThoriumParser.IntegerLiteralContext ctx) {
+        return DirectValue.build(Long.parseLong(ctx.IntegerLiteral().getText()));
+    }
+
+    @Override
+    public DirectValue visitFloatLiteral(ThoriumParser.FloatLiteralContext ctx) {
+        return DirectValue.build(Double.parseDouble(ctx.FloatLiteral().getText()));
+    }
+
+    @Override
+    public DirectValue visitBooleanLiteral(ThoriumParser.BooleanLiteralContext ctx) {
+        return DirectValue.build(Boolean.parseBoolean(ctx.BooleanLiteral().getText()));
+    }
+
+    @Override
+    public DirectValue visitIdentifierLiteral(ThoriumParser.IdentifierLiteralContext ctx) {
+        return visit(ctx.identifier());
+    }
+
+    @Override
+    public DirectValue visitConstantName(ThoriumParser.ConstantNameContext ctx) {
+        String name = ctx.UCIdentifier().getText();
+
+        if (!scope.isDefined(name)) {
+            return null;
+        }
+
+        return scope.lookup(name);
+    }
+
+    //endregion
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import net.cpollet.thorium.values.DirectValue;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeProperty;
+
+/**
+ * The result of {@link ConstantFolder}: the value of each expression known at compile time and the operand each
+ * simplified expression reduces to.
+ *
+ * @author Christophe Pollet
+ */
+public class ConstantFolding {
+    public static final ConstantFolding NONE = new ConstantFolding(new ParseTreeProperty<>(), new ParseTreeProperty<>());
+
+    private static final DirectValue TRUE = DirectValue.build(true);
+
+    private final ParseTreeProperty<DirectValue> constants;
+    private final ParseTreeProperty<ParseTree> simplifications;
+
+    public ConstantFolding(ParseTreeProperty<DirectValue> constants, ParseTreeProperty<ParseTree> simplifications) {
+        this.constants = constants;
+        this.simplifications = simplifications;
+    }
+
+    /**
+     * Returns the value of the expression ctx, or {@code null} if it is not known at compile time.
+     */
+    public DirectValue getConstant(ParseTree ctx) {
+        return constants.get(ctx);
+    }
+
+    /**
+     * Returns the operand having the same value as the expression ctx, or {@code null} if ctx was not simplified.
+     */
+    public ParseTree getSimplification(ParseTree ctx) {
+        return simplifications.get(ctx);
+    }
+
+    /**
+     * Returns whether the condition ctx is true, or {@code null} if it is not known at compile time. As when it is
+     * executed, a condition is only true if it evaluates to the Boolean {@code true}.
+     */
+    public Boolean getCondition(ParseTree ctx) {
+        DirectValue constant = constants.get(ctx);
+
+        if (constant == null) {
+            return null;
+        }
+
+        return constant.equals(TRUE);
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import net.cpollet.thorium.antlr.ThoriumBaseVisitor;
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.data.symbol.SymbolTable;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.RuleNode;
+
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Finds the blocks, if statements and loops in which {@link net.cpollet.thorium.execution.ExecutionVisitor} may
+ * define a symbol. Such a node declares a variable or a constant in its own scope, or refers to a name that is not
+ * declared before it in the enclosing scopes of the same method body, or of the top-level code: referring to an
+ * undefined name defines it in the current scope. The other nodes can be executed in their enclosing scope.
+ * <p>
+ * An if statement and the else if statements chained to it share one scope, as in the visitor.
+ *
+ * @author Christophe Pollet
+ */
+public class DeclaringScopeAnalyser extends ThoriumBaseVisitor<Void> {
+    private final Set<ParseTree> declaringScopes = Collections.newSetFromMap(new IdentityHashMap<>());
+    private ParseTree scopeNode;
+    private SymbolTable<Boolean> scope = new SymbolTable<>();
+
+    /**
+     * Returns the blocks, if statements and loops of tree in which symbols may be defined.
+     */
+    public Set<ParseTree> analyze(ParseTree tree) {
+        visit(tree);
+
+        return declaringScopes;
+    }
+
+    //region Statements
+
+    @Override
+    public Void visitMethodDefinition(ThoriumParser.MethodDefinitionContext ctx) {
+        ParseTree enclosingScopeNode = scopeNode;
+        SymbolTable<Boolean> enclosingScope = scope;
+
+        scopeNode = null;
+        scope = new SymbolTable<>();
+
+        if (ctx.formalParameters() != null) {
+            for (ThoriumParser.FormalParameterContext parameterCtx : ctx.formalParameters().formalParameter()) {
+                scope.insert(parameterCtx.LCFirstIdentifier().getText(), Boolean.TRUE);
+            }
+        }
+
+        visit(ctx.statements());
+
+        scopeNode = enclosingScopeNode;
+        scope = enclosingScope;
+
+        return null;
+    }
+
+    @Override
+    public Void visitVariableDeclarationStatement(ThoriumParser.VariableDeclarationStatementContext ctx) {
+        visitChildren(ctx);
+        declare(ctx.LCFirstIdentifier().getText());
+
+        return null;
+    }
+
+    @Override
+    public Void visitConstantDeclarationStatement(ThoriumParser.ConstantDeclarationStatementContext ctx) {
+        visitChildren(ctx);
+        declare(ctx.UCIdentifier().getText());
+
+        return null;
+    }
+
+    @Override
+    public Void visitForLoopStatementInitVariableDeclaration(ThoriumParser.ForLoopStatementInitVariableDeclarationContext ctx) {
+        visitChildren(ctx);
+        declare(ctx.LCFirstIdentifier().getText());
+
+        return null;
+    }
+
+    private void declare(String name) {
+        scope.insert(name, Boolean.TRUE);
+        markScopeNode();
+    }
+
+    private void markScopeNode() {
+        if (scopeNode != null) {
+            declaringScopes.add(scopeNode);
+        }
+    }
+
+    @Override
+    public Void visitStatementsBlock(ThoriumParser.StatementsBlockContext ctx) {
+        return visitInScope(ctx, ctx);
+    }
+
+    @Override
+    public Void visitIfStatement(ThoriumParser.IfStatementContext ctx) {
+        ParseTree enclosingScopeNode = scopeNode;
+
+        if (!(ctx.getParent() instanceof ThoriumParser.ElseStatementContext)) {
+            scopeNode = ctx;
+        }
+
+        visit(ctx.expression());
+        visitInScope(scopeNode, ctx.statements());
+
+        if (ctx.elseStatement() != null) {
+            visit(ctx.elseStatement());
+        }
+
+        scopeNode = enclosingScopeNode;
+
+        return null;
+    }
+
+    @Override
+    public Void visitElseStatement(ThoriumParser.ElseStatementContext ctx) {
+        if (ctx.statements() != null) {
+            return visitInScope(scopeNode, ctx.statements());
+        }
+
+        return visit(ctx.ifStatement());
+    }
+
+    @Override
+    public Void visitWhileLoopStatement(ThoriumParser.WhileLoopStatementContext ctx) {
+        return visitInScope(ctx, ctx);
+    }
+
+    @Override
+    public Void visitForLoopStatement(ThoriumParser.ForLoopStatementContext ctx) {
+        return visitInScope(ctx, ctx);
+    }
+
+    /**
+     * Visits ctx in a nested lexical scope, whose symbols are defined at run time in the scope of node.
+     */
+    private Void visitInScope(ParseTree node, RuleNode ctx) {
+        ParseTree enclosingScopeNode = scopeNode;
+
+        scopeNode = node;
+        scope = scope.wrap();
+
+        visitChildren(ctx);
+
+        scope = scope.unwrap();
+        scopeNode = enclosingScopeNode;
+
+        return null;
+    }
+
+    //endregion
+
+    //region Expressions
+
+    @Override
+    public Void visitVariableName(ThoriumParser.VariableNameContext ctx) {
+        refer(ctx.getText());
+
+        return null;
+    }
+
+    @Override
+    public Void visitConstantName(ThoriumParser.ConstantNameContext ctx) {
+        refer(ctx.getText());
+
+        return null;
+    }
+
+    private void refer(String name) {
+        if (!scope.isDefined(name)) {
+            markScopeNode();
+        }
+    }
+
+    //endregion
+}
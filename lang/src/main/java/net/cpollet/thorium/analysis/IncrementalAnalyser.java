@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import net.cpollet.thorium.analysis.data.symbol.Symbol;
+import net.cpollet.thorium.data.symbol.SymbolTable;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Analyzes successive versions of a program, reusing the analysis of the method bodies that did not change and whose
+ * dependencies did not either, see {@link MethodBodyCache}. The other statements are analyzed again each time.
+ *
+ * @author Christophe Pollet
+ */
+public class IncrementalAnalyser {
+    private final ForkJoinPool pool;
+    private final MethodBodyCache methodBodyCache;
+
+    public IncrementalAnalyser() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public IncrementalAnalyser(ForkJoinPool pool) {
+        this.pool = pool;
+        this.methodBodyCache = new MethodBodyCache();
+    }
+
+    public AnalysisResult analyze(ParseTree tree) {
+        return analyze(tree, new SymbolTable<>());
+    }
+
+    public synchronized AnalysisResult analyze(ParseTree tree, SymbolTable<Symbol> scope) {
+        return new SemanticAnalyser(new AnalysisContext(scope), tree, pool, methodBodyCache).analyze();
+    }
+
+    /**
+     * Returns the number of method bodies whose analysis was reused.
+     */
+    public long getReusedMethodBodies() {
+        return methodBodyCache.getHits();
+    }
+
+    /**
+     * Returns the number of cacheable method bodies that were analyzed, having changed or not being cached. The method
+     * bodies referring to symbols they do not define are analyzed with the statements and are not counted.
+     */
+    public long getAnalyzedMethodBodies() {
+        return methodBodyCache.getMisses();
+    }
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.data.method.MethodTable;
+import net.cpollet.thorium.types.Types;
+import org.antlr.v4.runtime.misc.Interval;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Types of the nodes of the method bodies analyzed by previous analyses, to be reused when the same method is
+ * analyzed again. Entries are keyed by the method definition's source text and record what the body used from outside,
+ * the signatures of the methods it calls. An entry is only reused if they are still the same.
+ * <p>
+ * Only the deferred method bodies are cached: they refer to their own symbols only (see {@link MethodBodyLocality}),
+ * so their analysis neither depends on nor changes the symbols of the enclosing statements.
+ * <p>
+ * Only the bodies that were analyzed without exceptions are cached, since exceptions report source positions. Entries
+ * neither reused nor created by an analysis are dropped at its end.
+ *
+ * @author Christophe Pollet
+ */
+public class MethodBodyCache {
+    private volatile Map<String, Entry> entries;
+    private volatile Map<String, Entry> nextEntries;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    private static class Entry {
+        private final Dependencies dependencies;
+        private final List<Object> usedState;
+        private final int[] types;
+        private final boolean definesMethods;
+
+        private Entry(Dependencies dependencies, List<Object> usedState, int[] types, boolean definesMethods) {
+            this.dependencies = dependencies;
+            this.usedState = usedState;
+            this.types = types;
+            this.definesMethods = definesMethods;
+        }
+    }
+
+    /**
+     * A method body's key and what it uses from outside, resolved in the current analysis.
+     */
+    static final class Lookup {
+        private final String key;
+        private final Dependencies dependencies;
+        private final List<Object> usedState;
+        private final Entry entry;
+
+        private Lookup(String key, Dependencies dependencies, List<Object> usedState, Entry entry) {
+            this.key = key;
+            this.dependencies = dependencies;
+            this.usedState = usedState;
+            this.entry = entry;
+        }
+    }
+
+    /**
+     * The names of the methods called in a method body.
+     */
+    private static class Dependencies {
+        private final Set<String> methodNames = new LinkedHashSet<>();
+
+        private static Dependencies of(ParseTree body) {
+            Dependencies dependencies = new Dependencies();
+
+            RuleNodes.forEach(body, node -> {
+                if (node instanceof ThoriumParser.MethodCallExpressionContext) {
+                    dependencies.methodNames.add(((ThoriumParser.MethodCallExpressionContext) node).methodName().getText());
+                }
+            });
+
+            return dependencies;
+        }
+
+        /**
+         * Returns the signatures the names currently resolve to.
+         */
+        private List<Object> resolve(MethodTable methodTable) {
+            List<Object> state = new ArrayList<>(methodNames.size());
+
+            for (String name : methodNames) {
+                state.add(methodTable.getSignatures(name));
+            }
+
+            return state;
+        }
+    }
+
+    public MethodBodyCache() {
+        this.entries = Collections.emptyMap();
+        this.nextEntries = new ConcurrentHashMap<>();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    /**
+     * Returns whether the method is cached. Only the bodies referring to their own symbols are, and that only depends
+     * on the method's source text, the key.
+     */
+    boolean contains(ThoriumParser.MethodDefinitionContext ctx) {
+        return entries.containsKey(key(ctx));
+    }
+
+    /**
+     * Returns {@code false} if the method is cached and its body defines no method, {@code true} otherwise.
+     */
+    boolean mayDefineMethods(ThoriumParser.MethodDefinitionContext ctx) {
+        Entry entry = entries.get(key(ctx));
+        return entry == null || entry.definesMethods;
+    }
+
+    /**
+     * Looks the method body up, resolving what it uses from outside. Must be called before the method body is
+     * analyzed.
+     */
+    Lookup lookup(AnalysisContext.DeferredMethodBody methodBody, AnalysisContext analysisContext) {
+        String key = key(methodBody.getMethodDefinition());
+        Entry entry = entries.get(key);
+        Dependencies dependencies = entry != null ? entry.dependencies : Dependencies.of(methodBody.getStatements());
+        List<Object> usedState = dependencies.resolve(analysisContext.getMethodTable());
+
+        return new Lookup(key, dependencies, usedState, entry);
+    }
+
+    /**
+     * Annotates the nodes of the method body with the types cached for it, if the cached entry is still valid.
+     *
+     * @return {@code true} if the method body was annotated, {@code false} if it must be analyzed
+     */
+    boolean reuse(Lookup lookup, AnalysisContext.DeferredMethodBody methodBody, AnalysisContext analysisContext) {
+        Entry entry = lookup.entry;
+
+        if (entry == null || !entry.usedState.equals(lookup.usedState)) {
+            misses.incrementAndGet();
+            return false;
+        }
+
+        analysisContext.deferNodeTypes(methodBody.getStatements(), entry.types);
+
+        nextEntries.put(lookup.key, entry);
+        hits.incrementAndGet();
+
+        return true;
+    }
+
+    /**
+     * Caches the types of the method body analyzed in fork, unless its analysis failed.
+     */
+    void store(Lookup lookup, AnalysisContext.DeferredMethodBody methodBody, AnalysisContext fork) {
+        if (!fork.getExceptions().isEmpty() || fork.getSymbols().stream().anyMatch(s -> s.getType() == Types.NULLABLE_VOID)) {
+            return;
+        }
+
+        List<Integer> types = new ArrayList<>();
+        boolean[] definesMethods = {false};
+        RuleNodes.forEach(methodBody.getStatements(), node -> {
+            types.add(fork.hasNodeTypes(node) ? fork.getNodeTypes(node) : NodeAnnotations.UNTYPED);
+            definesMethods[0] |= node instanceof ThoriumParser.MethodDefinitionContext;
+        });
+
+        nextEntries.put(lookup.key, new Entry(lookup.dependencies, lookup.usedState, types.stream().mapToInt(Integer::intValue).toArray(), definesMethods[0]));
+    }
+
+    /**
+     * Keeps the entries reused or created since the previous call, drops the others.
+     */
+    void endAnalysis() {
+        entries = nextEntries;
+        nextEntries = new ConcurrentHashMap<>();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static String key(ThoriumParser.MethodDefinitionContext ctx) {
+        return ctx.getStart().getInputStream().getText(Interval.of(ctx.getStart().getStartIndex(), ctx.getStop().getStopIndex()));
+    }
+}
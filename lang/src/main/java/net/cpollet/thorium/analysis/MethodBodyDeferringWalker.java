@@ -0,0 +1,75 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import net.cpollet.thorium.antlr.ThoriumParser;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+
+/**
+ * Walks a tree without walking the bodies of the method definitions that only refer to their own symbols (see
+ * {@link MethodBodyLocality}): their signature is walked, then their body is deferred in the {@link AnalysisContext},
+ * in the scope the method defines. The other method bodies are walked in place, since the symbols they refer to are
+ * read and typed in statement order.
+ *
+ * @author Christophe Pollet
+ */
+class MethodBodyDeferringWalker extends ParseTreeWalker {
+    private final AnalysisContext analysisContext;
+    private final MethodBodyCache methodBodyCache;
+
+    /**
+     * @param methodBodyCache the method bodies analyzed by previous analyses, known to only refer to their own symbols,
+     *                        or {@code null}
+     */
+    MethodBodyDeferringWalker(AnalysisContext analysisContext, MethodBodyCache methodBodyCache) {
+        this.analysisContext = analysisContext;
+        this.methodBodyCache = methodBodyCache;
+    }
+
+    @Override
+    public void walk(ParseTreeListener listener, ParseTree tree) {
+        if (!(tree instanceof ThoriumParser.MethodDefinitionContext)) {
+            super.walk(listener, tree);
+            return;
+        }
+
+        ThoriumParser.MethodDefinitionContext ctx = (ThoriumParser.MethodDefinitionContext) tree;
+
+        if (!refersToLocalSymbolsOnly(ctx)) {
+            super.walk(listener, tree);
+            return;
+        }
+
+        enterRule(listener, ctx);
+
+        for (int i = 0; i < ctx.getChildCount(); i++) {
+            if (ctx.getChild(i) != ctx.statements()) {
+                walk(listener, ctx.getChild(i));
+            }
+        }
+
+        analysisContext.deferMethodBody(ctx);
+
+        exitRule(listener, ctx);
+    }
+
+    private boolean refersToLocalSymbolsOnly(ThoriumParser.MethodDefinitionContext ctx) {
+        return methodBodyCache != null && methodBodyCache.contains(ctx) || MethodBodyLocality.refersToLocalSymbolsOnly(ctx);
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import net.cpollet.thorium.antlr.ThoriumBaseListener;
+import net.cpollet.thorium.antlr.ThoriumParser;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Tells whether a method only refers to the symbols it defines, its parameters included, each after its definition.
+ * The analysis of such a method body does not depend on the statements around the method and does not change the
+ * symbols they use, so it can be done after them. A body referring to any other symbol reads or types it at the
+ * position of the method, and must be analyzed there.
+ * <p>
+ * The scopes are opened and closed on the same rules as in {@link net.cpollet.thorium.analysis.listener.SemanticAnalysisListener}.
+ *
+ * @author Christophe Pollet
+ */
+class MethodBodyLocality extends ThoriumBaseListener {
+    private final Deque<Set<String>> scopes = new ArrayDeque<>();
+    private boolean local = true;
+
+    private MethodBodyLocality() {
+        // nothing
+    }
+
+    static boolean refersToLocalSymbolsOnly(ThoriumParser.MethodDefinitionContext ctx) {
+        MethodBodyLocality locality = new MethodBodyLocality();
+        ParseTreeWalker.DEFAULT.walk(locality, ctx);
+        return locality.local;
+    }
+
+    private void define(String name) {
+        scopes.peek().add(name);
+    }
+
+    private void refer(String name) {
+        for (Set<String> scope : scopes) {
+            if (scope.contains(name)) {
+                return;
+            }
+        }
+
+        local = false;
+    }
+
+    @Override
+    public void enterMethodDefinition(ThoriumParser.MethodDefinitionContext ctx) {
+        scopes.push(new HashSet<>());
+    }
+
+    @Override
+    public void exitMethodDefinition(ThoriumParser.MethodDefinitionContext ctx) {
+        scopes.pop();
+    }
+
+    @Override
+    public void enterBlock(ThoriumParser.BlockContext ctx) {
+        scopes.push(new HashSet<>());
+    }
+
+    @Override
+    public void exitBlock(ThoriumParser.BlockContext ctx) {
+        scopes.pop();
+    }
+
+    @Override
+    public void enterIfStatement(ThoriumParser.IfStatementContext ctx) {
+        scopes.push(new HashSet<>());
+    }
+
+    @Override
+    public void exitIfStatement(ThoriumParser.IfStatementContext ctx) {
+        scopes.pop();
+    }
+
+    @Override
+    public void enterElseStatement(ThoriumParser.ElseStatementContext ctx) {
+        scopes.push(new HashSet<>());
+    }
+
+    @Override
+    public void exitElseStatement(ThoriumParser.ElseStatementContext ctx) {
+        scopes.pop();
+    }
+
+    @Override
+    public void exitFormalParameter(ThoriumParser.FormalParameterContext ctx) {
+        define(ctx.LCFirstIdentifier().getText());
+    }
+
+    @Override
+    public void exitVariableDeclarationStatement(ThoriumParser.VariableDeclarationStatementContext ctx) {
+        define(ctx.LCFirstIdentifier().getText());
+    }
+
+    @Override
+    public void exitConstantDeclarationStatement(ThoriumParser.ConstantDeclarationStatementContext ctx) {
+        define(ctx.UCIdentifier().getText());
+    }
+
+    @Override
+    public void exitForLoopStatementInitVariableDeclaration(ThoriumParser.ForLoopStatementInitVariableDeclarationContext ctx) {
+        define(ctx.LCFirstIdentifier().getText());
+    }
+
+    @Override
+    public void exitVariableName(ThoriumParser.VariableNameContext ctx) {
+        refer(ctx.getText());
+    }
+
+    @Override
+    public void exitConstantName(ThoriumParser.ConstantNameContext ctx) {
+        refer(ctx.getText());
+    }
+}
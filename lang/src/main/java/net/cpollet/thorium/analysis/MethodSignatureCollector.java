@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import net.cpollet.thorium.analysis.listener.MiscListener;
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.data.method.MethodTable;
+import net.cpollet.thorium.data.method.ParameterSignature;
+import net.cpollet.thorium.types.Types;
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Registers the signature of every method defined in a tree, nested ones included, before any statement is analyzed.
+ * Method calls are then resolved wherever they appear, without waiting for the method's definition to be walked.
+ * <p>
+ * The bodies of the methods the {@link MethodBodyCache} knows to define no method are not walked.
+ *
+ * @author Christophe Pollet
+ */
+class MethodSignatureCollector {
+    private final MethodTable methodTable;
+    private final MethodBodyCache methodBodyCache;
+
+    /**
+     * @param methodBodyCache the method bodies analyzed by previous analyses, can be {@code null}
+     */
+    MethodSignatureCollector(MethodTable methodTable, MethodBodyCache methodBodyCache) {
+        this.methodTable = methodTable;
+        this.methodBodyCache = methodBodyCache;
+    }
+
+    void collect(ParseTree tree) {
+        Deque<ParseTree> pending = new ArrayDeque<>();
+        pending.push(tree);
+
+        while (!pending.isEmpty()) {
+            ParseTree node = pending.pop();
+            ParseTree skippedChild = null;
+
+            if (node instanceof ThoriumParser.MethodDefinitionContext) {
+                ThoriumParser.MethodDefinitionContext ctx = (ThoriumParser.MethodDefinitionContext) node;
+                register(ctx);
+
+                if (methodBodyCache != null && !methodBodyCache.mayDefineMethods(ctx)) {
+                    skippedChild = ctx.statements();
+                }
+            }
+
+            for (int i = node.getChildCount() - 1; i >= 0; i--) {
+                if (node.getChild(i) instanceof ParserRuleContext && node.getChild(i) != skippedChild) {
+                    pending.push(node.getChild(i));
+                }
+            }
+        }
+    }
+
+    private void register(ThoriumParser.MethodDefinitionContext ctx) {
+        List<ParameterSignature> parameterSignatures = new ArrayList<>();
+
+        if (ctx.formalParameters() != null) {
+            for (ThoriumParser.FormalParameterContext parameterCtx : ctx.formalParameters().formalParameter()) {
+                parameterSignatures.add(new ParameterSignature(MiscListener.decodeType(parameterCtx.type()), parameterCtx.LCFirstIdentifier().getText()));
+            }
+        }
+
+        methodTable.put(ctx.methodName().getText(), null, Types.VOID, MiscListener.decodeType(ctx.type()), parameterSignatures);
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.types.TypeSet;
+import net.cpollet.thorium.types.Types;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeProperty;
+
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Per-node analysis data, stored as parallel arrays indexed by the nodes' {@link NodeIndex} number: the possible
+ * types of the node, as a {@link TypeSet}, and the id of the scope the node was first entered in, see
+ * {@link ScopeTree}.
+ * <p>
+ * The types of a whole subtree can also be given at once, in pre-order, see {@link #deferTypes(ParseTree, int[])}.
+ * They are only stored in the arrays when the types view returned by {@link #reduceTypes()} is first asked about one
+ * of the subtree's nodes.
+ *
+ * @author Christophe Pollet
+ */
+public class NodeAnnotations {
+    public static final int NO_SCOPE = -1;
+
+    /**
+     * Set on the types of annotated nodes, to tell an empty type set from a missing annotation.
+     */
+    private static final int TYPED = 1 << Types.COUNT;
+
+    static {
+        assert Types.COUNT < Short.SIZE - 1 : "too many types to fit a short";
+    }
+
+    /**
+     * Marks the untyped nodes in the types passed to {@link #deferTypes(ParseTree, int[])}.
+     */
+    public static final int UNTYPED = -1;
+
+    private final NodeIndex index;
+    private final Map<ParseTree, int[]> deferredTypes;
+    private short[] types;
+    private int[] scopes;
+
+    public NodeAnnotations() {
+        this.index = new NodeIndex();
+        this.deferredTypes = new IdentityHashMap<>();
+        this.types = new short[16];
+        this.scopes = new int[types.length];
+    }
+
+    /**
+     * Numbers the nodes of the tree at once, so that annotating them afterwards never grows the arrays. Nodes of
+     * distinct subtrees can then be annotated concurrently.
+     */
+    public void index(ParseTree tree) {
+        index.addAll(tree);
+        ensureCapacity(index.size());
+    }
+
+    /**
+     * Returns the possible types of the node, {@link TypeSet#EMPTY} when the node has no type yet.
+     */
+    public int getTypes(ParseTree node) {
+        int id = index.indexOf(node);
+        return id == NodeIndex.ABSENT || id >= types.length ? TypeSet.EMPTY : types[id] & ~TYPED;
+    }
+
+    public boolean hasTypes(ParseTree node) {
+        int id = index.indexOf(node);
+        return id != NodeIndex.ABSENT && id < types.length && (types[id] & TYPED) != 0;
+    }
+
+    public void setTypes(ParseTree node, int types) {
+        int id = idOf(node);
+        this.types[id] = (short) (types | TYPED);
+    }
+
+    /**
+     * Returns the id of the node's scope, or {@link #NO_SCOPE}.
+     */
+    public int getScope(ParseTree node) {
+        int id = index.indexOf(node);
+        return id == NodeIndex.ABSENT || id >= scopes.length ? NO_SCOPE : scopes[id] - 1;
+    }
+
+    public void setScope(ParseTree node, int scope) {
+        int id = idOf(node);
+        scopes[id] = scope + 1;
+    }
+
+    /**
+     * Gives the types of the rule nodes of tree, in pre-order, {@link #UNTYPED} for nodes without types.
+     */
+    public void deferTypes(ParseTree tree, int[] types) {
+        deferredTypes.put(tree, types);
+    }
+
+    /**
+     * Returns a read-only view giving the type of each node, or {@link Types#NULLABLE_VOID} when the node's type is
+     * ambiguous.
+     */
+    public ParseTreeProperty<Type> reduceTypes() {
+        return new ParseTreeProperty<Type>() {
+            @Override
+            public Type get(ParseTree node) {
+                if (!hasTypes(node) && !(applyDeferredTypes(node) && hasTypes(node))) {
+                    return null;
+                }
+
+                int possibleTypes = getTypes(node);
+                return TypeSet.size(possibleTypes) != 1 ? Types.NULLABLE_VOID : TypeSet.single(possibleTypes);
+            }
+
+            @Override
+            public void put(ParseTree node, Type value) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public Type removeFrom(ParseTree node) {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Stores the deferred types of the subtree containing node, if any.
+     *
+     * @return {@code true} if types were stored
+     */
+    private boolean applyDeferredTypes(ParseTree node) {
+        if (deferredTypes.isEmpty()) {
+            return false;
+        }
+
+        for (ParseTree root = node; root != null; root = root.getParent()) {
+            int[] rootTypes = deferredTypes.remove(root);
+
+            if (rootTypes != null) {
+                int[] position = {0};
+                RuleNodes.forEach(root, n -> {
+                    int nodeTypes = rootTypes[position[0]++];
+
+                    if (nodeTypes != UNTYPED) {
+                        setTypes(n, nodeTypes);
+                    }
+                });
+
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private int idOf(ParseTree node) {
+        int id = index.add(node);
+        ensureCapacity(id + 1);
+        return id;
+    }
+
+    private void ensureCapacity(int size) {
+        if (size > types.length) {
+            int capacity = Math.max(types.length * 2, size);
+            types = Arrays.copyOf(types, capacity);
+            scopes = Arrays.copyOf(scopes, capacity);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import org.antlr.v4.runtime.tree.ParseTree;
+
+/**
+ * Numbers parse nodes densely, from 0, so that per-node data can be stored in arrays. Nodes are compared by
+ * identity; the table is open addressed on primitive arrays, filled up to 2/3, so that numbering a node allocates
+ * nothing.
+ *
+ * @author Christophe Pollet
+ */
+final class NodeIndex {
+    static final int ABSENT = -1;
+
+    private static final int MIN_CAPACITY = 16;
+
+    private ParseTree[] nodes;
+    private int[] ids;
+    private int size;
+
+    NodeIndex() {
+        nodes = new ParseTree[MIN_CAPACITY];
+        ids = new int[MIN_CAPACITY];
+    }
+
+    /**
+     * Numbers every rule node of the tree not numbered yet, in pre-order. Terminal nodes are never annotated and are
+     * not numbered.
+     */
+    void addAll(ParseTree tree) {
+        RuleNodes.forEach(tree, this::add);
+    }
+
+    int indexOf(ParseTree node) {
+        int mask = nodes.length - 1;
+
+        for (int slot = slot(node, mask); nodes[slot] != null; slot = (slot + 1) & mask) {
+            if (nodes[slot] == node) {
+                return ids[slot];
+            }
+        }
+
+        return ABSENT;
+    }
+
+    /**
+     * Returns the node's number, numbering it first if needed.
+     */
+    int add(ParseTree node) {
+        int mask = nodes.length - 1;
+        int slot = slot(node, mask);
+
+        for (; nodes[slot] != null; slot = (slot + 1) & mask) {
+            if (nodes[slot] == node) {
+                return ids[slot];
+            }
+        }
+
+        nodes[slot] = node;
+        ids[slot] = size;
+
+        if (++size * 3 > nodes.length * 2) {
+            grow();
+        }
+
+        return size - 1;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        ParseTree[] oldNodes = nodes;
+        int[] oldIds = ids;
+
+        nodes = new ParseTree[oldNodes.length * 2];
+        ids = new int[oldIds.length * 2];
+        int mask = nodes.length - 1;
+
+        for (int i = 0; i < oldNodes.length; i++) {
+            if (oldNodes[i] != null) {
+                int slot = slot(oldNodes[i], mask);
+
+                while (nodes[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+
+                nodes[slot] = oldNodes[i];
+                ids[slot] = oldIds[i];
+            }
+        }
+    }
+
+    private static int slot(ParseTree node, int mask) {
+        return (System.identityHashCode(node) * 0x9E3779B9 >>> 7) & mask;
+    }
+}
@@ -18,25 +18,27 @@ package net.cpollet.thorium.analysis;
 
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTreeListener;
-import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.HashMap;
 import java.util.IdentityHashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.LinkedHashSet;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Supplier;
 
 /**
+ * The edges of the type dependency graph: the nodes whose type depends on each observable, a node, a symbol or a
+ * method. Once an observable gets its type, its observers are moved to the {@link Worklist} to be walked again.
+ *
  * @author Christophe Pollet
  */
 public class ObserverRegistry<T> {
     private static final Logger LOG = LoggerFactory.getLogger(ObserverRegistry.class);
 
-    private final Map<T, List<ParserRuleContext>> observers;
+    private final Map<T, Set<ParserRuleContext>> observers;
+    private final Worklist worklist;
 
     @SuppressWarnings("rawtypes")
     public static class ObservableLookupStrategy {
@@ -54,47 +56,45 @@ public class ObserverRegistry<T> {
         }
     }
 
-    public ObserverRegistry(ObservableLookupStrategy observableLookupStrategy) {
+    public ObserverRegistry(ObservableLookupStrategy observableLookupStrategy, Worklist worklist) {
         //noinspection unchecked
-        observers = observableLookupStrategy.buildMap();
+        this.observers = observableLookupStrategy.buildMap();
+        this.worklist = worklist;
     }
 
     public void registerObserver(ParserRuleContext observer, T observable) {
-        log("Register", observer, observable);
-
-        if (observers.get(observable) == null) {
-            resetRegisteredObservers(observable);
+        if (LOG.isDebugEnabled()) {
+            log("Register", observer, observable);
         }
 
-        if (!observers.get(observable).contains(observer)) {
-            observers.get(observable).add(observer);
-        }
+        observers.computeIfAbsent(observable, o -> newObserversSet()).add(observer);
     }
 
-    private void resetRegisteredObservers(T observable) {
-        observers.put(observable, new LinkedList<>());
+    /**
+     * Observers are walked in registration order, each one once.
+     */
+    private static Set<ParserRuleContext> newObserversSet() {
+        return new LinkedHashSet<>();
     }
 
+    /**
+     * Schedules the observers of observable to be walked again and, unless a drain is already in progress, walks them
+     * and the nodes they schedule in turn.
+     */
     public void notifyObservers(T observable, ParseTreeListener parseTreeListener) {
-        ParseTreeWalker walker = new ParseTreeWalker();
-
-        Iterator<ParserRuleContext> it = getRegisteredObservers(observable).iterator();
+        Set<ParserRuleContext> registeredObservers = observers.remove(observable);
 
-        while (it.hasNext()) {
-            ParserRuleContext observer = it.next();
-            it.remove();
+        if (registeredObservers != null) {
+            for (ParserRuleContext observer : registeredObservers) {
+                if (LOG.isDebugEnabled()) {
+                    log("Notify", observer, observable);
+                }
 
-            log("Notify", observer, observable);
-
-            walker.walk(parseTreeListener, observer);
+                worklist.add(observer);
+            }
         }
-    }
 
-    private List<ParserRuleContext> getRegisteredObservers(T observable) {
-        if (observers.get(observable) == null) {
-            resetRegisteredObservers(observable);
-        }
-        return observers.get(observable);
+        worklist.drain(parseTreeListener);
     }
 
     private void log(String prefix, ParserRuleContext observer, T observable) {
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import net.cpollet.thorium.antlr.ThoriumBaseVisitor;
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.data.symbol.SymbolTable;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.RuleNode;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the methods whose result only depends on their parameters, and that can thus be memoized. A method is pure
+ * when its body:
+ * <ul>
+ * <li>only reads and assigns its parameters and the variables and constants it declares;</li>
+ * <li>does not define methods;</li>
+ * <li>only calls pure methods. Operators are native and always pure.</li>
+ * </ul>
+ * Methods are resolved by name only: a name is pure when all the methods defined with that name are pure. Recursive
+ * methods are pure unless proven otherwise.
+ *
+ * @author Christophe Pollet
+ */
+public class PurityAnalyser extends ThoriumBaseVisitor<Void> {
+    private final Map<String, List<MethodDefinition>> methods = new HashMap<>();
+    private MethodDefinition method;
+    private SymbolTable<Boolean> scope;
+
+    private static class MethodDefinition {
+        private final Set<String> calledMethods = new HashSet<>();
+        private boolean pure = true;
+    }
+
+    /**
+     * Returns the names of the pure methods defined in tree.
+     */
+    public Set<String> analyze(ParseTree tree) {
+        visit(tree);
+
+        Set<String> pureMethods = new HashSet<>(methods.keySet());
+        boolean changed = true;
+
+        while (changed) {
+            changed = pureMethods.removeIf(name -> !isPure(name, pureMethods));
+        }
+
+        return pureMethods;
+    }
+
+    private boolean isPure(String name, Set<String> pureMethods) {
+        for (MethodDefinition definition : methods.get(name)) {
+            if (!definition.pure || !pureMethods.containsAll(definition.calledMethods)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    //region Statements
+
+    @Override
+    public Void visitMethodDefinition(ThoriumParser.MethodDefinitionContext ctx) {
+        MethodDefinition enclosingMethod = method;
+        SymbolTable<Boolean> enclosingScope = scope;
+
+        if (enclosingMethod != null) {
+            enclosingMethod.pure = false;
+        }
+
+        method = new MethodDefinition();
+        scope = new SymbolTable<>();
+
+        if (ctx.formalParameters() != null) {
+            for (ThoriumParser.FormalParameterContext parameterCtx : ctx.formalParameters().formalParameter()) {
+                declare(parameterCtx.LCFirstIdentifier().getText());
+            }
+        }
+
+        visit(ctx.statements());
+
+        methods.computeIfAbsent(ctx.methodName().getText(), name -> new ArrayList<>()).add(method);
+
+        method = enclosingMethod;
+        scope = enclosingScope;
+
+        return null;
+    }
+
+    @Override
+    public Void visitVariableDeclarationStatement(ThoriumParser.VariableDeclarationStatementContext ctx) {
+        visitChildren(ctx);
+        declare(ctx.LCFirstIdentifier().getText());
+
+        return null;
+    }
+
+    @Override
+    public Void visitConstantDeclarationStatement(ThoriumParser.ConstantDeclarationStatementContext ctx) {
+        visitChildren(ctx);
+        declare(ctx.UCIdentifier().getText());
+
+        return null;
+    }
+
+    @Override
+    public Void visitForLoopStatementInitVariableDeclaration(ThoriumParser.ForLoopStatementInitVariableDeclarationContext ctx) {
+        visitChildren(ctx);
+        declare(ctx.LCFirstIdentifier().getText());
+
+        return null;
+    }
+
+    private void declare(String name) {
+        if (scope != null) {
+            scope.insert(name, Boolean.TRUE);
+        }
+    }
+
+    @Override
+    public Void visitStatementsBlock(ThoriumParser.StatementsBlockContext ctx) {
+        return visitInNestedScope(ctx);
+    }
+
+    @Override
+    public Void visitIfStatement(ThoriumParser.IfStatementContext ctx) {
+        visit(ctx.expression());
+        visitInNestedScope(ctx.statements());
+
+        if (ctx.elseStatement() != null) {
+            visit(ctx.elseStatement());
+        }
+
+        return null;
+    }
+
+    @Override
+    public Void visitElseStatement(ThoriumParser.ElseStatementContext ctx) {
+        if (ctx.statements() != null) {
+            return visitInNestedScope(ctx.statements());
+        }
+
+        return visit(ctx.ifStatement());
+    }
+
+    @Override
+    public Void visitWhileLoopStatement(ThoriumParser.WhileLoopStatementContext ctx) {
+        return visitInNestedScope(ctx);
+    }
+
+    @Override
+    public Void visitForLoopStatement(ThoriumParser.ForLoopStatementContext ctx) {
+        return visitInNestedScope(ctx);
+    }
+
+    private Void visitInNestedScope(RuleNode ctx) {
+        if (scope == null) {
+            return visitChildren(ctx);
+        }
+
+        scope = scope.wrap();
+        visitChildren(ctx);
+        scope = scope.unwrap();
+
+        return null;
+    }
+
+    //endregion
+
+    //region Expressions
+
+    @Override
+    public Void visitMethodCallExpression(ThoriumParser.MethodCallExpressionContext ctx) {
+        if (method != null) {
+            method.calledMethods.add(ctx.methodName().getText());
+        }
+
+        return visitChildren(ctx);
+    }
+
+    @Override
+    public Void visitObjectOrClassName(ThoriumParser.ObjectOrClassNameContext ctx) {
+        return reference(ctx.getText());
+    }
+
+    @Override
+    public Void visitVariableName(ThoriumParser.VariableNameContext ctx) {
+        return reference(ctx.getText());
+    }
+
+    @Override
+    public Void visitConstantName(ThoriumParser.ConstantNameContext ctx) {
+        return reference(ctx.getText());
+    }
+
+    private Void reference(String name) {
+        if (method != null && !scope.isDefined(name)) {
+            method.pure = false;
+        }
+
+        return null;
+    }
+
+    //endregion
+}
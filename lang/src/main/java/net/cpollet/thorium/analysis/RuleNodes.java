@@ -0,0 +1,52 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * @author Christophe Pollet
+ */
+final class RuleNodes {
+    private RuleNodes() {
+        // nothing
+    }
+
+    /**
+     * Calls action on each rule node of the tree, in pre-order, without recursing.
+     */
+    static void forEach(ParseTree tree, Consumer<ParseTree> action) {
+        Deque<ParseTree> pending = new ArrayDeque<>();
+        pending.push(tree);
+
+        while (!pending.isEmpty()) {
+            ParseTree node = pending.pop();
+            action.accept(node);
+
+            for (int i = node.getChildCount() - 1; i >= 0; i--) {
+                if (node.getChild(i) instanceof ParserRuleContext) {
+                    pending.push(node.getChild(i));
+                }
+            }
+        }
+    }
+}
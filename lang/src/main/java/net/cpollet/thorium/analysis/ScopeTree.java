@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import net.cpollet.thorium.analysis.data.symbol.Symbol;
+import net.cpollet.thorium.data.symbol.SymbolTable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The scopes created during an analysis, numbered in creation order. The root scope is 0; the parent of each scope is
+ * kept in an array, so that leaving a scope is an array read. The method bodies analyzed concurrently share the tree:
+ * its methods are synchronized.
+ *
+ * @author Christophe Pollet
+ */
+public class ScopeTree {
+    public static final int ROOT = 0;
+
+    private final List<SymbolTable<Symbol>> symbolTables = new ArrayList<>();
+    private int[] parents = new int[16];
+
+    public ScopeTree(SymbolTable<Symbol> root) {
+        symbolTables.add(root);
+        parents[ROOT] = ROOT;
+    }
+
+    /**
+     * Creates a scope nested in {@code parent} and returns its id.
+     */
+    public synchronized int wrap(int parent) {
+        int scope = symbolTables.size();
+
+        symbolTables.add(symbolTables.get(parent).wrap());
+
+        if (scope == parents.length) {
+            parents = Arrays.copyOf(parents, parents.length * 2);
+        }
+        parents[scope] = parent;
+
+        return scope;
+    }
+
+    public synchronized int parent(int scope) {
+        if (scope == ROOT) {
+            throw new IllegalStateException("Called unwrap on root symbol table.");
+        }
+
+        return parents[scope];
+    }
+
+    public synchronized SymbolTable<Symbol> get(int scope) {
+        return symbolTables.get(scope);
+    }
+}
@@ -20,25 +20,143 @@ import net.cpollet.thorium.analysis.listener.SemanticAnalysisListener;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
 /**
+ * Analyzes a tree in three phases: the signatures of all methods are registered, then the statements are analyzed
+ * without the method bodies that only refer to their own symbols, then those method bodies are, concurrently. Such a
+ * method body only depends on the method signatures, all known once the first phase is done. The method bodies
+ * referring to other symbols are analyzed with the statements, in order, since they read and type symbols shared
+ * with them. On a single-threaded pool, without a {@link MethodBodyCache}, all method bodies are analyzed with the
+ * statements.
+ *
  * @author Christophe Pollet
  */
 public class SemanticAnalyser {
     private final ParseTree tree;
     private final AnalysisContext analysisContext;
+    private final ForkJoinPool pool;
+    private final MethodBodyCache methodBodyCache;
 
     public SemanticAnalyser(AnalysisContext analysisContext, ParseTree tree) {
+        this(analysisContext, tree, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param pool the pool the method bodies are analyzed on
+     */
+    public SemanticAnalyser(AnalysisContext analysisContext, ParseTree tree, ForkJoinPool pool) {
+        this(analysisContext, tree, pool, null);
+    }
+
+    /**
+     * @param pool            the pool the method bodies are analyzed on
+     * @param methodBodyCache the method bodies analyzed by previous analyses, {@code null} to analyze them all
+     */
+    public SemanticAnalyser(AnalysisContext analysisContext, ParseTree tree, ForkJoinPool pool, MethodBodyCache methodBodyCache) {
         this.analysisContext = analysisContext;
         this.tree = tree;
+        this.pool = pool;
+        this.methodBodyCache = methodBodyCache;
     }
 
     public AnalysisResult analyze() {
-        ParseTreeWalker walker = new ParseTreeWalker();
+        new MethodSignatureCollector(analysisContext.getMethodTable(), methodBodyCache).collect(tree);
 
-        SemanticAnalysisListener listener = new SemanticAnalysisListener(analysisContext);
+        ParseTreeWalker walker = defersMethodBodies() ? new MethodBodyDeferringWalker(analysisContext, methodBodyCache) : ParseTreeWalker.DEFAULT;
+        SemanticAnalysisListener listener = new SemanticAnalysisListener(analysisContext, walker);
 
         walker.walk(listener, tree);
 
+        analyzeMethodBodies();
+
+        listener.checkSymbolTypes();
+
         return new AnalysisResult(analysisContext.getTypesOfAllNodes(), analysisContext.getExceptions());
     }
+
+    /**
+     * Method bodies are only deferred when they can be analyzed concurrently or reused from the cache: telling which
+     * bodies can be deferred costs a walk of each of them, that a single-threaded pool does not win back.
+     */
+    private boolean defersMethodBodies() {
+        return pool.getParallelism() > 1 || methodBodyCache != null;
+    }
+
+    private void analyzeMethodBodies() {
+        List<AnalysisContext.DeferredMethodBody> methodBodies = analysisContext.getDeferredMethodBodies();
+        List<AnalysisContext> forks = new ArrayList<>(methodBodies.size());
+        List<Callable<Void>> tasks = new ArrayList<>(methodBodies.size());
+
+        for (AnalysisContext.DeferredMethodBody methodBody : methodBodies) {
+            AnalysisContext fork = analysisContext.fork(methodBody);
+            forks.add(fork);
+
+            if (methodBodyCache == null) {
+                analysisContext.index(methodBody.getStatements());
+                tasks.add(() -> analyzeMethodBody(methodBody, fork));
+                continue;
+            }
+
+            MethodBodyCache.Lookup lookup = methodBodyCache.lookup(methodBody, analysisContext);
+
+            if (!methodBodyCache.reuse(lookup, methodBody, analysisContext)) {
+                analysisContext.index(methodBody.getStatements());
+                tasks.add(() -> {
+                    analyzeMethodBody(methodBody, fork);
+                    methodBodyCache.store(lookup, methodBody, fork);
+                    return null;
+                });
+            }
+        }
+
+        if (tasks.size() == 1) {
+            call(tasks.get(0));
+        } else if (!tasks.isEmpty()) {
+            invokeAll(tasks);
+        }
+
+        analysisContext.merge(forks);
+
+        if (methodBodyCache != null) {
+            methodBodyCache.endAnalysis();
+        }
+    }
+
+    private static Void analyzeMethodBody(AnalysisContext.DeferredMethodBody methodBody, AnalysisContext fork) {
+        ParseTreeWalker.DEFAULT.walk(new SemanticAnalysisListener(fork), methodBody.getStatements());
+        return null;
+    }
+
+    private static void call(Callable<Void> task) {
+        try {
+            task.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void invokeAll(List<Callable<Void>> tasks) {
+        for (Future<Void> future : pool.invokeAll(tasks)) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while analyzing method bodies", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
 }
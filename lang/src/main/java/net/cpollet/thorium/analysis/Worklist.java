@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Nodes whose type must be inferred again because a node, symbol or method they depend on got its type. Nodes are
+ * walked again in the order they were added, each node being pending at most once. Nodes added while the worklist is
+ * being drained are walked by the same drain, so that the propagation of a type along a chain of dependencies is a
+ * loop rather than a recursion.
+ *
+ * @author Christophe Pollet
+ */
+public class Worklist {
+    private final ParseTreeWalker walker;
+    private final Deque<ParserRuleContext> pendingNodes;
+    private final Set<ParserRuleContext> pendingNodesSet;
+    private boolean draining;
+
+    public Worklist() {
+        this(ParseTreeWalker.DEFAULT);
+    }
+
+    public Worklist(ParseTreeWalker walker) {
+        this.walker = walker;
+        this.pendingNodes = new ArrayDeque<>();
+        this.pendingNodesSet = Collections.newSetFromMap(new IdentityHashMap<>());
+    }
+
+    public void add(ParserRuleContext node) {
+        if (pendingNodesSet.add(node)) {
+            pendingNodes.add(node);
+        }
+    }
+
+    /**
+     * Walks the pending nodes with parseTreeListener until none is left. Does nothing when called while draining.
+     */
+    public void drain(ParseTreeListener parseTreeListener) {
+        if (draining) {
+            return;
+        }
+
+        draining = true;
+
+        try {
+            while (!pendingNodes.isEmpty()) {
+                ParserRuleContext node = pendingNodes.poll();
+                pendingNodesSet.remove(node);
+
+                walker.walk(parseTreeListener, node);
+            }
+        } finally {
+            draining = false;
+        }
+    }
+
+    public boolean isEmpty() {
+        return pendingNodes.isEmpty();
+    }
+}
@@ -26,15 +26,13 @@ import net.cpollet.thorium.antlr.ThoriumParser;
 import net.cpollet.thorium.data.method.MethodTable;
 import net.cpollet.thorium.data.symbol.SymbolTable;
 import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.types.TypeSet;
 import net.cpollet.thorium.types.Types;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeListener;
 
-import java.util.Arrays;
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
 
 /**
  * @author Christophe Pollet
@@ -74,6 +72,13 @@ public abstract class BaseListener {
         return analysisContext.getSymbolTable();
     }
 
+    /**
+     * Returns the scope ctx was found in. Observers walk nodes again later, when the current scope may be another one.
+     */
+    protected SymbolTable<Symbol> getSymbolTable(ParseTree ctx) {
+        return analysisContext.getSymbolTable(ctx);
+    }
+
     protected List<Symbol> getSymbols() {
         return analysisContext.getSymbols();
     }
@@ -118,31 +123,37 @@ public abstract class BaseListener {
         methodObserverRegistry.notifyObservers(observable, parseTreeListener);
     }
 
-    protected void setNodeTypes(ParseTree ctx, Set<Type> types) {
+    /**
+     * @param types a {@link TypeSet}
+     */
+    protected void setNodeTypes(ParseTree ctx, int types) {
         analysisContext.setNodeTypes(ctx, types);
     }
 
-    protected Set<Type> getNodeTypes(ParseTree ctx) {
+    /**
+     * @return a {@link TypeSet}
+     */
+    protected int getNodeTypes(ParseTree ctx) {
         return analysisContext.getNodeTypes(ctx);
     }
 
     protected Type getNodeType(ParserRuleContext ctx) {
-        Set<Type> possibleTypes = getNodeTypes(ctx);
+        int possibleTypes = getNodeTypes(ctx);
 
-        if (possibleTypes.size() != 1) {
-            analysisContext.addException(InvalidTypeException.ambiguousType(ctx.getStart(), possibleTypes));
+        if (TypeSet.size(possibleTypes) != 1) {
+            analysisContext.addException(InvalidTypeException.ambiguousType(ctx.getStart(), TypeSet.toList(possibleTypes)));
             return Types.NULLABLE_VOID;
         }
 
-        return possibleTypes.iterator().next();
+        return TypeSet.single(possibleTypes);
     }
 
     protected void inferNodeTypes(ParserRuleContext parent, ParserRuleContext child) {
-        Set<Type> childTypes = getNodeTypes(child);
+        int childTypes = getNodeTypes(child);
 
         analysisContext.setNodeTypes(parent, childTypes);
 
-        if (childTypes.contains(Types.NULLABLE_VOID)) {
+        if (TypeSet.contains(childTypes, Types.NULLABLE_VOID)) {
             nodeObserverRegistry.registerObserver(parent, child);
         } else {
             nodeObserverRegistry.notifyObservers(parent, parseTreeListener);
@@ -160,7 +171,7 @@ public abstract class BaseListener {
     protected void inferNodeType(ParserRuleContext parent, ParserRuleContext child) {
         Type childType = getNodeType(child);
 
-        analysisContext.setNodeTypes(parent, asSet(childType));
+        analysisContext.setNodeTypes(parent, TypeSet.of(childType));
 
         if (childType == Types.NULLABLE_VOID) {
             nodeObserverRegistry.registerObserver(parent, child);
@@ -194,7 +205,7 @@ public abstract class BaseListener {
             symbol.setType(symbolType);
         }
 
-        analysisContext.setNodeTypes(ctx, asSet(symbol.getType()));
+        analysisContext.setNodeTypes(ctx, TypeSet.of(symbol.getType()));
 
         if (symbol.getType() != Types.NULLABLE_VOID) {
             nodeObserverRegistry.notifyObservers(ctx, parseTreeListener);
@@ -202,10 +213,6 @@ public abstract class BaseListener {
         }
     }
 
-    protected static Set<Type> asSet(Type... types) {
-        return new HashSet<>(Arrays.asList(types));
-    }
-
     private Type findSymbolType(ParserRuleContext ctx, ThoriumParser.TypeContext typeCtx, ThoriumParser.ExpressionContext expressionCtx) {
         Type symbolType = Types.NULLABLE_VOID;
 
@@ -20,6 +20,7 @@ import net.cpollet.thorium.analysis.AnalysisContext;
 import net.cpollet.thorium.analysis.exceptions.InvalidTypeException;
 import net.cpollet.thorium.antlr.ThoriumParser;
 import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.types.TypeSet;
 import net.cpollet.thorium.types.Types;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTreeListener;
@@ -45,7 +46,7 @@ public class ConditionalStatementsListener extends BaseListener {
 
         // conditional statements are always nullable, as we are not sure they will actually by executed and thus that
         // they will return an actual non-null value...
-        setNodeTypes(ctx, asSet(getNodeType(ctx).nullable()));
+        setNodeTypes(ctx, TypeSet.of(getNodeType(ctx).nullable()));
 
         Type type = getNodeType(conditionCtx);
 
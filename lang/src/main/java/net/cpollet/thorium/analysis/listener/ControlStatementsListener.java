@@ -21,15 +21,11 @@ import net.cpollet.thorium.analysis.data.symbol.Symbol;
 import net.cpollet.thorium.analysis.exceptions.InvalidTypeException;
 import net.cpollet.thorium.antlr.ThoriumParser;
 import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.types.TypeSet;
 import net.cpollet.thorium.types.Types;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTreeListener;
 
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.stream.Collectors;
-
 /**
  * @author Christophe Pollet
  */
@@ -51,17 +47,17 @@ public class ControlStatementsListener extends BaseListener {
             addException(InvalidTypeException.invalidType(ctx.expression().getStart(), Types.BOOLEAN, conditionType));
         }
 
-        Set<Type> leftBranchTypes = getNodeTypes(ctx.statements());
-        if (leftBranchTypes.contains(Types.NULLABLE_VOID)) {
+        int leftBranchTypes = getNodeTypes(ctx.statements());
+        if (TypeSet.contains(leftBranchTypes, Types.NULLABLE_VOID)) {
             registerNodeObserver(ctx, ctx.statements());
         } else {
             notifyNodeObservers(ctx);
         }
 
-        Set<Type> rightBranchTypes = Collections.emptySet();
+        int rightBranchTypes = TypeSet.EMPTY;
         if (ctx.elseStatement() != null) {
             rightBranchTypes = getNodeTypes(ctx.elseStatement());
-            if (leftBranchTypes.contains(Types.NULLABLE_VOID)) {
+            if (TypeSet.contains(leftBranchTypes, Types.NULLABLE_VOID)) {
                 registerNodeObserver(ctx, ctx.elseStatement());
             } else {
                 notifyNodeObservers(ctx);
@@ -69,34 +65,18 @@ public class ControlStatementsListener extends BaseListener {
         }
 
         // Compute the intersection and remove from each branch the common types
-        Set<Type> bothBranchTypes = intersect(leftBranchTypes, rightBranchTypes);
-        leftBranchTypes.removeAll(bothBranchTypes);
-        rightBranchTypes.removeAll(bothBranchTypes);
+        int bothBranchTypes = leftBranchTypes & rightBranchTypes;
+        leftBranchTypes &= ~bothBranchTypes;
+        rightBranchTypes &= ~bothBranchTypes;
 
         // Types appearing on left or right branches are nullable, as we are unsure about the branch's execution
-        leftBranchTypes = leftBranchTypes.stream().map(Type::nullable).collect(Collectors.toSet());
-        rightBranchTypes = rightBranchTypes.stream().map(Type::nullable).collect(Collectors.toSet());
-
-        Set<Type> possibleTypes = new HashSet<>(bothBranchTypes.size() + leftBranchTypes.size() + rightBranchTypes.size());
-        possibleTypes.addAll(leftBranchTypes);
-        possibleTypes.addAll(rightBranchTypes);
-        possibleTypes.addAll(bothBranchTypes);
+        int possibleTypes = TypeSet.nullable(leftBranchTypes) | TypeSet.nullable(rightBranchTypes) | bothBranchTypes;
 
         setNodeTypes(ctx, possibleTypes);
 
         unwrapSymbolTable();
     }
 
-    private static <T> Set<T> intersect(Set<T> left, Set<T> right) {
-        if (left.isEmpty() || right.isEmpty()) {
-            return Collections.emptySet();
-        }
-
-        Set<T> result = new HashSet<>(left);
-        result.retainAll(right);
-        return result;
-    }
-
     public void enterElseStatement() {
         wrapSymbolTable();
     }
@@ -136,15 +116,15 @@ public class ControlStatementsListener extends BaseListener {
             addException(InvalidTypeException.invalidType(exprCtx.getStart(), Types.BOOLEAN, conditionType));
         }
 
-        Set<Type> possibleTypes = getNodeTypes(stmtsCtx);
-        if (possibleTypes.contains(Types.NULLABLE_VOID)) {
+        int possibleTypes = getNodeTypes(stmtsCtx);
+        if (TypeSet.contains(possibleTypes, Types.NULLABLE_VOID)) {
             registerNodeObserver(ctx, stmtsCtx);
         } else {
             notifyNodeObservers(ctx);
         }
 
         // we are not sure a loop will be executed once, so types are always nullable...
-        possibleTypes = possibleTypes.stream().map(Type::nullable).collect(Collectors.toSet());
+        possibleTypes = TypeSet.nullable(possibleTypes);
 
         setNodeTypes(ctx, possibleTypes);
     }
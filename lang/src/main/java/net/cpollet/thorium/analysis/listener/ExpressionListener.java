@@ -25,6 +25,7 @@ import net.cpollet.thorium.antlr.ThoriumParser;
 import net.cpollet.thorium.data.method.Method;
 import net.cpollet.thorium.data.method.MethodNotFoundException;
 import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.types.TypeSet;
 import net.cpollet.thorium.types.Types;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.Token;
@@ -33,7 +34,6 @@ import org.antlr.v4.runtime.tree.ParseTreeListener;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
@@ -53,10 +53,10 @@ public class ExpressionListener extends BaseListener {
 
         if (type == Types.NULLABLE_VOID) {
             registerNodeObserver(ctx, ctx.expression());
-            setNodeTypes(ctx, asSet(Types.NULLABLE_VOID));
+            setNodeTypes(ctx, TypeSet.of(Types.NULLABLE_VOID));
         } else {
             Type resultType = inferMethodType(ctx.getStart(), ctx.op.getText(), type);
-            setNodeTypes(ctx, asSet(resultType));
+            setNodeTypes(ctx, TypeSet.of(resultType));
             notifyNodeObservers(ctx);
         }
     }
@@ -77,10 +77,10 @@ public class ExpressionListener extends BaseListener {
         }
 
         if (leftType == Types.NULLABLE_VOID || rightType == Types.NULLABLE_VOID) {
-            setNodeTypes(ctx, asSet(Types.NULLABLE_VOID));
+            setNodeTypes(ctx, TypeSet.of(Types.NULLABLE_VOID));
         } else {
             Type resultType = inferMethodType(ctx.getStart(), operator, leftType, rightType);
-            setNodeTypes(ctx, asSet(resultType));
+            setNodeTypes(ctx, TypeSet.of(resultType));
             notifyNodeObservers(ctx);
         }
     }
@@ -114,44 +114,44 @@ public class ExpressionListener extends BaseListener {
         Type leftType = getNodeType(ctx.identifier());
         Type rightType = getNodeType(ctx.expression());
 
-        Symbol symbol = getSymbolTable().lookup(ctx.identifier().getText());
+        Symbol symbol = getSymbolTable(ctx).lookup(ctx.identifier().getText());
 
         if (!symbol.isWritable()) {
             addException(InvalidAssignmentException.build(ctx.start));
-            setNodeTypes(ctx, asSet(Types.NULLABLE_VOID));
+            setNodeTypes(ctx, TypeSet.of(Types.NULLABLE_VOID));
             return;
         }
 
         symbol.lock();
 
         if (rightType == Types.NULLABLE_VOID) {
-            setNodeTypes(ctx, asSet(Types.NULLABLE_VOID));
+            setNodeTypes(ctx, TypeSet.of(Types.NULLABLE_VOID));
             registerNodeObserver(ctx, ctx.expression());
             return;
         }
 
         if (leftType == Types.NULLABLE_VOID) {
             symbol.setType(rightType.nullable());
-            setNodeTypes(ctx, asSet(rightType.nullable()));
+            setNodeTypes(ctx, TypeSet.of(rightType.nullable()));
             notifySymbolObservers(symbol);
             notifyNodeObservers(ctx);
         } else if (rightType.isAssignableTo(leftType)) {
-            setNodeTypes(ctx, asSet(leftType));
+            setNodeTypes(ctx, TypeSet.of(leftType));
             notifySymbolObservers(symbol);
             notifyNodeObservers(ctx);
         } else {
             addException(InvalidTypeException.notCompatible(ctx.getStart(), rightType, leftType));
-            setNodeTypes(ctx, asSet(Types.NULLABLE_VOID));
+            setNodeTypes(ctx, TypeSet.of(Types.NULLABLE_VOID));
         }
     }
 
 
     public void exitBlockExpression(ThoriumParser.BlockExpressionContext ctx) {
-        Set<Type> possibleTypes = getNodeTypes(ctx.block());
+        int possibleTypes = getNodeTypes(ctx.block());
 
-        if (possibleTypes.size() > 1) {
-            addException(InvalidTypeException.ambiguousType(ctx.getStart(), possibleTypes));
-            setNodeTypes(ctx, asSet(Types.NULLABLE_VOID));
+        if (TypeSet.size(possibleTypes) > 1) {
+            addException(InvalidTypeException.ambiguousType(ctx.getStart(), TypeSet.toList(possibleTypes)));
+            setNodeTypes(ctx, TypeSet.of(Types.NULLABLE_VOID));
             return;
         }
 
@@ -165,7 +165,7 @@ public class ExpressionListener extends BaseListener {
                 .anyMatch(e -> e.nonNullable() == Types.VOID);
 
         if (someParameterTypesAreNotResolved) {
-            setNodeTypes(ctx, asSet(Types.VOID));
+            setNodeTypes(ctx, TypeSet.of(Types.VOID));
             return;
         }
 
@@ -173,11 +173,11 @@ public class ExpressionListener extends BaseListener {
         try {
             Method method = getMethodTable().lookup(methodName, Types.VOID, parameterTypes);
 
-            setNodeTypes(ctx, asSet(method.getMethodSignature().getReturnType()));
+            setNodeTypes(ctx, TypeSet.of(method.getMethodSignature().getReturnType()));
             notifyNodeObservers(ctx);
         } catch (MethodNotFoundException e) {
             registerMethodObserver(ctx, methodName);
-            setNodeTypes(ctx, asSet(Types.NULLABLE_VOID));
+            setNodeTypes(ctx, TypeSet.of(Types.NULLABLE_VOID));
         }
     }
 
@@ -20,6 +20,7 @@ import net.cpollet.thorium.analysis.AnalysisContext;
 import net.cpollet.thorium.analysis.exceptions.InvalidTypeException;
 import net.cpollet.thorium.antlr.ThoriumParser;
 import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.types.TypeSet;
 import net.cpollet.thorium.types.Types;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTreeListener;
@@ -36,26 +37,30 @@ public class MiscListener extends BaseListener {
         storeSymbolTable(ctx);
     }
 
-    public void exitCompilationUnit() {
-        getSymbols().parallelStream()
+    /**
+     * Reports the symbols whose type could not be inferred. Must be called once the whole tree was analyzed.
+     */
+    public void checkSymbolTypes() {
+        getSymbols().stream()
                 .filter(symbol -> symbol.getType() == Types.NULLABLE_VOID)
                 .forEach(symbol -> addException(InvalidTypeException.typeExpected(symbol.getToken())));
     }
 
-    // TODO not the best way to deduce types...
     public void exitType(ThoriumParser.TypeContext ctx) {
+        setNodeTypes(ctx, TypeSet.of(decodeType(ctx)));
+    }
+
+    // TODO not the best way to deduce types...
+    public static Type decodeType(ThoriumParser.TypeContext ctx) {
         Type.Nullable nullable = ctx.nullable != null ? Type.Nullable.YES : Type.Nullable.NO;
 
         switch (ctx.UCFirstIdentifier().getText()) {
             case "Integer":
-                setNodeTypes(ctx, asSet(Types.get(Types.INTEGER, nullable)));
-                break;
+                return Types.get(Types.INTEGER, nullable);
             case "Float":
-                setNodeTypes(ctx, asSet(Types.get(Types.FLOAT, nullable)));
-                break;
+                return Types.get(Types.FLOAT, nullable);
             case "Boolean":
-                setNodeTypes(ctx, asSet(Types.get(Types.BOOLEAN, nullable)));
-                break;
+                return Types.get(Types.BOOLEAN, nullable);
             default:
                 throw new IllegalStateException("Invalid type");
         }
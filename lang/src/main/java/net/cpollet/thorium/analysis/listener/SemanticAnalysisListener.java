@@ -18,10 +18,12 @@ package net.cpollet.thorium.analysis.listener;
 
 import net.cpollet.thorium.analysis.AnalysisContext;
 import net.cpollet.thorium.analysis.ObserverRegistry;
+import net.cpollet.thorium.analysis.Worklist;
 import net.cpollet.thorium.analysis.data.symbol.Symbol;
 import net.cpollet.thorium.antlr.ThoriumBaseListener;
 import net.cpollet.thorium.antlr.ThoriumParser;
 import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
 /**
  * @author Christophe Pollet
@@ -35,10 +37,18 @@ public class SemanticAnalysisListener extends ThoriumBaseListener {
     private final MiscListener miscListener;
 
     public SemanticAnalysisListener(AnalysisContext context) {
-        ObserverRegistry<ParserRuleContext> nodeObserverRegistry = new ObserverRegistry<>(ObserverRegistry.ObservableLookupStrategy.IDENTITY);
-        ObserverRegistry<Symbol> symbolObserverRegistry = new ObserverRegistry<>(ObserverRegistry.ObservableLookupStrategy.IDENTITY);
+        this(context, ParseTreeWalker.DEFAULT);
+    }
+
+    /**
+     * @param walker the walker used to walk again the nodes whose type must be inferred again
+     */
+    public SemanticAnalysisListener(AnalysisContext context, ParseTreeWalker walker) {
+        Worklist worklist = new Worklist(walker);
+        ObserverRegistry<ParserRuleContext> nodeObserverRegistry = new ObserverRegistry<>(ObserverRegistry.ObservableLookupStrategy.IDENTITY, worklist);
+        ObserverRegistry<Symbol> symbolObserverRegistry = new ObserverRegistry<>(ObserverRegistry.ObservableLookupStrategy.IDENTITY, worklist);
         // TODO should not be on String but on MethodSignature...
-        ObserverRegistry<String> methodObserverRegistry = new ObserverRegistry<>(ObserverRegistry.ObservableLookupStrategy.EQUALITY);
+        ObserverRegistry<String> methodObserverRegistry = new ObserverRegistry<>(ObserverRegistry.ObservableLookupStrategy.EQUALITY, worklist);
 
         BaseListener.Observers observers = new BaseListener.Observers(nodeObserverRegistry, symbolObserverRegistry, methodObserverRegistry);
 
@@ -55,9 +65,12 @@ public class SemanticAnalysisListener extends ThoriumBaseListener {
         miscListener.enterEveryRule(ctx);
     }
 
-    @Override
-    public void exitCompilationUnit(ThoriumParser.CompilationUnitContext ctx) {
-        miscListener.exitCompilationUnit();
+    /**
+     * Reports the symbols whose type could not be inferred. Must be called once the whole tree was analyzed, method
+     * bodies included.
+     */
+    public void checkSymbolTypes() {
+        miscListener.checkSymbolTypes();
     }
 
     @Override
@@ -259,6 +272,16 @@ public class SemanticAnalysisListener extends ThoriumBaseListener {
 
     //endregion
 
+    @Override
+    public void enterMethodDefinition(ThoriumParser.MethodDefinitionContext ctx) {
+        statementsListener.enterMethodDefinition();
+    }
+
+    @Override
+    public void exitFormalParameter(ThoriumParser.FormalParameterContext ctx) {
+        statementsListener.exitFormalParameter(ctx);
+    }
+
     @Override
     public void exitMethodDefinition(ThoriumParser.MethodDefinitionContext ctx) {
         statementsListener.exitMethodDefinition(ctx);// TODO move this in another class
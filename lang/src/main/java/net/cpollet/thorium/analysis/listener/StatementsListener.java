@@ -21,6 +21,7 @@ import net.cpollet.thorium.analysis.data.symbol.Symbol;
 import net.cpollet.thorium.antlr.ThoriumParser;
 import net.cpollet.thorium.data.method.ParameterSignature;
 import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.types.TypeSet;
 import net.cpollet.thorium.types.Types;
 import org.antlr.v4.runtime.tree.ParseTreeListener;
 
@@ -72,7 +73,7 @@ public class StatementsListener extends BaseListener {
         } else if (ctx.variableOrConstantDeclarationStatement() != null) {
             inferNodeTypes(ctx, ctx.variableOrConstantDeclarationStatement());
         } else if (ctx.methodDefinition() != null || ";".equals(ctx.getText())) {
-            setNodeTypes(ctx, asSet(Types.NULLABLE_VOID));
+            setNodeTypes(ctx, TypeSet.of(Types.NULLABLE_VOID));
         } else {
             throw new IllegalStateException();
         }
@@ -88,7 +89,17 @@ public class StatementsListener extends BaseListener {
         getSymbolTable().lookup(ctx.UCIdentifier().getText()).lock();
     }
 
+    public void enterMethodDefinition() {
+        wrapSymbolTable();
+    }
+
+    public void exitFormalParameter(ThoriumParser.FormalParameterContext ctx) {
+        registerSymbol(Symbol.SymbolKind.VARIABLE, ctx.LCFirstIdentifier().getText(), getNodeType(ctx.type()), ctx);
+    }
+
     public void exitMethodDefinition(ThoriumParser.MethodDefinitionContext ctx) {
+        unwrapSymbolTable();
+
         String methodName = ctx.methodName().getText();
         Type returnType = getNodeType(ctx.type());
         List<ParameterSignature> formalParameters = extractParameterSignatures(ctx);
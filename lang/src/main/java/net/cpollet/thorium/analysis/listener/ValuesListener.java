@@ -20,6 +20,7 @@ import net.cpollet.thorium.analysis.AnalysisContext;
 import net.cpollet.thorium.analysis.data.symbol.Symbol;
 import net.cpollet.thorium.analysis.exceptions.InvalidSymbolException;
 import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.types.TypeSet;
 import net.cpollet.thorium.types.Types;
 import org.antlr.v4.runtime.ParserRuleContext;
 import org.antlr.v4.runtime.tree.ParseTreeListener;
@@ -33,15 +34,15 @@ public class ValuesListener extends BaseListener {
     }
 
     public void exitBooleanLiteral(ThoriumParser.BooleanLiteralContext ctx) {
-        setNodeTypes(ctx, asSet(Types.BOOLEAN));
+        setNodeTypes(ctx, TypeSet.of(Types.BOOLEAN));
     }
 
     public void exitIntegerLiteral(ThoriumParser.IntegerLiteralContext ctx) {
-        setNodeTypes(ctx, asSet(Types.INTEGER));
+        setNodeTypes(ctx, TypeSet.of(Types.INTEGER));
     }
 
     public void exitFloatLiteral(ThoriumParser.FloatLiteralContext ctx) {
-        setNodeTypes(ctx, asSet(Types.FLOAT));
+        setNodeTypes(ctx, TypeSet.of(Types.FLOAT));
     }
 
     public void exitIdentifierLiteral(ThoriumParser.IdentifierLiteralContext ctx) {
@@ -53,13 +54,13 @@ public class ValuesListener extends BaseListener {
     }
 
     private void exitVariableOrConstantName(ParserRuleContext ctx, String name, Symbol.SymbolKind kind) {
-        if (!getSymbolTable().isDefined(name)) {
+        if (!getSymbolTable(ctx).isDefined(name)) {
             addException(InvalidSymbolException.identifierNotFound(ctx.getStart(), name));
             registerSymbol(kind, name, Types.NULLABLE_VOID, ctx);
         }
 
-        Symbol symbol = getSymbolTable().lookup(name);
-        setNodeTypes(ctx, asSet(symbol.getType()));
+        Symbol symbol = getSymbolTable(ctx).lookup(name);
+        setNodeTypes(ctx, TypeSet.of(symbol.getType()));
 
         if (symbol.getType() == Types.NULLABLE_VOID) {
             registerSymbolObserver(ctx, symbol);
@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.data.method;
+
+import net.cpollet.thorium.types.Type;
+
+import java.util.Arrays;
+
+/**
+ * Caches the methods resolved at one call site, keyed on the identity of the {@link MethodTable}, its version and the
+ * target and parameter types. Once warm, a lookup compares a few references and never builds a cache key.
+ * <p>
+ * The cache is monomorphic on first use and becomes polymorphic up to {@link #MAX_ENTRIES} entries. When more type
+ * combinations show up, the site is megamorphic and every lookup goes to the {@link MethodTable}, until a method is
+ * added to the table or another table is used: the site then starts caching again. Entries are
+ * immutable and the entries array is replaced as a whole, so concurrent lookups see either the old or the new array.
+ *
+ * @author Christophe Pollet
+ */
+public class InlineCache {
+    public static final int MAX_ENTRIES = 4;
+
+    private static final Entry[] EMPTY = new Entry[0];
+
+    private final String name;
+    private volatile Entry[] entries;
+    private volatile Entry overflow;
+
+    public InlineCache(String name) {
+        this.name = name;
+        this.entries = EMPTY;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Returns the method matching the target and parameter types. Throws {@link MethodNotFoundException} when there is
+     * no such method in methodTable.
+     */
+    public Method lookup(MethodTable methodTable, Type targetType, Type... parameterTypes) {
+        Entry[] current = entries;
+
+        for (Entry entry : current) {
+            if (entry.matches(methodTable, targetType, parameterTypes)) {
+                return entry.method;
+            }
+        }
+
+        Method method = methodTable.lookup(name, targetType, Arrays.asList(parameterTypes));
+
+        if (!isMegamorphic(methodTable)) {
+            update(current, new Entry(methodTable, targetType, parameterTypes.clone(), method));
+        }
+
+        return method;
+    }
+
+    /**
+     * Adds entry to the cache. Entries resolved against another method table, or against an older version of the
+     * same one, are dropped.
+     */
+    private void update(Entry[] current, Entry entry) {
+        Entry[] updated = new Entry[current.length + 1];
+        int size = 0;
+
+        for (Entry existing : current) {
+            if (existing.methodTable == entry.methodTable && existing.isValid()) {
+                updated[size++] = existing;
+            }
+        }
+
+        if (size == MAX_ENTRIES) {
+            overflow = entry;
+            entries = EMPTY;
+            return;
+        }
+
+        updated[size++] = entry;
+        entries = Arrays.copyOf(updated, size);
+        overflow = null;
+    }
+
+    /**
+     * Tells whether the site became megamorphic for the current version of methodTable.
+     */
+    private boolean isMegamorphic(MethodTable methodTable) {
+        Entry current = overflow;
+        return current != null && current.methodTable == methodTable && current.isValid();
+    }
+
+    public boolean isMegamorphic() {
+        Entry current = overflow;
+        return current != null && current.isValid();
+    }
+
+    /**
+     * Returns the number of cached entries.
+     */
+    public int size() {
+        return entries.length;
+    }
+
+    private static class Entry {
+        private final MethodTable methodTable;
+        private final int version;
+        private final Type targetType;
+        private final Type[] parameterTypes;
+        private final Method method;
+
+        private Entry(MethodTable methodTable, Type targetType, Type[] parameterTypes, Method method) {
+            this.methodTable = methodTable;
+            this.version = methodTable.getVersion();
+            this.targetType = targetType;
+            this.parameterTypes = parameterTypes;
+            this.method = method;
+        }
+
+        private boolean isValid() {
+            return version == methodTable.getVersion();
+        }
+
+        private boolean matches(MethodTable methodTable, Type targetType, Type[] parameterTypes) {
+            if (this.methodTable != methodTable || this.targetType != targetType || !isValid()) {
+                return false;
+            }
+
+            if (this.parameterTypes.length != parameterTypes.length) {
+                return false;
+            }
+
+            for (int i = 0; i < parameterTypes.length; i++) {
+                if (this.parameterTypes[i] != parameterTypes[i]) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.data.method;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Configures the memoization of pure methods and counts its cache hits, misses and evictions. Each memoized method
+ * gets its own cache, holding at most {@code maximumSize} results; the least recently used result is evicted first.
+ * <p>
+ * Memoization is opt-in: set it on the {@link net.cpollet.thorium.execution.ExecutionContext} before execution. The
+ * methods memoized are the ones found pure by {@link net.cpollet.thorium.analysis.PurityAnalyser}.
+ *
+ * @author Christophe Pollet
+ */
+public class Memoization {
+    private final int maximumSize;
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public Memoization(int maximumSize) {
+        if (maximumSize < 1) {
+            throw new IllegalArgumentException("maximumSize must be positive, got " + maximumSize);
+        }
+
+        this.maximumSize = maximumSize;
+    }
+
+    public MethodBody memoize(MethodBody methodBody) {
+        return new MemoizedMethodBody(methodBody, this);
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    void recordHit() {
+        hits.incrementAndGet();
+    }
+
+    void recordMiss() {
+        misses.incrementAndGet();
+    }
+
+    void recordEviction() {
+        evictions.incrementAndGet();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @Override
+    public String toString() {
+        return "Memoization(maximumSize: " + maximumSize + ", hits: " + getHits() + ", misses: " + getMisses() + ", evictions: " + getEvictions() + ")";
+    }
+}
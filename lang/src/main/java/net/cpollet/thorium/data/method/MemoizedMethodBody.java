@@ -0,0 +1,107 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.data.method;
+
+import net.cpollet.thorium.values.DirectValue;
+import net.cpollet.thorium.values.Value;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Caches the results of a pure method body, keyed on the values of its parameters. See {@link Memoization}.
+ * <p>
+ * The body is executed outside of the cache's lock, so that a recursive method can look up its own cache.
+ *
+ * @author Christophe Pollet
+ */
+public class MemoizedMethodBody implements MethodBody {
+    private final MethodBody methodBody;
+    private final Memoization memoization;
+    private final Map<List<DirectValue>, DirectValue> cache;
+
+    MemoizedMethodBody(MethodBody methodBody, Memoization memoization) {
+        this.methodBody = methodBody;
+        this.memoization = memoization;
+        this.cache = new LinkedHashMap<List<DirectValue>, DirectValue>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<List<DirectValue>, DirectValue> eldest) {
+                if (size() > memoization.getMaximumSize()) {
+                    memoization.recordEviction();
+                    return true;
+                }
+
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Returns the memoized method body.
+     */
+    public MethodBody getMethodBody() {
+        return methodBody;
+    }
+
+    @Override
+    public Value apply(MethodEvaluationContext evaluationContext) {
+        DirectValue[] parameters = new DirectValue[evaluationContext.getParametersCount()];
+
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = evaluationContext.getParameter(i).value();
+        }
+
+        List<DirectValue> key = Arrays.asList(parameters);
+        DirectValue result;
+
+        synchronized (cache) {
+            result = cache.get(key);
+        }
+
+        if (result != null) {
+            memoization.recordHit();
+            return result;
+        }
+
+        memoization.recordMiss();
+
+        Value value = methodBody.apply(evaluationContext);
+
+        if (value == null) {
+            return null;
+        }
+
+        result = value.value();
+
+        synchronized (cache) {
+            cache.put(key, result);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the number of results currently cached.
+     */
+    public int size() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+}
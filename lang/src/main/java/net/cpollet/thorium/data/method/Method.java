@@ -34,6 +34,10 @@ public class Method {
         return methodSignature;
     }
 
+    public MethodBody getMethodBody() {
+        return methodBody;
+    }
+
     public Value apply(MethodEvaluationContext evaluationContext) {
         return methodBody.apply(evaluationContext);
     }
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.data.method;
+
+import net.cpollet.thorium.types.Type;
+
+import java.util.List;
+
+/**
+ * The {@link MethodTable} lookup cache of the methods of one name. The target and parameter types are packed in a
+ * long, {@link #BITS_PER_TYPE} bits each, the target type in the lowest bits, and the methods are found in an open
+ * addressing table of such keys: a lookup allocates nothing. Methods having more than
+ * {@link #MAX_PACKED_PARAMETERS} parameters are not cached.
+ * <p>
+ * The table is immutable and replaced as a whole when a method is added, so concurrent lookups see either the old or
+ * the new table.
+ *
+ * @author Christophe Pollet
+ */
+final class MethodCache {
+    /**
+     * The key of the types that cannot be packed. No type is coded as 0, so it is also the key of the empty slots.
+     */
+    static final long UNPACKED = 0;
+
+    private static final int BITS_PER_TYPE = 4;
+    private static final int MAX_PACKED_PARAMETERS = Long.SIZE / BITS_PER_TYPE - 1;
+    private static final int INITIAL_CAPACITY = 8;
+
+    private volatile Table table = new Table(new long[INITIAL_CAPACITY], new Method[INITIAL_CAPACITY], 0);
+
+    private static class Table {
+        private final long[] keys;
+        private final Method[] methods;
+        private final int size;
+
+        private Table(long[] keys, Method[] methods, int size) {
+            this.keys = keys;
+            this.methods = methods;
+            this.size = size;
+        }
+    }
+
+    /**
+     * Packs the types in a long, or returns {@link #UNPACKED} when there are too many parameters. The parameters
+     * count is implied by the position of the highest code, since no type is coded as 0.
+     */
+    static long pack(Type targetType, List<Type> parameterTypes) {
+        if (parameterTypes.size() > MAX_PACKED_PARAMETERS) {
+            return UNPACKED;
+        }
+
+        long packed = code(targetType);
+
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            packed |= (long) code(parameterTypes.get(i)) << (BITS_PER_TYPE * (i + 1));
+        }
+
+        return packed;
+    }
+
+    private static int code(Type type) {
+        assert Type.Id.values().length <= 1 << (BITS_PER_TYPE - 2) : "too many type ids to pack";
+
+        return 1 + type.ordinal();
+    }
+
+    /**
+     * Returns the method cached for the packed types, or {@code null}. Nothing is cached for {@link #UNPACKED}.
+     */
+    Method get(long key) {
+        Table current = table;
+        int mask = current.keys.length - 1;
+
+        for (int i = slot(key, mask); current.keys[i] != UNPACKED; i = (i + 1) & mask) {
+            if (current.keys[i] == key) {
+                return current.methods[i];
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Caches the method for the packed types, replacing the method cached for them if any.
+     */
+    synchronized void put(long key, Method method) {
+        if (key == UNPACKED) {
+            return;
+        }
+
+        Table current = table;
+        int capacity = current.keys.length;
+
+        if (2 * (current.size + 1) > capacity) {
+            capacity *= 2;
+        }
+
+        long[] keys = new long[capacity];
+        Method[] methods = new Method[capacity];
+        int size = 1;
+
+        insert(keys, methods, key, method);
+
+        for (int i = 0; i < current.keys.length; i++) {
+            if (current.keys[i] != UNPACKED && current.keys[i] != key) {
+                insert(keys, methods, current.keys[i], current.methods[i]);
+                size++;
+            }
+        }
+
+        table = new Table(keys, methods, size);
+    }
+
+    /**
+     * Inserts the method in the first empty slot from the slot of key, which is not in keys yet.
+     */
+    private static void insert(long[] keys, Method[] methods, long key, Method method) {
+        int mask = keys.length - 1;
+        int i = slot(key, mask);
+
+        while (keys[i] != UNPACKED) {
+            i = (i + 1) & mask;
+        }
+
+        keys[i] = key;
+        methods[i] = method;
+    }
+
+    private static int slot(long key, int mask) {
+        int hash = Long.hashCode(key * 0x9E3779B97F4A7C15L);
+
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+}
@@ -46,4 +46,8 @@ public class MethodEvaluationContext {
     public Value getParameter(int index) {
         return parameters.get(index);
     }
+
+    public int getParametersCount() {
+        return parameters.size();
+    }
 }
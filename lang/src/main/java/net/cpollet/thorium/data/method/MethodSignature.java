@@ -19,11 +19,17 @@ package net.cpollet.thorium.data.method;
 import net.cpollet.thorium.types.Type;
 import net.cpollet.thorium.utils.CollectionUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
-import java.util.stream.Collectors;
 
 /**
+ * Immutable signature of a method. The parameter types and the hash code are computed once, since signatures are
+ * used as keys of the {@link MethodTable} and compared on each method resolution. The parameter names are not part of
+ * the signature's identity.
+ *
  * @author Christophe Pollet
  */
 public class MethodSignature {
@@ -31,12 +37,23 @@ public class MethodSignature {
     private final Type targetType;
     private final Type returnType;
     private final List<ParameterSignature> parameterSignatures;
+    private final Type[] parameterTypes;
+    private final List<Type> parameterTypesList;
+    private final int hash;
 
     public MethodSignature(String name, Type targetType, Type returnType, List<ParameterSignature> parameterSignatures) {
         this.name = name;
         this.targetType = targetType;
         this.returnType = returnType;
-        this.parameterSignatures = parameterSignatures;
+        this.parameterSignatures = Collections.unmodifiableList(new ArrayList<>(parameterSignatures));
+        this.parameterTypes = new Type[parameterSignatures.size()];
+
+        for (int i = 0; i < parameterTypes.length; i++) {
+            parameterTypes[i] = parameterSignatures.get(i).getType();
+        }
+
+        this.parameterTypesList = Collections.unmodifiableList(Arrays.asList(parameterTypes));
+        this.hash = 31 * Objects.hash(name, targetType, returnType) + Arrays.hashCode(parameterTypes);
     }
 
     public String getName() {
@@ -52,9 +69,15 @@ public class MethodSignature {
     }
 
     public List<Type> getParameterTypes() {
-        return parameterSignatures.stream()
-                .map(ParameterSignature::getType)
-                .collect(Collectors.toList());
+        return parameterTypesList;
+    }
+
+    public Type getParameterType(int index) {
+        return parameterTypes[index];
+    }
+
+    public int getParametersCount() {
+        return parameterTypes.length;
     }
 
     public String getParameterName(int index) {
@@ -77,14 +100,15 @@ public class MethodSignature {
         }
 
         MethodSignature that = (MethodSignature) o;
-        return Objects.equals(name, that.name) &&
+        return hash == that.hash &&
+                Objects.equals(name, that.name) &&
                 Objects.equals(targetType, that.targetType) &&
                 Objects.equals(returnType, that.returnType) &&
-                Objects.equals(getParameterTypes(), that.getParameterTypes());
+                Arrays.equals(parameterTypes, that.parameterTypes);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(name, targetType, returnType, getParameterTypes());
+        return hash;
     }
 }
@@ -17,27 +17,32 @@
 package net.cpollet.thorium.data.method;
 
 import net.cpollet.thorium.types.Type;
-import net.cpollet.thorium.utils.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /**
+ * Methods by name and signature. The method tables of the types are shared by all executions, so lookups are safe
+ * from concurrent threads: a lookup miss resolves the method and caches it, and racing misses cache the same method.
+ *
  * @author Christophe Pollet
  */
 public class MethodTable {
-    private Map<String, Map<MethodSignature, MethodBody>> table;
-    private Map<String, Method> cache;
+    private final Map<String, Map<MethodSignature, Method>> table;
+    private final Map<String, MethodCache> caches;
+    private volatile int version;
 
     public MethodTable() {
-        this.table = new HashMap<>();
-        this.cache = new HashMap<>();
+        this.table = new ConcurrentHashMap<>();
+        this.caches = new ConcurrentHashMap<>();
     }
 
     public void put(String name, MethodBody methodBody, Type targetType, Type returnType, Type... parameterTypes) {
@@ -49,38 +54,57 @@ public class MethodTable {
     }
 
     public void put(String name, MethodBody methodBody, Type targetType, Type returnType, List<ParameterSignature> parameterSignatures) {
-        if (table.get(name) == null) {
-            table.put(name, new HashMap<>());
-        }
-
         MethodSignature methodSignature = MethodSignatureBuilder.method(name)
                 .withReturnType(returnType)
                 .withTargetType(targetType)
                 .withParameterSignatures(parameterSignatures)
                 .build();
 
-        table.get(name).put(methodSignature, methodBody);
+        Method method = new Method(methodSignature, methodBody);
 
-        cache.put(getCacheKey(name, targetType, methodSignature.getParameterTypes()), new Method(methodSignature, methodBody));
+        table.computeIfAbsent(name, n -> new ConcurrentHashMap<>()).put(methodSignature, method);
+        version++;
+
+        caches.computeIfAbsent(name, n -> new MethodCache())
+                .put(MethodCache.pack(targetType, methodSignature.getParameterTypes()), method);
     }
 
-    private String getCacheKey(String name, Type targetType, List<Type> parameterTypes) {
-        return targetType.toString() + "." + name + "(" + CollectionUtils.concat(parameterTypes) + ")";
+    /**
+     * Returns a number that changes each time a method is added, used by {@link InlineCache} to drop stale entries.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * Returns the signatures of the methods named name.
+     */
+    public Set<MethodSignature> getSignatures(String name) {
+        Map<MethodSignature, Method> methods = table.get(name);
+
+        if (methods == null) {
+            return Collections.emptySet();
+        }
+
+        return new HashSet<>(methods.keySet());
     }
 
     public Method lookup(String name, Type targetType, List<Type> parameterTypes) {
-        String cacheKey = getCacheKey(name, targetType, parameterTypes);
+        MethodCache methodCache = caches.get(name);
 
-        if (cache.containsKey(cacheKey)) {
-            return cache.get(cacheKey);
+        if (methodCache == null) {
+            throw new MethodNotFoundException("Method not found.", Collections.emptyList());
         }
 
-        Map<MethodSignature, MethodBody> methods = table.get(name);
+        long cacheKey = MethodCache.pack(targetType, parameterTypes);
+        Method cachedMethod = methodCache.get(cacheKey);
 
-        if (methods == null) {
-            methods = Collections.emptyMap();
+        if (cachedMethod != null) {
+            return cachedMethod;
         }
 
+        Map<MethodSignature, Method> methods = table.get(name);
+
         Map<MethodSignature, Integer> scores = new HashMap<>(methods.size());
 
         for (MethodSignature methodSignature : methods.keySet()) {
@@ -88,9 +112,9 @@ public class MethodTable {
         }
 
         MethodSignature signature = getMatch(scores);
-        Method method = new Method(signature, table.get(name).get(signature));
+        Method method = methods.get(signature);
 
-        cache.put(cacheKey, method);
+        methodCache.put(cacheKey, method);
 
         return method;
     }
@@ -111,19 +135,13 @@ public class MethodTable {
             return -1;
         }
 
-        if (signature.getParameterTypes().size() != parameterTypes.size()) {
+        if (signature.getParametersCount() != parameterTypes.size()) {
             return -1;
         }
 
-        Iterator<Type> destinations = signature.getParameterTypes().iterator();
-        Iterator<Type> sources = parameterTypes.iterator();
-
         int parameterTypesScore = 0;
-        while (destinations.hasNext() && sources.hasNext()) {
-            Type destination = destinations.next();
-            Type source = sources.next();
-
-            int score = typeScore(destination, source);
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            int score = typeScore(signature.getParameterType(i), parameterTypes.get(i));
 
             if (score < 0) {
                 return -1;
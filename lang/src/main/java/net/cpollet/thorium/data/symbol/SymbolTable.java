@@ -16,24 +16,27 @@
 
 package net.cpollet.thorium.data.symbol;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 /**
+ * A scope of symbols, nested in its parent's. The symbols map is only allocated once a symbol is inserted, so that
+ * scopes declaring nothing cost no more than the table itself.
+ *
  * @author Christophe Pollet
  */
 public class SymbolTable<T> {
     private final SymbolTable<T> parent;
-    private final Map<String, T> symbols;
+    private Map<String, T> symbols;
 
     public SymbolTable() {
         this.parent = null;
-        this.symbols = new HashMap<>();
     }
 
     public SymbolTable(SymbolTable<T> parent) {
         this.parent = parent;
-        this.symbols = new HashMap<>();
     }
 
     public void updateOrInsert(String name, T symbol) {
@@ -43,13 +46,30 @@ public class SymbolTable<T> {
             table = this;
         }
 
-        table.symbols.put(name, symbol);
+        table.put(name, symbol);
     }
 
     public void insert(String name, T symbol) {
+        put(name, symbol);
+    }
+
+    private void put(String name, T symbol) {
+        if (symbols == null) {
+            symbols = new HashMap<>();
+        }
+
         symbols.put(name, symbol);
     }
 
+    /**
+     * Removes all the symbols of this scope, keeping the parent scope.
+     */
+    public void clear() {
+        if (symbols != null) {
+            symbols.clear();
+        }
+    }
+
     public SymbolTable<T> wrap() {
         return new SymbolTable<>(this);
     }
@@ -63,15 +83,17 @@ public class SymbolTable<T> {
     }
 
     private SymbolTable<T> findTableContaining(String name) {
-        if (symbols.containsKey(name)) {
-            return this;
-        }
+        SymbolTable<T> table = this;
 
-        if (parent == null) {
-            return null;
+        while (table != null) {
+            if (table.symbols != null && table.symbols.containsKey(name)) {
+                return table;
+            }
+
+            table = table.parent;
         }
 
-        return parent.findTableContaining(name);
+        return null;
     }
 
     public boolean isDefined(String name) {
@@ -81,7 +103,18 @@ public class SymbolTable<T> {
     }
 
     public boolean isDefinedInCurrentScope(String name) {
-        return symbols.containsKey(name);
+        return symbols != null && symbols.containsKey(name);
+    }
+
+    /**
+     * Returns the names of the symbols of this scope, excluding those of the parent scopes.
+     */
+    public Set<String> getNames() {
+        if (symbols == null) {
+            return Collections.emptySet();
+        }
+
+        return Collections.unmodifiableSet(symbols.keySet());
     }
 
     public T lookup(String name) {
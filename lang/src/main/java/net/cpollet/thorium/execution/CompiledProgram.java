@@ -0,0 +1,115 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution;
+
+import net.cpollet.thorium.ThrowingErrorListener;
+import net.cpollet.thorium.analysis.AnalysisContext;
+import net.cpollet.thorium.analysis.AnalysisResult;
+import net.cpollet.thorium.analysis.SemanticAnalyser;
+import net.cpollet.thorium.analysis.data.symbol.Symbol;
+import net.cpollet.thorium.analysis.exceptions.ThoriumSemanticException;
+import net.cpollet.thorium.antlr.ThoriumLexer;
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.data.symbol.SymbolTable;
+import org.antlr.v4.runtime.ANTLRInputStream;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+/**
+ * A program parsed, analysed and compiled once, that can then be executed any number of times, from any number of
+ * threads at once. Nothing is retained from an execution: each one gets its own {@link ExecutionContext}, and with it
+ * its own frames, operand stack and methods.
+ *
+ * @author Christophe Pollet
+ */
+public final class CompiledProgram {
+    private final Engine engine;
+    private final Executable executable;
+
+    CompiledProgram(Engine engine, Executable executable) {
+        this.engine = engine;
+        this.executable = executable;
+    }
+
+    /**
+     * Parses, analyses and compiles a compilation unit.
+     *
+     * @throws org.antlr.v4.runtime.misc.ParseCancellationException if the source has syntax errors
+     * @throws ThoriumSemanticException                               if the source has semantic errors
+     */
+    public static CompiledProgram compile(String source, Engine engine) {
+        return compile(source, engine, new SymbolTable<>());
+    }
+
+    /**
+     * Parses, analyses and compiles a compilation unit whose top-level scope is {@code scope}. The symbols already in
+     * scope are the ones the program expects to find in the {@link ExecutionContext} it is executed in; once compiled,
+     * scope also contains the top-level symbols the program defines.
+     *
+     * @throws org.antlr.v4.runtime.misc.ParseCancellationException if the source has syntax errors
+     * @throws ThoriumSemanticException                               if the source has semantic errors
+     */
+    public static CompiledProgram compile(String source, Engine engine, SymbolTable<Symbol> scope) {
+        ParseTree tree = parse(source);
+        AnalysisResult analysisResult = analyze(tree, scope);
+
+        return new CompiledProgram(engine, engine.compile(tree, analysisResult.getNodesTypes()));
+    }
+
+    static AnalysisResult analyze(ParseTree tree, SymbolTable<Symbol> scope) {
+        AnalysisResult analysisResult = new SemanticAnalyser(new AnalysisContext(scope), tree).analyze();
+
+        if (!analysisResult.getExceptions().isEmpty()) {
+            throw new ThoriumSemanticException(analysisResult.getExceptions().size() + " semantic errors occurred.", analysisResult.getExceptions());
+        }
+
+        return analysisResult;
+    }
+
+    static ParseTree parse(String source) {
+        ThoriumLexer lexer = new ThoriumLexer(new ANTLRInputStream(source));
+        lexer.removeErrorListeners();
+        lexer.addErrorListener(ThrowingErrorListener.INSTANCE);
+
+        ThoriumParser parser = new ThoriumParser(new CommonTokenStream(lexer));
+        parser.removeErrorListeners();
+        parser.addErrorListener(ThrowingErrorListener.INSTANCE);
+
+        return parser.compilationUnit();
+    }
+
+    public Engine getEngine() {
+        return engine;
+    }
+
+    /**
+     * Executes the program in a new context and returns it.
+     */
+    public ExecutionContext execute() {
+        ExecutionContext context = ExecutionContext.createEmpty();
+        execute(context);
+
+        return context;
+    }
+
+    /**
+     * Executes the program in {@code context}, which must not be shared with a concurrent execution.
+     */
+    public void execute(ExecutionContext context) {
+        executable.execute(context);
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution;
+
+import net.cpollet.thorium.analysis.ConstantFolder;
+import net.cpollet.thorium.analysis.ConstantFolding;
+import net.cpollet.thorium.analysis.DeclaringScopeAnalyser;
+import net.cpollet.thorium.analysis.PurityAnalyser;
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.execution.bytecode.BytecodeCompiler;
+import net.cpollet.thorium.execution.bytecode.CodeObject;
+import net.cpollet.thorium.execution.bytecode.Interpreter;
+import net.cpollet.thorium.execution.data.symbol.Symbol;
+import net.cpollet.thorium.execution.nodes.Node;
+import net.cpollet.thorium.execution.nodes.NodeCompiler;
+import net.cpollet.thorium.execution.nodes.RootNode;
+import net.cpollet.thorium.generation.jvm.JvmCompiler;
+import net.cpollet.thorium.generation.jvm.JvmProgram;
+import net.cpollet.thorium.generation.jvm.JvmRuntime;
+import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.values.Value;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeProperty;
+
+import java.util.Collections;
+import java.util.Set;
+import java.util.function.IntFunction;
+
+/**
+ * The available execution engines. An engine turns a parse tree into an {@link Executable} that can be run any
+ * number of times. All engines leave the value of a top-level expression on the context's stack.
+ * <p>
+ * All engines but {@link #VISITOR} fold constant expressions with {@link ConstantFolder} first; the types computed
+ * by {@link net.cpollet.thorium.analysis.SemanticAnalyser}, when given, enable more simplifications.
+ * <p>
+ * When the context has a {@link net.cpollet.thorium.data.method.Memoization}, all engines but {@link #JVM}, which
+ * binds most calls at compile time, memoize the methods found pure by {@link PurityAnalyser}.
+ * <p>
+ * Only {@link #VISITOR} executes the calls in tail position in a loop. The other engines use the Java stack for each
+ * call, so the depth of recursion they support is bounded by the stack size of the executing thread.
+ *
+ * @author Christophe Pollet
+ */
+public enum Engine {
+    /**
+     * Walks the parse tree on each execution.
+     */
+    VISITOR {
+        @Override
+        public Executable compile(ParseTree tree, ParseTreeProperty<Type> types) {
+            Set<String> pureMethods = new PurityAnalyser().analyze(tree);
+            Set<ParseTree> declaringScopes = new DeclaringScopeAnalyser().analyze(tree);
+
+            return context -> {
+                context.setPureMethods(pureMethods);
+                new ExecutionVisitor(context, declaringScopes).visit(tree);
+            };
+        }
+    },
+
+    /**
+     * Translates the parse tree once into a tree of {@link Node}s and executes them. Variables live in the slots of
+     * frames; once executed, the top-level variables are copied into the context.
+     */
+    NODES {
+        @Override
+        public Executable compile(ParseTree tree, ParseTreeProperty<Type> types) {
+            RootNode root = new NodeCompiler(fold(tree, types)).compile(tree);
+            Set<String> pureMethods = new PurityAnalyser().analyze(tree);
+
+            return context -> {
+                context.setPureMethods(pureMethods);
+                Value value = root.execute(context);
+
+                if (value != null) {
+                    context.pushStack(value);
+                }
+            };
+        }
+    },
+
+    /**
+     * Compiles the parse tree once into register based bytecode and interprets it. Once executed, the top-level
+     * variables are copied into the context.
+     */
+    BYTECODE {
+        @Override
+        public Executable compile(ParseTree tree, ParseTreeProperty<Type> types) {
+            return compile(compileBytecode(tree, types), new PurityAnalyser().analyze(tree), isExpression(tree));
+        }
+
+        @Override
+        Executable compile(CodeObject program, Set<String> pureMethods, boolean expression) {
+            return context -> {
+                Interpreter interpreter = new Interpreter(context.getMemoization(), pureMethods);
+                Value value = interpreter.run(program);
+
+                exportGlobals(program, interpreter::getGlobal, value, expression, context);
+            };
+        }
+    },
+
+    /**
+     * Compiles the bytecode of {@link #BYTECODE} once more, into a JVM class.
+     */
+    JVM {
+        @Override
+        public Executable compile(ParseTree tree, ParseTreeProperty<Type> types) {
+            return compile(compileBytecode(tree, types), Collections.emptySet(), isExpression(tree));
+        }
+
+        @Override
+        Executable compile(CodeObject program, Set<String> pureMethods, boolean expression) {
+            JvmProgram jvmProgram = new JvmCompiler().compile(program);
+
+            return context -> {
+                JvmRuntime runtime = new JvmRuntime(jvmProgram);
+                Value value = runtime.run();
+
+                exportGlobals(program, runtime::getGlobal, value, expression, context);
+            };
+        }
+    };
+
+    private static ConstantFolding fold(ParseTree tree, ParseTreeProperty<Type> types) {
+        return new ConstantFolder(types).fold(tree);
+    }
+
+    static CodeObject compileBytecode(ParseTree tree, ParseTreeProperty<Type> types) {
+        return new BytecodeCompiler(fold(tree, types)).compile(tree);
+    }
+
+    private static boolean isExpression(ParseTree tree) {
+        return tree instanceof ThoriumParser.ExpressionContext;
+    }
+
+    private static void exportGlobals(CodeObject program, IntFunction<Value> globals, Value value, boolean expression, ExecutionContext context) {
+        for (int register : program.getRootVariables()) {
+            context.updateOrInsertSymbol(new Symbol(program.getVariableName(register), globals.apply(register).value()));
+        }
+
+        context.setLastStatementValue(globals.apply(program.getLastStatementValueRegister()));
+
+        if (expression) {
+            context.pushStack(value);
+        }
+    }
+
+    public Executable compile(ParseTree tree) {
+        return compile(tree, new ParseTreeProperty<>());
+    }
+
+    /**
+     * Compiles tree, whose node types were computed by {@link net.cpollet.thorium.analysis.SemanticAnalyser}.
+     */
+    public abstract Executable compile(ParseTree tree, ParseTreeProperty<Type> types);
+
+    /**
+     * Compiles bytecode produced by {@link BytecodeCompiler}; only supported by the engines executing bytecode.
+     *
+     * @param pureMethods the methods that can be memoized, see {@link PurityAnalyser}
+     * @param expression  whether the bytecode was compiled from an expression, whose value is then pushed on the stack
+     */
+    Executable compile(CodeObject program, Set<String> pureMethods, boolean expression) {
+        throw new UnsupportedOperationException(this + " does not execute bytecode");
+    }
+
+    /**
+     * Returns whether {@link #compile(CodeObject, Set, boolean)} is supported.
+     */
+    public boolean executesBytecode() {
+        return this == BYTECODE || this == JVM;
+    }
+}
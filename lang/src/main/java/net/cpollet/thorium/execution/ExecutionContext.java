@@ -16,6 +16,8 @@
 
 package net.cpollet.thorium.execution;
 
+import net.cpollet.thorium.data.method.InlineCache;
+import net.cpollet.thorium.data.method.Memoization;
 import net.cpollet.thorium.data.method.Method;
 import net.cpollet.thorium.data.method.MethodBody;
 import net.cpollet.thorium.data.method.MethodNotFoundException;
@@ -27,32 +29,54 @@ import net.cpollet.thorium.types.Type;
 import net.cpollet.thorium.types.Types;
 import net.cpollet.thorium.values.Value;
 
-import java.util.Deque;
-import java.util.LinkedList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EmptyStackException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
+ * The symbols, methods and operand stack of an execution. A wrapped context sees the symbols of its parent and shares
+ * its methods and {@link OperandStack}, from which it only pops the values it pushed; the values it leaves on the
+ * stack are dropped when it is unwrapped.
+ * <p>
+ * Contexts are wrapped and unwrapped in LIFO order, once per block or method call: each context keeps the last
+ * context it wrapped and reuses it, cleared, on the next {@link #wrap()} once it was unwrapped. A context must thus
+ * not be used after it is unwrapped.
+ *
  * @author Christophe Pollet
  */
 public class ExecutionContext {
     private final ExecutionContext parentContext;
     private final SymbolTable<Symbol> symbolsTable;
     private final MethodTable methodTable;
-    private final Deque<Value> stack;
+    private final OperandStack stack;
+    private int stackBase;
     private Value lastStatementValue;
+    private Memoization memoization;
+    private Set<String> pureMethods;
+    private ExecutionContext wrappedContext;
+    private boolean wrapped;
 
     private ExecutionContext() {
-        this.stack = new LinkedList<>();
+        this.stack = new OperandStack();
+        this.stackBase = 0;
         this.symbolsTable = new SymbolTable<>();
         this.methodTable = new MethodTable();
         this.parentContext = null;
+        this.pureMethods = Collections.emptySet();
     }
 
     private ExecutionContext(ExecutionContext parentContext) {
-        this.stack = new LinkedList<>();
+        this.stack = parentContext.stack;
+        this.stackBase = stack.size();
         this.symbolsTable = new SymbolTable<>(parentContext.symbolsTable);
         this.methodTable = parentContext.methodTable;
         this.parentContext = parentContext;
+        this.memoization = parentContext.memoization;
+        this.pureMethods = parentContext.pureMethods;
     }
 
     public static ExecutionContext createEmpty() {
@@ -60,16 +84,44 @@ public class ExecutionContext {
     }
 
     public ExecutionContext wrap() {
-        return new ExecutionContext(this);
+        ExecutionContext context = wrappedContext;
+
+        if (context == null || context.wrapped) {
+            context = new ExecutionContext(this);
+            wrappedContext = context;
+        } else {
+            context.reset();
+        }
+
+        context.wrapped = true;
+
+        return context;
+    }
+
+    private void reset() {
+        symbolsTable.clear();
+        stackBase = stack.size();
+        lastStatementValue = null;
+        memoization = parentContext.memoization;
+        pureMethods = parentContext.pureMethods;
     }
 
     public ExecutionContext unwrap() {
         parentContext.lastStatementValue = lastStatementValue;
+        stack.truncate(stackBase);
+        wrapped = false;
 
         return parentContext;
     }
 
+    /**
+     * @throws EmptyStackException if this context has no value on the stack
+     */
     public Value popStack() {
+        if (stack.size() == stackBase) {
+            throw new EmptyStackException();
+        }
+
         return stack.pop();
     }
 
@@ -97,17 +149,64 @@ public class ExecutionContext {
         return symbolsTable.isDefinedInCurrentScope(name);
     }
 
+    /**
+     * Returns whether the symbols defined in this context and in its parents, up to {@code ancestor} included, all
+     * have one of the given names.
+     */
+    public boolean definesOnly(ExecutionContext ancestor, Collection<String> names) {
+        for (ExecutionContext context = this; ; context = context.parentContext) {
+            if (!names.containsAll(context.symbolsTable.getNames())) {
+                return false;
+            }
+
+            if (context == ancestor) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Returns the symbols visible from this context that are defined in it or in its parents, up to {@code ancestor}
+     * included.
+     */
+    public Map<String, Symbol> visibleSymbols(ExecutionContext ancestor) {
+        Map<String, Symbol> symbols = new HashMap<>();
+
+        for (ExecutionContext context = this; ; context = context.parentContext) {
+            for (String name : context.symbolsTable.getNames()) {
+                symbols.putIfAbsent(name, context.symbolsTable.lookup(name));
+            }
+
+            if (context == ancestor) {
+                return symbols;
+            }
+        }
+    }
+
     public void insertMethod(String name, MethodBody methodBody, Type targetType, Type returnType, List<ParameterSignature> parameterSignatures) {
+        if (memoization != null && pureMethods.contains(name)) {
+            methodBody = memoization.memoize(methodBody);
+        }
+
         methodTable.put(name, methodBody, targetType, returnType, parameterSignatures);
     }
 
     public Method lookupMethod(String name, List<Type> parameterTypes) {
-        if (!methodDefined(name, parameterTypes)) {
+        try {
+            return methodTable.lookup(name, Types.VOID, parameterTypes);
+        } catch (MethodNotFoundException e) {
             // TODO SEM implement check in semantic checker
             throw new IllegalStateException("Method not defined");
         }
+    }
 
-        return methodTable.lookup(name, Types.VOID, parameterTypes);
+    public Method lookupMethod(InlineCache inlineCache, Type... parameterTypes) {
+        try {
+            return inlineCache.lookup(methodTable, Types.VOID, parameterTypes);
+        } catch (MethodNotFoundException e) {
+            // TODO SEM implement check in semantic checker
+            throw new IllegalStateException("Method not defined");
+        }
     }
 
     public boolean methodDefined(String name, List<Type> parameterTypes) {
@@ -119,6 +218,29 @@ public class ExecutionContext {
         }
     }
 
+    /**
+     * Enables the memoization of the pure methods inserted from now on. Memoization is disabled by default.
+     */
+    public void setMemoization(Memoization memoization) {
+        this.memoization = memoization;
+    }
+
+    public Memoization getMemoization() {
+        return memoization;
+    }
+
+    /**
+     * Sets the names of the methods that are memoized when inserted, see
+     * {@link net.cpollet.thorium.analysis.PurityAnalyser}.
+     */
+    public void setPureMethods(Set<String> pureMethods) {
+        this.pureMethods = pureMethods;
+    }
+
+    public Set<String> getPureMethods() {
+        return pureMethods;
+    }
+
     public Value getLastStatementValue() {
         return lastStatementValue;
     }
@@ -16,32 +16,93 @@
 
 package net.cpollet.thorium.execution;
 
+import net.cpollet.thorium.analysis.DeclaringScopeAnalyser;
 import net.cpollet.thorium.antlr.ThoriumBaseVisitor;
 import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.data.method.InlineCache;
 import net.cpollet.thorium.data.method.Method;
+import net.cpollet.thorium.data.method.MethodBody;
 import net.cpollet.thorium.data.method.MethodEvaluationContext;
 import net.cpollet.thorium.data.method.MethodSignature;
 import net.cpollet.thorium.data.method.ParameterSignature;
 import net.cpollet.thorium.execution.data.method.NonNativeMethodBody;
+import net.cpollet.thorium.execution.data.method.TailCall;
 import net.cpollet.thorium.execution.data.symbol.Symbol;
+import net.cpollet.thorium.types.Operator;
+import net.cpollet.thorium.types.OperatorTable;
 import net.cpollet.thorium.types.Type;
 import net.cpollet.thorium.types.Types;
 import net.cpollet.thorium.values.DirectValue;
 import net.cpollet.thorium.values.Value;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.antlr.v4.runtime.tree.ParseTreeProperty;
 
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 /**
+ * Executes a parse tree. Blocks, if statements and loops get their own nested context only when they may define
+ * symbols, as found by {@link DeclaringScopeAnalyser}; the others are executed in the enclosing context.
+ *
  * @author Christophe Pollet
  */
 public class ExecutionVisitor extends ThoriumBaseVisitor<Void> {
+    private final ParseTreeProperty<InlineCache> inlineCaches;
+    private final Set<ParseTree> declaringScopes;
+    private Set<ParseTree> tailCalls;
     private ExecutionContext context;
+    private TailCall tailCall;
 
-    public ExecutionVisitor(ExecutionContext context) {
+    /**
+     * @param declaringScopes the nodes in which symbols may be defined, see {@link DeclaringScopeAnalyser}.
+     */
+    public ExecutionVisitor(ExecutionContext context, Set<ParseTree> declaringScopes) {
+        this.context = context;
+        this.declaringScopes = declaringScopes;
+        this.inlineCaches = new ParseTreeProperty<>();
+        this.tailCalls = Collections.emptySet();
+    }
+
+    /**
+     * Visits the statements of a method body in context. The method calls in tailCalls are not executed: the first
+     * one reached is returned, with its parameters evaluated.
+     *
+     * @return the call in tail position reached, or {@code null}
+     */
+    public TailCall visitMethodBody(ExecutionContext context, ThoriumParser.StatementsContext statements, Set<ParseTree> tailCalls) {
         this.context = context;
+        this.tailCalls = tailCalls;
+        this.tailCall = null;
+
+        visit(statements);
+
+        return tailCall;
+    }
+
+    /**
+     * Drops the context and the tail call of the last method body visited, keeping the inline caches only.
+     */
+    public void clear() {
+        this.context = null;
+        this.tailCalls = Collections.emptySet();
+        this.tailCall = null;
+    }
+
+    /**
+     * Returns the inline cache of the call or operator site ctx.
+     */
+    private InlineCache inlineCache(ParseTree ctx, String name) {
+        InlineCache inlineCache = inlineCaches.get(ctx);
+
+        if (inlineCache == null) {
+            inlineCache = new InlineCache(name);
+            inlineCaches.put(ctx, inlineCache);
+        }
+
+        return inlineCache;
     }
 
     //region Statements
@@ -91,17 +152,31 @@ public class ExecutionVisitor extends ThoriumBaseVisitor<Void> {
 
     @Override
     public Void visitStatementsBlock(ThoriumParser.StatementsBlockContext ctx) {
-        visitStatementsInNestedContext(ctx.statements());
+        enterScope(ctx);
+
+        visitStatements(ctx.statements());
+
+        exitScope(ctx);
 
         return null;
     }
 
-    private void visitStatementsInNestedContext(ThoriumParser.StatementsContext ctx) {
-        context = context.wrap();
-
-        visitStatements(ctx);
+    /**
+     * Wraps the context if symbols may be defined in the scope of ctx. Otherwise, only clears the last statement value,
+     * as a nested context would start without one.
+     */
+    private void enterScope(ParseTree ctx) {
+        if (declaringScopes.contains(ctx)) {
+            context = context.wrap();
+        } else {
+            context.setLastStatementValue(null);
+        }
+    }
 
-        context = context.unwrap();
+    private void exitScope(ParseTree ctx) {
+        if (declaringScopes.contains(ctx)) {
+            context = context.unwrap();
+        }
     }
 
     @Override
@@ -167,24 +242,24 @@ public class ExecutionVisitor extends ThoriumBaseVisitor<Void> {
     @Override
     public Void visitMultiplicationExpression(ThoriumParser.MultiplicationExpressionContext ctx) {
         super.visitMultiplicationExpression(ctx);
-        evalBinaryOperator(ctx.op.getText());
+        evalBinaryOperator(Operator.of(ctx.op.getText()));
 
         return null;
     }
 
-    private void evalBinaryOperator(String operator) {
+    private void evalBinaryOperator(Operator operator) {
         Value right = context.popStack();
         Value left = context.popStack();
 
-        Method method = left.type().lookupMethod(operator, Collections.singletonList(right.type()));
+        MethodBody methodBody = OperatorTable.binary(operator, left.type(), right.type());
 
-        context.pushStack(method.apply(new MethodEvaluationContext(context, left, right)));
+        context.pushStack(methodBody.apply(new MethodEvaluationContext(context, left, right)));
     }
 
     @Override
     public Void visitAdditionExpression(ThoriumParser.AdditionExpressionContext ctx) {
         super.visitAdditionExpression(ctx);
-        evalBinaryOperator(ctx.op.getText());
+        evalBinaryOperator(Operator.of(ctx.op.getText()));
 
         return null;
     }
@@ -192,7 +267,7 @@ public class ExecutionVisitor extends ThoriumBaseVisitor<Void> {
     @Override
     public Void visitOrderComparisonExpression(ThoriumParser.OrderComparisonExpressionContext ctx) {
         super.visitOrderComparisonExpression(ctx);
-        evalBinaryOperator(ctx.op.getText());
+        evalBinaryOperator(Operator.of(ctx.op.getText()));
 
         return null;
     }
@@ -201,16 +276,16 @@ public class ExecutionVisitor extends ThoriumBaseVisitor<Void> {
     public Void visitNotExpression(ThoriumParser.NotExpressionContext ctx) {
         super.visitNotExpression(ctx);
 
-        evalUnaryOperator(ctx.op.getText());
+        evalUnaryOperator(Operator.of(ctx.op.getText()));
         return null;
     }
 
-    private void evalUnaryOperator(String operator) {
+    private void evalUnaryOperator(Operator operator) {
         Value value = context.popStack();
 
-        Method method = value.type().lookupMethod(operator, Collections.emptyList());
+        MethodBody methodBody = OperatorTable.unary(operator, value.type());
 
-        context.pushStack(method.apply(new MethodEvaluationContext(context, value)));
+        context.pushStack(methodBody.apply(new MethodEvaluationContext(context, value)));
     }
 
     @Override
@@ -243,7 +318,19 @@ public class ExecutionVisitor extends ThoriumBaseVisitor<Void> {
         String methodName = ctx.methodName().LCFirstIdentifier().getText();
         List<Value> parameterValues = evalParametersValues(ctx.parameters());
 
-        Method method = context.lookupMethod(methodName, parameterValues.stream().map(Value::type).collect(Collectors.toList()));
+        Type[] parameterTypes = parameterValues.stream().map(Value::type).toArray(Type[]::new);
+
+        Method method = context.lookupMethod(inlineCache(ctx, methodName), parameterTypes);
+
+        NonNativeMethodBody tailCallBody = tailCalls.contains(ctx) ? NonNativeMethodBody.of(method) : null;
+
+        if (tailCallBody != null) {
+            tailCall = new TailCall(method, tailCallBody, parameterValues, context);
+            context.pushStack(DirectValue.build());
+
+            return null;
+        }
+
         MethodSignature signature = method.getMethodSignature();
 
         context = context.wrap();
@@ -283,11 +370,11 @@ public class ExecutionVisitor extends ThoriumBaseVisitor<Void> {
 
     @Override
     public Void visitIfStatement(ThoriumParser.IfStatementContext ctx) {
-        context = context.wrap();
+        enterScope(ctx);
 
         visitNestedIfStatement(ctx);
 
-        context = context.unwrap();
+        exitScope(ctx);
 
         return null;
     }
@@ -321,20 +408,20 @@ public class ExecutionVisitor extends ThoriumBaseVisitor<Void> {
 
     @Override
     public Void visitWhileLoopStatement(ThoriumParser.WhileLoopStatementContext ctx) {
-        context = context.wrap();
+        enterScope(ctx);
 
         while (isExpressionTrue(ctx.expression())) {
             visit(ctx.statements());
         }
 
-        context = context.unwrap();
+        exitScope(ctx);
 
         return null;
     }
 
     @Override
     public Void visitForLoopStatement(ThoriumParser.ForLoopStatementContext ctx) {
-        context = context.wrap();
+        enterScope(ctx);
 
         if (ctx.init != null) {
             visit(ctx.init);
@@ -349,7 +436,7 @@ public class ExecutionVisitor extends ThoriumBaseVisitor<Void> {
             }
         }
 
-        context = context.unwrap();
+        exitScope(ctx);
 
         return null;
     }
@@ -380,7 +467,7 @@ public class ExecutionVisitor extends ThoriumBaseVisitor<Void> {
                     .collect(Collectors.toList());
         }
 
-        NonNativeMethodBody methodBody = new NonNativeMethodBody(ctx.statements());
+        NonNativeMethodBody methodBody = new NonNativeMethodBody(ctx.statements(), declaringScopes);
 
         context.insertMethod(ctx.methodName().getText(), methodBody, Types.VOID, Types.VOID, parameterSignatures);
 
@@ -388,7 +475,7 @@ public class ExecutionVisitor extends ThoriumBaseVisitor<Void> {
     }
 
     // TODO DESIGN probably not the best way of decoding types ;)
-    private static Type decode(ThoriumParser.TypeContext typeCtx) {
+    public static Type decode(ThoriumParser.TypeContext typeCtx) {
         Type type;
         switch (typeCtx.UCFirstIdentifier().getText()) {
             case "Integer":
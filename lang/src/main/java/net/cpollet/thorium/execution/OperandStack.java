@@ -0,0 +1,71 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution;
+
+import net.cpollet.thorium.values.Value;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of values, shared by an {@link ExecutionContext} and all the contexts wrapping it. Each context
+ * only sees the values above the size the stack had when it was created.
+ * <p>
+ * Bounds are only checked by assertions; run with {@code -ea} to enable them.
+ *
+ * @author Christophe Pollet
+ */
+public class OperandStack {
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Value[] values;
+    private int size;
+
+    public OperandStack() {
+        this.values = new Value[INITIAL_CAPACITY];
+    }
+
+    public void push(Value value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+
+        values[size++] = value;
+    }
+
+    public Value pop() {
+        assert size > 0 : "operand stack underflow";
+
+        Value value = values[--size];
+        values[size] = null;
+
+        return value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Drops the values above size.
+     */
+    public void truncate(int size) {
+        assert size >= 0 && size <= this.size : "cannot truncate operand stack of size " + this.size + " to " + size;
+
+        Arrays.fill(values, size, this.size, null);
+        this.size = size;
+    }
+}
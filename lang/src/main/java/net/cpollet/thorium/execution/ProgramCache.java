@@ -0,0 +1,222 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution;
+
+import net.cpollet.thorium.analysis.AnalysisResult;
+import net.cpollet.thorium.analysis.PurityAnalyser;
+import net.cpollet.thorium.data.symbol.SymbolTable;
+import net.cpollet.thorium.execution.bytecode.CodeObject;
+import net.cpollet.thorium.execution.bytecode.CodeObjectSerializer;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Directory of compiled programs, so that a program compiled once is not parsed and analysed again, even by another
+ * JVM. Each program is stored in a file named after the SHA-256 of its source and the
+ * {@link CodeObjectSerializer#VERSION}; the file holds the bytecode, the methods found pure by
+ * {@link PurityAnalyser} and is read through a memory mapping.
+ * <p>
+ * Files that cannot be read are treated as missing: the program is compiled again and the file is replaced. The lengths
+ * read from a file are checked against its size, so a corrupt file never makes the cache allocate more than the file
+ * holds. Programs
+ * that cannot be stored are still returned, the cache is only skipped.
+ *
+ * @author Christophe Pollet
+ */
+public class ProgramCache {
+    private static final Logger LOG = LoggerFactory.getLogger(ProgramCache.class);
+
+    private static final int MAGIC = 0x54484243;
+    private static final String EXTENSION = ".thbc";
+
+    private final Path directory;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+
+    public ProgramCache(Path directory) {
+        this.directory = directory;
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+    }
+
+    /**
+     * Returns the compiled program, loaded from the cache or compiled and then stored if possible.
+     *
+     * @param engine an engine executing bytecode, see {@link Engine#executesBytecode()}
+     * @throws org.antlr.v4.runtime.misc.ParseCancellationException              if the source has syntax errors
+     * @throws net.cpollet.thorium.analysis.exceptions.ThoriumSemanticException if the source has semantic errors
+     */
+    public CompiledProgram load(String source, Engine engine) {
+        if (!engine.executesBytecode()) {
+            throw new IllegalArgumentException(engine + " does not execute bytecode");
+        }
+
+        byte[] hash = hash(source);
+        Path file = directory.resolve(fileName(hash));
+        Entry entry = read(file, hash);
+
+        if (entry == null) {
+            misses.incrementAndGet();
+            entry = compile(source);
+            write(file, hash, entry);
+        } else {
+            hits.incrementAndGet();
+        }
+
+        return new CompiledProgram(engine, engine.compile(entry.program, entry.pureMethods, false));
+    }
+
+    private static Entry compile(String source) {
+        ParseTree tree = CompiledProgram.parse(source);
+        AnalysisResult analysisResult = CompiledProgram.analyze(tree, new SymbolTable<>());
+
+        return new Entry(Engine.compileBytecode(tree, analysisResult.getNodesTypes()), new PurityAnalyser().analyze(tree));
+    }
+
+    private static Entry read(Path file, byte[] hash) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+
+            if (buffer.getInt() != MAGIC || buffer.getInt() != CodeObjectSerializer.VERSION) {
+                return null;
+            }
+
+            byte[] fileHash = new byte[hash.length];
+            buffer.get(fileHash);
+
+            if (!Arrays.equals(hash, fileHash)) {
+                return null;
+            }
+
+            int pureMethodsCount = CodeObjectSerializer.readLength(buffer, 4);
+            Set<String> pureMethods = new HashSet<>(pureMethodsCount);
+            for (int i = 0; i < pureMethodsCount; i++) {
+                byte[] name = new byte[CodeObjectSerializer.readLength(buffer, 1)];
+                buffer.get(name);
+                pureMethods.add(new String(name, StandardCharsets.UTF_8));
+            }
+
+            return new Entry(CodeObjectSerializer.deserialize(buffer), pureMethods);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Ignoring unreadable compiled program " + file + ": " + e.getMessage());
+            return null;
+        }
+    }
+
+    private void write(Path file, byte[] hash, Entry entry) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeInt(MAGIC);
+            output.writeInt(CodeObjectSerializer.VERSION);
+            output.write(hash);
+
+            output.writeInt(entry.pureMethods.size());
+            for (String pureMethod : entry.pureMethods) {
+                byte[] name = pureMethod.getBytes(StandardCharsets.UTF_8);
+                output.writeInt(name.length);
+                output.write(name);
+            }
+
+            output.write(CodeObjectSerializer.serialize(entry.program));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try {
+            store(file, bytes.toByteArray());
+        } catch (IOException e) {
+            LOG.warn("Could not store compiled program " + file + ": " + e.getMessage());
+        }
+    }
+
+    private void store(Path file, byte[] bytes) throws IOException {
+        Files.createDirectories(directory);
+        Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+
+        try {
+            Files.write(temporaryFile, bytes);
+
+            try {
+                Files.move(temporaryFile, file, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private static byte[] hash(String source) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(source.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String fileName(byte[] hash) {
+        StringBuilder fileName = new StringBuilder(hash.length * 2 + 16);
+
+        for (byte b : hash) {
+            fileName.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+
+        return fileName.append("-v").append(CodeObjectSerializer.VERSION).append(EXTENSION).toString();
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    private static final class Entry {
+        private final CodeObject program;
+        private final Set<String> pureMethods;
+
+        private Entry(CodeObject program, Set<String> pureMethods) {
+            this.program = program;
+            this.pureMethods = pureMethods;
+        }
+    }
+}
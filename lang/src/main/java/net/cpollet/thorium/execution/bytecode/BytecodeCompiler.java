@@ -0,0 +1,621 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.bytecode;
+
+import net.cpollet.thorium.analysis.ConstantFolding;
+import net.cpollet.thorium.antlr.ThoriumBaseVisitor;
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.data.method.ParameterSignature;
+import net.cpollet.thorium.execution.ExecutionVisitor;
+import net.cpollet.thorium.values.DirectValue;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Compiles a parse tree into {@link CodeObject}s: one for the top-level statements and one per method definition.
+ * Visiting an expression returns the register holding its value, visiting a statement returns {@code null}.
+ * <p>
+ * Variables are resolved at compile time. Contrary to {@link ExecutionVisitor}, which looks symbols up in the
+ * caller's scopes, a method only sees its own variables and the top-level variables defined before it.
+ * <p>
+ * Expressions folded by {@link net.cpollet.thorium.analysis.ConstantFolder} are loaded as constants, and conditional
+ * statements whose condition is known only keep the branch that is executed.
+ *
+ * @author Christophe Pollet
+ */
+public class BytecodeCompiler extends ThoriumBaseVisitor<Integer> {
+    private static final DirectValue VOID = DirectValue.build();
+    private static final DirectValue TRUE = DirectValue.build(true);
+
+    private final ConstantFolding folding;
+    private CodeBuilder main;
+    private CodeBuilder builder;
+
+    public BytecodeCompiler() {
+        this(ConstantFolding.NONE);
+    }
+
+    public BytecodeCompiler(ConstantFolding folding) {
+        this.folding = folding;
+    }
+
+    public CodeObject compile(ParseTree tree) {
+        main = new CodeBuilder("<main>", Collections.emptyList());
+        builder = main;
+
+        Integer result = visit(tree);
+
+        if (result == null) {
+            result = builder.lastStatementValueRegister();
+        }
+
+        builder.emit(Opcode.RETURN, result);
+
+        return builder.build();
+    }
+
+    @Override
+    public Integer visit(ParseTree tree) {
+        DirectValue constant = folding.getConstant(tree);
+
+        if (constant != null) {
+            return constant(constant);
+        }
+
+        ParseTree simplification = folding.getSimplification(tree);
+
+        if (simplification != null) {
+            return value(visit(simplification));
+        }
+
+        return super.visit(tree);
+    }
+
+    /**
+     * Returns a register holding the value of the register {@code register}: a copy if it holds a variable.
+     */
+    private int value(int register) {
+        if (CodeBuilder.isTemporary(register)) {
+            return register;
+        }
+
+        int result = builder.newTemporary();
+        builder.emit(Opcode.MOVE, result, register);
+
+        return result;
+    }
+
+    //region Statements
+
+    @Override
+    public Integer visitCompilationUnit(ThoriumParser.CompilationUnitContext ctx) {
+        return visit(ctx.statements());
+    }
+
+    @Override
+    public Integer visitStatements(ThoriumParser.StatementsContext ctx) {
+        for (ThoriumParser.StatementContext statementCtx : ctx.statement()) {
+            int mark = builder.temporariesMark();
+            visit(statementCtx);
+            builder.releaseTemporaries(mark);
+        }
+
+        return null;
+    }
+
+    @Override
+    public Integer visitStatement(ThoriumParser.StatementContext ctx) {
+        if (ctx.block() != null) {
+            visit(ctx.block());
+        } else if (ctx.expressionStatement() != null) {
+            visit(ctx.expressionStatement());
+        } else if (ctx.variableOrConstantDeclarationStatement() != null) {
+            visit(ctx.variableOrConstantDeclarationStatement());
+        } else if (ctx.methodDefinition() != null) {
+            visit(ctx.methodDefinition());
+        }
+
+        return null;
+    }
+
+    @Override
+    public Integer visitBlock(ThoriumParser.BlockContext ctx) {
+        return visit(ctx.getChild(0));
+    }
+
+    @Override
+    public Integer visitVariableDeclarationStatement(ThoriumParser.VariableDeclarationStatementContext ctx) {
+        declaration(ctx.LCFirstIdentifier().getText(), ctx.expression());
+
+        return null;
+    }
+
+    private void declaration(String name, ThoriumParser.ExpressionContext expressionCtx) {
+        if (builder.isLoopScope()) {
+            failIfDeclared(name);
+        }
+
+        Integer value = null;
+
+        if (expressionCtx != null) {
+            value = visit(expressionCtx);
+        }
+
+        int register = builder.declare(name);
+
+        if (value != null) {
+            builder.emit(Opcode.STORE, register, value);
+        }
+    }
+
+    /**
+     * As in {@link ExecutionVisitor}, where a loop's scope is entered once for all its iterations, a variable declared
+     * in the body of a loop is already defined on the second iteration. A hidden variable of the loop's scope records
+     * that the declaration was executed.
+     */
+    private void failIfDeclared(String name) {
+        int declared = builder.declare("<" + name + " declared>");
+
+        int jump = builder.emit(Opcode.JUMP_IF_FALSE, declared, 0);
+        builder.emit(Opcode.FAIL, builder.constant("Symbol " + name + " already defined in current scope"));
+        builder.patch(jump, 1, builder.position());
+
+        builder.emit(Opcode.LOAD_CONSTANT, declared, builder.constant(TRUE));
+    }
+
+    @Override
+    public Integer visitConstantDeclarationStatement(ThoriumParser.ConstantDeclarationStatementContext ctx) {
+        declaration(ctx.UCIdentifier().getText(), ctx.expression());
+
+        return null;
+    }
+
+    @Override
+    public Integer visitUnconditionalStatement(ThoriumParser.UnconditionalStatementContext ctx) {
+        setLast(visit(ctx.expression()));
+
+        return null;
+    }
+
+    /**
+     * As in {@link ExecutionVisitor}, where the last statement value is the symbol itself, a variable's later
+     * assignments are reflected in the last statement value.
+     */
+    private void setLast(int register) {
+        if (CodeBuilder.isTemporary(register)) {
+            builder.emit(Opcode.SET_LAST, register);
+        } else {
+            builder.emit(Opcode.SET_LAST_VARIABLE, register);
+        }
+    }
+
+    private void setLastVoid() {
+        int register = builder.newTemporary();
+        builder.emit(Opcode.LOAD_CONSTANT, register, builder.constant(VOID));
+        builder.emit(Opcode.SET_LAST, register);
+    }
+
+    @Override
+    public Integer visitStatementsBlock(ThoriumParser.StatementsBlockContext ctx) {
+        builder.openScope();
+        visit(ctx.statements());
+        builder.closeScope();
+
+        return null;
+    }
+
+    @Override
+    public Integer visitConditionalIfStatement(ThoriumParser.ConditionalIfStatementContext ctx) {
+        conditionalStatement(ctx.expression(0), ctx.expression(1), Opcode.JUMP_IF_FALSE);
+
+        return null;
+    }
+
+    private void conditionalStatement(ThoriumParser.ExpressionContext expressionCtx, ThoriumParser.ExpressionContext conditionCtx, Opcode skip) {
+        Boolean condition = folding.getCondition(conditionCtx);
+
+        if (condition != null) {
+            if (condition == (skip == Opcode.JUMP_IF_FALSE)) {
+                setLast(visit(expressionCtx));
+            } else {
+                setLastVoid();
+            }
+
+            return;
+        }
+
+        int skipJump = builder.emit(skip, visit(conditionCtx), 0);
+        setLast(visit(expressionCtx));
+        int endJump = builder.emit(Opcode.JUMP, 0);
+
+        builder.patch(skipJump, 1, builder.position());
+        setLastVoid();
+
+        builder.patch(endJump, 0, builder.position());
+    }
+
+    @Override
+    public Integer visitConditionalUnlessStatement(ThoriumParser.ConditionalUnlessStatementContext ctx) {
+        conditionalStatement(ctx.expression(0), ctx.expression(1), Opcode.JUMP_IF_TRUE);
+
+        return null;
+    }
+
+    @Override
+    public Integer visitRepeatedWhileStatement(ThoriumParser.RepeatedWhileStatementContext ctx) {
+        repeatedStatement(ctx.expression(0), ctx.expression(1), Opcode.JUMP_IF_FALSE);
+
+        return null;
+    }
+
+    private void repeatedStatement(ThoriumParser.ExpressionContext expressionCtx, ThoriumParser.ExpressionContext conditionCtx, Opcode exit) {
+        setLastVoid();
+
+        int loop = builder.position();
+        int exitJump = builder.emit(exit, visit(conditionCtx), 0);
+        setLast(visit(expressionCtx));
+        builder.emit(Opcode.JUMP, loop);
+
+        builder.patch(exitJump, 1, builder.position());
+    }
+
+    @Override
+    public Integer visitRepeatedUntilStatement(ThoriumParser.RepeatedUntilStatementContext ctx) {
+        repeatedStatement(ctx.expression(0), ctx.expression(1), Opcode.JUMP_IF_TRUE);
+
+        return null;
+    }
+
+    //endregion
+
+    //region Expressions
+
+    @Override
+    public Integer visitNotExpression(ThoriumParser.NotExpressionContext ctx) {
+        int operand = visit(ctx.expression());
+        int result = builder.newTemporary();
+
+        builder.emit(Opcode.NOT, result, operand);
+
+        return result;
+    }
+
+    @Override
+    public Integer visitMultiplicationExpression(ThoriumParser.MultiplicationExpressionContext ctx) {
+        return binaryOperator(Opcode.MULTIPLY, ctx.expression(0), ctx.expression(1));
+    }
+
+    private int binaryOperator(Opcode opcode, ThoriumParser.ExpressionContext leftCtx, ThoriumParser.ExpressionContext rightCtx) {
+        int left = visit(leftCtx);
+        int right = visit(rightCtx);
+        int result = builder.newTemporary();
+
+        builder.emit(opcode, result, left, right);
+
+        return result;
+    }
+
+    @Override
+    public Integer visitAdditionExpression(ThoriumParser.AdditionExpressionContext ctx) {
+        return binaryOperator(Opcode.ADD, ctx.expression(0), ctx.expression(1));
+    }
+
+    @Override
+    public Integer visitOrderComparisonExpression(ThoriumParser.OrderComparisonExpressionContext ctx) {
+        switch (ctx.op.getText()) {
+            case "<":
+                return binaryOperator(Opcode.LESS_THAN, ctx.expression(0), ctx.expression(1));
+            case "<=":
+                return binaryOperator(Opcode.LESS_THAN_OR_EQUAL, ctx.expression(0), ctx.expression(1));
+            case ">":
+                return binaryOperator(Opcode.GREATER_THAN, ctx.expression(0), ctx.expression(1));
+            case ">=":
+                return binaryOperator(Opcode.GREATER_THAN_OR_EQUAL, ctx.expression(0), ctx.expression(1));
+            default:
+                throw new IllegalStateException("Operator " + ctx.op.getText() + " not supported");
+        }
+    }
+
+    @Override
+    public Integer visitLiteralExpression(ThoriumParser.LiteralExpressionContext ctx) {
+        return visit(ctx.literal());
+    }
+
+    @Override
+    public Integer visitParenthesisExpression(ThoriumParser.ParenthesisExpressionContext ctx) {
+        return visit(ctx.expression());
+    }
+
+    @Override
+    public Integer visitAssignmentExpression(ThoriumParser.AssignmentExpressionContext ctx) {
+        String name = identifierName(ctx.identifier());
+
+        Integer register = builder.lookup(name);
+        Integer global = null;
+
+        if (register == null) {
+            global = lookupGlobal(name);
+
+            if (global == null) {
+                register = builder.declare(name);
+            }
+        }
+
+        int value = visit(ctx.expression());
+
+        if (register != null) {
+            builder.emit(Opcode.STORE, register, value);
+        } else {
+            builder.emit(Opcode.STORE_GLOBAL, global, value);
+        }
+
+        return value;
+    }
+
+    private Integer lookupGlobal(String name) {
+        if (builder == main) {
+            return null;
+        }
+
+        return main.lookupRoot(name);
+    }
+
+    @Override
+    public Integer visitBlockExpression(ThoriumParser.BlockExpressionContext ctx) {
+        visit(ctx.block());
+
+        int result = builder.newTemporary();
+        builder.emit(Opcode.MOVE, result, builder.lastStatementValueRegister());
+
+        return result;
+    }
+
+    @Override
+    public Integer visitMethodCallExpression(ThoriumParser.MethodCallExpressionContext ctx) {
+        List<Integer> values = Collections.emptyList();
+
+        if (ctx.parameters() != null) {
+            values = ctx.parameters().expression().stream()
+                    .map(this::visit)
+                    .collect(Collectors.toList());
+        }
+
+        int first = 0;
+        for (int i = 0; i < values.size(); i++) {
+            int parameter = builder.newTemporary();
+            builder.emit(Opcode.MOVE, parameter, values.get(i));
+
+            if (i == 0) {
+                first = parameter;
+            }
+        }
+
+        int result = builder.newTemporary();
+        builder.emit(Opcode.CALL, result, builder.constant(ctx.methodName().getText()), first, values.size());
+
+        return result;
+    }
+
+    //endregion
+
+    //region If Statement
+
+    @Override
+    public Integer visitIfStatement(ThoriumParser.IfStatementContext ctx) {
+        builder.openScope();
+        nestedIfStatement(ctx);
+        builder.closeScope();
+
+        return null;
+    }
+
+    private void nestedIfStatement(ThoriumParser.IfStatementContext ctx) {
+        Boolean condition = folding.getCondition(ctx.expression());
+
+        if (condition != null) {
+            if (condition) {
+                visit(ctx.statements());
+            } else if (ctx.elseStatement() != null) {
+                visit(ctx.elseStatement());
+            } else {
+                setLastVoid();
+            }
+
+            return;
+        }
+
+        int elseJump = builder.emit(Opcode.JUMP_IF_FALSE, visit(ctx.expression()), 0);
+        visit(ctx.statements());
+        int endJump = builder.emit(Opcode.JUMP, 0);
+
+        builder.patch(elseJump, 1, builder.position());
+
+        if (ctx.elseStatement() != null) {
+            visit(ctx.elseStatement());
+        } else {
+            setLastVoid();
+        }
+
+        builder.patch(endJump, 0, builder.position());
+    }
+
+    @Override
+    public Integer visitElseStatement(ThoriumParser.ElseStatementContext ctx) {
+        if (ctx.statements() != null) {
+            visit(ctx.statements());
+        } else if (ctx.ifStatement() != null) {
+            nestedIfStatement(ctx.ifStatement());
+        } else {
+            throw new IllegalStateException();
+        }
+
+        return null;
+    }
+
+    //endregion
+
+    //region Loop Statements
+
+    @Override
+    public Integer visitWhileLoopStatement(ThoriumParser.WhileLoopStatementContext ctx) {
+        builder.openScope();
+        builder.loopScope();
+
+        int loop = builder.position();
+        int exitJump = builder.emit(Opcode.JUMP_IF_FALSE, visit(ctx.expression()), 0);
+        visit(ctx.statements());
+        builder.emit(Opcode.JUMP, loop);
+
+        builder.patch(exitJump, 1, builder.position());
+
+        builder.closeScope();
+
+        return null;
+    }
+
+    @Override
+    public Integer visitForLoopStatement(ThoriumParser.ForLoopStatementContext ctx) {
+        builder.openScope();
+
+        if (ctx.init != null) {
+            visit(ctx.init);
+        }
+
+        builder.loopScope();
+
+        int loop = builder.position();
+        int exitJump = -1;
+
+        if (ctx.condition != null) {
+            exitJump = builder.emit(Opcode.JUMP_IF_FALSE, visit(ctx.condition), 0);
+        }
+
+        visit(ctx.statements());
+
+        if (ctx.increment != null) {
+            visit(ctx.increment);
+        }
+
+        builder.emit(Opcode.JUMP, loop);
+
+        if (exitJump != -1) {
+            builder.patch(exitJump, 1, builder.position());
+        }
+
+        builder.closeScope();
+
+        return null;
+    }
+
+    @Override
+    public Integer visitForLoopStatementInitExpression(ThoriumParser.ForLoopStatementInitExpressionContext ctx) {
+        return visit(ctx.expression());
+    }
+
+    @Override
+    public Integer visitForLoopStatementInitVariableDeclaration(ThoriumParser.ForLoopStatementInitVariableDeclarationContext ctx) {
+        declaration(ctx.LCFirstIdentifier().getText(), ctx.expression());
+
+        return null;
+    }
+
+    //endregion
+
+    @Override
+    public Integer visitMethodDefinition(ThoriumParser.MethodDefinitionContext ctx) {
+        List<ParameterSignature> parameterSignatures = Collections.emptyList();
+        ThoriumParser.FormalParametersContext formalParametersCtx = ctx.formalParameters();
+
+        if (formalParametersCtx != null) {
+            parameterSignatures = formalParametersCtx.formalParameter().stream()
+                    .map(parameterCtx -> new ParameterSignature(ExecutionVisitor.decode(parameterCtx.type()), parameterCtx.LCFirstIdentifier().getText()))
+                    .collect(Collectors.toList());
+        }
+
+        CodeBuilder enclosingBuilder = builder;
+        builder = new CodeBuilder(ctx.methodName().getText(), parameterSignatures);
+
+        visit(ctx.statements());
+        builder.emit(Opcode.RETURN, builder.lastStatementValueRegister());
+
+        CodeObject method = builder.build();
+        builder = enclosingBuilder;
+
+        builder.emit(Opcode.DEFINE_METHOD, builder.constant(method));
+
+        return null;
+    }
+
+    //region Values
+
+    @Override
+    public Integer visitIntegerLiteral(ThoriumParser.IntegerLiteralContext ctx) {
+        return constant(DirectValue.build(Long.valueOf(ctx.IntegerLiteral().getText())));
+    }
+
+    private int constant(DirectValue value) {
+        int result = builder.newTemporary();
+        builder.emit(Opcode.LOAD_CONSTANT, result, builder.constant(value));
+
+        return result;
+    }
+
+    @Override
+    public Integer visitFloatLiteral(ThoriumParser.FloatLiteralContext ctx) {
+        return constant(DirectValue.build(Double.valueOf(ctx.FloatLiteral().getText())));
+    }
+
+    @Override
+    public Integer visitBooleanLiteral(ThoriumParser.BooleanLiteralContext ctx) {
+        return constant(DirectValue.build(Boolean.valueOf(ctx.BooleanLiteral().getText())));
+    }
+
+    @Override
+    public Integer visitIdentifierLiteral(ThoriumParser.IdentifierLiteralContext ctx) {
+        String name = identifierName(ctx.identifier());
+
+        Integer register = builder.lookup(name);
+
+        if (register != null) {
+            return register;
+        }
+
+        Integer global = lookupGlobal(name);
+
+        if (global != null) {
+            int result = builder.newTemporary();
+            builder.emit(Opcode.LOAD_GLOBAL, result, global);
+
+            return result;
+        }
+
+        return builder.declare(name);
+    }
+
+    private static String identifierName(ThoriumParser.IdentifierContext ctx) {
+        if (ctx instanceof ThoriumParser.ObjectOrClassNameContext) {
+            throw new IllegalStateException("Object or class names are not supported: " + ctx.getText());
+        }
+
+        return ctx.getText();
+    }
+
+    //endregion
+}
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.bytecode;
+
+import net.cpollet.thorium.data.method.ParameterSignature;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds a {@link CodeObject}. Each variable gets its own register; temporary registers are allocated on top of them
+ * and released after each statement. As the number of variables is only known at the end, temporary registers are
+ * emitted as negative numbers and relocated by {@link #build()}.
+ *
+ * @author Christophe Pollet
+ */
+class CodeBuilder {
+    private final String name;
+    private final List<ParameterSignature> parameterSignatures;
+    private final List<Object> constants = new ArrayList<>();
+    private final Map<Object, Integer> constantIndexes = new HashMap<>();
+    private final List<String> variableNames = new ArrayList<>();
+    private final Scope rootScope;
+
+    private int[] code = new int[64];
+    private int length;
+    private int nextTemporary;
+    private int maxTemporaries;
+    private Scope scope;
+
+    private static class Scope {
+        private final Scope parent;
+        private final Map<String, Integer> variables = new HashMap<>();
+        private final int firstVariable;
+        private boolean loop;
+
+        private Scope(Scope parent, int firstVariable) {
+            this.parent = parent;
+            this.firstVariable = firstVariable;
+        }
+    }
+
+    CodeBuilder(String name, List<ParameterSignature> parameterSignatures) {
+        this.name = name;
+        this.parameterSignatures = parameterSignatures;
+        this.rootScope = new Scope(null, 0);
+        this.scope = rootScope;
+
+        for (ParameterSignature parameterSignature : parameterSignatures) {
+            declare(parameterSignature.getName());
+        }
+
+        newVariable("<last>");
+    }
+
+    int lastStatementValueRegister() {
+        return parameterSignatures.size();
+    }
+
+    //region Registers
+
+    private int newVariable(String variableName) {
+        variableNames.add(variableName);
+        return variableNames.size() - 1;
+    }
+
+    int declare(String variableName) {
+        if (scope.variables.containsKey(variableName)) {
+            throw new IllegalStateException("Symbol " + variableName + " already defined in current scope");
+        }
+
+        int register = newVariable(variableName);
+        scope.variables.put(variableName, register);
+
+        return register;
+    }
+
+    /**
+     * Returns the register of a variable, or {@code null} if it is not defined.
+     */
+    Integer lookup(String variableName) {
+        for (Scope current = scope; current != null; current = current.parent) {
+            Integer register = current.variables.get(variableName);
+
+            if (register != null) {
+                return register;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the register of a variable of the outermost scope, or {@code null} if it is not defined.
+     */
+    Integer lookupRoot(String variableName) {
+        return rootScope.variables.get(variableName);
+    }
+
+    int newTemporary() {
+        int temporary = nextTemporary++;
+        maxTemporaries = Math.max(maxTemporaries, nextTemporary);
+        return -1 - temporary;
+    }
+
+    static boolean isTemporary(int register) {
+        return register < 0;
+    }
+
+    int temporariesMark() {
+        return nextTemporary;
+    }
+
+    void releaseTemporaries(int mark) {
+        nextTemporary = mark;
+    }
+
+    //endregion
+
+    //region Scopes
+
+    void openScope() {
+        scope = new Scope(scope, variableNames.size());
+    }
+
+    /**
+     * Marks the current scope as the body of a loop: the declarations it contains are executed again, in the same
+     * scope, on each iteration.
+     */
+    void loopScope() {
+        scope.loop = true;
+    }
+
+    boolean isLoopScope() {
+        return scope.loop;
+    }
+
+    void closeScope() {
+        int count = variableNames.size() - scope.firstVariable;
+
+        if (count > 0) {
+            emit(Opcode.CLEAR, scope.firstVariable, count);
+        }
+
+        scope = scope.parent;
+    }
+
+    //endregion
+
+    //region Code
+
+    int constant(Object value) {
+        Integer index = constantIndexes.get(value);
+
+        if (index == null) {
+            index = constants.size();
+            constants.add(value);
+            constantIndexes.put(value, index);
+        }
+
+        return index;
+    }
+
+    int position() {
+        return length;
+    }
+
+    /**
+     * Emits an instruction and returns its position.
+     */
+    int emit(Opcode opcode, int... operands) {
+        if (operands.length != opcode.length() - 1) {
+            throw new IllegalArgumentException(opcode + " expects " + (opcode.length() - 1) + " operands");
+        }
+
+        int position = length;
+
+        ensureCapacity(length + opcode.length());
+        code[length++] = opcode.ordinal();
+
+        for (int operand : operands) {
+            code[length++] = operand;
+        }
+
+        return position;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > code.length) {
+            code = Arrays.copyOf(code, Math.max(capacity, code.length * 2));
+        }
+    }
+
+    void patch(int instruction, int operandIndex, int value) {
+        code[instruction + 1 + operandIndex] = value;
+    }
+
+    //endregion
+
+    CodeObject build() {
+        int variablesCount = variableNames.size();
+        int[] relocatedCode = Arrays.copyOf(code, length);
+
+        for (int pc = 0; pc < length; ) {
+            Opcode opcode = Opcode.decode(relocatedCode[pc]);
+
+            for (int i = 1; i < opcode.length(); i++) {
+                if (opcode.operand(i - 1) == Opcode.Operand.REGISTER && relocatedCode[pc + i] < 0) {
+                    relocatedCode[pc + i] = variablesCount - 1 - relocatedCode[pc + i];
+                }
+            }
+
+            pc += opcode.length();
+        }
+
+        int[] rootVariables = rootScope.variables.values().stream()
+                .mapToInt(Integer::intValue)
+                .sorted()
+                .toArray();
+
+        return new CodeObject(
+                name,
+                parameterSignatures,
+                relocatedCode,
+                constants.toArray(),
+                variablesCount + maxTemporaries,
+                variableNames.toArray(new String[variablesCount]),
+                rootVariables
+        );
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.bytecode;
+
+import net.cpollet.thorium.data.method.InlineCache;
+import net.cpollet.thorium.data.method.ParameterSignature;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The compiled form of either a method or the top-level statements of a compilation unit. Parameters are stored in
+ * the first registers, followed by the register holding the last statement value.
+ *
+ * @author Christophe Pollet
+ */
+public class CodeObject {
+    private final String name;
+    private final List<ParameterSignature> parameterSignatures;
+    private final int[] code;
+    private final Object[] constants;
+    private final int registerCount;
+    private final String[] variableNames;
+    private final int[] rootVariables;
+    private final InlineCache[] inlineCaches;
+
+    CodeObject(String name, List<ParameterSignature> parameterSignatures, int[] code, Object[] constants, int registerCount, String[] variableNames, int[] rootVariables) {
+        this.name = name;
+        this.parameterSignatures = Collections.unmodifiableList(parameterSignatures);
+        this.code = code;
+        this.constants = constants;
+        this.registerCount = registerCount;
+        this.variableNames = variableNames;
+        this.rootVariables = rootVariables;
+        this.inlineCaches = createInlineCaches(code, constants);
+    }
+
+    /**
+     * Creates one inline cache per CALL and operator instruction, indexed by the instruction's address.
+     */
+    private static InlineCache[] createInlineCaches(int[] code, Object[] constants) {
+        InlineCache[] inlineCaches = new InlineCache[code.length];
+
+        for (int pc = 0; pc < code.length; pc += Opcode.decode(code[pc]).length()) {
+            Opcode opcode = Opcode.decode(code[pc]);
+
+            if (opcode == Opcode.CALL) {
+                inlineCaches[pc] = new InlineCache((String) constants[code[pc + 2]]);
+            } else if (opcode.operator() != null) {
+                inlineCaches[pc] = new InlineCache(opcode.operator());
+            }
+        }
+
+        return inlineCaches;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<ParameterSignature> getParameterSignatures() {
+        return parameterSignatures;
+    }
+
+    public int getParametersCount() {
+        return parameterSignatures.size();
+    }
+
+    /**
+     * The register holding the last statement value.
+     */
+    public int getLastStatementValueRegister() {
+        return parameterSignatures.size();
+    }
+
+    int[] getCode() {
+        return code;
+    }
+
+    InlineCache getInlineCache(int address) {
+        return inlineCaches[address];
+    }
+
+    public int getCodeLength() {
+        return code.length;
+    }
+
+    public int getCode(int index) {
+        return code[index];
+    }
+
+    public Object getConstant(int index) {
+        return constants[index];
+    }
+
+    public int getConstantsCount() {
+        return constants.length;
+    }
+
+    public int getRegisterCount() {
+        return registerCount;
+    }
+
+    String[] getVariableNames() {
+        return variableNames;
+    }
+
+    /**
+     * Returns the name of the variable stored in a register, or {@code null} if the register holds temporary values.
+     */
+    public String getVariableName(int register) {
+        if (register < variableNames.length) {
+            return variableNames[register];
+        }
+
+        return null;
+    }
+
+    /**
+     * Returns the registers of the variables defined in the outermost scope. They are never cleared; for the top-level
+     * code, they are the global variables.
+     */
+    public int[] getRootVariables() {
+        return rootVariables.clone();
+    }
+}
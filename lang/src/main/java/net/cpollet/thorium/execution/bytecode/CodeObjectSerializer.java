@@ -0,0 +1,293 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.bytecode;
+
+import net.cpollet.thorium.data.method.ParameterSignature;
+import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.types.Types;
+import net.cpollet.thorium.values.DirectValue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary form of {@link CodeObject}s. Constants are tagged; methods defined by a code object are nested in its
+ * constants. Inline caches are not part of the binary form, they are created empty when the code object is read.
+ *
+ * @author Christophe Pollet
+ */
+public final class CodeObjectSerializer {
+    /**
+     * Version of the binary form and of the code generated by {@link BytecodeCompiler}. Must be incremented whenever
+     * either changes, so that code objects written by a previous version are not read.
+     */
+    public static final int VERSION = 2;
+
+    private static final Type[] TYPES = {
+            Types.VOID, Types.NULLABLE_VOID,
+            Types.BOOLEAN, Types.NULLABLE_BOOLEAN,
+            Types.INTEGER, Types.NULLABLE_INTEGER,
+            Types.FLOAT, Types.NULLABLE_FLOAT
+    };
+
+    private static final byte NO_TYPE = -1;
+    private static final int NO_STRING = -1;
+
+    private static final byte ABSENT_VALUE = 0;
+    private static final byte BOOLEAN_VALUE = 1;
+    private static final byte INTEGER_VALUE = 2;
+    private static final byte FLOAT_VALUE = 3;
+    private static final byte STRING = 4;
+    private static final byte CODE_OBJECT = 5;
+
+    private CodeObjectSerializer() {
+        // nothing
+    }
+
+    public static byte[] serialize(CodeObject codeObject) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            write(output, codeObject);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads a code object from the current position of buffer.
+     *
+     * @throws IllegalArgumentException if buffer does not contain a valid code object
+     */
+    public static CodeObject deserialize(ByteBuffer buffer) {
+        try {
+            return read(buffer);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid code object", e);
+        }
+    }
+
+    /**
+     * Reads the number of elements that follow in buffer, each taking at least elementSize bytes.
+     *
+     * @throws IllegalArgumentException if the elements cannot fit in the remaining bytes of buffer
+     */
+    public static int readLength(ByteBuffer buffer, int elementSize) {
+        return checkLength(buffer, buffer.getInt(), elementSize);
+    }
+
+    private static int checkLength(ByteBuffer buffer, int length, int elementSize) {
+        if (length < 0 || length > buffer.remaining() / elementSize) {
+            throw new IllegalArgumentException("Invalid length " + length + " at position " + buffer.position());
+        }
+
+        return length;
+    }
+
+    private static void write(DataOutputStream output, CodeObject codeObject) throws IOException {
+        writeString(output, codeObject.getName());
+
+        output.writeInt(codeObject.getParametersCount());
+        for (ParameterSignature parameterSignature : codeObject.getParameterSignatures()) {
+            writeType(output, parameterSignature.getType());
+            writeString(output, parameterSignature.getName());
+        }
+
+        int[] code = codeObject.getCode();
+        output.writeInt(code.length);
+        for (int instruction : code) {
+            output.writeInt(instruction);
+        }
+
+        output.writeInt(codeObject.getConstantsCount());
+        for (int i = 0; i < codeObject.getConstantsCount(); i++) {
+            writeConstant(output, codeObject.getConstant(i));
+        }
+
+        output.writeInt(codeObject.getRegisterCount());
+
+        String[] variableNames = codeObject.getVariableNames();
+        output.writeInt(variableNames.length);
+        for (String variableName : variableNames) {
+            writeString(output, variableName);
+        }
+
+        int[] rootVariables = codeObject.getRootVariables();
+        output.writeInt(rootVariables.length);
+        for (int register : rootVariables) {
+            output.writeInt(register);
+        }
+    }
+
+    private static CodeObject read(ByteBuffer buffer) {
+        String name = readString(buffer);
+
+        int parametersCount = readLength(buffer, 5);
+        List<ParameterSignature> parameterSignatures = new ArrayList<>(parametersCount);
+        for (int i = 0; i < parametersCount; i++) {
+            Type type = readType(buffer);
+            parameterSignatures.add(new ParameterSignature(type, readString(buffer)));
+        }
+
+        int[] code = new int[readLength(buffer, 4)];
+        for (int i = 0; i < code.length; i++) {
+            code[i] = buffer.getInt();
+        }
+
+        Object[] constants = new Object[readLength(buffer, 1)];
+        for (int i = 0; i < constants.length; i++) {
+            constants[i] = readConstant(buffer);
+        }
+
+        int registerCount = buffer.getInt();
+
+        String[] variableNames = new String[readLength(buffer, 4)];
+        for (int i = 0; i < variableNames.length; i++) {
+            variableNames[i] = readString(buffer);
+        }
+
+        int[] rootVariables = new int[readLength(buffer, 4)];
+        for (int i = 0; i < rootVariables.length; i++) {
+            rootVariables[i] = buffer.getInt();
+        }
+
+        return new CodeObject(name, parameterSignatures, code, constants, registerCount, variableNames, rootVariables);
+    }
+
+    private static void writeConstant(DataOutputStream output, Object constant) throws IOException {
+        if (constant instanceof DirectValue) {
+            DirectValue value = (DirectValue) constant;
+
+            if (!value.hasValue()) {
+                output.writeByte(ABSENT_VALUE);
+                writeType(output, value.type());
+                return;
+            }
+
+            switch (value.type().id()) {
+                case BOOLEAN:
+                    output.writeByte(BOOLEAN_VALUE);
+                    output.writeBoolean(value.booleanValue());
+                    return;
+                case INTEGER:
+                    output.writeByte(INTEGER_VALUE);
+                    output.writeLong(value.integerValue());
+                    return;
+                case FLOAT:
+                    output.writeByte(FLOAT_VALUE);
+                    output.writeDouble(value.floatValue());
+                    return;
+                default:
+                    throw new IllegalStateException(value.type() + " constants are not supported");
+            }
+        }
+
+        if (constant instanceof String) {
+            output.writeByte(STRING);
+            writeString(output, (String) constant);
+            return;
+        }
+
+        if (constant instanceof CodeObject) {
+            output.writeByte(CODE_OBJECT);
+            write(output, (CodeObject) constant);
+            return;
+        }
+
+        throw new IllegalStateException(constant.getClass().getSimpleName() + " constants are not supported");
+    }
+
+    private static Object readConstant(ByteBuffer buffer) {
+        byte tag = buffer.get();
+
+        switch (tag) {
+            case ABSENT_VALUE:
+                Type type = readType(buffer);
+                return type == Types.NULLABLE_VOID ? DirectValue.build() : DirectValue.build(type);
+            case BOOLEAN_VALUE:
+                return DirectValue.build(buffer.get() != 0);
+            case INTEGER_VALUE:
+                return DirectValue.build(buffer.getLong());
+            case FLOAT_VALUE:
+                return DirectValue.build(buffer.getDouble());
+            case STRING:
+                return readString(buffer);
+            case CODE_OBJECT:
+                return read(buffer);
+            default:
+                throw new IllegalArgumentException("Invalid constant tag " + tag);
+        }
+    }
+
+    private static void writeType(DataOutputStream output, Type type) throws IOException {
+        if (type == null) {
+            output.writeByte(NO_TYPE);
+            return;
+        }
+
+        for (byte i = 0; i < TYPES.length; i++) {
+            if (TYPES[i] == type) {
+                output.writeByte(i);
+                return;
+            }
+        }
+
+        throw new IllegalStateException(type + " is not supported");
+    }
+
+    private static Type readType(ByteBuffer buffer) {
+        byte index = buffer.get();
+
+        if (index == NO_TYPE) {
+            return null;
+        }
+
+        return TYPES[index];
+    }
+
+    private static void writeString(DataOutputStream output, String string) throws IOException {
+        if (string == null) {
+            output.writeInt(NO_STRING);
+            return;
+        }
+
+        byte[] bytes = string.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        int length = buffer.getInt();
+
+        if (length == NO_STRING) {
+            return null;
+        }
+
+        byte[] bytes = new byte[checkLength(buffer, length, 1)];
+        buffer.get(bytes);
+
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
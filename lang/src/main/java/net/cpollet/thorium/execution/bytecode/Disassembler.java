@@ -0,0 +1,110 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.bytecode;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Produces a human readable listing of a {@link CodeObject} and of the methods it defines.
+ *
+ * @author Christophe Pollet
+ */
+public class Disassembler {
+    public String disassemble(CodeObject codeObject) {
+        StringBuilder sb = new StringBuilder();
+        List<CodeObject> methods = new ArrayList<>();
+
+        disassemble(codeObject, sb, methods);
+
+        for (int i = 0; i < methods.size(); i++) {
+            sb.append(System.lineSeparator());
+            disassemble(methods.get(i), sb, methods);
+        }
+
+        return sb.toString();
+    }
+
+    private void disassemble(CodeObject codeObject, StringBuilder sb, List<CodeObject> methods) {
+        sb.append("code ").append(codeObject.getName())
+                .append(" (").append(codeObject.getRegisterCount()).append(" registers)")
+                .append(System.lineSeparator());
+
+        for (int i = 0; i < codeObject.getConstantsCount(); i++) {
+            Object constant = codeObject.getConstant(i);
+
+            sb.append(String.format("  #%-4d %s", i, constantToString(constant))).append(System.lineSeparator());
+
+            if (constant instanceof CodeObject) {
+                methods.add((CodeObject) constant);
+            }
+        }
+
+        for (int pc = 0; pc < codeObject.getCodeLength(); ) {
+            Opcode opcode = Opcode.decode(codeObject.getCode(pc));
+
+            sb.append(String.format("  %4d  %-22s", pc, opcode));
+
+            for (int i = 0; i < opcode.length() - 1; i++) {
+                if (i > 0) {
+                    sb.append(", ");
+                }
+
+                sb.append(operandToString(codeObject, opcode.operand(i), codeObject.getCode(pc + 1 + i)));
+            }
+
+            sb.append(System.lineSeparator());
+
+            pc += opcode.length();
+        }
+    }
+
+    private static String constantToString(Object constant) {
+        if (constant instanceof CodeObject) {
+            return "<code " + ((CodeObject) constant).getName() + ">";
+        }
+
+        if (constant instanceof String) {
+            return "\"" + constant + "\"";
+        }
+
+        return constant.toString();
+    }
+
+    private static String operandToString(CodeObject codeObject, Opcode.Operand operand, int value) {
+        switch (operand) {
+            case REGISTER:
+                String variableName = codeObject.getVariableName(value);
+
+                if (variableName != null) {
+                    return "r" + value + "(" + variableName + ")";
+                }
+
+                return "r" + value;
+            case CONSTANT:
+                return "#" + value;
+            case GLOBAL:
+                return "g" + value;
+            case TARGET:
+                return "@" + value;
+            case COUNT:
+                return String.valueOf(value);
+            default:
+                throw new IllegalArgumentException(operand + " not supported");
+        }
+    }
+}
@@ -0,0 +1,321 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.bytecode;
+
+import net.cpollet.thorium.data.method.InlineCache;
+import net.cpollet.thorium.data.method.Memoization;
+import net.cpollet.thorium.data.method.Method;
+import net.cpollet.thorium.data.method.MethodEvaluationContext;
+import net.cpollet.thorium.data.method.MethodNotFoundException;
+import net.cpollet.thorium.data.method.MethodBody;
+import net.cpollet.thorium.data.method.MethodTable;
+import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.types.Types;
+import net.cpollet.thorium.values.DirectValue;
+import net.cpollet.thorium.values.GlobalReference;
+import net.cpollet.thorium.values.Value;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Executes {@link CodeObject}s. Each invocation gets its own array of registers; the registers of the top-level code
+ * are kept as globals so that methods can access them.
+ * <p>
+ * When a {@link Memoization} is given, the methods whose name is in {@code pureMethods} are memoized.
+ *
+ * @author Christophe Pollet
+ */
+public class Interpreter {
+    private static final DirectValue VOID = DirectValue.build();
+    private static final DirectValue TRUE = DirectValue.build(true);
+
+    private final MethodTable methodTable;
+    private final Memoization memoization;
+    private final Set<String> pureMethods;
+    private CodeObject program;
+    private Value[] globals;
+    private Value[] globalReferences;
+
+    public Interpreter() {
+        this(null, Collections.emptySet());
+    }
+
+    public Interpreter(Memoization memoization, Set<String> pureMethods) {
+        this.methodTable = new MethodTable();
+        this.memoization = memoization;
+        this.pureMethods = pureMethods;
+    }
+
+    /**
+     * Executes the top-level code and returns the value of its {@code RETURN} instruction.
+     */
+    public Value run(CodeObject program) {
+        this.program = program;
+        this.globals = newRegisters(program);
+        this.globalReferences = new Value[globals.length];
+        return execute(program, globals);
+    }
+
+    /**
+     * Returns the value of a register of the top-level code, once {@link #run(CodeObject)} was called.
+     */
+    public Value getGlobal(int register) {
+        return globals[register];
+    }
+
+    Value invoke(CodeObject codeObject, MethodEvaluationContext evaluationContext) {
+        Value[] registers = newRegisters(codeObject);
+
+        for (int i = 0; i < codeObject.getParametersCount(); i++) {
+            registers[i] = evaluationContext.getParameter(i).value();
+        }
+
+        return execute(codeObject, registers);
+    }
+
+    private static Value[] newRegisters(CodeObject codeObject) {
+        Value[] registers = new Value[codeObject.getRegisterCount()];
+        Arrays.fill(registers, VOID);
+        return registers;
+    }
+
+    private Value execute(CodeObject codeObject, Value[] registers) {
+        int[] code = codeObject.getCode();
+        int last = codeObject.getLastStatementValueRegister();
+        int lastVariable = -1;
+        int pc = 0;
+
+        while (true) {
+            Opcode opcode = Opcode.decode(code[pc]);
+
+            switch (opcode) {
+                case LOAD_CONSTANT:
+                    registers[code[pc + 1]] = (Value) codeObject.getConstant(code[pc + 2]);
+                    break;
+                case MOVE:
+                    registers[code[pc + 1]] = registers[code[pc + 2]];
+                    break;
+                case STORE:
+                    store(codeObject.getVariableName(code[pc + 1]), registers, code[pc + 1], registers[code[pc + 2]]);
+
+                    if (code[pc + 1] == lastVariable) {
+                        registers[last] = registers[lastVariable];
+                    }
+                    break;
+                case LOAD_GLOBAL:
+                    registers[code[pc + 1]] = globalReference(code[pc + 2]);
+                    break;
+                case STORE_GLOBAL:
+                    store(program.getVariableName(code[pc + 1]), globals, code[pc + 1], registers[code[pc + 2]]);
+                    break;
+                case SET_LAST:
+                    registers[last] = registers[code[pc + 1]];
+                    lastVariable = -1;
+                    break;
+                case SET_LAST_VARIABLE:
+                    registers[last] = registers[code[pc + 1]];
+                    lastVariable = code[pc + 1];
+                    break;
+                case CLEAR:
+                    Arrays.fill(registers, code[pc + 1], code[pc + 1] + code[pc + 2], VOID);
+
+                    if (lastVariable >= code[pc + 1] && lastVariable < code[pc + 1] + code[pc + 2]) {
+                        lastVariable = -1;
+                    }
+                    break;
+                case ADD:
+                    registers[code[pc + 1]] = add(codeObject.getInlineCache(pc), registers[code[pc + 2]], registers[code[pc + 3]]);
+                    break;
+                case MULTIPLY:
+                    registers[code[pc + 1]] = multiply(codeObject.getInlineCache(pc), registers[code[pc + 2]], registers[code[pc + 3]]);
+                    break;
+                case LESS_THAN:
+                case LESS_THAN_OR_EQUAL:
+                case GREATER_THAN:
+                case GREATER_THAN_OR_EQUAL:
+                    registers[code[pc + 1]] = compare(opcode, codeObject.getInlineCache(pc), registers[code[pc + 2]], registers[code[pc + 3]]);
+                    break;
+                case NOT:
+                    registers[code[pc + 1]] = applyOperator(codeObject.getInlineCache(pc), registers[code[pc + 2]]);
+                    break;
+                case JUMP:
+                    pc = code[pc + 1];
+                    continue;
+                case JUMP_IF_FALSE:
+                    if (!isTrue(registers[code[pc + 1]])) {
+                        pc = code[pc + 2];
+                        continue;
+                    }
+                    break;
+                case JUMP_IF_TRUE:
+                    if (isTrue(registers[code[pc + 1]])) {
+                        pc = code[pc + 2];
+                        continue;
+                    }
+                    break;
+                case CALL:
+                    registers[code[pc + 1]] = call(codeObject.getInlineCache(pc), registers, code[pc + 3], code[pc + 4]);
+                    break;
+                case DEFINE_METHOD:
+                    defineMethod((CodeObject) codeObject.getConstant(code[pc + 1]));
+                    break;
+                case FAIL:
+                    throw new IllegalStateException((String) codeObject.getConstant(code[pc + 1]));
+                case RETURN:
+                    return registers[code[pc + 1]];
+                default:
+                    throw new IllegalStateException("Opcode " + opcode + " not supported");
+            }
+
+            pc += opcode.length();
+        }
+    }
+
+    /**
+     * Returns the register of the top-level code, read when it is used rather than when it is loaded, see
+     * {@link GlobalReference}.
+     */
+    private Value globalReference(int register) {
+        Value reference = globalReferences[register];
+
+        if (reference == null) {
+            reference = new GlobalReference(globals, register, program.getVariableName(register));
+            globalReferences[register] = reference;
+        }
+
+        return reference;
+    }
+
+    private static void store(String name, Value[] registers, int register, Value value) {
+        DirectValue directValue = value.value();
+
+        if (!directValue.hasValue()) {
+            throw new IllegalStateException("Cannot change " + name + "'s value to " + directValue + " which has no value");
+        }
+
+        Type currentType = registers[register].type();
+
+        if (currentType != Types.NULLABLE_VOID && currentType != directValue.type()) {
+            throw new IllegalStateException("Cannot change symbol " + name + " from type " + currentType + " to " + directValue.type());
+        }
+
+        registers[register] = directValue;
+    }
+
+    private static boolean isTrue(Value value) {
+        return TRUE.equals(value.value());
+    }
+
+    private static Value add(InlineCache inlineCache, Value left, Value right) {
+        if (left.type() == Types.INTEGER && right.type() == Types.INTEGER) {
+            return DirectValue.build(integer(left) + integer(right));
+        }
+
+        if (left.type() == Types.FLOAT && right.type() == Types.FLOAT) {
+            return DirectValue.build(floatingPoint(left) + floatingPoint(right));
+        }
+
+        return applyOperator(inlineCache, left, right);
+    }
+
+    private static Value multiply(InlineCache inlineCache, Value left, Value right) {
+        if (left.type() == Types.INTEGER && right.type() == Types.INTEGER) {
+            return DirectValue.build(integer(left) * integer(right));
+        }
+
+        if (left.type() == Types.FLOAT && right.type() == Types.FLOAT) {
+            return DirectValue.build(floatingPoint(left) * floatingPoint(right));
+        }
+
+        return applyOperator(inlineCache, left, right);
+    }
+
+    private static Value compare(Opcode opcode, InlineCache inlineCache, Value left, Value right) {
+        if (left.type() == Types.INTEGER && right.type() == Types.INTEGER) {
+            return DirectValue.build(compare(opcode, Long.compare(integer(left), integer(right))));
+        }
+
+        if (left.type() == Types.FLOAT && right.type() == Types.FLOAT) {
+            return DirectValue.build(compare(opcode, Double.compare(floatingPoint(left), floatingPoint(right))));
+        }
+
+        return applyOperator(inlineCache, left, right);
+    }
+
+    private static boolean compare(Opcode opcode, int comparison) {
+        switch (opcode) {
+            case LESS_THAN:
+                return comparison < 0;
+            case LESS_THAN_OR_EQUAL:
+                return comparison <= 0;
+            case GREATER_THAN:
+                return comparison > 0;
+            case GREATER_THAN_OR_EQUAL:
+                return comparison >= 0;
+            default:
+                throw new IllegalArgumentException(opcode + " is not a comparison");
+        }
+    }
+
+    private static long integer(Value value) {
+        return value.integerValue();
+    }
+
+    private static double floatingPoint(Value value) {
+        return value.floatValue();
+    }
+
+    private static Value applyOperator(InlineCache inlineCache, Value left, Value right) {
+        Method method = left.type().lookupMethod(inlineCache, right.type());
+        return method.apply(new MethodEvaluationContext(null, left, right));
+    }
+
+    private static Value applyOperator(InlineCache inlineCache, Value operand) {
+        Method method = operand.type().lookupMethod(inlineCache);
+        return method.apply(new MethodEvaluationContext(null, operand));
+    }
+
+    private Value call(InlineCache inlineCache, Value[] registers, int first, int count) {
+        Value[] parameters = Arrays.copyOfRange(registers, first, first + count);
+        Type[] parameterTypes = new Type[count];
+
+        for (int i = 0; i < count; i++) {
+            parameterTypes[i] = parameters[i].type();
+        }
+
+        Method method;
+        try {
+            method = inlineCache.lookup(methodTable, Types.VOID, parameterTypes);
+        } catch (MethodNotFoundException e) {
+            throw new IllegalStateException("Method not defined");
+        }
+
+        return method.apply(new MethodEvaluationContext(null, parameters));
+    }
+
+    private void defineMethod(CodeObject codeObject) {
+        MethodBody methodBody = new BytecodeMethodBody(this, codeObject);
+
+        if (memoization != null && pureMethods.contains(codeObject.getName())) {
+            methodBody = memoization.memoize(methodBody);
+        }
+
+        methodTable.put(codeObject.getName(), methodBody, Types.VOID, Types.VOID, codeObject.getParameterSignatures());
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.bytecode;
+
+/**
+ * Instructions of the register based virtual machine. An instruction is encoded as its opcode's ordinal followed by
+ * its operands, each one an {@code int}.
+ *
+ * @author Christophe Pollet
+ */
+public enum Opcode {
+    /**
+     * {@code LOAD_CONSTANT dst, constant}: loads a constant from the constant pool into a register.
+     */
+    LOAD_CONSTANT(Operand.REGISTER, Operand.CONSTANT),
+    /**
+     * {@code MOVE dst, src}: copies a register into another one.
+     */
+    MOVE(Operand.REGISTER, Operand.REGISTER),
+    /**
+     * {@code STORE dst, src}: assigns a value to a variable, checking it has a value and its type does not change.
+     */
+    STORE(Operand.REGISTER, Operand.REGISTER),
+    /**
+     * {@code LOAD_GLOBAL dst, global}: loads a reference to a register of the top-level code into a register. The
+     * global is read each time the reference is used, see {@link net.cpollet.thorium.values.GlobalReference}.
+     */
+    LOAD_GLOBAL(Operand.REGISTER, Operand.GLOBAL),
+    /**
+     * {@code STORE_GLOBAL global, src}: assigns a value to a top-level variable, with the same checks as STORE.
+     */
+    STORE_GLOBAL(Operand.GLOBAL, Operand.REGISTER),
+    /**
+     * {@code SET_LAST src}: copies a temporary register into the last statement value register.
+     */
+    SET_LAST(Operand.REGISTER),
+    /**
+     * {@code SET_LAST_VARIABLE src}: copies a variable into the last statement value register, which then follows
+     * the variable's assignments until it is cleared or declared again.
+     */
+    SET_LAST_VARIABLE(Operand.REGISTER),
+    /**
+     * {@code CLEAR first, count}: resets variables to Void, when leaving their scope.
+     */
+    CLEAR(Operand.REGISTER, Operand.COUNT),
+    ADD("+", Operand.REGISTER, Operand.REGISTER, Operand.REGISTER),
+    MULTIPLY("*", Operand.REGISTER, Operand.REGISTER, Operand.REGISTER),
+    LESS_THAN("<", Operand.REGISTER, Operand.REGISTER, Operand.REGISTER),
+    LESS_THAN_OR_EQUAL("<=", Operand.REGISTER, Operand.REGISTER, Operand.REGISTER),
+    GREATER_THAN(">", Operand.REGISTER, Operand.REGISTER, Operand.REGISTER),
+    GREATER_THAN_OR_EQUAL(">=", Operand.REGISTER, Operand.REGISTER, Operand.REGISTER),
+    NOT("!", Operand.REGISTER, Operand.REGISTER),
+    /**
+     * {@code JUMP target}
+     */
+    JUMP(Operand.TARGET),
+    /**
+     * {@code JUMP_IF_FALSE condition, target}: jumps unless the condition is {@code true}.
+     */
+    JUMP_IF_FALSE(Operand.REGISTER, Operand.TARGET),
+    /**
+     * {@code JUMP_IF_TRUE condition, target}: jumps if the condition is {@code true}.
+     */
+    JUMP_IF_TRUE(Operand.REGISTER, Operand.TARGET),
+    /**
+     * {@code CALL dst, name, first, count}: calls the method named after the constant, with the parameters stored in
+     * {@code count} registers starting at {@code first}.
+     */
+    CALL(Operand.REGISTER, Operand.CONSTANT, Operand.REGISTER, Operand.COUNT),
+    /**
+     * {@code DEFINE_METHOD code}: registers the method whose code object is the constant.
+     */
+    DEFINE_METHOD(Operand.CONSTANT),
+    /**
+     * {@code FAIL message}: throws an {@link IllegalStateException} whose message is the constant.
+     */
+    FAIL(Operand.CONSTANT),
+    /**
+     * {@code RETURN src}
+     */
+    RETURN(Operand.REGISTER);
+
+    public enum Operand {
+        REGISTER, CONSTANT, GLOBAL, TARGET, COUNT
+    }
+
+    private static final Opcode[] OPCODES = values();
+
+    private final String operator;
+    private final Operand[] operands;
+
+    Opcode(Operand... operands) {
+        this(null, operands);
+    }
+
+    Opcode(String operator, Operand... operands) {
+        this.operator = operator;
+        this.operands = operands;
+    }
+
+    public static Opcode decode(int code) {
+        return OPCODES[code];
+    }
+
+    /**
+     * The method name of the operator implemented by this instruction, or {@code null}.
+     */
+    public String operator() {
+        return operator;
+    }
+
+    public Operand operand(int index) {
+        return operands[index];
+    }
+
+    public int length() {
+        return operands.length + 1;
+    }
+}
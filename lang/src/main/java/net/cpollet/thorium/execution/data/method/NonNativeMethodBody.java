@@ -17,26 +17,207 @@
 package net.cpollet.thorium.execution.data.method;
 
 import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.data.method.MemoizedMethodBody;
+import net.cpollet.thorium.data.method.Method;
 import net.cpollet.thorium.data.method.MethodBody;
 import net.cpollet.thorium.data.method.MethodEvaluationContext;
+import net.cpollet.thorium.data.method.MethodSignature;
+import net.cpollet.thorium.execution.ExecutionContext;
 import net.cpollet.thorium.execution.ExecutionVisitor;
+import net.cpollet.thorium.execution.data.symbol.Symbol;
 import net.cpollet.thorium.values.Value;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
 
 /**
+ * The body of a method defined in Thorium, executed by an {@link ExecutionVisitor}.
+ * <p>
+ * The calls in tail position, whose value is the method's last statement value, are not executed by the visitor:
+ * it only evaluates their parameters and hands them back. The called method is then executed in a loop, in place of
+ * the calling one, so that recursion in tail position runs in constant stack and memory. As with any call, the called
+ * method sees the variables of the calling one. Its frame replaces the calling one's when its parameters hide all the
+ * variables the calling frame and its blocks define. Otherwise, the variables visible from where the call was reached
+ * are first copied in the frame the method was called with, below the new frame: they are kept once per name
+ * however many tail calls are chained.
+ * <p>
+ * The visitors are pooled by the body, one per recursion depth, and keep their inline caches from one call to the
+ * next. A body is created each time its method definition is executed, so its pool lives as long as the execution
+ * defining it; pooled visitors do not keep the context of their last call.
+ *
  * @author Christophe Pollet
  */
 public class NonNativeMethodBody implements MethodBody {
     private final ThoriumParser.StatementsContext statementsContext;
+    private final Set<ParseTree> declaringScopes;
+    private final Set<ParseTree> tailCalls;
+    private final Deque<ExecutionVisitor> visitors = new ConcurrentLinkedDeque<>();
 
-    public NonNativeMethodBody(ThoriumParser.StatementsContext statementsContext) {
+    /**
+     * @param declaringScopes the nodes in which symbols may be defined, see
+     *                        {@link net.cpollet.thorium.analysis.DeclaringScopeAnalyser}.
+     */
+    public NonNativeMethodBody(ThoriumParser.StatementsContext statementsContext, Set<ParseTree> declaringScopes) {
         this.statementsContext = statementsContext;
+        this.declaringScopes = declaringScopes;
+        this.tailCalls = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        collectTailCalls(statementsContext);
+    }
+
+    /**
+     * Returns the body of method if it is defined in Thorium, memoized or not, {@code null} otherwise. A memoized
+     * method called in tail position is not memoized for that call.
+     */
+    public static NonNativeMethodBody of(Method method) {
+        MethodBody methodBody = method.getMethodBody();
+
+        if (methodBody instanceof MemoizedMethodBody) {
+            methodBody = ((MemoizedMethodBody) methodBody).getMethodBody();
+        }
+
+        return methodBody instanceof NonNativeMethodBody ? (NonNativeMethodBody) methodBody : null;
+    }
+
+    private void collectTailCalls(ThoriumParser.StatementsContext ctx) {
+        List<ThoriumParser.StatementContext> statements = ctx.statement();
+        int last = statements.size() - 1;
+
+        while (last > 0 && isEmpty(statements.get(last))) {
+            last--;
+        }
+
+        ThoriumParser.StatementContext statement = statements.get(last);
+
+        if (statement.expressionStatement() != null) {
+            collectTailCall(statement.expressionStatement());
+        } else if (statement.block() != null && statement.block().statementsBlock() != null) {
+            collectTailCalls(statement.block().statementsBlock().statements());
+        } else if (statement.block() != null && statement.block().ifStatement() != null) {
+            collectTailCalls(statement.block().ifStatement());
+        }
+    }
+
+    private static boolean isEmpty(ThoriumParser.StatementContext ctx) {
+        return ctx.block() == null && ctx.expressionStatement() == null &&
+                ctx.variableOrConstantDeclarationStatement() == null && ctx.methodDefinition() == null;
+    }
+
+    private void collectTailCall(ThoriumParser.ExpressionStatementContext ctx) {
+        if (ctx instanceof ThoriumParser.UnconditionalStatementContext) {
+            collectTailCall(((ThoriumParser.UnconditionalStatementContext) ctx).expression());
+        } else if (ctx instanceof ThoriumParser.ConditionalIfStatementContext) {
+            collectTailCall(((ThoriumParser.ConditionalIfStatementContext) ctx).expression(0));
+        } else if (ctx instanceof ThoriumParser.ConditionalUnlessStatementContext) {
+            collectTailCall(((ThoriumParser.ConditionalUnlessStatementContext) ctx).expression(0));
+        }
+    }
+
+    private void collectTailCall(ThoriumParser.ExpressionContext ctx) {
+        while (ctx instanceof ThoriumParser.ParenthesisExpressionContext) {
+            ctx = ((ThoriumParser.ParenthesisExpressionContext) ctx).expression();
+        }
+
+        if (ctx instanceof ThoriumParser.MethodCallExpressionContext) {
+            tailCalls.add(ctx);
+        }
+    }
+
+    private void collectTailCalls(ThoriumParser.IfStatementContext ctx) {
+        collectTailCalls(ctx.statements());
+
+        ThoriumParser.ElseStatementContext elseCtx = ctx.elseStatement();
+
+        if (elseCtx != null && elseCtx.statements() != null) {
+            collectTailCalls(elseCtx.statements());
+        } else if (elseCtx != null && elseCtx.ifStatement() != null) {
+            collectTailCalls(elseCtx.ifStatement());
+        }
     }
 
     @Override
     public Value apply(MethodEvaluationContext evaluationContext) {
-        ExecutionVisitor executionVisitor = new ExecutionVisitor(evaluationContext.getExecutionContext());
-        executionVisitor.visit(statementsContext);
+        ExecutionVisitor executionVisitor = visitors.poll();
+
+        if (executionVisitor == null) {
+            executionVisitor = new ExecutionVisitor(evaluationContext.getExecutionContext(), declaringScopes);
+        }
+
+        try {
+            return apply(evaluationContext, executionVisitor);
+        } finally {
+            executionVisitor.clear();
+            visitors.push(executionVisitor);
+        }
+    }
+
+    private Value apply(MethodEvaluationContext evaluationContext, ExecutionVisitor executionVisitor) {
+        ExecutionContext frame = evaluationContext.getExecutionContext();
+        ExecutionContext context = frame;
+
+        TailCall tailCall = executionVisitor.visitMethodBody(context, statementsContext, tailCalls);
+
+        while (tailCall != null) {
+            NonNativeMethodBody body = tailCall.getMethodBody();
+            MethodSignature signature = tailCall.getMethod().getMethodSignature();
+            List<Value> parameterValues = tailCall.getParameterValues();
+
+            if (tailCall.getContext().definesOnly(context, parameterNames(signature))) {
+                context = context.unwrap().wrap();
+            } else {
+                context = inheritingFrame(frame, context, tailCall.getContext().visibleSymbols(frame));
+            }
+
+            for (int i = 0; i < parameterValues.size(); i++) {
+                context.insertSymbol(new Symbol(signature.getParameterName(i), parameterValues.get(i).value()));
+            }
+
+            tailCall = executionVisitor.visitMethodBody(context, body.statementsContext, body.tailCalls);
+        }
+
+        Value value = context.getLastStatementValue();
+
+        if (context != frame) {
+            context.unwrap();
+        }
+
+        frame.setLastStatementValue(value);
+
+        return value;
+    }
+
+    /**
+     * Clears frame, the context the method was called with, inserts the symbols in it and returns a new context
+     * wrapping it. context is the current frame, either frame or the one it wraps.
+     */
+    private static ExecutionContext inheritingFrame(ExecutionContext frame, ExecutionContext context, Map<String, Symbol> symbols) {
+        if (context != frame) {
+            context.unwrap();
+        }
+
+        ExecutionContext inherited = frame.unwrap().wrap();
+
+        for (Symbol symbol : symbols.values()) {
+            inherited.insertSymbol(symbol);
+        }
+
+        return inherited.wrap();
+    }
+
+    private static List<String> parameterNames(MethodSignature signature) {
+        List<String> names = new ArrayList<>(signature.getParametersCount());
+
+        for (int i = 0; i < signature.getParametersCount(); i++) {
+            names.add(signature.getParameterName(i));
+        }
 
-        return evaluationContext.getExecutionContext().getLastStatementValue();
+        return names;
     }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.data.method;
+
+import net.cpollet.thorium.data.method.Method;
+import net.cpollet.thorium.execution.ExecutionContext;
+import net.cpollet.thorium.values.Value;
+
+import java.util.List;
+
+/**
+ * A call in tail position, whose parameters are evaluated but that is not executed yet. See
+ * {@link NonNativeMethodBody}.
+ *
+ * @author Christophe Pollet
+ */
+public class TailCall {
+    private final Method method;
+    private final NonNativeMethodBody methodBody;
+    private final List<Value> parameterValues;
+    private final ExecutionContext context;
+
+    public TailCall(Method method, NonNativeMethodBody methodBody, List<Value> parameterValues, ExecutionContext context) {
+        this.method = method;
+        this.methodBody = methodBody;
+        this.parameterValues = parameterValues;
+        this.context = context;
+    }
+
+    public Method getMethod() {
+        return method;
+    }
+
+    public NonNativeMethodBody getMethodBody() {
+        return methodBody;
+    }
+
+    public List<Value> getParameterValues() {
+        return parameterValues;
+    }
+
+    /**
+     * Returns the context the call was reached in, the one a call not in tail position would wrap.
+     */
+    public ExecutionContext getContext() {
+        return context;
+    }
+}
@@ -22,12 +22,17 @@ import net.cpollet.thorium.values.DirectValue;
 import net.cpollet.thorium.values.Value;
 
 /**
+ * A mutable variable. Integers and Floats assigned through {@link #setIntegerValue(long)} and
+ * {@link #setFloatValue(double)} are kept unboxed; the {@link DirectValue} is only built when {@link #value()} is
+ * requested.
+ *
  * @author Christophe Pollet
  */
 public class Symbol implements Value {
     private String name;
     private Type type;
     private DirectValue value;
+    private long unboxedValue;
 
     public Symbol(String name) {
         this.name = name;
@@ -70,20 +75,57 @@ public class Symbol implements Value {
         this.value = value;
     }
 
+    /**
+     * Sets the value to the Integer {@code integerValue} without boxing it.
+     */
+    public void setIntegerValue(long integerValue) {
+        setType(Types.INTEGER);
+        this.value = null;
+        this.unboxedValue = integerValue;
+    }
+
+    /**
+     * Sets the value to the Float {@code floatValue} without boxing it.
+     */
+    public void setFloatValue(double floatValue) {
+        setType(Types.FLOAT);
+        this.value = null;
+        this.unboxedValue = Double.doubleToRawLongBits(floatValue);
+    }
+
     @Override
     public DirectValue value() {
+        if (value == null) {
+            value = type == Types.INTEGER ? DirectValue.build(integerValue()) : DirectValue.build(floatValue());
+        }
+
         return value;
     }
 
     @Override
     public boolean hasValue() {
-        return value.hasValue();
+        return value == null || value.hasValue();
+    }
+
+    @Override
+    public long integerValue() {
+        return value == null ? unboxedValue : value.integerValue();
+    }
+
+    @Override
+    public double floatValue() {
+        return value == null ? Double.longBitsToDouble(unboxedValue) : value.floatValue();
+    }
+
+    @Override
+    public boolean booleanValue() {
+        return value().booleanValue();
     }
 
     @Override
     public String toString() {
-        if (value.hasValue()) {
-            return "Symbol(" + name + ": " + value + ")";
+        if (hasValue()) {
+            return "Symbol(" + name + ": " + value() + ")";
         }
 
         return "Symbol(" + name + ": " + type + ")";
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.execution.data.symbol.Symbol;
+import net.cpollet.thorium.types.Types;
+import net.cpollet.thorium.values.Value;
+
+/**
+ * Assigns a value to a variable. When the variable already holds an Integer or a Float and the assignment is executed
+ * as a statement, the value is computed and stored unboxed.
+ *
+ * @author Christophe Pollet
+ */
+public class AssignmentNode extends Node {
+    private final VariableNode identifier;
+    private Child expression;
+
+    public AssignmentNode(VariableNode identifier, Node expression) {
+        this.identifier = identifier;
+        this.expression = new Child(adopt(expression));
+    }
+
+    @Override
+    public Value execute(Frame frame) {
+        Symbol symbol = identifier.execute(frame);
+        Value right = expression.get().execute(frame);
+
+        assign(symbol, right);
+
+        return right.value();
+    }
+
+    @Override
+    public void executeVoid(Frame frame) {
+        store(frame);
+    }
+
+    @Override
+    public void executeStatement(Frame frame) {
+        Symbol symbol = store(frame);
+
+        if (symbol.type() == Types.INTEGER) {
+            frame.setLastStatementValue(symbol.integerValue());
+        } else if (symbol.type() == Types.FLOAT) {
+            frame.setLastStatementValue(symbol.floatValue());
+        } else {
+            frame.setLastStatementValue(symbol.value());
+        }
+    }
+
+    private Symbol store(Frame frame) {
+        Symbol symbol = identifier.execute(frame);
+
+        if (symbol.type() == Types.INTEGER) {
+            try {
+                symbol.setIntegerValue(expression.get().executeLong(frame));
+            } catch (UnexpectedResultException e) {
+                assign(symbol, e.getResult());
+            }
+        } else if (symbol.type() == Types.FLOAT) {
+            try {
+                symbol.setFloatValue(expression.get().executeDouble(frame));
+            } catch (UnexpectedResultException e) {
+                assign(symbol, e.getResult());
+            }
+        } else {
+            assign(symbol, expression.get().execute(frame));
+        }
+
+        return symbol;
+    }
+
+    private static void assign(Symbol symbol, Value value) {
+        symbol.setValue(value.value());
+        symbol.setType(value.type());
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (expression.get() == oldChild) {
+            expression = new Child(newChild);
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+/**
+ * The binary operators having specialized nodes.
+ *
+ * @author Christophe Pollet
+ */
+enum BinaryOperator {
+    PLUS("+"),
+    TIMES("*"),
+    LESS_THAN("<"),
+    LESS_THAN_OR_EQUAL("<="),
+    GREATER_THAN(">"),
+    GREATER_THAN_OR_EQUAL(">=");
+
+    private final String symbol;
+
+    BinaryOperator(String symbol) {
+        this.symbol = symbol;
+    }
+
+    /**
+     * Returns the operator named {@code symbol}, or {@code null} if it has no specialized nodes.
+     */
+    static BinaryOperator of(String symbol) {
+        for (BinaryOperator operator : values()) {
+            if (operator.symbol.equals(symbol)) {
+                return operator;
+            }
+        }
+
+        return null;
+    }
+
+    boolean isComparison() {
+        return this != PLUS && this != TIMES;
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.values.Value;
+
+/**
+ * A binary operator. It starts as an {@link UninitializedBinaryOperatorNode} that replaces itself, on first execution,
+ * by a node specialized for the types of its operands. When the types change, the specialized node replaces itself by
+ * a {@link GenericBinaryOperatorNode}, which looks the operator up on each execution.
+ *
+ * @author Christophe Pollet
+ */
+public abstract class BinaryOperatorNode extends Node {
+    protected final String operator;
+    protected final SpecializationCounters counters;
+    private Child left;
+    private Child right;
+
+    protected BinaryOperatorNode(String operator, Node left, Node right, SpecializationCounters counters) {
+        this.operator = operator;
+        this.counters = counters;
+        this.left = new Child(adopt(left));
+        this.right = new Child(adopt(right));
+    }
+
+    @Override
+    public Value execute(Frame frame) {
+        Value leftValue = left.get().execute(frame);
+        Value rightValue = right.get().execute(frame);
+
+        return execute(frame, leftValue, rightValue);
+    }
+
+    /**
+     * Applies the operator to already evaluated operands.
+     */
+    protected abstract Value execute(Frame frame, Value leftValue, Value rightValue);
+
+    /**
+     * Replaces this specialized node by a generic one and applies the operator with it.
+     */
+    protected Value despecialize(Frame frame, Value leftValue, Value rightValue) {
+        if (getReplacement() != null) {
+            return ((BinaryOperatorNode) getReplacement()).execute(frame, leftValue, rightValue);
+        }
+
+        counters.recordDespecialized();
+
+        return replace(new GenericBinaryOperatorNode(operator, left.get(), right.get(), counters)).execute(frame, leftValue, rightValue);
+    }
+
+    protected Node getLeft() {
+        return left.get();
+    }
+
+    protected Node getRight() {
+        return right.get();
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (left.get() == oldChild) {
+            left = new Child(newChild);
+        } else if (right.get() == oldChild) {
+            right = new Child(newChild);
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
+}
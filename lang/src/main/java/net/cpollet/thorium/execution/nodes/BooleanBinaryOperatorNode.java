@@ -0,0 +1,54 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.types.Types;
+import net.cpollet.thorium.values.DirectValue;
+import net.cpollet.thorium.values.Value;
+
+/**
+ * Applies {@code +} (or) and {@code *} (and) to two non-nullable Booleans.
+ *
+ * @author Christophe Pollet
+ */
+public class BooleanBinaryOperatorNode extends BinaryOperatorNode {
+    private final BinaryOperator binaryOperator;
+
+    BooleanBinaryOperatorNode(BinaryOperator binaryOperator, String operator, Node left, Node right, SpecializationCounters counters) {
+        super(operator, left, right, counters);
+        this.binaryOperator = binaryOperator;
+    }
+
+    @Override
+    protected Value execute(Frame frame, Value leftValue, Value rightValue) {
+        if (leftValue.type() != Types.BOOLEAN || rightValue.type() != Types.BOOLEAN) {
+            return despecialize(frame, leftValue, rightValue);
+        }
+
+        boolean left = leftValue.booleanValue();
+        boolean right = rightValue.booleanValue();
+
+        switch (binaryOperator) {
+            case PLUS:
+                return DirectValue.build(left || right);
+            case TIMES:
+                return DirectValue.build(left && right);
+            default:
+                throw new IllegalStateException("Operator " + operator + " not supported");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.types.Types;
+import net.cpollet.thorium.values.DirectValue;
+import net.cpollet.thorium.values.Value;
+
+/**
+ * Negates a non-nullable Boolean.
+ *
+ * @author Christophe Pollet
+ */
+public class BooleanNotNode extends UnaryOperatorNode {
+    BooleanNotNode(String operator, Node operand, SpecializationCounters counters) {
+        super(operator, operand, counters);
+    }
+
+    @Override
+    protected Value execute(Frame frame, Value value) {
+        if (value.type() != Types.BOOLEAN) {
+            return despecialize(frame, value);
+        }
+
+        return DirectValue.build(!value.booleanValue());
+    }
+}
@@ -0,0 +1,36 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+/**
+ * Holds a child that can be replaced. A parent keeps its replaceable children in plain fields of this type and
+ * installs a new holder when it replaces one, see {@link Node#replace(Node)}. Since the child is held in a final
+ * field, a thread reading the holder without synchronization sees the child as it was when the holder was built.
+ *
+ * @author Christophe Pollet
+ */
+final class Child {
+    private final Node node;
+
+    Child(Node node) {
+        this.node = node;
+    }
+
+    Node get() {
+        return node;
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.values.DirectValue;
+import net.cpollet.thorium.values.Value;
+
+/**
+ * Implements both {@code expression if condition;} and {@code expression unless condition;}.
+ *
+ * @author Christophe Pollet
+ */
+public class ConditionalStatementNode extends Node {
+    private Child expression;
+    private Child condition;
+    private final boolean expected;
+
+    public ConditionalStatementNode(Node expression, Node condition, boolean expected) {
+        this.expression = new Child(adopt(expression));
+        this.condition = new Child(adopt(condition));
+        this.expected = expected;
+    }
+
+    @Override
+    public Value execute(Frame frame) {
+        if (Nodes.isTrue(condition.get(), frame) == expected) {
+            expression.get().executeStatement(frame);
+        } else {
+            frame.setLastStatementValue(DirectValue.build());
+        }
+
+        return null;
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (expression.get() == oldChild) {
+            expression = new Child(newChild);
+        } else if (condition.get() == oldChild) {
+            condition = new Child(newChild);
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.execution.data.symbol.Symbol;
+import net.cpollet.thorium.values.Value;
+
+/**
+ * Declares a variable or a constant in its slot of the current frame. {@code expression} can be {@code null}. Returns the
+ * symbol's value, so it can be used as a {@code for} loop initializer.
+ *
+ * @author Christophe Pollet
+ */
+public class DeclarationNode extends Node {
+    private final String name;
+    private final int slot;
+    private Child expression;
+
+    public DeclarationNode(String name, int slot, Node expression) {
+        this.name = name;
+        this.slot = slot;
+        this.expression = new Child(adopt(expression));
+    }
+
+    @Override
+    public Value execute(Frame frame) {
+        if (frame.getSlot(slot) != null) {
+            throw new IllegalStateException("Symbol " + name + " already defined in current scope");
+        }
+
+        Symbol symbol = new Symbol(name);
+
+        if (expression.get() != null) {
+            Value value = expression.get().execute(frame);
+            symbol.setValue(value.value());
+            symbol.setType(symbol.value().type());
+        }
+
+        frame.setSlot(slot, symbol);
+
+        return symbol.value();
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (expression.get() == oldChild) {
+            expression = new Child(newChild);
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
+}
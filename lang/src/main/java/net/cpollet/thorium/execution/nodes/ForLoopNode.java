@@ -0,0 +1,68 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.values.Value;
+
+/**
+ * A {@code for} loop, without its own scope. {@code init}, {@code condition} and {@code increment} can be
+ * {@code null}.
+ *
+ * @author Christophe Pollet
+ */
+public class ForLoopNode extends Node {
+    private Child init;
+    private Child condition;
+    private Child increment;
+    private final Node body;
+
+    public ForLoopNode(Node init, Node condition, Node increment, Node body) {
+        this.init = new Child(adopt(init));
+        this.condition = new Child(adopt(condition));
+        this.increment = new Child(adopt(increment));
+        this.body = body;
+    }
+
+    @Override
+    public Value execute(Frame frame) {
+        if (init.get() != null) {
+            init.get().executeVoid(frame);
+        }
+
+        while (condition.get() == null || Nodes.isTrue(condition.get(), frame)) {
+            body.execute(frame);
+            if (increment.get() != null) {
+                increment.get().executeVoid(frame);
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (init.get() == oldChild) {
+            init = new Child(newChild);
+        } else if (condition.get() == oldChild) {
+            condition = new Child(newChild);
+        } else if (increment.get() == oldChild) {
+            increment = new Child(newChild);
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
+}
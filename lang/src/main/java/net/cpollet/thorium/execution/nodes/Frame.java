@@ -0,0 +1,109 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.execution.ExecutionContext;
+import net.cpollet.thorium.execution.data.symbol.Symbol;
+import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.types.Types;
+import net.cpollet.thorium.values.DirectValue;
+import net.cpollet.thorium.values.Value;
+
+import java.util.Arrays;
+
+/**
+ * The variables of one activation of the top-level code or of a method, stored in slots resolved by
+ * {@link NodeCompiler}. A slot is {@code null} until its variable is declared or first used. The parent frame is the
+ * frame the method was defined in; a variable at depth {@code n} lives in the {@code n}-th parent.
+ * <p>
+ * An Integer or Float last statement value is kept unboxed until it is read.
+ *
+ * @author Christophe Pollet
+ */
+public class Frame {
+    private final ExecutionContext context;
+    private final Frame parent;
+    private final Symbol[] slots;
+    private Value lastStatementValue;
+    private Type unboxedLastStatementType;
+    private long unboxedLastStatementValue;
+
+    public Frame(ExecutionContext context, Frame parent, int size) {
+        this.context = context;
+        this.parent = parent;
+        this.slots = new Symbol[size];
+    }
+
+    /**
+     * Returns the context holding the method table.
+     */
+    public ExecutionContext getContext() {
+        return context;
+    }
+
+    Frame getAncestor(int depth) {
+        Frame frame = this;
+
+        for (int i = 0; i < depth; i++) {
+            frame = frame.parent;
+        }
+
+        return frame;
+    }
+
+    Symbol getSlot(int index) {
+        return slots[index];
+    }
+
+    void setSlot(int index, Symbol symbol) {
+        slots[index] = symbol;
+    }
+
+    /**
+     * Empties the slots of a scope being left.
+     */
+    void clearSlots(int first, int count) {
+        Arrays.fill(slots, first, first + count, null);
+    }
+
+    public Value getLastStatementValue() {
+        if (unboxedLastStatementType == Types.INTEGER) {
+            lastStatementValue = DirectValue.build(unboxedLastStatementValue);
+        } else if (unboxedLastStatementType == Types.FLOAT) {
+            lastStatementValue = DirectValue.build(Double.longBitsToDouble(unboxedLastStatementValue));
+        }
+
+        unboxedLastStatementType = null;
+
+        return lastStatementValue;
+    }
+
+    public void setLastStatementValue(Value lastStatementValue) {
+        this.lastStatementValue = lastStatementValue;
+        this.unboxedLastStatementType = null;
+    }
+
+    public void setLastStatementValue(long lastStatementValue) {
+        this.unboxedLastStatementValue = lastStatementValue;
+        this.unboxedLastStatementType = Types.INTEGER;
+    }
+
+    public void setLastStatementValue(double lastStatementValue) {
+        this.unboxedLastStatementValue = Double.doubleToRawLongBits(lastStatementValue);
+        this.unboxedLastStatementType = Types.FLOAT;
+    }
+}
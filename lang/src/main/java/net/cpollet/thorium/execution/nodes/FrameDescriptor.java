@@ -0,0 +1,57 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Describes the slots of the {@link Frame}s of the top-level code or of a method. Each variable declaration gets its
+ * own slot, so the slots of nested scopes never overlap.
+ *
+ * @author Christophe Pollet
+ */
+public class FrameDescriptor {
+    private final List<String> slotNames = new ArrayList<>();
+    private final List<Integer> rootSlots = new ArrayList<>();
+
+    int addSlot(String name, boolean root) {
+        slotNames.add(name);
+
+        if (root) {
+            rootSlots.add(slotNames.size() - 1);
+        }
+
+        return slotNames.size() - 1;
+    }
+
+    public int getSize() {
+        return slotNames.size();
+    }
+
+    public String getSlotName(int index) {
+        return slotNames.get(index);
+    }
+
+    /**
+     * Returns the slots of the variables defined in the outermost scope; for the top-level code, these are the global
+     * variables.
+     */
+    public List<Integer> getRootSlots() {
+        return rootSlots;
+    }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.data.method.MethodBody;
+import net.cpollet.thorium.data.method.MethodEvaluationContext;
+import net.cpollet.thorium.types.Operator;
+import net.cpollet.thorium.types.OperatorTable;
+import net.cpollet.thorium.values.Value;
+
+/**
+ * @author Christophe Pollet
+ */
+public class GenericUnaryOperatorNode extends UnaryOperatorNode {
+    private final Operator operator;
+
+    public GenericUnaryOperatorNode(String operator, Node operand, SpecializationCounters counters) {
+        super(operator, operand, counters);
+        this.operator = Operator.of(operator);
+    }
+
+    @Override
+    protected Value execute(Frame frame, Value value) {
+        MethodBody methodBody = OperatorTable.unary(operator, value.type());
+
+        return methodBody.apply(new MethodEvaluationContext(frame.getContext(), value));
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.values.DirectValue;
+import net.cpollet.thorium.values.Value;
+
+/**
+ * An {@code if} statement, without its own scope. The {@code elseBranch} is either a statements node or another
+ * {@link IfNode} for {@code else if}; it can be {@code null}.
+ *
+ * @author Christophe Pollet
+ */
+public class IfNode extends Node {
+    private Child condition;
+    private final Node thenBranch;
+    private final Node elseBranch;
+
+    public IfNode(Node condition, Node thenBranch, Node elseBranch) {
+        this.condition = new Child(adopt(condition));
+        this.thenBranch = thenBranch;
+        this.elseBranch = elseBranch;
+    }
+
+    @Override
+    public Value execute(Frame frame) {
+        if (Nodes.isTrue(condition.get(), frame)) {
+            thenBranch.execute(frame);
+        } else if (elseBranch != null) {
+            elseBranch.execute(frame);
+        } else {
+            frame.setLastStatementValue(DirectValue.build());
+        }
+
+        return null;
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (condition.get() == oldChild) {
+            condition = new Child(newChild);
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.types.Types;
+import net.cpollet.thorium.values.DirectValue;
+import net.cpollet.thorium.values.Value;
+
+/**
+ * Applies an operator to two non-nullable Integers. Arithmetic operators also evaluate unboxed through
+ * {@link #executeLong(Frame)}.
+ *
+ * @author Christophe Pollet
+ */
+public class IntegerBinaryOperatorNode extends BinaryOperatorNode {
+    private final BinaryOperator binaryOperator;
+
+    IntegerBinaryOperatorNode(BinaryOperator binaryOperator, String operator, Node left, Node right, SpecializationCounters counters) {
+        super(operator, left, right, counters);
+        this.binaryOperator = binaryOperator;
+    }
+
+    @Override
+    public long executeLong(Frame frame) throws UnexpectedResultException {
+        if (binaryOperator.isComparison()) {
+            throw new UnexpectedResultException(execute(frame));
+        }
+
+        long left;
+        try {
+            left = getLeft().executeLong(frame);
+        } catch (UnexpectedResultException e) {
+            throw new UnexpectedResultException(execute(frame, e.getResult(), getRight().execute(frame)));
+        }
+
+        long right;
+        try {
+            right = getRight().executeLong(frame);
+        } catch (UnexpectedResultException e) {
+            throw new UnexpectedResultException(execute(frame, DirectValue.build(left), e.getResult()));
+        }
+
+        return binaryOperator == BinaryOperator.PLUS ? left + right : left * right;
+    }
+
+    @Override
+    protected Value execute(Frame frame, Value leftValue, Value rightValue) {
+        if (leftValue.type() != Types.INTEGER || rightValue.type() != Types.INTEGER) {
+            return despecialize(frame, leftValue, rightValue);
+        }
+
+        long left = leftValue.integerValue();
+        long right = rightValue.integerValue();
+
+        switch (binaryOperator) {
+            case PLUS:
+                return DirectValue.build(left + right);
+            case TIMES:
+                return DirectValue.build(left * right);
+            case LESS_THAN:
+                return DirectValue.build(left < right);
+            case LESS_THAN_OR_EQUAL:
+                return DirectValue.build(left <= right);
+            case GREATER_THAN:
+                return DirectValue.build(left > right);
+            case GREATER_THAN_OR_EQUAL:
+                return DirectValue.build(left >= right);
+            default:
+                throw new IllegalStateException("Operator " + operator + " not supported");
+        }
+    }
+}
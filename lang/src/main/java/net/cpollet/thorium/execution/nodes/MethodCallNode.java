@@ -0,0 +1,67 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.data.method.InlineCache;
+import net.cpollet.thorium.data.method.Method;
+import net.cpollet.thorium.data.method.MethodEvaluationContext;
+import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.values.Value;
+
+/**
+ * @author Christophe Pollet
+ */
+public class MethodCallNode extends Node {
+    private final Child[] parameters;
+    private final InlineCache inlineCache;
+
+    public MethodCallNode(String methodName, Node[] parameters) {
+        this.parameters = new Child[parameters.length];
+        this.inlineCache = new InlineCache(methodName);
+
+        for (int i = 0; i < parameters.length; i++) {
+            this.parameters[i] = new Child(adopt(parameters[i]));
+        }
+    }
+
+    @Override
+    public Value execute(Frame frame) {
+        Value[] parameterValues = new Value[parameters.length];
+        Type[] parameterTypes = new Type[parameters.length];
+
+        for (int i = 0; i < parameters.length; i++) {
+            parameterValues[i] = parameters[i].get().execute(frame);
+            parameterTypes[i] = parameterValues[i].type();
+        }
+
+        Method method = frame.getContext().lookupMethod(inlineCache, parameterTypes);
+
+        return method.apply(new MethodEvaluationContext(frame.getContext(), parameterValues));
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i].get() == oldChild) {
+                parameters[i] = new Child(newChild);
+                return;
+            }
+        }
+
+        super.replaceChild(oldChild, newChild);
+    }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.data.method.ParameterSignature;
+import net.cpollet.thorium.types.Types;
+import net.cpollet.thorium.values.Value;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Defines a method whose body sees the variables of the frame it is defined in.
+ *
+ * @author Christophe Pollet
+ */
+public class MethodDefinitionNode extends Node {
+    private final String name;
+    private final List<ParameterSignature> parameterSignatures;
+    private final List<String> parameterNames;
+    private final Node body;
+    private final FrameDescriptor frameDescriptor;
+
+    public MethodDefinitionNode(String name, List<ParameterSignature> parameterSignatures, Node body, FrameDescriptor frameDescriptor) {
+        this.name = name;
+        this.parameterSignatures = parameterSignatures;
+        this.parameterNames = parameterSignatures.stream()
+                .map(ParameterSignature::getName)
+                .collect(Collectors.toList());
+        this.body = body;
+        this.frameDescriptor = frameDescriptor;
+    }
+
+    @Override
+    public Value execute(Frame frame) {
+        NodeMethodBody methodBody = new NodeMethodBody(body, frameDescriptor, parameterNames, frame);
+
+        frame.getContext().insertMethod(name, methodBody, Types.VOID, Types.VOID, parameterSignatures);
+
+        return null;
+    }
+}
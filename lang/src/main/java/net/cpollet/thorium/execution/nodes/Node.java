@@ -0,0 +1,158 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.types.Types;
+import net.cpollet.thorium.values.Value;
+
+/**
+ * Executable node, built once from the parse tree by {@link NodeCompiler}. Expression nodes return their value,
+ * statement nodes return {@code null} and record their value as the frame's last statement value.
+ * <p>
+ * A node may replace itself in its parent by a node better suited to the values it observes, see
+ * {@link BinaryOperatorNode}.
+ * <p>
+ * Nodes computing Integers or Floats can override {@link #executeLong(Frame)} and {@link #executeDouble(Frame)} to
+ * hand their result over unboxed.
+ *
+ * <p>
+ * A compiled tree can be executed by several threads at once; rewrites are serialized per tree, see
+ * {@link #replace(Node)}. The children that can be replaced are held in {@link Child} holders: executing threads read
+ * them without synchronization and still see a child installed by another thread fully initialized.
+ *
+ * @author Christophe Pollet
+ */
+public abstract class Node {
+    private volatile Node parent;
+    private volatile Node replacement;
+
+    public abstract Value execute(Frame frame);
+
+    /**
+     * Executes this node, expecting an Integer.
+     *
+     * @throws UnexpectedResultException if the node evaluated to another type
+     */
+    public long executeLong(Frame frame) throws UnexpectedResultException {
+        Value value = execute(frame);
+
+        if (value.type() != Types.INTEGER) {
+            throw new UnexpectedResultException(value);
+        }
+
+        return value.integerValue();
+    }
+
+    /**
+     * Executes this node, expecting a Float.
+     *
+     * @throws UnexpectedResultException if the node evaluated to another type
+     */
+    public double executeDouble(Frame frame) throws UnexpectedResultException {
+        Value value = execute(frame);
+
+        if (value.type() != Types.FLOAT) {
+            throw new UnexpectedResultException(value);
+        }
+
+        return value.floatValue();
+    }
+
+    /**
+     * Executes this node for its side effects only.
+     */
+    public void executeVoid(Frame frame) {
+        execute(frame);
+    }
+
+    /**
+     * Executes this node as a statement, recording its value as the frame's last statement value.
+     */
+    public void executeStatement(Frame frame) {
+        frame.setLastStatementValue(execute(frame));
+    }
+
+    /**
+     * Makes this node the parent of {@code child}, which can be {@code null}.
+     */
+    protected final <T extends Node> T adopt(T child) {
+        if (child != null) {
+            ((Node) child).parent = this;
+        }
+
+        return child;
+    }
+
+    /**
+     * Replaces this node by {@code newNode} in its parent and returns {@code newNode}. When another thread already
+     * replaced this node, the node currently installed in the parent is replaced instead: the last rewrite wins, and
+     * every node still handles the values it does not expect by rewriting itself again.
+     * <p>
+     * The rewrites of a tree share one lock so that a node rewritten at the same time as its parent is installed in
+     * the new parent rather than in the one being discarded. Nodes only rewrite themselves while the tree warms up,
+     * so the lock is not taken once the tree is stable.
+     */
+    protected final <T extends Node> T replace(T newNode) {
+        synchronized (root()) {
+            if (parent == null) {
+                throw new IllegalStateException(getClass().getSimpleName() + " has no parent");
+            }
+
+            Node installed = this;
+            while (installed.replacement != null) {
+                installed = installed.replacement;
+            }
+
+            installed.parent.adopt(newNode);
+            installed.parent.replaceChild(installed, newNode);
+            installed.replacement = newNode;
+            replacement = newNode;
+
+            return newNode;
+        }
+    }
+
+    /**
+     * Returns the root of the tree this node belongs to. A root has no parent, so it is never replaced, and all the
+     * nodes of a tree share it.
+     */
+    private Node root() {
+        Node root = this;
+
+        while (root.parent != null) {
+            root = root.parent;
+        }
+
+        return root;
+    }
+
+    /**
+     * Returns the node that replaced this one, or {@code null}. A recursive method call can replace a node while an
+     * outer activation is still executing it; that activation must then delegate to the replacement.
+     */
+    protected final Node getReplacement() {
+        return replacement;
+    }
+
+    /**
+     * Replaces the child {@code oldChild} by {@code newChild}. Must be overridden by nodes having children that can
+     * be replaced.
+     */
+    protected void replaceChild(Node oldChild, Node newChild) {
+        throw new IllegalStateException(getClass().getSimpleName() + " cannot replace " + oldChild.getClass().getSimpleName());
+    }
+}
@@ -0,0 +1,484 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.analysis.ConstantFolding;
+import net.cpollet.thorium.antlr.ThoriumBaseVisitor;
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.data.method.ParameterSignature;
+import net.cpollet.thorium.execution.ExecutionVisitor;
+import net.cpollet.thorium.values.DirectValue;
+import org.antlr.v4.runtime.tree.ParseTree;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Translates a parse tree into a tree of {@link Node}s. Everything that only depends on the source (operators,
+ * names, literal values, scopes) is resolved here, once, so that executing a node does not need to look at the
+ * parse tree anymore.
+ * <p>
+ * Each variable is resolved to a slot of a {@link Frame}, at a depth counted in enclosing method definitions. As in
+ * {@link net.cpollet.thorium.execution.bytecode.BytecodeCompiler}, a method only sees its own variables and the
+ * variables defined before it in the enclosing scopes.
+ * <p>
+ * Expressions folded by {@link net.cpollet.thorium.analysis.ConstantFolder} are compiled to their value, and
+ * conditional statements whose condition is known only keep the branch that is executed.
+ *
+ * @author Christophe Pollet
+ */
+public class NodeCompiler extends ThoriumBaseVisitor<Node> {
+    private final SpecializationCounters counters = new SpecializationCounters();
+    private final ConstantFolding folding;
+    private Scope scope;
+
+    private static class Scope {
+        private final Scope parent;
+        private final FrameDescriptor frameDescriptor;
+        private final Map<String, Integer> slots = new HashMap<>();
+        private final int firstSlot;
+
+        private Scope(Scope parent, FrameDescriptor frameDescriptor) {
+            this.parent = parent;
+            this.frameDescriptor = frameDescriptor;
+            this.firstSlot = frameDescriptor.getSize();
+        }
+
+        private boolean isRoot() {
+            return parent == null || parent.frameDescriptor != frameDescriptor;
+        }
+    }
+
+    public NodeCompiler() {
+        this(ConstantFolding.NONE);
+    }
+
+    public NodeCompiler(ConstantFolding folding) {
+        this.folding = folding;
+    }
+
+    public RootNode compile(ParseTree tree) {
+        FrameDescriptor frameDescriptor = new FrameDescriptor();
+        scope = new Scope(null, frameDescriptor);
+
+        return new RootNode(visit(tree), frameDescriptor);
+    }
+
+    /**
+     * Returns the counters shared by the operator nodes built by this compiler.
+     */
+    public SpecializationCounters getCounters() {
+        return counters;
+    }
+
+    @Override
+    public Node visit(ParseTree tree) {
+        DirectValue constant = folding.getConstant(tree);
+
+        if (constant != null) {
+            return new LiteralNode(constant);
+        }
+
+        ParseTree simplification = folding.getSimplification(tree);
+
+        if (simplification != null) {
+            return new ValueNode(visit(simplification));
+        }
+
+        return super.visit(tree);
+    }
+
+    //region Scopes
+
+    private void openScope() {
+        scope = new Scope(scope, scope.frameDescriptor);
+    }
+
+    private Node closeScope(Node body) {
+        Scope closed = scope;
+        scope = scope.parent;
+
+        return new ScopeNode(body, closed.firstSlot, closed.frameDescriptor.getSize() - closed.firstSlot);
+    }
+
+    /**
+     * Returns the slot of a variable declared in the current scope. Declaring a variable twice in the same scope
+     * returns the same slot; the error is reported when the second declaration is executed.
+     */
+    private int declare(String name) {
+        Integer slot = scope.slots.get(name);
+
+        if (slot == null) {
+            slot = scope.frameDescriptor.addSlot(name, scope.isRoot());
+            scope.slots.put(name, slot);
+        }
+
+        return slot;
+    }
+
+    /**
+     * Returns the node reading a variable. A variable that is not defined yet is declared in the current scope.
+     */
+    private VariableNode variable(String name) {
+        int depth = 0;
+
+        for (Scope current = scope; current != null; current = current.parent) {
+            Integer slot = current.slots.get(name);
+
+            if (slot != null) {
+                return new VariableNode(name, depth, slot);
+            }
+
+            if (current.isRoot()) {
+                depth++;
+            }
+        }
+
+        return new VariableNode(name, 0, declare(name));
+    }
+
+    //endregion
+
+    //region Statements
+
+    @Override
+    public Node visitCompilationUnit(ThoriumParser.CompilationUnitContext ctx) {
+        return visit(ctx.statements());
+    }
+
+    @Override
+    public Node visitStatements(ThoriumParser.StatementsContext ctx) {
+        List<Node> statements = new ArrayList<>(ctx.statement().size());
+
+        for (ThoriumParser.StatementContext statementCtx : ctx.statement()) {
+            Node statement = visit(statementCtx);
+
+            if (statement != null) {
+                statements.add(statement);
+            }
+        }
+
+        return new StatementsNode(statements.toArray(new Node[statements.size()]));
+    }
+
+    @Override
+    public Node visitStatement(ThoriumParser.StatementContext ctx) {
+        if (ctx.block() != null) {
+            return visit(ctx.block());
+        } else if (ctx.expressionStatement() != null) {
+            return visit(ctx.expressionStatement());
+        } else if (ctx.variableOrConstantDeclarationStatement() != null) {
+            return visit(ctx.variableOrConstantDeclarationStatement());
+        } else if (ctx.methodDefinition() != null) {
+            return visit(ctx.methodDefinition());
+        }
+
+        return null;
+    }
+
+    @Override
+    public Node visitBlock(ThoriumParser.BlockContext ctx) {
+        return visit(ctx.getChild(0));
+    }
+
+    @Override
+    public Node visitVariableDeclarationStatement(ThoriumParser.VariableDeclarationStatementContext ctx) {
+        return declaration(ctx.LCFirstIdentifier().getText(), visitOptional(ctx.expression()));
+    }
+
+    private Node declaration(String name, Node expression) {
+        return new DeclarationNode(name, declare(name), expression);
+    }
+
+    @Override
+    public Node visitConstantDeclarationStatement(ThoriumParser.ConstantDeclarationStatementContext ctx) {
+        return declaration(ctx.UCIdentifier().getText(), visit(ctx.expression()));
+    }
+
+    @Override
+    public Node visitUnconditionalStatement(ThoriumParser.UnconditionalStatementContext ctx) {
+        return new ExpressionStatementNode(visit(ctx.expression()));
+    }
+
+    @Override
+    public Node visitStatementsBlock(ThoriumParser.StatementsBlockContext ctx) {
+        openScope();
+
+        return closeScope(visit(ctx.statements()));
+    }
+
+    @Override
+    public Node visitConditionalIfStatement(ThoriumParser.ConditionalIfStatementContext ctx) {
+        return conditionalStatement(ctx.expression(0), ctx.expression(1), true);
+    }
+
+    private Node conditionalStatement(ThoriumParser.ExpressionContext expressionCtx, ThoriumParser.ExpressionContext conditionCtx, boolean expected) {
+        Boolean condition = folding.getCondition(conditionCtx);
+
+        if (condition == null) {
+            return new ConditionalStatementNode(visit(expressionCtx), visit(conditionCtx), expected);
+        }
+
+        if (condition == expected) {
+            return new ExpressionStatementNode(visit(expressionCtx));
+        }
+
+        return voidStatement();
+    }
+
+    private static Node voidStatement() {
+        return new ExpressionStatementNode(new LiteralNode(DirectValue.build()));
+    }
+
+    @Override
+    public Node visitConditionalUnlessStatement(ThoriumParser.ConditionalUnlessStatementContext ctx) {
+        return conditionalStatement(ctx.expression(0), ctx.expression(1), false);
+    }
+
+    @Override
+    public Node visitRepeatedWhileStatement(ThoriumParser.RepeatedWhileStatementContext ctx) {
+        return new RepeatedStatementNode(visit(ctx.expression(0)), visit(ctx.expression(1)), true);
+    }
+
+    @Override
+    public Node visitRepeatedUntilStatement(ThoriumParser.RepeatedUntilStatementContext ctx) {
+        return new RepeatedStatementNode(visit(ctx.expression(0)), visit(ctx.expression(1)), false);
+    }
+
+    //endregion
+
+    //region Expressions
+
+    @Override
+    public Node visitNotExpression(ThoriumParser.NotExpressionContext ctx) {
+        return new UninitializedUnaryOperatorNode(ctx.op.getText(), visit(ctx.expression()), counters);
+    }
+
+    @Override
+    public Node visitMultiplicationExpression(ThoriumParser.MultiplicationExpressionContext ctx) {
+        return binaryOperator(ctx.op.getText(), ctx.expression(0), ctx.expression(1));
+    }
+
+    private Node binaryOperator(String operator, ThoriumParser.ExpressionContext left, ThoriumParser.ExpressionContext right) {
+        return new UninitializedBinaryOperatorNode(operator, visit(left), visit(right), counters);
+    }
+
+    @Override
+    public Node visitAdditionExpression(ThoriumParser.AdditionExpressionContext ctx) {
+        return binaryOperator(ctx.op.getText(), ctx.expression(0), ctx.expression(1));
+    }
+
+    @Override
+    public Node visitOrderComparisonExpression(ThoriumParser.OrderComparisonExpressionContext ctx) {
+        return binaryOperator(ctx.op.getText(), ctx.expression(0), ctx.expression(1));
+    }
+
+    @Override
+    public Node visitLiteralExpression(ThoriumParser.LiteralExpressionContext ctx) {
+        return visit(ctx.literal());
+    }
+
+    @Override
+    public Node visitParenthesisExpression(ThoriumParser.ParenthesisExpressionContext ctx) {
+        return visit(ctx.expression());
+    }
+
+    @Override
+    public Node visitAssignmentExpression(ThoriumParser.AssignmentExpressionContext ctx) {
+        Node identifier = visit(ctx.identifier());
+
+        if (!(identifier instanceof VariableNode)) {
+            throw new IllegalStateException(ctx.identifier().getText() + " cannot be assigned");
+        }
+
+        return new AssignmentNode((VariableNode) identifier, visit(ctx.expression()));
+    }
+
+    @Override
+    public Node visitBlockExpression(ThoriumParser.BlockExpressionContext ctx) {
+        return new BlockExpressionNode(visit(ctx.block()));
+    }
+
+    @Override
+    public Node visitMethodCallExpression(ThoriumParser.MethodCallExpressionContext ctx) {
+        List<Node> parameters = Collections.emptyList();
+
+        if (ctx.parameters() != null) {
+            parameters = ctx.parameters().expression().stream()
+                    .map(this::visit)
+                    .collect(Collectors.toList());
+        }
+
+        return new MethodCallNode(ctx.methodName().getText(), parameters.toArray(new Node[parameters.size()]));
+    }
+
+    //endregion
+
+    //region If Statement
+
+    @Override
+    public Node visitIfStatement(ThoriumParser.IfStatementContext ctx) {
+        openScope();
+
+        return closeScope(nestedIfStatement(ctx));
+    }
+
+    private Node nestedIfStatement(ThoriumParser.IfStatementContext ctx) {
+        Boolean condition = folding.getCondition(ctx.expression());
+
+        if (condition != null) {
+            if (condition) {
+                return visit(ctx.statements());
+            }
+
+            if (ctx.elseStatement() != null) {
+                return visit(ctx.elseStatement());
+            }
+
+            return voidStatement();
+        }
+
+        Node elseBranch = null;
+
+        if (ctx.elseStatement() != null) {
+            elseBranch = visit(ctx.elseStatement());
+        }
+
+        return new IfNode(visit(ctx.expression()), visit(ctx.statements()), elseBranch);
+    }
+
+    @Override
+    public Node visitElseStatement(ThoriumParser.ElseStatementContext ctx) {
+        if (ctx.statements() != null) {
+            return visit(ctx.statements());
+        } else if (ctx.ifStatement() != null) {
+            return nestedIfStatement(ctx.ifStatement());
+        }
+
+        throw new IllegalStateException();
+    }
+
+    //endregion
+
+    //region Loop Statements
+
+    @Override
+    public Node visitWhileLoopStatement(ThoriumParser.WhileLoopStatementContext ctx) {
+        openScope();
+
+        return closeScope(new WhileLoopNode(visit(ctx.expression()), visit(ctx.statements())));
+    }
+
+    @Override
+    public Node visitForLoopStatement(ThoriumParser.ForLoopStatementContext ctx) {
+        openScope();
+
+        return closeScope(new ForLoopNode(
+                visitOptional(ctx.init),
+                visitOptional(ctx.condition),
+                visitOptional(ctx.increment),
+                visit(ctx.statements())
+        ));
+    }
+
+    @Override
+    public Node visitForLoopStatementInitExpression(ThoriumParser.ForLoopStatementInitExpressionContext ctx) {
+        return visit(ctx.expression());
+    }
+
+    @Override
+    public Node visitForLoopStatementInitVariableDeclaration(ThoriumParser.ForLoopStatementInitVariableDeclarationContext ctx) {
+        return declaration(ctx.LCFirstIdentifier().getText(), visitOptional(ctx.expression()));
+    }
+
+    //endregion
+
+    @Override
+    public Node visitMethodDefinition(ThoriumParser.MethodDefinitionContext ctx) {
+        List<ParameterSignature> parameterSignatures = Collections.emptyList();
+        ThoriumParser.FormalParametersContext formalParametersCtx = ctx.formalParameters();
+
+        if (formalParametersCtx != null) {
+            parameterSignatures = formalParametersCtx.formalParameter().stream()
+                    .map(parameterCtx -> new ParameterSignature(ExecutionVisitor.decode(parameterCtx.type()), parameterCtx.LCFirstIdentifier().getText()))
+                    .collect(Collectors.toList());
+        }
+
+        FrameDescriptor frameDescriptor = new FrameDescriptor();
+        scope = new Scope(scope, frameDescriptor);
+
+        for (ParameterSignature parameterSignature : parameterSignatures) {
+            declare(parameterSignature.getName());
+        }
+
+        Node body = visit(ctx.statements());
+        scope = scope.parent;
+
+        return new MethodDefinitionNode(ctx.methodName().getText(), parameterSignatures, body, frameDescriptor);
+    }
+
+    //region Values
+
+    @Override
+    public Node visitIntegerLiteral(ThoriumParser.IntegerLiteralContext ctx) {
+        return new LiteralNode(DirectValue.build(Long.valueOf(ctx.IntegerLiteral().getText())));
+    }
+
+    @Override
+    public Node visitFloatLiteral(ThoriumParser.FloatLiteralContext ctx) {
+        return new LiteralNode(DirectValue.build(Double.valueOf(ctx.FloatLiteral().getText())));
+    }
+
+    @Override
+    public Node visitBooleanLiteral(ThoriumParser.BooleanLiteralContext ctx) {
+        return new LiteralNode(DirectValue.build(Boolean.valueOf(ctx.BooleanLiteral().getText())));
+    }
+
+    @Override
+    public Node visitIdentifierLiteral(ThoriumParser.IdentifierLiteralContext ctx) {
+        return visit(ctx.identifier());
+    }
+
+    @Override
+    public Node visitVariableName(ThoriumParser.VariableNameContext ctx) {
+        return variable(ctx.getText());
+    }
+
+    @Override
+    public Node visitConstantName(ThoriumParser.ConstantNameContext ctx) {
+        return variable(ctx.UCIdentifier().getText());
+    }
+
+    @Override
+    public Node visitObjectOrClassName(ThoriumParser.ObjectOrClassNameContext ctx) {
+        throw new IllegalStateException("Object or class names are not supported: " + ctx.getText());
+    }
+
+    //endregion
+
+    private Node visitOptional(ParseTree tree) {
+        if (tree == null) {
+            return null;
+        }
+
+        return visit(tree);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.data.method.MethodBody;
+import net.cpollet.thorium.data.method.MethodEvaluationContext;
+import net.cpollet.thorium.execution.data.symbol.Symbol;
+import net.cpollet.thorium.values.Value;
+
+import java.util.List;
+
+/**
+ * Executes a method's body in a new {@link Frame} whose first slots hold the parameters. The parent of that frame is
+ * the frame the method was defined in.
+ *
+ * @author Christophe Pollet
+ */
+public class NodeMethodBody implements MethodBody {
+    private final Node body;
+    private final FrameDescriptor frameDescriptor;
+    private final List<String> parameterNames;
+    private final Frame definitionFrame;
+
+    public NodeMethodBody(Node body, FrameDescriptor frameDescriptor, List<String> parameterNames, Frame definitionFrame) {
+        this.body = body;
+        this.frameDescriptor = frameDescriptor;
+        this.parameterNames = parameterNames;
+        this.definitionFrame = definitionFrame;
+    }
+
+    @Override
+    public Value apply(MethodEvaluationContext evaluationContext) {
+        Frame frame = new Frame(evaluationContext.getExecutionContext(), definitionFrame, frameDescriptor.getSize());
+
+        for (int i = 0; i < parameterNames.size(); i++) {
+            frame.setSlot(i, new Symbol(parameterNames.get(i), evaluationContext.getParameter(i).value()));
+        }
+
+        body.execute(frame);
+
+        return frame.getLastStatementValue();
+    }
+}
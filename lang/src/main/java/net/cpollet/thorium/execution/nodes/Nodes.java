@@ -0,0 +1,34 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.values.DirectValue;
+
+/**
+ * @author Christophe Pollet
+ */
+final class Nodes {
+    private static final DirectValue TRUE = DirectValue.build(true);
+
+    private Nodes() {
+        // nothing
+    }
+
+    static boolean isTrue(Node condition, Frame frame) {
+        return condition.execute(frame).value().equals(TRUE);
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.execution.ExecutionContext;
+import net.cpollet.thorium.execution.data.symbol.Symbol;
+import net.cpollet.thorium.values.Value;
+
+/**
+ * The node returned by {@link NodeCompiler#compile(org.antlr.v4.runtime.tree.ParseTree)}; it gives a parent to the
+ * top-level node so that it can be replaced as well.
+ *
+ * @author Christophe Pollet
+ */
+public class RootNode extends Node {
+    private final FrameDescriptor frameDescriptor;
+    private Child body;
+
+    public RootNode(Node body, FrameDescriptor frameDescriptor) {
+        this.frameDescriptor = frameDescriptor;
+        this.body = new Child(adopt(body));
+    }
+
+    /**
+     * Executes the top-level code in a new frame. Once executed, the top-level variables and the last statement value
+     * are copied into the context.
+     */
+    public Value execute(ExecutionContext context) {
+        Frame frame = new Frame(context, null, frameDescriptor.getSize());
+        Value value = execute(frame);
+
+        for (int slot : frameDescriptor.getRootSlots()) {
+            Symbol symbol = frame.getSlot(slot);
+
+            if (symbol != null) {
+                context.updateOrInsertSymbol(symbol);
+            }
+        }
+
+        context.setLastStatementValue(frame.getLastStatementValue());
+
+        return value;
+    }
+
+    @Override
+    public Value execute(Frame frame) {
+        return body.get().execute(frame);
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (body.get() == oldChild) {
+            body = new Child(newChild);
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
+}
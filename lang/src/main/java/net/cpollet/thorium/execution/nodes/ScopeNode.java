@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.values.Value;
+
+/**
+ * Executes its body, then empties the slots of the variables declared in it so that they are fresh the next time the
+ * scope is entered.
+ *
+ * @author Christophe Pollet
+ */
+public class ScopeNode extends Node {
+    private final Node body;
+    private final int firstSlot;
+    private final int slotCount;
+
+    public ScopeNode(Node body, int firstSlot, int slotCount) {
+        this.body = body;
+        this.firstSlot = firstSlot;
+        this.slotCount = slotCount;
+    }
+
+    @Override
+    public Value execute(Frame frame) {
+        body.execute(frame);
+
+        if (slotCount > 0) {
+            frame.clearSlots(firstSlot, slotCount);
+        }
+
+        return null;
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts how operator nodes rewrote themselves. Each uninitialized node is counted once, either as specialized or as
+ * generic; a specialized node that later becomes generic is counted as despecialized.
+ *
+ * @author Christophe Pollet
+ */
+public class SpecializationCounters {
+    private final AtomicLong specialized = new AtomicLong();
+    private final AtomicLong generic = new AtomicLong();
+    private final AtomicLong despecialized = new AtomicLong();
+
+    void recordSpecialized() {
+        specialized.incrementAndGet();
+    }
+
+    void recordGeneric() {
+        generic.incrementAndGet();
+    }
+
+    void recordDespecialized() {
+        despecialized.incrementAndGet();
+    }
+
+    public long getSpecialized() {
+        return specialized.get();
+    }
+
+    public long getGeneric() {
+        return generic.get();
+    }
+
+    public long getDespecialized() {
+        return despecialized.get();
+    }
+
+    @Override
+    public String toString() {
+        return "SpecializationCounters(specialized: " + getSpecialized() + ", generic: " + getGeneric() + ", despecialized: " + getDespecialized() + ")";
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.values.Value;
+
+/**
+ * A unary operator. Like {@link BinaryOperatorNode}, it specializes itself on first execution and becomes generic
+ * when the type of its operand changes.
+ *
+ * @author Christophe Pollet
+ */
+public abstract class UnaryOperatorNode extends Node {
+    protected final String operator;
+    protected final SpecializationCounters counters;
+    private Child operand;
+
+    protected UnaryOperatorNode(String operator, Node operand, SpecializationCounters counters) {
+        this.operator = operator;
+        this.counters = counters;
+        this.operand = new Child(adopt(operand));
+    }
+
+    @Override
+    public Value execute(Frame frame) {
+        return execute(frame, operand.get().execute(frame));
+    }
+
+    /**
+     * Applies the operator to an already evaluated operand.
+     */
+    protected abstract Value execute(Frame frame, Value value);
+
+    /**
+     * Replaces this specialized node by a generic one and applies the operator with it.
+     */
+    protected Value despecialize(Frame frame, Value value) {
+        if (getReplacement() != null) {
+            return ((UnaryOperatorNode) getReplacement()).execute(frame, value);
+        }
+
+        counters.recordDespecialized();
+
+        return replace(new GenericUnaryOperatorNode(operator, operand.get(), counters)).execute(frame, value);
+    }
+
+    protected Node getOperand() {
+        return operand.get();
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (operand.get() == oldChild) {
+            operand = new Child(newChild);
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.values.Value;
+
+/**
+ * Thrown by {@link Node#executeLong(Frame)} and {@link Node#executeDouble(Frame)} when the node evaluated to a value
+ * of another type. Carries that value so the caller can continue with it without evaluating the node again.
+ *
+ * @author Christophe Pollet
+ */
+public class UnexpectedResultException extends Exception {
+    private final transient Value result;
+
+    public UnexpectedResultException(Value result) {
+        super(null, null, false, false);
+        this.result = result;
+    }
+
+    public Value getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.types.Types;
+import net.cpollet.thorium.values.Value;
+
+/**
+ * @author Christophe Pollet
+ */
+public class UninitializedBinaryOperatorNode extends BinaryOperatorNode {
+    public UninitializedBinaryOperatorNode(String operator, Node left, Node right, SpecializationCounters counters) {
+        super(operator, left, right, counters);
+    }
+
+    @Override
+    protected Value execute(Frame frame, Value leftValue, Value rightValue) {
+        if (getReplacement() != null) {
+            return ((BinaryOperatorNode) getReplacement()).execute(frame, leftValue, rightValue);
+        }
+
+        BinaryOperatorNode node = specialize(leftValue.type(), rightValue.type());
+
+        if (node == null) {
+            counters.recordGeneric();
+            node = new GenericBinaryOperatorNode(operator, getLeft(), getRight(), counters);
+        } else {
+            counters.recordSpecialized();
+        }
+
+        return replace(node).execute(frame, leftValue, rightValue);
+    }
+
+    private BinaryOperatorNode specialize(Type leftType, Type rightType) {
+        BinaryOperator binaryOperator = BinaryOperator.of(operator);
+
+        if (binaryOperator == null || leftType != rightType) {
+            return null;
+        }
+
+        if (leftType == Types.INTEGER) {
+            return new IntegerBinaryOperatorNode(binaryOperator, operator, getLeft(), getRight(), counters);
+        }
+
+        if (leftType == Types.FLOAT) {
+            return new FloatBinaryOperatorNode(binaryOperator, operator, getLeft(), getRight(), counters);
+        }
+
+        if (leftType == Types.BOOLEAN && !binaryOperator.isComparison()) {
+            return new BooleanBinaryOperatorNode(binaryOperator, operator, getLeft(), getRight(), counters);
+        }
+
+        return null;
+    }
+}
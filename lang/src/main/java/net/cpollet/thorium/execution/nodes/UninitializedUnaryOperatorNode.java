@@ -0,0 +1,48 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.types.Types;
+import net.cpollet.thorium.values.Value;
+
+/**
+ * @author Christophe Pollet
+ */
+public class UninitializedUnaryOperatorNode extends UnaryOperatorNode {
+    public UninitializedUnaryOperatorNode(String operator, Node operand, SpecializationCounters counters) {
+        super(operator, operand, counters);
+    }
+
+    @Override
+    protected Value execute(Frame frame, Value value) {
+        if (getReplacement() != null) {
+            return ((UnaryOperatorNode) getReplacement()).execute(frame, value);
+        }
+
+        UnaryOperatorNode node;
+
+        if ("!".equals(operator) && value.type() == Types.BOOLEAN) {
+            counters.recordSpecialized();
+            node = new BooleanNotNode(operator, getOperand(), counters);
+        } else {
+            counters.recordGeneric();
+            node = new GenericUnaryOperatorNode(operator, getOperand(), counters);
+        }
+
+        return replace(node).execute(frame, value);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.values.Value;
+
+/**
+ * Returns the value its expression evaluates to rather than the variable it may evaluate to, as an operator does.
+ * Replaces an operator simplified to one of its operands.
+ *
+ * @author Christophe Pollet
+ */
+public class ValueNode extends Node {
+    private Child expression;
+
+    public ValueNode(Node expression) {
+        this.expression = new Child(adopt(expression));
+    }
+
+    @Override
+    public Value execute(Frame frame) {
+        return expression.get().execute(frame).value();
+    }
+
+    @Override
+    public long executeLong(Frame frame) throws UnexpectedResultException {
+        return expression.get().executeLong(frame);
+    }
+
+    @Override
+    public double executeDouble(Frame frame) throws UnexpectedResultException {
+        return expression.get().executeDouble(frame);
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (expression.get() == oldChild) {
+            expression = new Child(newChild);
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
+}
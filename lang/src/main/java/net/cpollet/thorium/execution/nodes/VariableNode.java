@@ -0,0 +1,55 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.execution.data.symbol.Symbol;
+import net.cpollet.thorium.values.Value;
+
+/**
+ * Returns the symbol stored in the slot resolved by {@link NodeCompiler}, creating it if the variable is used before
+ * being declared.
+ *
+ * @author Christophe Pollet
+ */
+public class VariableNode extends Node {
+    private final String name;
+    private final int depth;
+    private final int slot;
+
+    public VariableNode(String name, int depth, int slot) {
+        this.name = name;
+        this.depth = depth;
+        this.slot = slot;
+    }
+
+    @Override
+    public Symbol execute(Frame frame) {
+        Frame owner = frame.getAncestor(depth);
+        Symbol symbol = owner.getSlot(slot);
+
+        if (symbol == null) {
+            symbol = new Symbol(name);
+            owner.setSlot(slot, symbol);
+        }
+
+        return symbol;
+    }
+
+    public String getName() {
+        return name;
+    }
+}
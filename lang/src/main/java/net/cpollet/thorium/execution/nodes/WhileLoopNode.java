@@ -0,0 +1,50 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.values.Value;
+
+/**
+ * @author Christophe Pollet
+ */
+public class WhileLoopNode extends Node {
+    private Child condition;
+    private final Node body;
+
+    public WhileLoopNode(Node condition, Node body) {
+        this.condition = new Child(adopt(condition));
+        this.body = body;
+    }
+
+    @Override
+    public Value execute(Frame frame) {
+        while (Nodes.isTrue(condition.get(), frame)) {
+            body.execute(frame);
+        }
+
+        return null;
+    }
+
+    @Override
+    protected void replaceChild(Node oldChild, Node newChild) {
+        if (condition.get() == oldChild) {
+            condition = new Child(newChild);
+        } else {
+            super.replaceChild(oldChild, newChild);
+        }
+    }
+}
@@ -0,0 +1,374 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.generation.jvm;
+
+import net.cpollet.thorium.data.method.InlineCache;
+import net.cpollet.thorium.execution.bytecode.CodeObject;
+import net.cpollet.thorium.execution.bytecode.Opcode;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compiles a {@link CodeObject} and the methods it defines into a JVM class: the top-level code becomes the static
+ * method {@code main} and each Thorium method becomes another static method. The first parameter of all these methods
+ * is the {@link JvmRuntime}.
+ * <p>
+ * The kinds of the registers are inferred by {@link KindAnalysis}; registers always holding an {@code Integer}, a
+ * {@code Float} or a {@code Boolean} are stored in primitive local variables and calls to methods whose parameters have
+ * such types are bound statically. Everything else goes through {@link JvmSupport} and the runtime's method table.
+ *
+ * @author Christophe Pollet
+ */
+public class JvmCompiler {
+    private static final AtomicInteger classCount = new AtomicInteger();
+
+    private final String className;
+    private final List<CodeObject> methods = new ArrayList<>();
+    private final Map<CodeObject, Integer> methodIndexes = new IdentityHashMap<>();
+    private final Map<String, List<Integer>> methodsByName = new HashMap<>();
+    private final List<String> inlineCacheNames = new ArrayList<>();
+
+    private CodeObject program;
+    private Kind[] returnKinds;
+    private int[] definitionPcs;
+    private int firstCallPc;
+
+    public JvmCompiler() {
+        this.className = JvmCompiler.class.getPackage().getName().replace('.', '/') + "/Script" + classCount.incrementAndGet();
+    }
+
+    public JvmProgram compile(CodeObject program) {
+        this.program = program;
+
+        collectMethods(program);
+        collectUnconditionalDefinitions(program);
+
+        boolean[] globals = globalRegisters(program);
+
+        KindAnalysis mainAnalysis = new KindAnalysis(program, globals, new Resolver(program));
+        List<KindAnalysis> methodAnalyses = new ArrayList<>();
+
+        for (CodeObject method : methods) {
+            methodAnalyses.add(new KindAnalysis(method, null, new Resolver(method)));
+        }
+
+        inferReturnKinds(mainAnalysis, methodAnalyses);
+
+        ClassWriter classWriter = new ClassWriter(ClassWriter.COMPUTE_FRAMES) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                return "java/lang/Object";
+            }
+        };
+
+        classWriter.visit(Opcodes.V1_8, Opcodes.ACC_PUBLIC | Opcodes.ACC_FINAL | Opcodes.ACC_SUPER, className, null, "java/lang/Object", null);
+
+        new MethodGenerator(this, classWriter, program, mainAnalysis, -1).generate();
+
+        for (int i = 0; i < methods.size(); i++) {
+            new MethodGenerator(this, classWriter, methods.get(i), methodAnalyses.get(i), i).generate();
+        }
+
+        generateInlineCaches(classWriter);
+
+        classWriter.visitEnd();
+
+        return load(program, classWriter.toByteArray());
+    }
+
+    /**
+     * Generates one static field per call or operator site holding its {@link InlineCache}, and the class initializer
+     * creating them.
+     */
+    private void generateInlineCaches(ClassWriter classWriter) {
+        MethodVisitor mv = classWriter.visitMethod(Opcodes.ACC_STATIC, "<clinit>", "()V", null, null);
+        mv.visitCode();
+
+        for (int i = 0; i < inlineCacheNames.size(); i++) {
+            classWriter.visitField(Opcodes.ACC_PRIVATE | Opcodes.ACC_STATIC | Opcodes.ACC_FINAL, inlineCacheField(i), JvmTypes.INLINE_CACHE.getDescriptor(), null, null).visitEnd();
+
+            mv.visitTypeInsn(Opcodes.NEW, JvmTypes.INLINE_CACHE.getInternalName());
+            mv.visitInsn(Opcodes.DUP);
+            mv.visitLdcInsn(inlineCacheNames.get(i));
+            mv.visitMethodInsn(Opcodes.INVOKESPECIAL, JvmTypes.INLINE_CACHE.getInternalName(), "<init>", Type.getMethodDescriptor(Type.VOID_TYPE, JvmTypes.STRING), false);
+            mv.visitFieldInsn(Opcodes.PUTSTATIC, className, inlineCacheField(i), JvmTypes.INLINE_CACHE.getDescriptor());
+        }
+
+        mv.visitInsn(Opcodes.RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static String inlineCacheField(int index) {
+        return "ic" + index;
+    }
+
+    private void collectMethods(CodeObject codeObject) {
+        for (int pc = 0; pc < codeObject.getCodeLength(); pc += Opcode.decode(codeObject.getCode(pc)).length()) {
+            if (Opcode.decode(codeObject.getCode(pc)) != Opcode.DEFINE_METHOD) {
+                continue;
+            }
+
+            CodeObject method = (CodeObject) codeObject.getConstant(codeObject.getCode(pc + 1));
+
+            if (!methodIndexes.containsKey(method)) {
+                methodIndexes.put(method, methods.size());
+                methodsByName.computeIfAbsent(method.getName(), name -> new ArrayList<>()).add(methods.size());
+                methods.add(method);
+
+                collectMethods(method);
+            }
+        }
+    }
+
+    /**
+     * Records the position of the methods defined by the top-level code before its first jump: these definitions are
+     * executed before anything that follows them. Also records the position of the first top-level call, before which
+     * no method body can run.
+     */
+    private void collectUnconditionalDefinitions(CodeObject program) {
+        definitionPcs = new int[methods.size()];
+        firstCallPc = program.getCodeLength();
+
+        Arrays.fill(definitionPcs, -1);
+
+        boolean unconditional = true;
+
+        for (int pc = 0; pc < program.getCodeLength(); pc += Opcode.decode(program.getCode(pc)).length()) {
+            switch (Opcode.decode(program.getCode(pc))) {
+                case DEFINE_METHOD:
+                    if (unconditional) {
+                        definitionPcs[methodIndexes.get((CodeObject) program.getConstant(program.getCode(pc + 1)))] = pc;
+                    }
+                    break;
+                case CALL:
+                    firstCallPc = Math.min(firstCallPc, pc);
+                    break;
+                case JUMP:
+                case JUMP_IF_FALSE:
+                case JUMP_IF_TRUE:
+                case FAIL:
+                case RETURN:
+                    unconditional = false;
+                    break;
+                default:
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Tells whether the method is always defined when the call at {@code pc} in {@code caller} is executed.
+     */
+    private boolean isDefinedAt(int method, CodeObject caller, int pc) {
+        int definitionPc = definitionPcs[method];
+
+        if (definitionPc < 0) {
+            return false;
+        }
+
+        return definitionPc < (caller == program ? pc : firstCallPc);
+    }
+
+    /**
+     * Returns the top-level registers accessed by methods. They are stored in the runtime instead of local variables.
+     */
+    private boolean[] globalRegisters(CodeObject program) {
+        boolean[] globals = new boolean[program.getRegisterCount()];
+
+        for (CodeObject method : methods) {
+            for (int pc = 0; pc < method.getCodeLength(); pc += Opcode.decode(method.getCode(pc)).length()) {
+                switch (Opcode.decode(method.getCode(pc))) {
+                    case LOAD_GLOBAL:
+                        globals[method.getCode(pc + 2)] = true;
+                        break;
+                    case STORE_GLOBAL:
+                        globals[method.getCode(pc + 1)] = true;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        return globals;
+    }
+
+    /**
+     * Analyses all the code objects until the return kinds of the methods are stable. Methods that never return are
+     * then considered as returning anything.
+     */
+    private void inferReturnKinds(KindAnalysis mainAnalysis, List<KindAnalysis> methodAnalyses) {
+        returnKinds = new Kind[methods.size()];
+        boolean changed;
+
+        do {
+            changed = false;
+
+            for (int i = 0; i < methods.size(); i++) {
+                KindAnalysis analysis = methodAnalyses.get(i);
+                analysis.run();
+
+                Kind returnKind = Kind.join(returnKinds[i], analysis.getReturnKind());
+
+                if (returnKind != returnKinds[i]) {
+                    returnKinds[i] = returnKind;
+                    changed = true;
+                }
+            }
+
+            if (!changed) {
+                for (int i = 0; i < methods.size(); i++) {
+                    if (returnKinds[i] == null) {
+                        returnKinds[i] = Kind.VALUE;
+                        changed = true;
+                    }
+                }
+            }
+        } while (changed);
+
+        mainAnalysis.run();
+    }
+
+    private JvmProgram load(CodeObject program, byte[] bytes) {
+        Class<?> generatedClass = new ScriptClassLoader(JvmCompiler.class.getClassLoader()).define(className.replace('/', '.'), bytes);
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+
+        try {
+            MethodHandle mainHandle = lookup.findStatic(generatedClass, "main", MethodType.fromMethodDescriptorString(mainDescriptor(), generatedClass.getClassLoader()));
+            List<MethodHandle> methodHandles = new ArrayList<>();
+
+            for (int i = 0; i < methods.size(); i++) {
+                methodHandles.add(lookup.findStatic(generatedClass, methodName(i), MethodType.fromMethodDescriptorString(methodDescriptor(i), generatedClass.getClassLoader())));
+            }
+
+            return new JvmProgram(generatedClass, program, mainHandle, methods, methodHandles, returnKinds);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    String getClassName() {
+        return className;
+    }
+
+    int methodIndex(CodeObject method) {
+        return methodIndexes.get(method);
+    }
+
+    /**
+     * Allocates an inline cache for a site calling the method {@code name} and returns the name of its field.
+     */
+    String inlineCache(String name) {
+        inlineCacheNames.add(name);
+
+        return inlineCacheField(inlineCacheNames.size() - 1);
+    }
+
+    String globalName(int global) {
+        return program.getVariableName(global);
+    }
+
+    Kind returnKind(int method) {
+        return returnKinds[method];
+    }
+
+    static String mainDescriptor() {
+        return Type.getMethodDescriptor(JvmTypes.VALUE, JvmTypes.RUNTIME);
+    }
+
+    String methodName(int method) {
+        return "m" + method + "_" + methods.get(method).getName().replaceAll("[.;\\[/<>]", "_");
+    }
+
+    String methodDescriptor(int method) {
+        CodeObject codeObject = methods.get(method);
+        Type[] parameterTypes = new Type[codeObject.getParametersCount() + 1];
+
+        parameterTypes[0] = JvmTypes.RUNTIME;
+
+        for (int i = 0; i < codeObject.getParametersCount(); i++) {
+            parameterTypes[i + 1] = Kind.of(codeObject.getParameterSignatures().get(i).getType()).jvmType();
+        }
+
+        return Type.getMethodDescriptor(returnKinds[method].jvmType(), parameterTypes);
+    }
+
+    /**
+     * Binds a call statically when there is exactly one method with that name, it is always defined when the call is
+     * executed and all its parameters are of primitive kinds matching the kinds of the actual parameters.
+     */
+    private class Resolver implements KindAnalysis.CallResolver {
+        private final CodeObject caller;
+
+        Resolver(CodeObject caller) {
+            this.caller = caller;
+        }
+
+        @Override
+        public int resolve(String name, int pc, Kind[] parameterKinds) {
+            List<Integer> candidates = methodsByName.get(name);
+
+            if (candidates == null || candidates.size() != 1) {
+                return KindAnalysis.DYNAMIC_CALL;
+            }
+
+            int method = candidates.get(0);
+            CodeObject codeObject = methods.get(method);
+
+            if (!isDefinedAt(method, caller, pc) || codeObject.getParametersCount() != parameterKinds.length) {
+                return KindAnalysis.DYNAMIC_CALL;
+            }
+
+            boolean undetermined = false;
+
+            for (int i = 0; i < parameterKinds.length; i++) {
+                Kind formalKind = Kind.of(codeObject.getParameterSignatures().get(i).getType());
+
+                if (!formalKind.isPrimitive()) {
+                    return KindAnalysis.DYNAMIC_CALL;
+                }
+
+                if (parameterKinds[i] == null) {
+                    undetermined = true;
+                } else if (parameterKinds[i] != formalKind) {
+                    return KindAnalysis.DYNAMIC_CALL;
+                }
+            }
+
+            return undetermined ? KindAnalysis.UNDETERMINED_CALL : method;
+        }
+
+        @Override
+        public Kind returnKind(int method) {
+            return returnKinds[method];
+        }
+    }
+}
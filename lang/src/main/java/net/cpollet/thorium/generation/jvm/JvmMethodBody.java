@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.generation.jvm;
+
+import net.cpollet.thorium.data.method.MethodBody;
+import net.cpollet.thorium.data.method.MethodEvaluationContext;
+import net.cpollet.thorium.execution.bytecode.CodeObject;
+import net.cpollet.thorium.values.DirectValue;
+import net.cpollet.thorium.values.Value;
+
+/**
+ * Calls a generated method when it cannot be bound at compile time.
+ *
+ * @author Christophe Pollet
+ */
+public class JvmMethodBody implements MethodBody {
+    private final JvmRuntime runtime;
+    private final JvmProgram program;
+    private final int method;
+
+    public JvmMethodBody(JvmRuntime runtime, JvmProgram program, int method) {
+        this.runtime = runtime;
+        this.program = program;
+        this.method = method;
+    }
+
+    @Override
+    public Value apply(MethodEvaluationContext evaluationContext) {
+        CodeObject codeObject = program.getMethod(method);
+        Object[] arguments = new Object[codeObject.getParametersCount() + 1];
+
+        arguments[0] = runtime;
+
+        for (int i = 0; i < codeObject.getParametersCount(); i++) {
+            DirectValue parameter = evaluationContext.getParameter(i).value();
+
+            if (Kind.of(codeObject.getParameterSignatures().get(i).getType()).isPrimitive()) {
+                arguments[i + 1] = parameter.internalValue();
+            } else {
+                arguments[i + 1] = parameter;
+            }
+        }
+
+        Object result;
+        try {
+            result = program.getMethodHandle(method).invokeWithArguments(arguments);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+
+        switch (program.getReturnKind(method)) {
+            case INTEGER:
+                return DirectValue.build((Long) result);
+            case FLOAT:
+                return DirectValue.build((Double) result);
+            case BOOLEAN:
+                return DirectValue.build((Boolean) result);
+            default:
+                return (Value) result;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.generation.jvm;
+
+import net.cpollet.thorium.execution.bytecode.CodeObject;
+
+import java.lang.invoke.MethodHandle;
+import java.util.List;
+
+/**
+ * A compilation unit compiled to a JVM class. It is executed by a {@link JvmRuntime}.
+ *
+ * @author Christophe Pollet
+ */
+public class JvmProgram {
+    private final Class<?> generatedClass;
+    private final CodeObject main;
+    private final MethodHandle mainHandle;
+    private final List<CodeObject> methods;
+    private final List<MethodHandle> methodHandles;
+    private final Kind[] returnKinds;
+
+    JvmProgram(Class<?> generatedClass, CodeObject main, MethodHandle mainHandle, List<CodeObject> methods, List<MethodHandle> methodHandles, Kind[] returnKinds) {
+        this.generatedClass = generatedClass;
+        this.main = main;
+        this.mainHandle = mainHandle;
+        this.methods = methods;
+        this.methodHandles = methodHandles;
+        this.returnKinds = returnKinds;
+    }
+
+    public Class<?> getGeneratedClass() {
+        return generatedClass;
+    }
+
+    public CodeObject getMain() {
+        return main;
+    }
+
+    MethodHandle getMainHandle() {
+        return mainHandle;
+    }
+
+    public int getMethodsCount() {
+        return methods.size();
+    }
+
+    public CodeObject getMethod(int method) {
+        return methods.get(method);
+    }
+
+    MethodHandle getMethodHandle(int method) {
+        return methodHandles.get(method);
+    }
+
+    Kind getReturnKind(int method) {
+        return returnKinds[method];
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.generation.jvm;
+
+import net.cpollet.thorium.data.method.InlineCache;
+import net.cpollet.thorium.data.method.Method;
+import net.cpollet.thorium.data.method.MethodEvaluationContext;
+import net.cpollet.thorium.data.method.MethodNotFoundException;
+import net.cpollet.thorium.data.method.MethodTable;
+import net.cpollet.thorium.execution.bytecode.CodeObject;
+import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.types.Types;
+import net.cpollet.thorium.values.GlobalReference;
+import net.cpollet.thorium.values.Value;
+
+import java.util.Arrays;
+
+/**
+ * The state of one execution of a {@link JvmProgram}: the top-level variables and the defined methods. It is passed
+ * as first parameter to all the generated methods.
+ *
+ * @author Christophe Pollet
+ */
+public class JvmRuntime {
+    private final JvmProgram program;
+    private final Value[] globals;
+    private final Value[] globalReferences;
+    private final MethodTable methodTable;
+
+    public JvmRuntime(JvmProgram program) {
+        this.program = program;
+        this.globals = new Value[program.getMain().getRegisterCount()];
+        this.globalReferences = new Value[globals.length];
+        this.methodTable = new MethodTable();
+
+        Arrays.fill(globals, JvmSupport.VOID);
+    }
+
+    /**
+     * Executes the top-level code and returns its value.
+     */
+    public Value run() {
+        try {
+            return (Value) program.getMainHandle().invokeExact(this);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    /**
+     * Returns the value of a register of the top-level code. Once {@link #run()} returned, all the top-level
+     * variables and the last statement value are available.
+     */
+    public Value getGlobal(int register) {
+        return globals[register];
+    }
+
+    /**
+     * Returns a register of the top-level code, read when it is used rather than now, see {@link GlobalReference}.
+     */
+    public Value getGlobalReference(int register) {
+        Value reference = globalReferences[register];
+
+        if (reference == null) {
+            reference = new GlobalReference(globals, register, program.getMain().getVariableName(register));
+            globalReferences[register] = reference;
+        }
+
+        return reference;
+    }
+
+    public void setGlobal(int register, Value value) {
+        globals[register] = value;
+    }
+
+    public void define(int method) {
+        CodeObject codeObject = program.getMethod(method);
+
+        methodTable.put(codeObject.getName(), new JvmMethodBody(this, program, method), Types.VOID, Types.VOID, codeObject.getParameterSignatures());
+    }
+
+    public Value call(InlineCache inlineCache, Value[] parameters) {
+        Type[] parameterTypes = new Type[parameters.length];
+
+        for (int i = 0; i < parameters.length; i++) {
+            parameterTypes[i] = parameters[i].type();
+        }
+
+        Method method;
+        try {
+            method = inlineCache.lookup(methodTable, Types.VOID, parameterTypes);
+        } catch (MethodNotFoundException e) {
+            throw new IllegalStateException("Method not defined");
+        }
+
+        return method.apply(new MethodEvaluationContext(null, parameters));
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.generation.jvm;
+
+import net.cpollet.thorium.data.method.InlineCache;
+import net.cpollet.thorium.data.method.Method;
+import net.cpollet.thorium.data.method.MethodEvaluationContext;
+import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.types.Types;
+import net.cpollet.thorium.values.DirectValue;
+import net.cpollet.thorium.values.Value;
+
+
+/**
+ * Static methods called by the generated code whenever the kinds of the values are not statically known.
+ *
+ * @author Christophe Pollet
+ */
+public final class JvmSupport {
+    public static final Value VOID = DirectValue.VOID;
+    private static final DirectValue TRUE = DirectValue.build(true);
+
+    private JvmSupport() {
+        // nothing
+    }
+
+    public static Value box(long value) {
+        return DirectValue.build(value);
+    }
+
+    public static Value box(double value) {
+        return DirectValue.build(value);
+    }
+
+    public static Value box(boolean value) {
+        return DirectValue.build(value);
+    }
+
+    public static boolean isTrue(Value value) {
+        return TRUE.equals(value.value());
+    }
+
+    public static Value operator(InlineCache inlineCache, Value left, Value right) {
+        Method method = left.type().lookupMethod(inlineCache, right.type());
+        return method.apply(new MethodEvaluationContext(null, left, right));
+    }
+
+    public static Value operator(InlineCache inlineCache, Value operand) {
+        Method method = operand.type().lookupMethod(inlineCache);
+        return method.apply(new MethodEvaluationContext(null, operand));
+    }
+
+    /**
+     * Checks that {@code value} can be assigned to the variable {@code name}, currently holding {@code current}.
+     */
+    public static Value store(String name, Value current, Value value) {
+        DirectValue directValue = value.value();
+
+        if (!directValue.hasValue()) {
+            throw new IllegalStateException("Cannot change " + name + "'s value to " + directValue + " which has no value");
+        }
+
+        Type currentType = current.type();
+
+        if (currentType != Types.NULLABLE_VOID && currentType != directValue.type()) {
+            throw new IllegalStateException("Cannot change symbol " + name + " from type " + currentType + " to " + directValue.type());
+        }
+
+        return directValue;
+    }
+
+    public static void setGlobal(Value value, JvmRuntime runtime, int global) {
+        runtime.setGlobal(global, value);
+    }
+
+    public static void storeGlobal(Value value, JvmRuntime runtime, int global, String name) {
+        runtime.setGlobal(global, store(name, runtime.getGlobal(global), value));
+    }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.generation.jvm;
+
+import net.cpollet.thorium.data.method.InlineCache;
+import net.cpollet.thorium.values.DirectValue;
+import net.cpollet.thorium.values.Value;
+import org.objectweb.asm.Type;
+
+/**
+ * JVM types and descriptors used by the generated code.
+ *
+ * @author Christophe Pollet
+ */
+final class JvmTypes {
+    static final Type VALUE = Type.getType(Value.class);
+    static final Type DIRECT_VALUE = Type.getType(DirectValue.class);
+    static final Type VALUE_ARRAY = Type.getType(Value[].class);
+    static final Type RUNTIME = Type.getType(JvmRuntime.class);
+    static final Type SUPPORT = Type.getType(JvmSupport.class);
+    static final Type STRING = Type.getType(String.class);
+    static final Type INLINE_CACHE = Type.getType(InlineCache.class);
+
+    private JvmTypes() {
+        // nothing
+    }
+}
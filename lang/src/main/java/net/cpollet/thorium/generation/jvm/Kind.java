@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.generation.jvm;
+
+import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.types.Types;
+import net.cpollet.thorium.values.DirectValue;
+
+/**
+ * What is statically known about the content of a register, and thus how it is represented on the JVM. A
+ * {@code null} kind means nothing is known yet.
+ *
+ * @author Christophe Pollet
+ */
+enum Kind {
+    /**
+     * The register holds {@link DirectValue#VOID}; it is not stored in a local variable.
+     */
+    VOID(JvmTypes.VALUE),
+    /**
+     * The register holds an {@code Integer}, stored as a {@code long}.
+     */
+    INTEGER(org.objectweb.asm.Type.LONG_TYPE),
+    /**
+     * The register holds a {@code Float}, stored as a {@code double}.
+     */
+    FLOAT(org.objectweb.asm.Type.DOUBLE_TYPE),
+    /**
+     * The register holds a {@code Boolean}, stored as a {@code boolean}.
+     */
+    BOOLEAN(org.objectweb.asm.Type.BOOLEAN_TYPE),
+    /**
+     * Anything else: the register holds a {@link net.cpollet.thorium.values.Value}.
+     */
+    VALUE(JvmTypes.VALUE);
+
+    private final org.objectweb.asm.Type jvmType;
+
+    Kind(org.objectweb.asm.Type jvmType) {
+        this.jvmType = jvmType;
+    }
+
+    org.objectweb.asm.Type jvmType() {
+        return jvmType;
+    }
+
+    boolean isPrimitive() {
+        return this == INTEGER || this == FLOAT || this == BOOLEAN;
+    }
+
+    static Kind join(Kind left, Kind right) {
+        if (left == null) {
+            return right;
+        }
+
+        if (right == null || left == right) {
+            return left;
+        }
+
+        return VALUE;
+    }
+
+    static Kind of(Type type) {
+        if (type == Types.INTEGER) {
+            return INTEGER;
+        }
+
+        if (type == Types.FLOAT) {
+            return FLOAT;
+        }
+
+        if (type == Types.BOOLEAN) {
+            return BOOLEAN;
+        }
+
+        return VALUE;
+    }
+
+    static Kind of(DirectValue value) {
+        if (value == DirectValue.VOID) {
+            return VOID;
+        }
+
+        return of(value.type());
+    }
+}
@@ -0,0 +1,363 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.generation.jvm;
+
+import net.cpollet.thorium.execution.bytecode.CodeObject;
+import net.cpollet.thorium.execution.bytecode.Opcode;
+import net.cpollet.thorium.values.DirectValue;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Deque;
+
+/**
+ * Computes, for each instruction of a {@link CodeObject}, the {@link Kind} of each register before the instruction is
+ * executed. This is a forward data flow analysis: states are joined where control flow merges until a fixed point is
+ * reached. Unreachable instructions have no state.
+ *
+ * @author Christophe Pollet
+ */
+class KindAnalysis {
+    static final int NO_VARIABLE = -1;
+    static final int UNKNOWN_VARIABLE = -2;
+
+    static final int DYNAMIC_CALL = -1;
+    static final int UNDETERMINED_CALL = -2;
+
+    /**
+     * Resolves the method calls that can be bound at compile time.
+     */
+    interface CallResolver {
+        /**
+         * Returns the index of the method to call at {@code pc}, {@link #DYNAMIC_CALL} if it has to be looked up at
+         * runtime or {@link #UNDETERMINED_CALL} if the kinds of the parameters are not known yet.
+         */
+        int resolve(String name, int pc, Kind[] parameterKinds);
+
+        /**
+         * Returns the kind of the value returned by a method, or {@code null} if it is not known yet.
+         */
+        Kind returnKind(int method);
+    }
+
+    /**
+     * The kinds of the registers and the variable the last statement value follows (see
+     * {@link Opcode#SET_LAST_VARIABLE}), which is either a register, {@link #NO_VARIABLE} or
+     * {@link #UNKNOWN_VARIABLE}.
+     */
+    static final class State {
+        final Kind[] kinds;
+        int lastVariable;
+
+        private State(Kind[] kinds, int lastVariable) {
+            this.kinds = kinds;
+            this.lastVariable = lastVariable;
+        }
+
+        State copy() {
+            return new State(kinds.clone(), lastVariable);
+        }
+
+        private boolean join(State other) {
+            boolean changed = false;
+
+            for (int i = 0; i < kinds.length; i++) {
+                Kind joined = Kind.join(kinds[i], other.kinds[i]);
+
+                if (joined != kinds[i]) {
+                    kinds[i] = joined;
+                    changed = true;
+                }
+            }
+
+            if (lastVariable != other.lastVariable && lastVariable != UNKNOWN_VARIABLE) {
+                lastVariable = UNKNOWN_VARIABLE;
+                changed = true;
+            }
+
+            return changed;
+        }
+    }
+
+    private final CodeObject codeObject;
+    private final boolean[] globals;
+    private final CallResolver callResolver;
+
+    private State[] states;
+    private Kind returnKind;
+    private boolean lastVariableUnknown;
+
+    /**
+     * @param globals the registers stored in the runtime's globals instead of local variables, or {@code null}
+     */
+    KindAnalysis(CodeObject codeObject, boolean[] globals, CallResolver callResolver) {
+        this.codeObject = codeObject;
+        this.globals = globals;
+        this.callResolver = callResolver;
+    }
+
+    void run() {
+        states = new State[codeObject.getCodeLength()];
+        states[0] = initialState();
+
+        Deque<Integer> worklist = new ArrayDeque<>();
+        worklist.add(0);
+
+        while (!worklist.isEmpty()) {
+            int pc = worklist.poll();
+            State out = transfer(pc, states[pc]);
+
+            for (int successor : successors(pc)) {
+                if (states[successor] == null) {
+                    states[successor] = out.copy();
+                    worklist.add(successor);
+                } else if (states[successor].join(out)) {
+                    worklist.add(successor);
+                }
+            }
+        }
+
+        returnKind = null;
+        lastVariableUnknown = false;
+
+        for (int pc = 0; pc < states.length; pc = next(pc)) {
+            if (states[pc] == null) {
+                continue;
+            }
+
+            if (opcode(pc) == Opcode.RETURN) {
+                returnKind = Kind.join(returnKind, states[pc].kinds[codeObject.getCode(pc + 1)]);
+            }
+
+            lastVariableUnknown |= states[pc].lastVariable == UNKNOWN_VARIABLE;
+        }
+    }
+
+    private State initialState() {
+        Kind[] kinds = new Kind[codeObject.getRegisterCount()];
+        Arrays.fill(kinds, Kind.VOID);
+
+        for (int i = 0; i < codeObject.getParametersCount(); i++) {
+            kinds[i] = Kind.of(codeObject.getParameterSignatures().get(i).getType());
+        }
+
+        for (int i = 0; i < kinds.length; i++) {
+            if (isGlobal(i)) {
+                kinds[i] = Kind.VALUE;
+            }
+        }
+
+        return new State(kinds, NO_VARIABLE);
+    }
+
+    boolean isGlobal(int register) {
+        return globals != null && register < globals.length && globals[register];
+    }
+
+    /**
+     * Returns the state after the instruction at {@code pc}, given the state before it.
+     */
+    State transfer(int pc, State in) {
+        State out = in.copy();
+        Kind[] kinds = out.kinds;
+        int last = codeObject.getLastStatementValueRegister();
+
+        switch (opcode(pc)) {
+            case LOAD_CONSTANT:
+                define(out, operand(pc, 0), Kind.of((DirectValue) codeObject.getConstant(operand(pc, 1))));
+                break;
+            case MOVE:
+                define(out, operand(pc, 0), kinds[operand(pc, 1)]);
+                break;
+            case STORE:
+                int variable = operand(pc, 0);
+                define(out, variable, store(kinds[variable], kinds[operand(pc, 1)]));
+
+                if (out.lastVariable == variable) {
+                    kinds[last] = kinds[variable];
+                } else if (out.lastVariable == UNKNOWN_VARIABLE) {
+                    kinds[last] = Kind.join(kinds[last], kinds[variable]);
+                }
+                break;
+            case LOAD_GLOBAL:
+                define(out, operand(pc, 0), Kind.VALUE);
+                break;
+            case SET_LAST:
+                define(out, last, kinds[operand(pc, 0)]);
+                out.lastVariable = NO_VARIABLE;
+                break;
+            case SET_LAST_VARIABLE:
+                define(out, last, kinds[operand(pc, 0)]);
+                out.lastVariable = operand(pc, 0);
+                break;
+            case CLEAR:
+                int first = operand(pc, 0);
+                int count = operand(pc, 1);
+
+                for (int i = first; i < first + count; i++) {
+                    define(out, i, Kind.VOID);
+                }
+
+                if (out.lastVariable >= first && out.lastVariable < first + count) {
+                    out.lastVariable = NO_VARIABLE;
+                }
+                break;
+            case ADD:
+            case MULTIPLY:
+                define(out, operand(pc, 0), arithmetic(kinds[operand(pc, 1)], kinds[operand(pc, 2)]));
+                break;
+            case LESS_THAN:
+            case LESS_THAN_OR_EQUAL:
+            case GREATER_THAN:
+            case GREATER_THAN_OR_EQUAL:
+                define(out, operand(pc, 0), comparison(kinds[operand(pc, 1)], kinds[operand(pc, 2)]));
+                break;
+            case NOT:
+                define(out, operand(pc, 0), not(kinds[operand(pc, 1)]));
+                break;
+            case CALL:
+                define(out, operand(pc, 0), call(pc, kinds));
+                break;
+            case STORE_GLOBAL:
+            case JUMP:
+            case JUMP_IF_FALSE:
+            case JUMP_IF_TRUE:
+            case DEFINE_METHOD:
+            case FAIL:
+            case RETURN:
+                break;
+            default:
+                throw new IllegalStateException("Opcode " + opcode(pc) + " not supported");
+        }
+
+        return out;
+    }
+
+    private void define(State state, int register, Kind kind) {
+        state.kinds[register] = isGlobal(register) ? Kind.VALUE : kind;
+    }
+
+    static Kind store(Kind variable, Kind value) {
+        if (value == null) {
+            return null;
+        }
+
+        if (value.isPrimitive() && (variable == Kind.VOID || variable == value)) {
+            return value;
+        }
+
+        return Kind.VALUE;
+    }
+
+    static Kind arithmetic(Kind left, Kind right) {
+        if (left == null || right == null) {
+            return null;
+        }
+
+        if (left == right && (left == Kind.INTEGER || left == Kind.FLOAT)) {
+            return left;
+        }
+
+        return Kind.VALUE;
+    }
+
+    static Kind comparison(Kind left, Kind right) {
+        if (left == null || right == null) {
+            return null;
+        }
+
+        if (left == right && (left == Kind.INTEGER || left == Kind.FLOAT)) {
+            return Kind.BOOLEAN;
+        }
+
+        return Kind.VALUE;
+    }
+
+    static Kind not(Kind operand) {
+        if (operand == null) {
+            return null;
+        }
+
+        return operand == Kind.BOOLEAN ? Kind.BOOLEAN : Kind.VALUE;
+    }
+
+    private Kind call(int pc, Kind[] kinds) {
+        int method = resolveCall(pc, kinds);
+
+        switch (method) {
+            case DYNAMIC_CALL:
+                return Kind.VALUE;
+            case UNDETERMINED_CALL:
+                return null;
+            default:
+                return callResolver.returnKind(method);
+        }
+    }
+
+    int resolveCall(int pc, Kind[] kinds) {
+        Kind[] parameterKinds = Arrays.copyOfRange(kinds, operand(pc, 2), operand(pc, 2) + operand(pc, 3));
+        return callResolver.resolve((String) codeObject.getConstant(operand(pc, 1)), pc, parameterKinds);
+    }
+
+    int[] successors(int pc) {
+        switch (opcode(pc)) {
+            case JUMP:
+                return new int[]{operand(pc, 0)};
+            case JUMP_IF_FALSE:
+            case JUMP_IF_TRUE:
+                return new int[]{next(pc), operand(pc, 1)};
+            case FAIL:
+            case RETURN:
+                return new int[0];
+            default:
+                return new int[]{next(pc)};
+        }
+    }
+
+    Opcode opcode(int pc) {
+        return Opcode.decode(codeObject.getCode(pc));
+    }
+
+    int operand(int pc, int index) {
+        return codeObject.getCode(pc + 1 + index);
+    }
+
+    int next(int pc) {
+        return pc + opcode(pc).length();
+    }
+
+    /**
+     * Returns the state before the instruction at {@code pc}, or {@code null} if it is unreachable.
+     */
+    State state(int pc) {
+        return states[pc];
+    }
+
+    /**
+     * Returns the kind of the returned values, or {@code null} if the code never returns.
+     */
+    Kind getReturnKind() {
+        return returnKind;
+    }
+
+    /**
+     * Whether the variable followed by the last statement value cannot always be known at compile time.
+     */
+    boolean isLastVariableUnknown() {
+        return lastVariableUnknown;
+    }
+}
@@ -0,0 +1,668 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.generation.jvm;
+
+import net.cpollet.thorium.execution.bytecode.CodeObject;
+import net.cpollet.thorium.execution.bytecode.Opcode;
+import net.cpollet.thorium.values.DirectValue;
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Opcodes;
+import org.objectweb.asm.Type;
+
+import java.util.Arrays;
+
+/**
+ * Generates the JVM method of one {@link CodeObject}. Each register gets one local variable per kind it takes;
+ * whenever control flow merges registers of different kinds, they are boxed into their {@code Value} local variable
+ * on the incoming edges.
+ *
+ * @author Christophe Pollet
+ */
+class MethodGenerator implements Opcodes {
+    private static final int RUNTIME_SLOT = 0;
+
+    private final JvmCompiler compiler;
+    private final ClassWriter classWriter;
+    private final CodeObject codeObject;
+    private final KindAnalysis analysis;
+    private final int method;
+    private final Label[] labels;
+    private final int[][] slots;
+
+    private MethodVisitor mv;
+    private int nextSlot;
+    private int lastVariableSlot = -1;
+
+    /**
+     * @param method the index of the method, or -1 for the top-level code
+     */
+    MethodGenerator(JvmCompiler compiler, ClassWriter classWriter, CodeObject codeObject, KindAnalysis analysis, int method) {
+        this.compiler = compiler;
+        this.classWriter = classWriter;
+        this.codeObject = codeObject;
+        this.analysis = analysis;
+        this.method = method;
+        this.labels = new Label[codeObject.getCodeLength()];
+        this.slots = new int[codeObject.getRegisterCount()][Kind.values().length];
+
+        for (int[] registerSlots : slots) {
+            Arrays.fill(registerSlots, -1);
+        }
+    }
+
+    private boolean isMain() {
+        return method == -1;
+    }
+
+    void generate() {
+        if (isMain()) {
+            mv = classWriter.visitMethod(ACC_PUBLIC | ACC_STATIC, "main", JvmCompiler.mainDescriptor(), null, null);
+        } else {
+            mv = classWriter.visitMethod(ACC_PUBLIC | ACC_STATIC, compiler.methodName(method), compiler.methodDescriptor(method), null, null);
+        }
+
+        mv.visitCode();
+
+        nextSlot = RUNTIME_SLOT + 1;
+
+        for (int i = 0; i < codeObject.getParametersCount(); i++) {
+            Kind kind = Kind.of(codeObject.getParameterSignatures().get(i).getType());
+            slots[i][kind.ordinal()] = nextSlot;
+            nextSlot += kind.jvmType().getSize();
+        }
+
+        if (analysis.isLastVariableUnknown()) {
+            lastVariableSlot = nextSlot++;
+            mv.visitInsn(ICONST_M1);
+            mv.visitVarInsn(ISTORE, lastVariableSlot);
+        }
+
+        for (int pc = 0; pc < labels.length; pc = analysis.next(pc)) {
+            labels[pc] = new Label();
+        }
+
+        for (int pc = 0; pc < labels.length; pc = analysis.next(pc)) {
+            mv.visitLabel(labels[pc]);
+
+            KindAnalysis.State in = analysis.state(pc);
+
+            if (in == null) {
+                continue;
+            }
+
+            KindAnalysis.State out = analysis.transfer(pc, in);
+            generate(pc, in.kinds, out);
+
+            if (fallsThrough(analysis.opcode(pc))) {
+                transition(out, analysis.state(analysis.next(pc)));
+            }
+        }
+
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    private static boolean fallsThrough(Opcode opcode) {
+        return opcode != Opcode.JUMP && opcode != Opcode.FAIL && opcode != Opcode.RETURN;
+    }
+
+    private void generate(int pc, Kind[] kinds, KindAnalysis.State out) {
+        Opcode opcode = analysis.opcode(pc);
+        int last = codeObject.getLastStatementValueRegister();
+
+        switch (opcode) {
+            case LOAD_CONSTANT:
+                loadConstant(operand(pc, 0), (DirectValue) codeObject.getConstant(operand(pc, 1)), out.kinds);
+                break;
+            case MOVE:
+                load(operand(pc, 1), kinds[operand(pc, 1)]);
+                assign(operand(pc, 0), kinds[operand(pc, 1)], out.kinds);
+                break;
+            case STORE:
+                store(operand(pc, 0), operand(pc, 1), kinds, out);
+                break;
+            case LOAD_GLOBAL:
+                mv.visitVarInsn(ALOAD, RUNTIME_SLOT);
+                push(operand(pc, 1));
+                mv.visitMethodInsn(INVOKEVIRTUAL, JvmTypes.RUNTIME.getInternalName(), "getGlobalReference", Type.getMethodDescriptor(JvmTypes.VALUE, Type.INT_TYPE), false);
+                assign(operand(pc, 0), Kind.VALUE, out.kinds);
+                break;
+            case STORE_GLOBAL:
+                loadValue(operand(pc, 1), kinds[operand(pc, 1)]);
+                mv.visitVarInsn(ALOAD, RUNTIME_SLOT);
+                push(operand(pc, 0));
+                mv.visitLdcInsn(compiler.globalName(operand(pc, 0)));
+                mv.visitMethodInsn(INVOKESTATIC, JvmTypes.SUPPORT.getInternalName(), "storeGlobal", Type.getMethodDescriptor(Type.VOID_TYPE, JvmTypes.VALUE, JvmTypes.RUNTIME, Type.INT_TYPE, JvmTypes.STRING), false);
+                break;
+            case SET_LAST:
+            case SET_LAST_VARIABLE:
+                load(operand(pc, 0), kinds[operand(pc, 0)]);
+                assign(last, kinds[operand(pc, 0)], out.kinds);
+
+                if (lastVariableSlot != -1) {
+                    push(opcode == Opcode.SET_LAST ? KindAnalysis.NO_VARIABLE : operand(pc, 0));
+                    mv.visitVarInsn(ISTORE, lastVariableSlot);
+                }
+                break;
+            case CLEAR:
+                clear(operand(pc, 0), operand(pc, 1), out.kinds);
+                break;
+            case ADD:
+            case MULTIPLY:
+                arithmetic(opcode, operand(pc, 1), operand(pc, 2), kinds);
+                assign(operand(pc, 0), KindAnalysis.arithmetic(kinds[operand(pc, 1)], kinds[operand(pc, 2)]), out.kinds);
+                break;
+            case LESS_THAN:
+            case LESS_THAN_OR_EQUAL:
+            case GREATER_THAN:
+            case GREATER_THAN_OR_EQUAL:
+                comparison(opcode, operand(pc, 1), operand(pc, 2), kinds);
+                assign(operand(pc, 0), KindAnalysis.comparison(kinds[operand(pc, 1)], kinds[operand(pc, 2)]), out.kinds);
+                break;
+            case NOT:
+                not(operand(pc, 1), kinds);
+                assign(operand(pc, 0), KindAnalysis.not(kinds[operand(pc, 1)]), out.kinds);
+                break;
+            case JUMP:
+                transition(out, analysis.state(operand(pc, 0)));
+                mv.visitJumpInsn(GOTO, labels[operand(pc, 0)]);
+                break;
+            case JUMP_IF_FALSE:
+            case JUMP_IF_TRUE:
+                conditionalJump(opcode, operand(pc, 0), operand(pc, 1), kinds, out);
+                break;
+            case CALL:
+                call(pc, kinds, out);
+                break;
+            case DEFINE_METHOD:
+                mv.visitVarInsn(ALOAD, RUNTIME_SLOT);
+                push(compiler.methodIndex((CodeObject) codeObject.getConstant(operand(pc, 0))));
+                mv.visitMethodInsn(INVOKEVIRTUAL, JvmTypes.RUNTIME.getInternalName(), "define", "(I)V", false);
+                break;
+            case FAIL:
+                fail((String) codeObject.getConstant(operand(pc, 0)));
+                break;
+            case RETURN:
+                doReturn(operand(pc, 0), kinds);
+                break;
+            default:
+                throw new IllegalStateException("Opcode " + opcode + " not supported");
+        }
+    }
+
+    private int operand(int pc, int index) {
+        return analysis.operand(pc, index);
+    }
+
+    //region Registers
+
+    private int slot(int register, Kind kind) {
+        if (slots[register][kind.ordinal()] == -1) {
+            slots[register][kind.ordinal()] = nextSlot;
+            nextSlot += kind.jvmType().getSize();
+        }
+
+        return slots[register][kind.ordinal()];
+    }
+
+    /**
+     * Pushes the content of a register, represented according to its kind. Void is represented as a {@code Value}.
+     */
+    private void load(int register, Kind kind) {
+        if (kind == null) {
+            throw new IllegalStateException("Register " + register + " has no kind");
+        }
+
+        if (analysis.isGlobal(register)) {
+            loadGlobal(register);
+            return;
+        }
+
+        switch (kind) {
+            case VOID:
+                mv.visitFieldInsn(GETSTATIC, JvmTypes.SUPPORT.getInternalName(), "VOID", JvmTypes.VALUE.getDescriptor());
+                break;
+            case INTEGER:
+                mv.visitVarInsn(LLOAD, slot(register, kind));
+                break;
+            case FLOAT:
+                mv.visitVarInsn(DLOAD, slot(register, kind));
+                break;
+            case BOOLEAN:
+                mv.visitVarInsn(ILOAD, slot(register, kind));
+                break;
+            case VALUE:
+                mv.visitVarInsn(ALOAD, slot(register, kind));
+                break;
+            default:
+                throw new IllegalStateException(kind + " not supported");
+        }
+    }
+
+    private void loadValue(int register, Kind kind) {
+        load(register, kind);
+        box(kind);
+    }
+
+    private void loadGlobal(int register) {
+        mv.visitVarInsn(ALOAD, RUNTIME_SLOT);
+        push(register);
+        mv.visitMethodInsn(INVOKEVIRTUAL, JvmTypes.RUNTIME.getInternalName(), "getGlobal", Type.getMethodDescriptor(JvmTypes.VALUE, Type.INT_TYPE), false);
+    }
+
+    /**
+     * Pops a value represented according to {@code kind} into a register, converting it to the register's kind.
+     */
+    private void assign(int register, Kind kind, Kind[] kinds) {
+        Kind target = kinds[register];
+
+        convert(kind, target);
+
+        if (analysis.isGlobal(register)) {
+            mv.visitVarInsn(ALOAD, RUNTIME_SLOT);
+            push(register);
+            mv.visitMethodInsn(INVOKESTATIC, JvmTypes.SUPPORT.getInternalName(), "setGlobal", Type.getMethodDescriptor(Type.VOID_TYPE, JvmTypes.VALUE, JvmTypes.RUNTIME, Type.INT_TYPE), false);
+            return;
+        }
+
+        switch (target) {
+            case VOID:
+                mv.visitInsn(POP);
+                break;
+            case INTEGER:
+                mv.visitVarInsn(LSTORE, slot(register, target));
+                break;
+            case FLOAT:
+                mv.visitVarInsn(DSTORE, slot(register, target));
+                break;
+            case BOOLEAN:
+                mv.visitVarInsn(ISTORE, slot(register, target));
+                break;
+            case VALUE:
+                mv.visitVarInsn(ASTORE, slot(register, target));
+                break;
+            default:
+                throw new IllegalStateException(target + " not supported");
+        }
+    }
+
+    private void convert(Kind from, Kind to) {
+        if (from == to) {
+            return;
+        }
+
+        if (to != Kind.VALUE) {
+            throw new IllegalStateException("Cannot convert " + from + " to " + to);
+        }
+
+        box(from);
+    }
+
+    private void box(Kind kind) {
+        switch (kind) {
+            case INTEGER:
+                mv.visitMethodInsn(INVOKESTATIC, JvmTypes.SUPPORT.getInternalName(), "box", Type.getMethodDescriptor(JvmTypes.VALUE, Type.LONG_TYPE), false);
+                break;
+            case FLOAT:
+                mv.visitMethodInsn(INVOKESTATIC, JvmTypes.SUPPORT.getInternalName(), "box", Type.getMethodDescriptor(JvmTypes.VALUE, Type.DOUBLE_TYPE), false);
+                break;
+            case BOOLEAN:
+                mv.visitMethodInsn(INVOKESTATIC, JvmTypes.SUPPORT.getInternalName(), "box", Type.getMethodDescriptor(JvmTypes.VALUE, Type.BOOLEAN_TYPE), false);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Boxes the registers whose kind differs between the end of an instruction and the start of its successor.
+     */
+    private void transition(KindAnalysis.State from, KindAnalysis.State to) {
+        for (int register = 0; register < from.kinds.length; register++) {
+            if (needsTransition(from, to, register)) {
+                loadValue(register, from.kinds[register]);
+                mv.visitVarInsn(ASTORE, slot(register, Kind.VALUE));
+            }
+        }
+    }
+
+    private boolean needsTransition(KindAnalysis.State from, KindAnalysis.State to) {
+        for (int register = 0; register < from.kinds.length; register++) {
+            if (needsTransition(from, to, register)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private boolean needsTransition(KindAnalysis.State from, KindAnalysis.State to, int register) {
+        return from.kinds[register] != to.kinds[register] && !analysis.isGlobal(register);
+    }
+
+    //endregion
+
+    //region Instructions
+
+    private void loadConstant(int register, DirectValue constant, Kind[] kinds) {
+        Kind kind = Kind.of(constant);
+
+        switch (kind) {
+            case VOID:
+                if (!analysis.isGlobal(register) && kinds[register] == Kind.VOID) {
+                    return;
+                }
+
+                mv.visitFieldInsn(GETSTATIC, JvmTypes.SUPPORT.getInternalName(), "VOID", JvmTypes.VALUE.getDescriptor());
+                break;
+            case INTEGER:
+            case FLOAT:
+                mv.visitLdcInsn(constant.internalValue());
+                break;
+            case BOOLEAN:
+                mv.visitInsn((Boolean) constant.internalValue() ? ICONST_1 : ICONST_0);
+                break;
+            default:
+                throw new IllegalStateException("Constant " + constant + " not supported");
+        }
+
+        assign(register, kind, kinds);
+    }
+
+    private void store(int variable, int value, Kind[] kinds, KindAnalysis.State out) {
+        Kind kind = KindAnalysis.store(kinds[variable], kinds[value]);
+
+        if (kind.isPrimitive() && !analysis.isGlobal(variable)) {
+            load(value, kinds[value]);
+            assign(variable, kind, out.kinds);
+        } else {
+            mv.visitLdcInsn(codeObject.getVariableName(variable));
+            loadValue(variable, kinds[variable]);
+            loadValue(value, kinds[value]);
+            mv.visitMethodInsn(INVOKESTATIC, JvmTypes.SUPPORT.getInternalName(), "store", Type.getMethodDescriptor(JvmTypes.VALUE, JvmTypes.STRING, JvmTypes.VALUE, JvmTypes.VALUE), false);
+            assign(variable, Kind.VALUE, out.kinds);
+        }
+
+        int last = codeObject.getLastStatementValueRegister();
+        int lastVariable = out.lastVariable;
+
+        if (lastVariable == variable) {
+            load(variable, out.kinds[variable]);
+            assign(last, out.kinds[variable], out.kinds);
+        } else if (lastVariable == KindAnalysis.UNKNOWN_VARIABLE) {
+            Label otherVariable = new Label();
+            Label end = new Label();
+
+            mv.visitVarInsn(ILOAD, lastVariableSlot);
+            push(variable);
+            mv.visitJumpInsn(IF_ICMPNE, otherVariable);
+            load(variable, out.kinds[variable]);
+            assign(last, out.kinds[variable], out.kinds);
+            mv.visitJumpInsn(GOTO, end);
+
+            mv.visitLabel(otherVariable);
+            if (kinds[last] != out.kinds[last]) {
+                load(last, kinds[last]);
+                assign(last, kinds[last], out.kinds);
+            }
+
+            mv.visitLabel(end);
+        }
+    }
+
+    private void clear(int first, int count, Kind[] kinds) {
+        for (int register = first; register < first + count; register++) {
+            if (analysis.isGlobal(register)) {
+                mv.visitFieldInsn(GETSTATIC, JvmTypes.SUPPORT.getInternalName(), "VOID", JvmTypes.VALUE.getDescriptor());
+                assign(register, Kind.VOID, kinds);
+            }
+        }
+
+        if (lastVariableSlot != -1) {
+            Label end = new Label();
+
+            mv.visitVarInsn(ILOAD, lastVariableSlot);
+            push(first);
+            mv.visitJumpInsn(IF_ICMPLT, end);
+            mv.visitVarInsn(ILOAD, lastVariableSlot);
+            push(first + count);
+            mv.visitJumpInsn(IF_ICMPGE, end);
+            mv.visitInsn(ICONST_M1);
+            mv.visitVarInsn(ISTORE, lastVariableSlot);
+            mv.visitLabel(end);
+        }
+    }
+
+    private void arithmetic(Opcode opcode, int left, int right, Kind[] kinds) {
+        Kind kind = KindAnalysis.arithmetic(kinds[left], kinds[right]);
+
+        if (kind == Kind.VALUE) {
+            operator(opcode, left, right, kinds);
+            return;
+        }
+
+        load(left, kind);
+        load(right, kind);
+
+        if (kind == Kind.INTEGER) {
+            mv.visitInsn(opcode == Opcode.ADD ? LADD : LMUL);
+        } else {
+            mv.visitInsn(opcode == Opcode.ADD ? DADD : DMUL);
+        }
+    }
+
+    private void comparison(Opcode opcode, int left, int right, Kind[] kinds) {
+        if (KindAnalysis.comparison(kinds[left], kinds[right]) == Kind.VALUE) {
+            operator(opcode, left, right, kinds);
+            return;
+        }
+
+        load(left, kinds[left]);
+        load(right, kinds[right]);
+
+        boolean lessThan = opcode == Opcode.LESS_THAN || opcode == Opcode.LESS_THAN_OR_EQUAL;
+
+        if (kinds[left] == Kind.INTEGER) {
+            mv.visitInsn(LCMP);
+        } else {
+            // NaN compares as false
+            mv.visitInsn(lessThan ? DCMPG : DCMPL);
+        }
+
+        Label isFalse = new Label();
+        Label end = new Label();
+
+        switch (opcode) {
+            case LESS_THAN:
+                mv.visitJumpInsn(IFGE, isFalse);
+                break;
+            case LESS_THAN_OR_EQUAL:
+                mv.visitJumpInsn(IFGT, isFalse);
+                break;
+            case GREATER_THAN:
+                mv.visitJumpInsn(IFLE, isFalse);
+                break;
+            case GREATER_THAN_OR_EQUAL:
+                mv.visitJumpInsn(IFLT, isFalse);
+                break;
+            default:
+                throw new IllegalArgumentException(opcode + " is not a comparison");
+        }
+
+        mv.visitInsn(ICONST_1);
+        mv.visitJumpInsn(GOTO, end);
+        mv.visitLabel(isFalse);
+        mv.visitInsn(ICONST_0);
+        mv.visitLabel(end);
+    }
+
+    private void not(int operand, Kind[] kinds) {
+        if (kinds[operand] == Kind.BOOLEAN) {
+            mv.visitVarInsn(ILOAD, slot(operand, Kind.BOOLEAN));
+            mv.visitInsn(ICONST_1);
+            mv.visitInsn(IXOR);
+            return;
+        }
+
+        loadInlineCache(Opcode.NOT.operator());
+        loadValue(operand, kinds[operand]);
+        mv.visitMethodInsn(INVOKESTATIC, JvmTypes.SUPPORT.getInternalName(), "operator", Type.getMethodDescriptor(JvmTypes.VALUE, JvmTypes.INLINE_CACHE, JvmTypes.VALUE), false);
+    }
+
+    private void operator(Opcode opcode, int left, int right, Kind[] kinds) {
+        loadInlineCache(opcode.operator());
+        loadValue(left, kinds[left]);
+        loadValue(right, kinds[right]);
+        mv.visitMethodInsn(INVOKESTATIC, JvmTypes.SUPPORT.getInternalName(), "operator", Type.getMethodDescriptor(JvmTypes.VALUE, JvmTypes.INLINE_CACHE, JvmTypes.VALUE, JvmTypes.VALUE), false);
+    }
+
+    /**
+     * Pushes the inline cache of the call or operator site being generated.
+     */
+    private void loadInlineCache(String name) {
+        mv.visitFieldInsn(GETSTATIC, compiler.getClassName(), compiler.inlineCache(name), JvmTypes.INLINE_CACHE.getDescriptor());
+    }
+
+    private void conditionalJump(Opcode opcode, int condition, int target, Kind[] kinds, KindAnalysis.State out) {
+        switch (kinds[condition]) {
+            case BOOLEAN:
+                load(condition, Kind.BOOLEAN);
+                break;
+            case VOID:
+                mv.visitInsn(ICONST_0);
+                break;
+            default:
+                loadValue(condition, kinds[condition]);
+                mv.visitMethodInsn(INVOKESTATIC, JvmTypes.SUPPORT.getInternalName(), "isTrue", Type.getMethodDescriptor(Type.BOOLEAN_TYPE, JvmTypes.VALUE), false);
+                break;
+        }
+
+        boolean jumpIfFalse = opcode == Opcode.JUMP_IF_FALSE;
+        KindAnalysis.State targetState = analysis.state(target);
+
+        if (needsTransition(out, targetState)) {
+            Label skip = new Label();
+
+            mv.visitJumpInsn(jumpIfFalse ? IFNE : IFEQ, skip);
+            transition(out, targetState);
+            mv.visitJumpInsn(GOTO, labels[target]);
+            mv.visitLabel(skip);
+        } else {
+            mv.visitJumpInsn(jumpIfFalse ? IFEQ : IFNE, labels[target]);
+        }
+    }
+
+    private void call(int pc, Kind[] kinds, KindAnalysis.State out) {
+        int target = analysis.resolveCall(pc, kinds);
+        int first = operand(pc, 2);
+        int count = operand(pc, 3);
+
+        if (target >= 0) {
+            mv.visitVarInsn(ALOAD, RUNTIME_SLOT);
+            for (int i = first; i < first + count; i++) {
+                load(i, kinds[i]);
+
+                if (kinds[i] == Kind.VALUE) {
+                    mv.visitMethodInsn(INVOKEINTERFACE, JvmTypes.VALUE.getInternalName(), "value", Type.getMethodDescriptor(JvmTypes.DIRECT_VALUE), true);
+                }
+            }
+            mv.visitMethodInsn(INVOKESTATIC, compiler.getClassName(), compiler.methodName(target), compiler.methodDescriptor(target), false);
+
+            assign(operand(pc, 0), compiler.returnKind(target), out.kinds);
+            return;
+        }
+
+        mv.visitVarInsn(ALOAD, RUNTIME_SLOT);
+        loadInlineCache((String) codeObject.getConstant(operand(pc, 1)));
+        push(count);
+        mv.visitTypeInsn(ANEWARRAY, JvmTypes.VALUE.getInternalName());
+
+        for (int i = 0; i < count; i++) {
+            mv.visitInsn(DUP);
+            push(i);
+            loadValue(first + i, kinds[first + i]);
+            mv.visitInsn(AASTORE);
+        }
+
+        mv.visitMethodInsn(INVOKEVIRTUAL, JvmTypes.RUNTIME.getInternalName(), "call", Type.getMethodDescriptor(JvmTypes.VALUE, JvmTypes.INLINE_CACHE, JvmTypes.VALUE_ARRAY), false);
+        assign(operand(pc, 0), Kind.VALUE, out.kinds);
+    }
+
+    private void fail(String message) {
+        mv.visitTypeInsn(NEW, "java/lang/IllegalStateException");
+        mv.visitInsn(DUP);
+        mv.visitLdcInsn(message);
+        mv.visitMethodInsn(INVOKESPECIAL, "java/lang/IllegalStateException", "<init>", Type.getMethodDescriptor(Type.VOID_TYPE, JvmTypes.STRING), false);
+        mv.visitInsn(ATHROW);
+    }
+
+    private void doReturn(int register, Kind[] kinds) {
+        if (isMain()) {
+            int[] exported = Arrays.copyOf(codeObject.getRootVariables(), codeObject.getRootVariables().length + 1);
+            exported[exported.length - 1] = codeObject.getLastStatementValueRegister();
+
+            for (int variable : exported) {
+                if (!analysis.isGlobal(variable)) {
+                    loadValue(variable, kinds[variable]);
+                    mv.visitVarInsn(ALOAD, RUNTIME_SLOT);
+                    push(variable);
+                    mv.visitMethodInsn(INVOKESTATIC, JvmTypes.SUPPORT.getInternalName(), "setGlobal", Type.getMethodDescriptor(Type.VOID_TYPE, JvmTypes.VALUE, JvmTypes.RUNTIME, Type.INT_TYPE), false);
+                }
+            }
+
+            loadValue(register, kinds[register]);
+            mv.visitInsn(ARETURN);
+            return;
+        }
+
+        Kind returnKind = compiler.returnKind(method);
+
+        load(register, kinds[register]);
+        convert(kinds[register], returnKind);
+
+        switch (returnKind) {
+            case INTEGER:
+                mv.visitInsn(LRETURN);
+                break;
+            case FLOAT:
+                mv.visitInsn(DRETURN);
+                break;
+            case BOOLEAN:
+                mv.visitInsn(IRETURN);
+                break;
+            default:
+                mv.visitInsn(ARETURN);
+                break;
+        }
+    }
+
+    //endregion
+
+    private void push(int value) {
+        if (value >= -1 && value <= 5) {
+            mv.visitInsn(ICONST_0 + value);
+        } else if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+            mv.visitIntInsn(BIPUSH, value);
+        } else if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+            mv.visitIntInsn(SIPUSH, value);
+        } else {
+            mv.visitLdcInsn(value);
+        }
+    }
+}
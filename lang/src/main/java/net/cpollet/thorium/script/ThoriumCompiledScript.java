@@ -0,0 +1,148 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.script;
+
+import net.cpollet.thorium.execution.CompiledProgram;
+import net.cpollet.thorium.execution.ExecutionContext;
+import net.cpollet.thorium.execution.data.symbol.Symbol;
+import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.values.DirectValue;
+import net.cpollet.thorium.values.Value;
+
+import javax.script.Bindings;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngine;
+import javax.script.ScriptException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link CompiledProgram} evaluated against the bindings of a script context. Can be evaluated concurrently, as long
+ * as each evaluation has its own bindings.
+ *
+ * @author Christophe Pollet
+ */
+public class ThoriumCompiledScript extends CompiledScript {
+    private static final int[] SCOPES = {ScriptContext.GLOBAL_SCOPE, ScriptContext.ENGINE_SCOPE};
+
+    private final ScriptEngine engine;
+    private final CompiledProgram program;
+    private final Set<String> symbolNames;
+
+    ThoriumCompiledScript(ScriptEngine engine, CompiledProgram program, Set<String> symbolNames) {
+        this.engine = engine;
+        this.program = program;
+        this.symbolNames = symbolNames;
+    }
+
+    @Override
+    public Object eval(ScriptContext context) throws ScriptException {
+        ExecutionContext executionContext = ExecutionContext.createEmpty();
+
+        for (Map.Entry<String, DirectValue> binding : bindingValues(context).entrySet()) {
+            executionContext.insertSymbol(new Symbol(binding.getKey(), binding.getValue()));
+        }
+
+        try {
+            program.execute(executionContext);
+        } catch (RuntimeException e) {
+            throw ThoriumScriptEngine.scriptException(e);
+        }
+
+        Bindings bindings = context.getBindings(ScriptContext.ENGINE_SCOPE);
+
+        for (String name : symbolNames) {
+            if (executionContext.symbolDefined(name)) {
+                bindings.put(name, toJava(executionContext.lookupSymbol(name)));
+            }
+        }
+
+        return toJava(executionContext.getLastStatementValue());
+    }
+
+    @Override
+    public ScriptEngine getEngine() {
+        return engine;
+    }
+
+    static Map<String, Type> bindingTypes(ScriptContext context) {
+        Map<String, Type> types = new HashMap<>();
+
+        for (Map.Entry<String, DirectValue> binding : bindingValues(context).entrySet()) {
+            types.put(binding.getKey(), binding.getValue().type());
+        }
+
+        return types;
+    }
+
+    /**
+     * Returns the bindings having a Thorium value, the engine scope hiding the global scope.
+     */
+    private static Map<String, DirectValue> bindingValues(ScriptContext context) {
+        Map<String, DirectValue> values = new HashMap<>();
+
+        for (int scope : SCOPES) {
+            Bindings bindings = context.getBindings(scope);
+
+            if (bindings == null) {
+                continue;
+            }
+
+            for (Map.Entry<String, Object> binding : bindings.entrySet()) {
+                DirectValue value = toValue(binding.getValue());
+
+                if (value != null) {
+                    values.put(binding.getKey(), value);
+                }
+            }
+        }
+
+        return values;
+    }
+
+    private static DirectValue toValue(Object object) {
+        if (object instanceof Long || object instanceof Integer || object instanceof Short || object instanceof Byte) {
+            return DirectValue.build(((Number) object).longValue());
+        }
+
+        if (object instanceof Double || object instanceof Float) {
+            return DirectValue.build(((Number) object).doubleValue());
+        }
+
+        if (object instanceof Boolean) {
+            return DirectValue.build((Boolean) object);
+        }
+
+        return null;
+    }
+
+    private static Object toJava(Value value) {
+        if (value == null) {
+            return null;
+        }
+
+        DirectValue directValue = value.value();
+
+        if (directValue == null) {
+            return null;
+        }
+
+        return directValue.internalValue();
+    }
+}
@@ -0,0 +1,218 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.script;
+
+import net.cpollet.thorium.ThoriumException;
+import net.cpollet.thorium.analysis.data.symbol.Symbol;
+import net.cpollet.thorium.analysis.exceptions.ThoriumSemanticException;
+import net.cpollet.thorium.data.symbol.SymbolTable;
+import net.cpollet.thorium.execution.CompiledProgram;
+import net.cpollet.thorium.execution.Engine;
+import net.cpollet.thorium.types.Type;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import javax.script.AbstractScriptEngine;
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptContext;
+import javax.script.ScriptEngineFactory;
+import javax.script.ScriptException;
+import javax.script.SimpleBindings;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compiles and evaluates Thorium compilation units. The bindings of the script context are the top-level symbols of
+ * the script: Integer, Float and Boolean values are visible to the script, and its top-level variables and constants
+ * are written back to the engine scope bindings once evaluated. Other values are ignored.
+ * <p>
+ * Compiled scripts are kept in a bounded LRU cache, keyed by source and by the types of the bindings in scope, so
+ * that evaluating the same source again skips parsing and analysis. Scripts run on {@link Engine#VISITOR}, the only
+ * engine that reads symbols from the execution context.
+ *
+ * @author Christophe Pollet
+ */
+public class ThoriumScriptEngine extends AbstractScriptEngine implements Compilable {
+    public static final int DEFAULT_CACHE_SIZE = 256;
+
+    private final ScriptEngineFactory factory;
+    private final Map<CacheKey, ThoriumCompiledScript> cache;
+
+    public ThoriumScriptEngine(ScriptEngineFactory factory) {
+        this(factory, DEFAULT_CACHE_SIZE);
+    }
+
+    public ThoriumScriptEngine(ScriptEngineFactory factory, int cacheSize) {
+        if (cacheSize < 1) {
+            throw new IllegalArgumentException("cacheSize must be at least 1");
+        }
+
+        this.factory = factory;
+        this.cache = new LinkedHashMap<CacheKey, ThoriumCompiledScript>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<CacheKey, ThoriumCompiledScript> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    @Override
+    public CompiledScript compile(String script) throws ScriptException {
+        return compile(script, context);
+    }
+
+    @Override
+    public CompiledScript compile(Reader script) throws ScriptException {
+        return compile(read(script));
+    }
+
+    @Override
+    public Object eval(String script, ScriptContext context) throws ScriptException {
+        return compile(script, context).eval(context);
+    }
+
+    @Override
+    public Object eval(Reader reader, ScriptContext context) throws ScriptException {
+        return eval(read(reader), context);
+    }
+
+    private ThoriumCompiledScript compile(String script, ScriptContext context) throws ScriptException {
+        Map<String, Type> bindingTypes = ThoriumCompiledScript.bindingTypes(context);
+        CacheKey key = new CacheKey(script, bindingTypes);
+        ThoriumCompiledScript compiledScript;
+
+        synchronized (cache) {
+            compiledScript = cache.get(key);
+        }
+
+        if (compiledScript != null) {
+            return compiledScript;
+        }
+
+        compiledScript = compile(script, bindingTypes);
+
+        synchronized (cache) {
+            cache.put(key, compiledScript);
+        }
+
+        return compiledScript;
+    }
+
+    private ThoriumCompiledScript compile(String script, Map<String, Type> bindingTypes) throws ScriptException {
+        SymbolTable<Symbol> scope = new SymbolTable<>();
+
+        for (Map.Entry<String, Type> binding : bindingTypes.entrySet()) {
+            scope.insert(binding.getKey(), Symbol.create(binding.getKey(), Symbol.SymbolKind.VARIABLE, binding.getValue(), null));
+        }
+
+        try {
+            CompiledProgram program = CompiledProgram.compile(script, Engine.VISITOR, scope);
+
+            return new ThoriumCompiledScript(this, program, scope.getNames());
+        } catch (ThoriumException | ParseCancellationException e) {
+            throw scriptException(e);
+        }
+    }
+
+    /**
+     * Wraps e in a {@link ScriptException}, whose message lists each semantic error e reports, with its line.
+     */
+    static ScriptException scriptException(RuntimeException e) {
+        StringBuilder message = new StringBuilder(String.valueOf(e.getMessage()));
+
+        if (e instanceof ThoriumSemanticException) {
+            for (ThoriumSemanticException cause : ((ThoriumSemanticException) e).getCauses()) {
+                message.append(System.lineSeparator()).append(cause.getMessage());
+            }
+        }
+
+        ScriptException scriptException = new ScriptException(message.toString());
+        scriptException.initCause(e);
+
+        return scriptException;
+    }
+
+    /**
+     * Returns the number of compiled scripts currently cached.
+     */
+    public int getCacheSize() {
+        synchronized (cache) {
+            return cache.size();
+        }
+    }
+
+    private static String read(Reader reader) throws ScriptException {
+        StringBuilder script = new StringBuilder();
+        char[] buffer = new char[4096];
+
+        try {
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                script.append(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new ScriptException(e);
+        }
+
+        return script.toString();
+    }
+
+    @Override
+    public Bindings createBindings() {
+        return new SimpleBindings();
+    }
+
+    @Override
+    public ScriptEngineFactory getFactory() {
+        return factory;
+    }
+
+    private static final class CacheKey {
+        private final String script;
+        private final Map<String, Type> bindingTypes;
+        private final int hashCode;
+
+        private CacheKey(String script, Map<String, Type> bindingTypes) {
+            this.script = script;
+            this.bindingTypes = new TreeMap<>(bindingTypes);
+            this.hashCode = 31 * script.hashCode() + this.bindingTypes.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+
+            CacheKey cacheKey = (CacheKey) o;
+
+            return hashCode == cacheKey.hashCode && script.equals(cacheKey.script) && bindingTypes.equals(cacheKey.bindingTypes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
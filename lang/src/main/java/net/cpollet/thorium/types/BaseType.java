@@ -16,6 +16,7 @@
 
 package net.cpollet.thorium.types;
 
+import net.cpollet.thorium.data.method.InlineCache;
 import net.cpollet.thorium.data.method.Method;
 import net.cpollet.thorium.data.method.MethodBody;
 import net.cpollet.thorium.data.method.MethodNotFoundException;
@@ -30,7 +31,7 @@ import java.util.List;
  * @author Christophe Pollet
  */
 public abstract class BaseType implements Type {
-    private Nullable nullable;
+    private final Nullable nullable;
 
     public BaseType(Nullable nullable) {
         this.nullable = nullable;
@@ -61,22 +62,27 @@ public abstract class BaseType implements Type {
         return methodTable().lookup(name, this, parametersType);
     }
 
+    @Override
+    public Method lookupMethod(InlineCache inlineCache, Type... parametersType) {
+        return inlineCache.lookup(methodTable(), this, parametersType);
+    }
+
     abstract MethodTable methodTable();
 
     protected static MethodBody body(MultivaluedOperator<Value> operator) {
         return new NativeMethodBody(operator);
     }
 
-    protected static Long integerValue(Value value) {
-        return (Long) value.value().internalValue();
+    protected static long integerValue(Value value) {
+        return value.integerValue();
     }
 
-    protected static Double floatValue(Value value) {
-        return (Double) value.value().internalValue();
+    protected static double floatValue(Value value) {
+        return value.floatValue();
     }
 
-    protected static Boolean booleanValue(Value value) {
-        return (Boolean) value.value().internalValue();
+    protected static boolean booleanValue(Value value) {
+        return value.booleanValue();
     }
 
     @Override
@@ -76,7 +76,7 @@ public class BooleanType extends BaseType {
 
         if (left.hasValue() && right.hasValue()) {
             return DirectValue.build(
-                    (Boolean) (left.value().internalValue()) || (Boolean) (right.value().internalValue())
+                    booleanValue(left) || booleanValue(right)
             );
         }
 
@@ -91,7 +91,7 @@ public class BooleanType extends BaseType {
     }
 
     private static boolean evaluatesToTrue(Value value) {
-        return value.hasValue() && (Boolean) (value.value().internalValue());
+        return value.hasValue() && booleanValue(value);
     }
 
     private static Value and(MethodEvaluationContext evaluationContext) {
@@ -100,7 +100,7 @@ public class BooleanType extends BaseType {
 
         if (left.hasValue() && right.hasValue()) {
             return DirectValue.build(
-                    (Boolean) (left.value().internalValue()) && (Boolean) (right.value().internalValue())
+                    booleanValue(left) && booleanValue(right)
             );
         }
 
@@ -115,7 +115,7 @@ public class BooleanType extends BaseType {
     }
 
     private static boolean evaluatesToFalse(Value value) {
-        return value.hasValue() && !(Boolean) (value.value().internalValue());
+        return value.hasValue() && !booleanValue(value);
     }
 
     public static Value not(MethodEvaluationContext evaluationContext) {
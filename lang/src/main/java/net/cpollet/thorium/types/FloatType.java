@@ -97,7 +97,7 @@ public class FloatType extends BaseType {
 
         if (left.hasValue() && right.hasValue()) {
             return DirectValue.build(
-                    (Double) (left.value().internalValue()) + (Double) (right.value().internalValue())
+                    floatValue(left) + floatValue(right)
             );
         }
 
@@ -110,7 +110,7 @@ public class FloatType extends BaseType {
 
         if (left.hasValue() && right.hasValue()) {
             return DirectValue.build(
-                    (Double) (left.value().internalValue()) + ((Long) (right.value().internalValue())).doubleValue()
+                    floatValue(left) + (double) integerValue(right)
             );
         }
 
@@ -127,7 +127,7 @@ public class FloatType extends BaseType {
 
         if (left.hasValue() && right.hasValue()) {
             return DirectValue.build(
-                    (Double) (left.value().internalValue()) * (Double) (right.value().internalValue())
+                    floatValue(left) * floatValue(right)
             );
         }
 
@@ -135,7 +135,7 @@ public class FloatType extends BaseType {
     }
 
     private static boolean isFloatZero(Value value) {
-        return value.hasValue() && value.value().internalValue().equals(0.0);
+        return value.hasValue() && floatValue(value) == 0.0;
     }
 
     private static Value timesInteger(MethodEvaluationContext evaluationContext) {
@@ -148,7 +148,7 @@ public class FloatType extends BaseType {
 
         if (left.hasValue() && right.hasValue()) {
             return DirectValue.build(
-                    (Double) (left.value().internalValue()) * ((Long) (right.value().internalValue())).doubleValue()
+                    floatValue(left) * (double) integerValue(right)
             );
         }
 
@@ -156,7 +156,7 @@ public class FloatType extends BaseType {
     }
 
     private static boolean isIntegerZero(Value value) {
-        return value.hasValue() && value.value().internalValue().equals(0L);
+        return value.hasValue() && integerValue(value) == 0L;
     }
 
     private static Value lessThanFloat(MethodEvaluationContext evaluationContext) {
@@ -182,7 +182,7 @@ public class FloatType extends BaseType {
             return DirectValue.build(Types.NULLABLE_BOOLEAN);
         }
 
-        if (Double.compare(floatValue(left), integerValue(right).doubleValue()) < 0) {
+        if (Double.compare(floatValue(left), (double) integerValue(right)) < 0) {
             return DirectValue.build(true);
         }
 
@@ -212,7 +212,7 @@ public class FloatType extends BaseType {
             return DirectValue.build(Types.NULLABLE_BOOLEAN);
         }
 
-        if (Double.compare(floatValue(left), integerValue(right).doubleValue()) <= 0) {
+        if (Double.compare(floatValue(left), (double) integerValue(right)) <= 0) {
             return DirectValue.build(true);
         }
 
@@ -220,18 +220,46 @@ public class FloatType extends BaseType {
     }
 
     private static Value biggerThanFloat(MethodEvaluationContext evaluationContext) {
-        return BooleanType.not(new MethodEvaluationContext(evaluationContext.getExecutionContext(), lessThanOrEqualToFloat(evaluationContext)));
+        Value left = evaluationContext.getParameter(0);
+        Value right = evaluationContext.getParameter(1);
+
+        if (!left.hasValue() || !right.hasValue()) {
+            return DirectValue.build(Types.NULLABLE_BOOLEAN);
+        }
+
+        return DirectValue.build(Double.compare(floatValue(left), floatValue(right)) > 0);
     }
 
     private static Value biggerThanInteger(MethodEvaluationContext evaluationContext) {
-        return BooleanType.not(new MethodEvaluationContext(evaluationContext.getExecutionContext(), lessThanOrEqualToInteger(evaluationContext)));
+        Value left = evaluationContext.getParameter(0);
+        Value right = evaluationContext.getParameter(1);
+
+        if (!left.hasValue() || !right.hasValue()) {
+            return DirectValue.build(Types.NULLABLE_BOOLEAN);
+        }
+
+        return DirectValue.build(Double.compare(floatValue(left), (double) integerValue(right)) > 0);
     }
 
     private static Value biggerThanOrEqualToFloat(MethodEvaluationContext evaluationContext) {
-        return BooleanType.not(new MethodEvaluationContext(evaluationContext.getExecutionContext(), lessThanFloat(evaluationContext)));
+        Value left = evaluationContext.getParameter(0);
+        Value right = evaluationContext.getParameter(1);
+
+        if (!left.hasValue() || !right.hasValue()) {
+            return DirectValue.build(Types.NULLABLE_BOOLEAN);
+        }
+
+        return DirectValue.build(Double.compare(floatValue(left), floatValue(right)) >= 0);
     }
 
     private static Value biggerThanOrEqualToInteger(MethodEvaluationContext evaluationContext) {
-        return BooleanType.not(new MethodEvaluationContext(evaluationContext.getExecutionContext(), lessThanInteger(evaluationContext)));
+        Value left = evaluationContext.getParameter(0);
+        Value right = evaluationContext.getParameter(1);
+
+        if (!left.hasValue() || !right.hasValue()) {
+            return DirectValue.build(Types.NULLABLE_BOOLEAN);
+        }
+
+        return DirectValue.build(Double.compare(floatValue(left), (double) integerValue(right)) >= 0);
     }
 }
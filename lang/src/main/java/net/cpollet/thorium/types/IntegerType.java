@@ -97,7 +97,7 @@ public class IntegerType extends BaseType {
 
         if (left.hasValue() && right.hasValue()) {
             return DirectValue.build(
-                    ((Long) (left.value().internalValue())).doubleValue() + (Double) (right.value().internalValue())
+                    (double) integerValue(left) + floatValue(right)
             );
         }
 
@@ -110,8 +110,7 @@ public class IntegerType extends BaseType {
 
         if (left.hasValue() && right.hasValue()) {
             return DirectValue.build(
-                    (Long) (left.value().internalValue()) +
-                            (Long) (right.value().internalValue())
+                    integerValue(left) + integerValue(right)
             );
         }
 
@@ -128,7 +127,7 @@ public class IntegerType extends BaseType {
 
         if (left.hasValue() && right.hasValue()) {
             return DirectValue.build(
-                    ((Long) (left.value().internalValue())).doubleValue() * (Double) (right.value().internalValue())
+                    (double) integerValue(left) * floatValue(right)
             );
         }
 
@@ -136,7 +135,7 @@ public class IntegerType extends BaseType {
     }
 
     private static boolean isFloatZero(Value value) {
-        return value.hasValue() && value.value().internalValue().equals(0.0);
+        return value.hasValue() && floatValue(value) == 0.0;
     }
 
     private static Value timesInteger(MethodEvaluationContext evaluationContext) {
@@ -149,7 +148,7 @@ public class IntegerType extends BaseType {
 
         if (left.hasValue() && right.hasValue()) {
             return DirectValue.build(
-                    (Long) (left.value().internalValue()) * (Long) (right.value().internalValue())
+                    integerValue(left) * integerValue(right)
             );
         }
 
@@ -157,7 +156,7 @@ public class IntegerType extends BaseType {
     }
 
     private static boolean isIntegerZero(Value value) {
-        return value.hasValue() && value.value().internalValue().equals(0L);
+        return value.hasValue() && integerValue(value) == 0L;
     }
 
     private static Value lessThanInteger(MethodEvaluationContext evaluationContext) {
@@ -183,7 +182,7 @@ public class IntegerType extends BaseType {
             return DirectValue.build(Types.NULLABLE_BOOLEAN);
         }
 
-        if (Double.compare(integerValue(left).doubleValue(), floatValue(right)) < 0) {
+        if (Double.compare((double) integerValue(left), floatValue(right)) < 0) {
             return DirectValue.build(true);
         }
 
@@ -213,7 +212,7 @@ public class IntegerType extends BaseType {
             return DirectValue.build(Types.NULLABLE_BOOLEAN);
         }
 
-        if (Double.compare(integerValue(left).doubleValue(), floatValue(right)) <= 0) {
+        if (Double.compare((double) integerValue(left), floatValue(right)) <= 0) {
             return DirectValue.build(true);
         }
 
@@ -221,18 +220,46 @@ public class IntegerType extends BaseType {
     }
 
     private static Value biggerThanInteger(MethodEvaluationContext evaluationContext) {
-        return BooleanType.not(new MethodEvaluationContext(evaluationContext.getExecutionContext(), lessThanOrEqualToInteger(evaluationContext)));
+        Value left = evaluationContext.getParameter(0);
+        Value right = evaluationContext.getParameter(1);
+
+        if (!left.hasValue() || !right.hasValue()) {
+            return DirectValue.build(Types.NULLABLE_BOOLEAN);
+        }
+
+        return DirectValue.build(Long.compare(integerValue(left), integerValue(right)) > 0);
     }
 
     private static Value biggerThanFloat(MethodEvaluationContext evaluationContext) {
-        return BooleanType.not(new MethodEvaluationContext(evaluationContext.getExecutionContext(), lessThanOrEqualToFloat(evaluationContext)));
+        Value left = evaluationContext.getParameter(0);
+        Value right = evaluationContext.getParameter(1);
+
+        if (!left.hasValue() || !right.hasValue()) {
+            return DirectValue.build(Types.NULLABLE_BOOLEAN);
+        }
+
+        return DirectValue.build(Double.compare((double) integerValue(left), floatValue(right)) > 0);
     }
 
     private static Value biggerThanOrEqualToInteger(MethodEvaluationContext evaluationContext) {
-        return BooleanType.not(new MethodEvaluationContext(evaluationContext.getExecutionContext(), lessThanInteger(evaluationContext)));
+        Value left = evaluationContext.getParameter(0);
+        Value right = evaluationContext.getParameter(1);
+
+        if (!left.hasValue() || !right.hasValue()) {
+            return DirectValue.build(Types.NULLABLE_BOOLEAN);
+        }
+
+        return DirectValue.build(Long.compare(integerValue(left), integerValue(right)) >= 0);
     }
 
     private static Value biggerThanOrEqualToFloat(MethodEvaluationContext evaluationContext) {
-        return BooleanType.not(new MethodEvaluationContext(evaluationContext.getExecutionContext(), lessThanFloat(evaluationContext)));
+        Value left = evaluationContext.getParameter(0);
+        Value right = evaluationContext.getParameter(1);
+
+        if (!left.hasValue() || !right.hasValue()) {
+            return DirectValue.build(Types.NULLABLE_BOOLEAN);
+        }
+
+        return DirectValue.build(Double.compare((double) integerValue(left), floatValue(right)) >= 0);
     }
 }
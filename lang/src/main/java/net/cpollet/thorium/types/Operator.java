@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.types;
+
+/**
+ * The native operators, implemented by the types' method tables. See {@link OperatorTable}.
+ *
+ * @author Christophe Pollet
+ */
+public enum Operator {
+    PLUS("+", 2),
+    TIMES("*", 2),
+    LESS_THAN("<", 2),
+    LESS_THAN_OR_EQUAL("<=", 2),
+    GREATER_THAN(">", 2),
+    GREATER_THAN_OR_EQUAL(">=", 2),
+    NOT("!", 1);
+
+    private final String symbol;
+    private final int arity;
+
+    Operator(String symbol, int arity) {
+        this.symbol = symbol;
+        this.arity = arity;
+    }
+
+    public static Operator of(String symbol) {
+        switch (symbol) {
+            case "+":
+                return PLUS;
+            case "*":
+                return TIMES;
+            case "<":
+                return LESS_THAN;
+            case "<=":
+                return LESS_THAN_OR_EQUAL;
+            case ">":
+                return GREATER_THAN;
+            case ">=":
+                return GREATER_THAN_OR_EQUAL;
+            case "!":
+                return NOT;
+            default:
+                throw new IllegalArgumentException(symbol + " is not an operator");
+        }
+    }
+
+    public String getSymbol() {
+        return symbol;
+    }
+
+    public boolean isUnary() {
+        return arity == 1;
+    }
+}
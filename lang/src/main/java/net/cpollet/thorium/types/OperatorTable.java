@@ -0,0 +1,111 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.types;
+
+import net.cpollet.thorium.data.method.MethodBody;
+import net.cpollet.thorium.data.method.MethodNotFoundException;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Dispatches the native operators with an array lookup. For each operator and each combination of operand types,
+ * including their nullability, the method the types' method tables resolve to is computed once, when this class is
+ * initialized.
+ *
+ * @author Christophe Pollet
+ */
+public final class OperatorTable {
+    private static final Type[] TYPES = {
+            Types.VOID, Types.NULLABLE_VOID,
+            Types.BOOLEAN, Types.NULLABLE_BOOLEAN,
+            Types.INTEGER, Types.NULLABLE_INTEGER,
+            Types.FLOAT, Types.NULLABLE_FLOAT
+    };
+
+    private static final MethodBody[] BINARY = new MethodBody[Operator.values().length * TYPES.length * TYPES.length];
+    private static final MethodBody[] UNARY = new MethodBody[Operator.values().length * TYPES.length];
+
+    static {
+        for (Operator operator : Operator.values()) {
+            for (Type left : TYPES) {
+                if (operator.isUnary()) {
+                    UNARY[index(operator, left)] = resolve(operator, left);
+                    continue;
+                }
+
+                for (Type right : TYPES) {
+                    BINARY[index(operator, left, right)] = resolve(operator, left, right);
+                }
+            }
+        }
+    }
+
+    private OperatorTable() {
+        // nothing
+    }
+
+    private static MethodBody resolve(Operator operator, Type target, Type... parameterTypes) {
+        try {
+            return target.lookupMethod(operator.getSymbol(), Arrays.asList(parameterTypes)).getMethodBody();
+        } catch (MethodNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static int index(Type type) {
+        return type.ordinal();
+    }
+
+    private static int index(Operator operator, Type operand) {
+        return operator.ordinal() * TYPES.length + index(operand);
+    }
+
+    private static int index(Operator operator, Type left, Type right) {
+        return (operator.ordinal() * TYPES.length + index(left)) * TYPES.length + index(right);
+    }
+
+    /**
+     * Returns the implementation of the binary operator for these operand types.
+     *
+     * @throws MethodNotFoundException if there is none, or more than one
+     */
+    public static MethodBody binary(Operator operator, Type left, Type right) {
+        MethodBody methodBody = BINARY[index(operator, left, right)];
+
+        if (methodBody == null) {
+            return left.lookupMethod(operator.getSymbol(), Collections.singletonList(right)).getMethodBody();
+        }
+
+        return methodBody;
+    }
+
+    /**
+     * Returns the implementation of the unary operator for this operand type.
+     *
+     * @throws MethodNotFoundException if there is none, or more than one
+     */
+    public static MethodBody unary(Operator operator, Type operand) {
+        MethodBody methodBody = UNARY[index(operator, operand)];
+
+        if (methodBody == null) {
+            return operand.lookupMethod(operator.getSymbol(), Collections.emptyList()).getMethodBody();
+        }
+
+        return methodBody;
+    }
+}
@@ -16,6 +16,7 @@
 
 package net.cpollet.thorium.types;
 
+import net.cpollet.thorium.data.method.InlineCache;
 import net.cpollet.thorium.data.method.Method;
 
 import java.util.List;
@@ -55,12 +56,25 @@ public interface Type {
 
     boolean isNullable();
 
+    /**
+     * Dense index of this type, from 0 to {@link Types#COUNT} - 1: the non nullable type of each {@link Id} comes right
+     * before its nullable counterpart.
+     */
+    default int ordinal() {
+        return id().ordinal() << 1 | (isNullable() ? 1 : 0);
+    }
+
     boolean isAssignableTo(Type target);
 
     boolean isMethodDefined(String name, List<Type> parametersType);
 
     Method lookupMethod(String name, List<Type> parametersType);
 
+    /**
+     * Looks up the method named after inlineCache using inlineCache first.
+     */
+    Method lookupMethod(InlineCache inlineCache, Type... parametersType);
+
     Type nullable();
 
     Type nonNullable();
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.types;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sets of types, coded as int bitmasks: the type whose {@link Type#ordinal()} is {@code n} is in the set when bit
+ * {@code n} is set. Unions and intersections are the {@code |} and {@code &} operators.
+ *
+ * @author Christophe Pollet
+ */
+public final class TypeSet {
+    public static final int EMPTY = 0;
+
+    private static final int NON_NULLABLE_TYPES = 0x55555555 & ((1 << Types.COUNT) - 1);
+
+    private TypeSet() {
+        // nothing
+    }
+
+    public static int of(Type type) {
+        return 1 << type.ordinal();
+    }
+
+    public static int of(Type... types) {
+        int set = EMPTY;
+
+        for (Type type : types) {
+            set |= of(type);
+        }
+
+        return set;
+    }
+
+    public static boolean contains(int set, Type type) {
+        return (set & of(type)) != 0;
+    }
+
+    public static int size(int set) {
+        return Integer.bitCount(set);
+    }
+
+    /**
+     * Returns the type of a singleton set.
+     *
+     * @throws IllegalArgumentException if the set does not contain exactly one type
+     */
+    public static Type single(int set) {
+        if (size(set) != 1) {
+            throw new IllegalArgumentException("Expected one type, got " + toList(set));
+        }
+
+        return Types.byOrdinal(Integer.numberOfTrailingZeros(set));
+    }
+
+    /**
+     * Returns the set containing the nullable counterpart of each type of the set.
+     */
+    public static int nullable(int set) {
+        return (set & NON_NULLABLE_TYPES) << 1 | set & ~NON_NULLABLE_TYPES;
+    }
+
+    public static List<Type> toList(int set) {
+        List<Type> types = new ArrayList<>(size(set));
+
+        for (int remaining = set; remaining != 0; remaining &= remaining - 1) {
+            types.add(Types.byOrdinal(Integer.numberOfTrailingZeros(remaining)));
+        }
+
+        return types;
+    }
+}
@@ -32,10 +32,26 @@ public class Types {
     public static final Type NULLABLE_VOID = VoidType.NULLABLE;
     public static final Type VOID = VoidType.NON_NULLABLE;
 
+    private static final Type[] BY_ORDINAL = {
+            VOID, NULLABLE_VOID,
+            BOOLEAN, NULLABLE_BOOLEAN,
+            INTEGER, NULLABLE_INTEGER,
+            FLOAT, NULLABLE_FLOAT
+    };
+
+    /**
+     * Number of types, see {@link Type#ordinal()}.
+     */
+    public static final int COUNT = BY_ORDINAL.length;
+
     private Types() {
         // nothing
     }
 
+    public static Type byOrdinal(int ordinal) {
+        return BY_ORDINAL[ordinal];
+    }
+
     public static Type get(Type type, Type.Nullable nullable) {
         switch (nullable) {
             case YES:
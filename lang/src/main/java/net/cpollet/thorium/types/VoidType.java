@@ -16,6 +16,7 @@
 
 package net.cpollet.thorium.types;
 
+import net.cpollet.thorium.data.method.InlineCache;
 import net.cpollet.thorium.data.method.Method;
 import net.cpollet.thorium.data.method.MethodNotFoundException;
 import net.cpollet.thorium.data.method.MethodTable;
@@ -56,6 +57,11 @@ public class VoidType extends BaseType {
         throw new MethodNotFoundException("Method not found.", Collections.emptyList());
     }
 
+    @Override
+    public Method lookupMethod(InlineCache inlineCache, Type... parametersType) {
+        throw new MethodNotFoundException("Method not found.", Collections.emptyList());
+    }
+
     @Override
     MethodTable methodTable() {
         return methodTable;
@@ -19,58 +19,81 @@ package net.cpollet.thorium.values;
 import net.cpollet.thorium.types.Type;
 import net.cpollet.thorium.types.Types;
 
-import java.util.HashMap;
-import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
+ * An immutable value. Integers, floats and booleans are stored unboxed; small integers and booleans are preallocated
+ * so that building them never allocates.
+ * <p>
+ * Only those and the values without value of each type are shared. Other integers and all floats are built anew and
+ * left to the garbage collector, so values must be compared with {@link #equals(Object)}.
+ *
  * @author Christophe Pollet
  */
 public class DirectValue implements Value {
     public static final DirectValue VOID = new DirectValue();
 
-    private static final Map<Object, DirectValue> valuesCache = new HashMap<Object, DirectValue>();
+    private static final long SMALL_INTEGERS_MIN = -128;
+    private static final long SMALL_INTEGERS_MAX = 1023;
+    private static final DirectValue[] smallIntegers = new DirectValue[(int) (SMALL_INTEGERS_MAX - SMALL_INTEGERS_MIN + 1)];
+    private static final DirectValue TRUE = new DirectValue(true);
+    private static final DirectValue FALSE = new DirectValue(false);
+
+    private static final ConcurrentMap<Type, DirectValue> typedValues = new ConcurrentHashMap<>();
 
     static {
-        valuesCache.put(Boolean.TRUE, new DirectValue(true));
-        valuesCache.put(Boolean.FALSE, new DirectValue(false));
+        for (int i = 0; i < smallIntegers.length; i++) {
+            smallIntegers[i] = new DirectValue(SMALL_INTEGERS_MIN + i);
+        }
     }
 
-    private Boolean booleanValue;
-    private Double floatValue;
-    private Long integerValue;
+    private final boolean booleanValue;
+    private final double floatValue;
+    private final long integerValue;
+    private final boolean present;
 
     private final Type type;
 
     private DirectValue() {
-        this.type = Types.NULLABLE_VOID;
+        this(Types.NULLABLE_VOID);
     }
 
     private DirectValue(Type type) {
         this.type = type;
+        this.booleanValue = false;
+        this.floatValue = 0.0;
+        this.integerValue = 0L;
+        this.present = false;
     }
 
-    private DirectValue(Boolean booleanValue) {
+    private DirectValue(boolean booleanValue) {
         this.type = Types.BOOLEAN;
         this.booleanValue = booleanValue;
+        this.floatValue = 0.0;
+        this.integerValue = 0L;
+        this.present = true;
     }
 
-    private DirectValue(Long integerValue) {
+    private DirectValue(long integerValue) {
         this.type = Types.INTEGER;
+        this.booleanValue = false;
+        this.floatValue = 0.0;
         this.integerValue = integerValue;
+        this.present = true;
     }
 
-    private DirectValue(Double floatValue) {
+    private DirectValue(double floatValue) {
         this.type = Types.FLOAT;
+        this.booleanValue = false;
         this.floatValue = floatValue;
+        this.integerValue = 0L;
+        this.present = true;
     }
 
     public static DirectValue build(Type type) {
-        if (!valuesCache.containsKey(type)) {
-            valuesCache.put(type, new DirectValue(type));
-        }
-
-        return valuesCache.get(type);
+        return typedValues.computeIfAbsent(type, DirectValue::new);
     }
 
     @SuppressWarnings("SameReturnValue")
@@ -78,27 +101,27 @@ public class DirectValue implements Value {
         return VOID;
     }
 
-    public static DirectValue build(Boolean booleanValue) {
-        return valuesCache.get(booleanValue);
+    public static DirectValue build(boolean booleanValue) {
+        return booleanValue ? TRUE : FALSE;
     }
 
-    public static DirectValue build(Long integerValue) {
-        if (!valuesCache.containsKey(integerValue)) {
-            valuesCache.put(integerValue, new DirectValue(integerValue));
+    public static DirectValue build(long integerValue) {
+        if (integerValue >= SMALL_INTEGERS_MIN && integerValue <= SMALL_INTEGERS_MAX) {
+            return smallIntegers[(int) (integerValue - SMALL_INTEGERS_MIN)];
         }
 
-        return valuesCache.get(integerValue);
+        return new DirectValue(integerValue);
     }
 
-    public static DirectValue build(Double doubleValue) {
-        if (!valuesCache.containsKey(doubleValue)) {
-            valuesCache.put(doubleValue, new DirectValue(doubleValue));
-        }
-
-        return valuesCache.get(doubleValue);
+    public static DirectValue build(double doubleValue) {
+        return new DirectValue(doubleValue);
     }
 
     public Object internalValue() {
+        if (!present) {
+            return null;
+        }
+
         switch (type.id()) {
             case BOOLEAN:
                 return booleanValue;
@@ -106,21 +129,29 @@ public class DirectValue implements Value {
                 return integerValue;
             case FLOAT:
                 return floatValue;
-            case VOID:
-                return null;
             default:
                 throw new IllegalStateException(type.id() + " is not a valid type id");
         }
     }
 
     @Override
-    public boolean hasValue() {
-        boolean notVoid = this != VOID;
-        boolean booleanWithValue = type == Types.BOOLEAN || (type == Types.NULLABLE_BOOLEAN && booleanValue != null);
-        boolean integerWithValue = type == Types.INTEGER || (type == Types.NULLABLE_INTEGER && integerValue != null);
-        boolean floatWithValue = type == Types.FLOAT || (type == Types.NULLABLE_FLOAT && floatValue != null);
+    public long integerValue() {
+        return integerValue;
+    }
 
-        return notVoid && (booleanWithValue || integerWithValue || floatWithValue);
+    @Override
+    public double floatValue() {
+        return floatValue;
+    }
+
+    @Override
+    public boolean booleanValue() {
+        return booleanValue;
+    }
+
+    @Override
+    public boolean hasValue() {
+        return this != VOID && (type == Types.BOOLEAN || type == Types.INTEGER || type == Types.FLOAT);
     }
 
     @Override
@@ -140,6 +171,10 @@ public class DirectValue implements Value {
 
     @Override
     public String toString() {
+        if (!present) {
+            return type.toString() + (type.id() == Type.Id.VOID ? "" : "(null)");
+        }
+
         switch (type.id()) {
             case BOOLEAN:
                 return type.toString() + "(" + booleanValue + ")";
@@ -147,8 +182,6 @@ public class DirectValue implements Value {
                 return type.toString() + "(" + integerValue + ")";
             case FLOAT:
                 return type.toString() + "(" + floatValue + ")";
-            case VOID:
-                return type.toString();
             default:
                 throw new IllegalStateException(type.id() + " is not a valid type id");
         }
@@ -166,14 +199,19 @@ public class DirectValue implements Value {
 
         DirectValue that = (DirectValue) o;
 
-        return Objects.equals(booleanValue, that.booleanValue) &&
-                Objects.equals(floatValue, that.floatValue) &&
-                Objects.equals(integerValue, that.integerValue) &&
+        return present == that.present &&
+                booleanValue == that.booleanValue &&
+                Double.doubleToLongBits(floatValue) == Double.doubleToLongBits(that.floatValue) &&
+                integerValue == that.integerValue &&
                 Objects.equals(type, that.type);
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(booleanValue, floatValue, integerValue, type);
+        int result = Boolean.hashCode(booleanValue);
+        result = 31 * result + Double.hashCode(floatValue);
+        result = 31 * result + Long.hashCode(integerValue);
+        result = 31 * result + Objects.hashCode(type);
+        return result;
     }
 }
@@ -0,0 +1,79 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package net.cpollet.thorium.values;
+
+import net.cpollet.thorium.types.Type;
+
+/**
+ * A register of the top-level code as seen from a method. Its value is read each time it is used, so it reflects the
+ * assignments done since it was loaded, as the symbols returned by {@link net.cpollet.thorium.execution.ExecutionVisitor}
+ * do.
+ *
+ * @author Christophe Pollet
+ */
+public class GlobalReference implements Value {
+    private final Value[] globals;
+    private final int register;
+    private final String name;
+
+    public GlobalReference(Value[] globals, int register, String name) {
+        this.globals = globals;
+        this.register = register;
+        this.name = name;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Type type() {
+        return globals[register].type();
+    }
+
+    @Override
+    public DirectValue value() {
+        return globals[register].value();
+    }
+
+    @Override
+    public boolean hasValue() {
+        return globals[register].hasValue();
+    }
+
+    @Override
+    public long integerValue() {
+        return globals[register].integerValue();
+    }
+
+    @Override
+    public double floatValue() {
+        return globals[register].floatValue();
+    }
+
+    @Override
+    public boolean booleanValue() {
+        return globals[register].booleanValue();
+    }
+
+    @Override
+    public String toString() {
+        return "GlobalReference(" + name + ": " + globals[register] + ")";
+    }
+}
@@ -29,4 +29,19 @@ public interface Value {
     DirectValue value();
 
     boolean hasValue();
+
+    /**
+     * Returns the unboxed value of an Integer; only meaningful when {@link #hasValue()} and the type is an Integer.
+     */
+    long integerValue();
+
+    /**
+     * Returns the unboxed value of a Float; only meaningful when {@link #hasValue()} and the type is a Float.
+     */
+    double floatValue();
+
+    /**
+     * Returns the unboxed value of a Boolean; only meaningful when {@link #hasValue()} and the type is a Boolean.
+     */
+    boolean booleanValue();
 }
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
+import net.cpollet.thorium.values.DirectValue;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestConstantFolder {
+    private ParseTree tree;
+
+    private ConstantFolding fold(String program, boolean withTypes) {
+        ThoriumParser parser = ParserBuilder.create().withCode(program).build();
+        tree = parser.compilationUnit();
+
+        if (!withTypes) {
+            return new ConstantFolder().fold(tree);
+        }
+
+        AnalysisResult analysisResult = new SemanticAnalyser(new AnalysisContext(), tree).analyze();
+
+        return new ConstantFolder(analysisResult.getNodesTypes()).fold(tree);
+    }
+
+    /**
+     * Returns the first expression, in depth-first order, whose text is {@code text}.
+     */
+    private ParseTree expression(String text) {
+        return find(tree, text);
+    }
+
+    private static ParseTree find(ParseTree node, String text) {
+        if (node instanceof ThoriumParser.ExpressionContext && node.getText().equals(text)) {
+            return node;
+        }
+
+        for (int i = 0; i < node.getChildCount(); i++) {
+            ParseTree found = find(node.getChild(i), text);
+
+            if (found != null) {
+                return found;
+            }
+        }
+
+        return null;
+    }
+
+    @Test
+    public void literalExpressionsAreFolded() {
+        // GIVEN + WHEN
+        ConstantFolding folding = fold("def a = 1; a + 2 * 3 + 1.5; 2 < 3;", false);
+
+        // THEN
+        assertThat(folding.getConstant(expression("2*3"))).isEqualTo(DirectValue.build(6L));
+        assertThat(folding.getConstant(expression("a+2*3"))).isNull();
+        assertThat(folding.getConstant(expression("2<3"))).isEqualTo(DirectValue.build(true));
+    }
+
+    @Test
+    public void invalidOperationsAreNotFolded() {
+        // GIVEN + WHEN
+        ConstantFolding folding = fold("1 + true;", false);
+
+        // THEN
+        assertThat(folding.getConstant(expression("1+true"))).isNull();
+    }
+
+    @Test
+    public void constantsArePropagated() {
+        // GIVEN + WHEN
+        ConstantFolding folding = fold("def K = 2 * 2; def a = K * 2; { def K = a; K + 1; }", false);
+
+        // THEN
+        assertThat(folding.getConstant(expression("K*2"))).isEqualTo(DirectValue.build(8L));
+        assertThat(folding.getConstant(expression("K+1"))).isNull();
+    }
+
+    @Test
+    public void assignedConstantsAreNotPropagated() {
+        // GIVEN + WHEN
+        ConstantFolding folding = fold("def K = 4; def a = K * 2; K = 5;", false);
+
+        // THEN
+        assertThat(folding.getConstant(expression("K*2"))).isNull();
+    }
+
+    @Test
+    public void constantsAreNotPropagatedIntoMethods() {
+        // GIVEN + WHEN
+        ConstantFolding folding = fold("def K = 4; public Integer f() { K * 2; }", false);
+
+        // THEN
+        assertThat(folding.getConstant(expression("K*2"))).isNull();
+    }
+
+    @Test
+    public void multiplicationByZeroIsFolded() {
+        // GIVEN + WHEN
+        ConstantFolding folding = fold("def a = 3; a * 0; (a = 2) * 0;", true);
+
+        // THEN
+        assertThat(folding.getConstant(expression("a*0"))).isEqualTo(DirectValue.build(0L));
+        assertThat(folding.getConstant(expression("(a=2)*0"))).isNull();
+    }
+
+    @Test
+    public void identitiesAreSimplified() {
+        // GIVEN + WHEN
+        ConstantFolding folding = fold("def a = 3; def b = true; a + 0; 1 * a; !!b;", true);
+
+        // THEN
+        assertThat(folding.getSimplification(expression("a+0"))).isSameAs(expression("a+0").getChild(0));
+        assertThat(folding.getSimplification(expression("1*a"))).isSameAs(expression("1*a").getChild(2));
+        assertThat(folding.getSimplification(expression("!!b"))).isSameAs(expression("b"));
+    }
+
+    @Test
+    public void identitiesChangingTheTypeAreNotSimplified() {
+        // GIVEN + WHEN
+        ConstantFolding folding = fold("def a = 3; def f = 1.5; a * 1.0; f + 0;", true);
+
+        // THEN
+        assertThat(folding.getSimplification(expression("a*1.0"))).isNull();
+        assertThat(folding.getSimplification(expression("f+0"))).isNull();
+    }
+
+    @Test
+    public void conditions() {
+        // GIVEN + WHEN
+        ConstantFolding folding = fold("def a = 1; a = 2 if 1 < 2; a = 3 unless 1; a = 4 if a < 2;", false);
+
+        // THEN
+        assertThat(folding.getCondition(expression("1<2"))).isTrue();
+        assertThat(folding.getCondition(expression("1"))).isFalse();
+        assertThat(folding.getCondition(expression("a<2"))).isNull();
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestDeclaringScopeAnalyser {
+    private static Set<String> analyze(String program) {
+        ThoriumParser parser = ParserBuilder.create().withCode(program).build();
+
+        return new DeclaringScopeAnalyser().analyze(parser.compilationUnit()).stream()
+                .map(ParseTree::getText)
+                .collect(Collectors.toSet());
+    }
+
+    @Test
+    public void scopesUsingDeclaredNamesOnly() {
+        // GIVEN + WHEN
+        Set<String> declaringScopes = analyze("" +
+                "def i = 0;" +
+                "while (i < 3) { i = i + 1; }" +
+                "if (i > 2) { i; } else { i + 1; }" +
+                "{ i; }");
+
+        // THEN
+        assertThat(declaringScopes).isEmpty();
+    }
+
+    @Test
+    public void scopesDeclaringOrReferringToUndefinedNames() {
+        // GIVEN + WHEN
+        Set<String> declaringScopes = analyze("" +
+                "def i = 0;" +
+                "while (i < 3) { def x = i; i = i + 1; }" +
+                "{ y = 1; }" +
+                "for (def j = 0; j < 1; j = j + 1) { i; }" +
+                "{ { i; } }");
+
+        // THEN
+        assertThat(declaringScopes).containsOnly("while(i<3){defx=i;i=i+1;}", "{y=1;}", "for(defj=0;j<1;j=j+1){i;}");
+    }
+
+    @Test
+    public void elseIfStatementsShareTheScopeOfTheirIfStatement() {
+        // GIVEN + WHEN
+        Set<String> declaringScopes = analyze("" +
+                "def i = 0;" +
+                "if (i < 0) { i; } else if (i < 1) { def x = 1; } else { i; }");
+
+        // THEN
+        assertThat(declaringScopes).containsOnly("if(i<0){i;}elseif(i<1){defx=1;}else{i;}");
+    }
+
+    @Test
+    public void methodBodiesOnlyDeclareTheirParametersAndLocals() {
+        // GIVEN + WHEN
+        Set<String> declaringScopes = analyze("" +
+                "def g = 1;" +
+                "public Integer f(Integer n) { if (n < 1) { n; } else { g; } }" +
+                "public Integer h(Integer n) { def m = n; if (n < 1) { m; } }");
+
+        // THEN
+        assertThat(declaringScopes).containsOnly("if(n<1){n;}else{g;}");
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
+import net.cpollet.thorium.types.Type;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestIncrementalAnalyser {
+    private static ParseTree parse(String program) {
+        return ParserBuilder.create().withCode(program).build().compilationUnit();
+    }
+
+    /**
+     * Builds {@code count} methods, the one at {@code edited} returning a different value.
+     */
+    private static String methods(int count, int edited) {
+        StringBuilder program = new StringBuilder();
+
+        for (int i = 0; i < count; i++) {
+            program.append("public Integer m").append(i).append("(Integer n) { n + ")
+                    .append(i == edited ? 2 : 1).append("; }\n");
+        }
+
+        return program.toString();
+    }
+
+    private static List<Type> nodesTypes(ParseTree tree, AnalysisResult result) {
+        List<Type> types = new ArrayList<>();
+        RuleNodes.forEach(tree, node -> types.add(result.getNodesTypes().get(node)));
+
+        return types;
+    }
+
+    private static void assertSameAsFreshAnalysis(String program, ParseTree tree, AnalysisResult result) {
+        ParseTree freshTree = parse(program);
+        AnalysisResult freshResult = new SemanticAnalyser(new AnalysisContext(), freshTree).analyze();
+
+        assertThat(nodesTypes(tree, result)).isEqualTo(nodesTypes(freshTree, freshResult));
+        assertThat(messages(result)).isEqualTo(messages(freshResult));
+    }
+
+    private static List<String> messages(AnalysisResult result) {
+        List<String> messages = new ArrayList<>();
+        result.getExceptions().forEach(e -> messages.add(e.getMessage()));
+
+        return messages;
+    }
+
+    @Test
+    public void onlyEditedMethodBodiesAreAnalyzedAgain() {
+        // GIVEN
+        IncrementalAnalyser analyser = new IncrementalAnalyser();
+        analyser.analyze(parse(methods(100, -1)));
+        String program = methods(100, 42);
+        ParseTree tree = parse(program);
+
+        // WHEN
+        AnalysisResult result = analyser.analyze(tree);
+
+        // THEN
+        assertThat(result.getExceptions()).isEmpty();
+        assertThat(analyser.getAnalyzedMethodBodies()).isEqualTo(101);
+        assertThat(analyser.getReusedMethodBodies()).isEqualTo(99);
+        assertSameAsFreshAnalysis(program, tree, result);
+    }
+
+    @Test
+    public void methodBodiesUsingOtherSymbolsAreNotReused() {
+        // GIVEN
+        IncrementalAnalyser analyser = new IncrementalAnalyser();
+        analyser.analyze(parse("def x = 1; public Integer f() { x + 1; }"));
+
+        String program = "def x = 1.0; public Integer f() { x + 1; }";
+        ParseTree tree = parse(program);
+
+        // WHEN
+        AnalysisResult result = analyser.analyze(tree);
+
+        // THEN
+        assertThat(analyser.getReusedMethodBodies()).isEqualTo(0);
+        assertThat(result.getExceptions()).isEmpty();
+        assertSameAsFreshAnalysis(program, tree, result);
+    }
+
+    @Test
+    public void symbolsTypedByMethodBodiesAreTypedAfterEdits() {
+        // GIVEN
+        IncrementalAnalyser analyser = new IncrementalAnalyser();
+        analyser.analyze(parse("def x; public Integer f() { x = 1; } def y = 2;"));
+
+        String program = "def x; public Integer f() { x = 1; } def y = 3;";
+        ParseTree tree = parse(program);
+
+        // WHEN
+        AnalysisResult result = analyser.analyze(tree);
+
+        // THEN
+        assertThat(analyser.getReusedMethodBodies()).isEqualTo(0);
+        assertThat(result.getExceptions()).isEmpty();
+        assertSameAsFreshAnalysis(program, tree, result);
+    }
+
+    @Test
+    public void methodBodiesAreAnalyzedAgainWhenMethodsTheyCallChange() {
+        // GIVEN
+        IncrementalAnalyser analyser = new IncrementalAnalyser();
+        analyser.analyze(parse("public Integer f() { g(); } public Integer g() { 1; }"));
+
+        String program = "public Integer f() { g(); } public Float g() { 1.0; }";
+        ParseTree tree = parse(program);
+
+        // WHEN
+        AnalysisResult result = analyser.analyze(tree);
+
+        // THEN
+        assertThat(analyser.getReusedMethodBodies()).isEqualTo(0);
+        assertThat(analyser.getAnalyzedMethodBodies()).isEqualTo(4);
+        assertThat(result.getExceptions()).isEmpty();
+        assertSameAsFreshAnalysis(program, tree, result);
+    }
+
+    @Test
+    public void methodBodiesWithErrorsAreAlwaysAnalyzedAgain() {
+        // GIVEN
+        IncrementalAnalyser analyser = new IncrementalAnalyser();
+        String program = "public Integer f() { 1 + true; } public Integer g() { 1; }";
+        analyser.analyze(parse(program));
+
+        // WHEN
+        AnalysisResult result = analyser.analyze(parse(program));
+
+        // THEN
+        assertThat(analyser.getReusedMethodBodies()).isEqualTo(1);
+        assertThat(analyser.getAnalyzedMethodBodies()).isEqualTo(3);
+        assertThat(result.getExceptions()).hasSize(1);
+        assertThat(result.getExceptions().get(0).getMessage()).isEqualTo("Method Integer.+(Boolean) not implemented on line 1:22 (1).");
+    }
+}
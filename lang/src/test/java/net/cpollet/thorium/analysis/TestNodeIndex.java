@@ -0,0 +1,78 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import org.antlr.v4.runtime.ParserRuleContext;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestNodeIndex {
+    @Test
+    public void numbersRuleNodesInPreOrder() {
+        // GIVEN
+        ParserRuleContext root = new ParserRuleContext();
+        ParserRuleContext left = new ParserRuleContext(root, 0);
+        ParserRuleContext leftChild = new ParserRuleContext(left, 0);
+        ParserRuleContext right = new ParserRuleContext(root, 0);
+        root.addChild(left);
+        left.addChild(leftChild);
+        root.addChild(right);
+
+        // WHEN
+        NodeIndex index = new NodeIndex();
+        index.addAll(root);
+
+        // THEN
+        assertThat(index.size()).isEqualTo(4);
+        assertThat(index.indexOf(root)).isEqualTo(0);
+        assertThat(index.indexOf(left)).isEqualTo(1);
+        assertThat(index.indexOf(leftChild)).isEqualTo(2);
+        assertThat(index.indexOf(right)).isEqualTo(3);
+        assertThat(index.indexOf(new ParserRuleContext())).isEqualTo(NodeIndex.ABSENT);
+    }
+
+    @Test
+    public void keepsNumbersWhenGrowing() {
+        // GIVEN
+        NodeIndex index = new NodeIndex();
+        List<ParserRuleContext> nodes = new ArrayList<>();
+
+        // WHEN
+        for (int i = 0; i < 1000; i++) {
+            ParserRuleContext node = new ParserRuleContext();
+            nodes.add(node);
+            index.add(node);
+        }
+
+        // THEN
+        for (int i = 0; i < nodes.size(); i++) {
+            assertThat(index.indexOf(nodes.get(i))).isEqualTo(i);
+            assertThat(index.add(nodes.get(i))).isEqualTo(i);
+        }
+        assertThat(index.size()).isEqualTo(1000);
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Set;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestPurityAnalyser {
+    private static Set<String> analyze(String program) {
+        ThoriumParser parser = ParserBuilder.create().withCode(program).build();
+
+        return new PurityAnalyser().analyze(parser.compilationUnit());
+    }
+
+    @Test
+    public void methodsUsingOnlyParametersAndLocalsArePure() {
+        // GIVEN + WHEN
+        Set<String> pureMethods = analyze("" +
+                "public Integer fib(Integer n) { if (n < 2) { 0; } else { fib(n + -1) + fib(n + -2); } }" +
+                "public Integer sum(Integer n) { def s = 0; for (def i = 0; i < n; i = i + 1) { s = s + i; } s; }" +
+                "def result = fib(10);");
+
+        // THEN
+        assertThat(pureMethods).containsOnly("fib", "sum");
+    }
+
+    @Test
+    public void methodsReadingOrAssigningOuterVariablesAreImpure() {
+        // GIVEN + WHEN
+        Set<String> pureMethods = analyze("" +
+                "def x = 1;" +
+                "public Integer reads(Integer n) { n + x; }" +
+                "public Integer writes(Integer n) { x = n; }" +
+                "public Integer shadows(Integer n) { { def x = 1; } x = n; }");
+
+        // THEN
+        assertThat(pureMethods).isEmpty();
+    }
+
+    @Test
+    public void methodsCallingImpureMethodsAreImpure() {
+        // GIVEN + WHEN
+        Set<String> pureMethods = analyze("" +
+                "def x = 1;" +
+                "public Integer impure(Integer n) { n + x; }" +
+                "public Boolean even(Integer n) { if (n < 1) { true; } else { odd(n + -1); } }" +
+                "public Boolean odd(Integer n) { if (n < 1) { false; } else { even(n + -1) + impure(n) < 0; } }" +
+                "public Integer undefined(Integer n) { missing(n); }");
+
+        // THEN
+        assertThat(pureMethods).isEmpty();
+    }
+
+    @Test
+    public void methodsDefiningMethodsAreImpure() {
+        // GIVEN + WHEN
+        Set<String> pureMethods = analyze("" +
+                "public Integer outer(Integer n) { public Integer inner(Integer m) { m; } inner(n); }");
+
+        // THEN
+        assertThat(pureMethods).containsOnly("inner");
+    }
+}
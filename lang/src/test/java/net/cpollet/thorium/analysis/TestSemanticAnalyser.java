@@ -0,0 +1,156 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.analysis;
+
+import net.cpollet.thorium.analysis.data.symbol.Symbol;
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
+import net.cpollet.thorium.data.symbol.SymbolTable;
+import net.cpollet.thorium.types.Types;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestSemanticAnalyser {
+    private static ParseTree parse(String program) {
+        return ParserBuilder.create().withCode(program).build().compilationUnit();
+    }
+
+    /**
+     * Builds a chain of {@code length} variables, each one depending on the previous one, the first one depending on
+     * a method defined last.
+     */
+    private static String dependencyChain(int length) {
+        StringBuilder program = new StringBuilder("def a0 = m();\n");
+
+        for (int i = 1; i < length; i++) {
+            program.append("def a").append(i).append(" = a").append(i - 1).append(" + 1;\n");
+        }
+
+        return program.append("public Integer m() { 1; }\n").toString();
+    }
+
+    /**
+     * Builds {@code count} methods, each one using an undefined variable in its body and followed by a statement using
+     * another undefined variable.
+     */
+    private static String methodsWithErrors(int count) {
+        StringBuilder program = new StringBuilder();
+
+        for (int i = 0; i < count; i++) {
+            program.append("public Integer m").append(i).append("(Integer n) { n + x").append(i).append("; }\n");
+            program.append("y").append(i).append(";\n");
+        }
+
+        return program.toString();
+    }
+
+    private static List<String> analyzeOn(ForkJoinPool pool, String program) {
+        AnalysisResult result = new SemanticAnalyser(new AnalysisContext(), parse(program), pool).analyze();
+
+        return result.getExceptions().stream()
+                .map(Throwable::getMessage)
+                .collect(Collectors.toList());
+    }
+
+    @Test
+    public void longDependencyChainsAreInferred() {
+        // GIVEN
+        SymbolTable<Symbol> scope = new SymbolTable<>();
+        ParseTree tree = parse(dependencyChain(10000));
+
+        // WHEN
+        AnalysisResult result = new SemanticAnalyser(new AnalysisContext(scope), tree).analyze();
+
+        // THEN
+        assertThat(result.getExceptions()).isEmpty();
+        assertThat(scope.lookup("a9999").getType()).isSameAs(Types.INTEGER);
+    }
+
+    @Test
+    public void nestedForwardDependenciesAreInferred() {
+        // GIVEN
+        SymbolTable<Symbol> scope = new SymbolTable<>();
+        ParseTree tree = parse("def a = g(); def b = a + g(); public Integer g() { f(); } public Integer f() { 1; }");
+
+        // WHEN
+        AnalysisResult result = new SemanticAnalyser(new AnalysisContext(scope), tree).analyze();
+
+        // THEN
+        assertThat(result.getExceptions()).isEmpty();
+        assertThat(scope.lookup("b").getType()).isSameAs(Types.INTEGER);
+    }
+
+    @Test
+    public void observersRegisteredWhileNotifiedDoNotFail() {
+        // GIVEN
+        ParseTree tree = parse("def b = inc(1); public Float inc(Float n) { n * 2.0; }");
+
+        // WHEN
+        AnalysisResult result = new SemanticAnalyser(new AnalysisContext(), tree).analyze();
+
+        // THEN
+        assertThat(result.getExceptions()).hasSize(1);
+    }
+
+    @Test
+    public void methodBodiesAnalyzedConcurrentlyReportExceptionsInSourceOrder() {
+        // GIVEN
+        String program = methodsWithErrors(200);
+        ForkJoinPool pool = new ForkJoinPool(4);
+
+        try {
+            // WHEN
+            List<String> messages = analyzeOn(pool, program);
+
+            // THEN
+            assertThat(messages).isEqualTo(analyzeOn(new ForkJoinPool(1), program));
+            assertThat(messages.subList(0, 4)).containsExactly(
+                    "Identifier x0 not found on line 1:36 (x0).",
+                    "Identifier y0 not found on line 2:1 (y0).",
+                    "Identifier x1 not found on line 3:36 (x1).",
+                    "Identifier y1 not found on line 4:1 (y1)."
+            );
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void methodBodiesSeeMethodsDefinedAnywhere() {
+        // GIVEN
+        ParseTree tree = parse("public Integer f() { g() + h(); } public Integer g() { public Integer h() { 1; } 2; } def a = f();");
+        SymbolTable<Symbol> scope = new SymbolTable<>();
+
+        // WHEN
+        AnalysisResult result = new SemanticAnalyser(new AnalysisContext(scope), tree).analyze();
+
+        // THEN
+        assertThat(result.getExceptions()).isEmpty();
+        assertThat(scope.lookup("a").getType()).isSameAs(Types.INTEGER);
+    }
+}
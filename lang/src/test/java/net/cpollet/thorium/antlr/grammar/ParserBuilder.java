@@ -22,11 +22,14 @@ import net.cpollet.thorium.antlr.ThoriumParser;
 import org.antlr.v4.runtime.ANTLRInputStream;
 import org.antlr.v4.runtime.CommonTokenStream;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 /**
  * @author Christophe Pollet
  */
 public class ParserBuilder {
-    private String code;
+    private ANTLRInputStream input;
 
     public static ParserBuilder create() {
         return new ParserBuilder();
@@ -37,13 +40,27 @@ public class ParserBuilder {
     }
 
     public ParserBuilder withCode(String code) {
-        this.code = code;
+        this.input = new ANTLRInputStream(code);
         return this;
     }
 
-    public ThoriumParser build() {
-        ANTLRInputStream input = new ANTLRInputStream(code);
+    /**
+     * Reads the code from a classpath resource.
+     *
+     * @throws IOException if the resource does not exist or cannot be read.
+     */
+    public ParserBuilder withResource(String resource) throws IOException {
+        try (InputStream stream = ParserBuilder.class.getClassLoader().getResourceAsStream(resource)) {
+            if (stream == null) {
+                throw new IOException("Resource " + resource + " not found");
+            }
+
+            this.input = new ANTLRInputStream(stream);
+        }
+        return this;
+    }
 
+    public ThoriumParser build() {
         ThoriumLexer lexer = new ThoriumLexer(input);
         lexer.removeErrorListeners();
         lexer.removeErrorListener(ThrowingErrorListener.INSTANCE);
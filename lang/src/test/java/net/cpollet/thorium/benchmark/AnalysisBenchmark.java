@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.benchmark;
+
+import net.cpollet.thorium.analysis.AnalysisContext;
+import net.cpollet.thorium.analysis.AnalysisResult;
+import net.cpollet.thorium.analysis.SemanticAnalyser;
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link SemanticAnalyser#analyze()} scales with the number of statements, on a chain of variables each
+ * depending on the previous one, the first one depending on a method defined last: the types are only known once
+ * the whole chain was walked, and then propagate along it. Run {@link #main(String[])} with the test classpath; the
+ * largest size needs about 4.5 GB of heap. The allocation per analysis is reported as {@code gc.alloc.rate.norm}.
+ *
+ * @author Christophe Pollet
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = "-Xmx8g")
+public class AnalysisBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int statements;
+
+    private ParseTree tree;
+
+    @Setup
+    public void setup() {
+        StringBuilder program = new StringBuilder("def a0 = m();\n");
+
+        for (int i = 1; i < statements; i++) {
+            program.append("def a").append(i).append(" = a").append(i - 1).append(" + 1;\n");
+        }
+
+        program.append("public Integer m() { 1; }\n");
+
+        ThoriumParser parser = ParserBuilder.create().withCode(program.toString()).build();
+
+        tree = parser.compilationUnit();
+    }
+
+    @Benchmark
+    public AnalysisResult analyze() {
+        return new SemanticAnalyser(new AnalysisContext(), tree).analyze();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AnalysisBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.benchmark;
+
+import net.cpollet.thorium.analysis.AnalysisContext;
+import net.cpollet.thorium.analysis.AnalysisResult;
+import net.cpollet.thorium.analysis.SemanticAnalyser;
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the memory {@link SemanticAnalyser#analyze()} allocates per line, most of it for the per-node annotations,
+ * on a program of declarations with a nested scope every ten lines. Run {@link #main(String[])} with the test
+ * classpath; the allocation per analysis is reported as {@code gc.alloc.rate.norm}.
+ *
+ * @author Christophe Pollet
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class AnalysisFootprintBenchmark {
+    @Param({"10000", "100000"})
+    public int lines;
+
+    private ParseTree tree;
+
+    @Setup
+    public void setup() {
+        StringBuilder program = new StringBuilder();
+
+        for (int i = 0; i < lines; i += 10) {
+            program.append("def a").append(i).append(" = ").append(i).append(";\n");
+
+            program.append("if (a").append(i).append(" > 0) {\n");
+            for (int j = 1; j < 8; j++) {
+                program.append("    def b").append(j).append(" = a").append(i).append(" * ").append(j).append(";\n");
+            }
+            program.append("}\n");
+        }
+
+        tree = ParserBuilder.create().withCode(program.toString()).build().compilationUnit();
+    }
+
+    @Benchmark
+    public AnalysisResult analyze() {
+        return new SemanticAnalyser(new AnalysisContext(), tree).analyze();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AnalysisFootprintBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+}
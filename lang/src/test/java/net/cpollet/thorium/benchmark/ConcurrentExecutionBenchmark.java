@@ -0,0 +1,82 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.benchmark;
+
+import net.cpollet.thorium.execution.Engine;
+import net.cpollet.thorium.execution.ExecutionContext;
+import net.cpollet.thorium.execution.Executable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Executes one compiled program on several threads at once, each in its own context, to measure how the shared
+ * runtime scales. Run {@link #main(String[])} with the test classpath; the throughput per thread count is reported.
+ *
+ * @author Christophe Pollet
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentExecutionBenchmark {
+    @Param({"NODES", "JVM"})
+    public Engine engine;
+
+    @Param({"recursive_fibonacci.th", "iterative_factorial.th"})
+    public String program;
+
+    private Executable executable;
+
+    @Setup
+    public void setup() throws IOException {
+        executable = engine.compile(Programs.parse(program));
+    }
+
+    @Benchmark
+    public ExecutionContext execute() {
+        ExecutionContext context = ExecutionContext.createEmpty();
+        executable.execute(context);
+        return context;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (int threads : new int[]{1, 2, 4}) {
+            new Runner(new OptionsBuilder()
+                    .include(ConcurrentExecutionBenchmark.class.getSimpleName())
+                    .threads(threads)
+                    .build()
+            ).run();
+        }
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.benchmark;
+
+import net.cpollet.thorium.analysis.AnalysisContext;
+import net.cpollet.thorium.analysis.AnalysisResult;
+import net.cpollet.thorium.analysis.IncrementalAnalyser;
+import net.cpollet.thorium.analysis.SemanticAnalyser;
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a full analysis of a compilation unit made of methods with its re-analysis by an
+ * {@link IncrementalAnalyser} after one line of one method changed. Each re-analysis alternates between two versions
+ * of the unit differing by that line, so that the changed method is analyzed again and the others are reused. The
+ * trees are parsed beforehand. Run {@link #main(String[])} with the test classpath.
+ *
+ * @author Christophe Pollet
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class IncrementalAnalysisBenchmark {
+    @Param({"1000", "10000"})
+    public int methods;
+
+    private ParseTree[] versions;
+    private IncrementalAnalyser analyser;
+    private int version;
+
+    @Setup
+    public void setup() {
+        versions = new ParseTree[]{parse(program(0)), parse(program(1))};
+        analyser = new IncrementalAnalyser();
+        analyser.analyze(versions[0]);
+    }
+
+    private String program(int edit) {
+        StringBuilder program = new StringBuilder();
+
+        for (int i = 0; i < methods; i++) {
+            program.append("public Integer m").append(i).append("(Integer n) {\n")
+                    .append("    def a = n * ").append(i == methods / 2 ? edit : i).append(";\n")
+                    .append("    def b = a + 1;\n")
+                    .append("    if (b > a) { def c = b * 2; c + a; } else { a; }\n")
+                    .append("}\n");
+        }
+
+        return program.append("def result = m0(1);\n").toString();
+    }
+
+    private static ParseTree parse(String program) {
+        return ParserBuilder.create().withCode(program).build().compilationUnit();
+    }
+
+    @Benchmark
+    public AnalysisResult fullAnalysis() {
+        return new SemanticAnalyser(new AnalysisContext(), versions[1]).analyze();
+    }
+
+    @Benchmark
+    public AnalysisResult reanalysisAfterEdit() {
+        version ^= 1;
+        return analyser.analyze(versions[version]);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(IncrementalAnalysisBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
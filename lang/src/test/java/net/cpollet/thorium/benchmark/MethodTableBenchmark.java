@@ -0,0 +1,84 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.benchmark;
+
+import net.cpollet.thorium.data.method.Method;
+import net.cpollet.thorium.data.method.MethodTable;
+import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.types.Types;
+import net.cpollet.thorium.values.DirectValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link MethodTable#lookup(String, Type, List)} when the method is already in the lookup cache. Run
+ * {@link #main(String[])} with the test classpath, with {@code -prof gc} to see the allocations.
+ *
+ * @author Christophe Pollet
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodTableBenchmark {
+    private final MethodTable methodTable = new MethodTable();
+    private final List<Type> oneParameter = Arrays.asList(Types.INTEGER);
+    private final List<Type> threeParameters = Arrays.asList(Types.INTEGER, Types.NULLABLE_FLOAT, Types.BOOLEAN);
+
+    @Setup
+    public void setup() {
+        methodTable.put("fib", evaluationContext -> DirectValue.build(), Types.VOID, Types.INTEGER, Types.INTEGER);
+        methodTable.put("mix", evaluationContext -> DirectValue.build(), Types.VOID, Types.INTEGER, Types.INTEGER, Types.NULLABLE_FLOAT, Types.BOOLEAN);
+
+        lookupOneParameter();
+        lookupThreeParameters();
+    }
+
+    @Benchmark
+    public Method lookupOneParameter() {
+        return methodTable.lookup("fib", Types.VOID, oneParameter);
+    }
+
+    @Benchmark
+    public Method lookupThreeParameters() {
+        return methodTable.lookup("mix", Types.VOID, threeParameters);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(MethodTableBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.benchmark;
+
+import net.cpollet.thorium.execution.OperandStack;
+import net.cpollet.thorium.values.DirectValue;
+import net.cpollet.thorium.values.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Deque;
+import java.util.LinkedList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the shared {@link OperandStack} with the {@link LinkedList} each context used to allocate, on nested
+ * scopes evaluating a binary expression each. Run {@link #main(String[])} with the test classpath, with
+ * {@code -prof gc} to compare the allocation rates.
+ *
+ * @author Christophe Pollet
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperandStackBenchmark {
+    private static final int SCOPES = 100;
+
+    private final Value left = DirectValue.build(1L);
+    private final Value right = DirectValue.build(2L);
+    private final OperandStack operandStack = new OperandStack();
+
+    @Benchmark
+    public Value linkedListPerScope() {
+        Value result = null;
+
+        for (int i = 0; i < SCOPES; i++) {
+            Deque<Value> stack = new LinkedList<>();
+
+            stack.push(left);
+            stack.push(right);
+            stack.pop();
+            stack.pop();
+            stack.push(right);
+            result = stack.pop();
+        }
+
+        return result;
+    }
+
+    @Benchmark
+    public Value sharedOperandStack() {
+        Value result = null;
+
+        for (int i = 0; i < SCOPES; i++) {
+            int base = operandStack.size();
+
+            operandStack.push(left);
+            operandStack.push(right);
+            operandStack.pop();
+            operandStack.pop();
+            operandStack.push(right);
+            result = operandStack.pop();
+
+            operandStack.truncate(base);
+        }
+
+        return result;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OperandStackBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
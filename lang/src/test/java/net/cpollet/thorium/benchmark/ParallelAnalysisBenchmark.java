@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.benchmark;
+
+import net.cpollet.thorium.analysis.AnalysisContext;
+import net.cpollet.thorium.analysis.AnalysisResult;
+import net.cpollet.thorium.analysis.SemanticAnalyser;
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link SemanticAnalyser#analyze()} scales with the parallelism of the pool the method bodies are
+ * analyzed on, on a compilation unit made of independent methods. Run {@link #main(String[])} with the test classpath
+ * on a host having at least as many cores as the largest parallelism.
+ *
+ * @author Christophe Pollet
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelAnalysisBenchmark {
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    @Param({"1000"})
+    public int methods;
+
+    private ParseTree tree;
+    private ForkJoinPool pool;
+
+    @Setup
+    public void setup() {
+        StringBuilder program = new StringBuilder();
+
+        for (int i = 0; i < methods; i++) {
+            program.append("public Integer m").append(i).append("(Integer n) {\n")
+                    .append("    def a = n * ").append(i).append(";\n")
+                    .append("    def b = a + 1;\n")
+                    .append("    if (b > a) { def c = b * 2; c + a; } else { a; }\n")
+                    .append("}\n");
+        }
+
+        program.append("def result = m0(1);\n");
+
+        tree = ParserBuilder.create().withCode(program.toString()).build().compilationUnit();
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public AnalysisResult analyze() {
+        return new SemanticAnalyser(new AnalysisContext(), tree, pool).analyze();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ParallelAnalysisBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.benchmark;
+
+import net.cpollet.thorium.execution.CompiledProgram;
+import net.cpollet.thorium.execution.Engine;
+import net.cpollet.thorium.execution.ProgramCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Compares compiling a program from its source with loading it from a {@link ProgramCache}. Run
+ * {@link #main(String[])} with the test classpath.
+ *
+ * @author Christophe Pollet
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ProgramCacheBenchmark {
+    private static final String SOURCE = "" +
+            "public Integer fib(Integer n) {\n" +
+            "    if (n < 2) { 0; } else if (n < 3) { 1; } else { fib(n + -1) + fib(n + -2); }\n" +
+            "}\n" +
+            "public Integer factorial(Integer n) {\n" +
+            "    def result = 1;\n" +
+            "    for (def i = 2; i <= n; i = i + 1) { result = result * i; }\n" +
+            "    result;\n" +
+            "}\n" +
+            "def a = fib(10);\n" +
+            "def b = factorial(10);\n" +
+            "def result = a + b * 2 + 3;\n";
+
+    private Path directory;
+    private ProgramCache cache;
+
+    @Setup
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("thorium");
+        cache = new ProgramCache(directory);
+        cache.load(SOURCE, Engine.BYTECODE);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.delete(file);
+            }
+        }
+
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public CompiledProgram compile() {
+        return CompiledProgram.compile(SOURCE, Engine.BYTECODE);
+    }
+
+    @Benchmark
+    public CompiledProgram load() {
+        return cache.load(SOURCE, Engine.BYTECODE);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ProgramCacheBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
@@ -14,26 +14,22 @@
  * limitations under the License.
  */
 
-package net.cpollet.thorium.analysis;
+package net.cpollet.thorium.benchmark;
 
-import net.cpollet.thorium.analysis.data.symbol.Symbol;
-import net.cpollet.thorium.data.symbol.SymbolTable;
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
 import org.antlr.v4.runtime.tree.ParseTree;
 
-import java.util.IdentityHashMap;
-import java.util.Map;
+import java.io.IOException;
 
 /**
  * @author Christophe Pollet
  */
-public class ParseTreeSymbolTables {
-    protected Map<ParseTree, SymbolTable<Symbol>> symbolTables = new IdentityHashMap<>();
-
-    public SymbolTable<Symbol> get(ParseTree node) {
-        return symbolTables.get(node);
+final class Programs {
+    private Programs() {
+        // nothing
     }
 
-    public void put(ParseTree node, SymbolTable<Symbol> value) {
-        symbolTables.put(node, value);
+    static ParseTree parse(String program) throws IOException {
+        return ParserBuilder.create().withResource(program).build().compilationUnit();
     }
 }
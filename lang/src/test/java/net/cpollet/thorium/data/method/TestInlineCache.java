@@ -0,0 +1,183 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.data.method;
+
+import net.cpollet.thorium.types.Type;
+import net.cpollet.thorium.types.Types;
+import net.cpollet.thorium.values.DirectValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+public class TestInlineCache {
+    private CountingMethodTable methodTable;
+    private InlineCache inlineCache;
+
+    @Before
+    public void setup() {
+        methodTable = new CountingMethodTable();
+        inlineCache = new InlineCache("name");
+
+        methodTable.put("name", (evaluationContext) -> DirectValue.build(0L), Types.VOID, Types.VOID, Types.NULLABLE_INTEGER);
+        methodTable.put("name", (evaluationContext) -> DirectValue.build(1L), Types.VOID, Types.VOID, Types.NULLABLE_FLOAT);
+        methodTable.put("name", (evaluationContext) -> DirectValue.build(2L), Types.VOID, Types.VOID, Types.NULLABLE_BOOLEAN);
+        methodTable.put("name", (evaluationContext) -> DirectValue.build(3L), Types.VOID, Types.VOID, Types.NULLABLE_VOID);
+    }
+
+    @Test
+    public void monomorphicSiteLooksUpOnce() {
+        // GIVEN
+        Method first = inlineCache.lookup(methodTable, Types.VOID, Types.INTEGER);
+
+        // WHEN
+        Method second = inlineCache.lookup(methodTable, Types.VOID, Types.INTEGER);
+
+        // THEN
+        assertThat(second).isSameAs(first);
+        assertThat(methodTable.lookups).isEqualTo(1);
+        assertThat(inlineCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void polymorphicSiteCachesEachTypeCombination() {
+        // GIVEN
+        Type[] types = {Types.INTEGER, Types.FLOAT, Types.BOOLEAN, Types.NULLABLE_INTEGER};
+
+        for (Type type : types) {
+            inlineCache.lookup(methodTable, Types.VOID, type);
+        }
+
+        // WHEN
+        for (Type type : types) {
+            inlineCache.lookup(methodTable, Types.VOID, type);
+        }
+
+        // THEN
+        assertThat(methodTable.lookups).isEqualTo(types.length);
+        assertThat(inlineCache.size()).isEqualTo(InlineCache.MAX_ENTRIES);
+        assertThat(inlineCache.isMegamorphic()).isFalse();
+    }
+
+    @Test
+    public void siteBecomesMegamorphic() {
+        // GIVEN
+        Type[] types = {Types.INTEGER, Types.FLOAT, Types.BOOLEAN, Types.NULLABLE_INTEGER, Types.NULLABLE_FLOAT};
+
+        // WHEN
+        for (Type type : types) {
+            inlineCache.lookup(methodTable, Types.VOID, type);
+        }
+
+        Method method = inlineCache.lookup(methodTable, Types.VOID, Types.INTEGER);
+
+        // THEN
+        assertThat(method.apply(null).value().internalValue()).isEqualTo(0L);
+        assertThat(methodTable.lookups).isEqualTo(types.length + 1);
+        assertThat(inlineCache.size()).isEqualTo(0);
+        assertThat(inlineCache.isMegamorphic()).isTrue();
+    }
+
+    @Test
+    public void megamorphicSiteCachesAgainWhenMethodTableChanges() {
+        // GIVEN
+        Type[] types = {Types.INTEGER, Types.FLOAT, Types.BOOLEAN, Types.NULLABLE_INTEGER, Types.NULLABLE_FLOAT};
+
+        for (Type type : types) {
+            inlineCache.lookup(methodTable, Types.VOID, type);
+        }
+
+        methodTable.put("name", (evaluationContext) -> DirectValue.build(4L), Types.VOID, Types.VOID, Types.INTEGER);
+
+        // WHEN
+        inlineCache.lookup(methodTable, Types.VOID, Types.INTEGER);
+        inlineCache.lookup(methodTable, Types.VOID, Types.INTEGER);
+
+        // THEN
+        assertThat(methodTable.lookups).isEqualTo(types.length + 1);
+        assertThat(inlineCache.size()).isEqualTo(1);
+        assertThat(inlineCache.isMegamorphic()).isFalse();
+    }
+
+    @Test
+    public void megamorphicSiteCachesAgainForAnotherMethodTable() {
+        // GIVEN
+        Type[] types = {Types.INTEGER, Types.FLOAT, Types.BOOLEAN, Types.NULLABLE_INTEGER, Types.NULLABLE_FLOAT};
+        CountingMethodTable otherMethodTable = new CountingMethodTable();
+        otherMethodTable.put("name", (evaluationContext) -> DirectValue.build(5L), Types.VOID, Types.VOID, Types.INTEGER);
+
+        for (Type type : types) {
+            inlineCache.lookup(methodTable, Types.VOID, type);
+        }
+
+        // WHEN
+        inlineCache.lookup(otherMethodTable, Types.VOID, Types.INTEGER);
+        inlineCache.lookup(otherMethodTable, Types.VOID, Types.INTEGER);
+
+        // THEN
+        assertThat(otherMethodTable.lookups).isEqualTo(1);
+        assertThat(inlineCache.size()).isEqualTo(1);
+        assertThat(inlineCache.isMegamorphic()).isFalse();
+    }
+
+    @Test
+    public void entriesAreDroppedWhenMethodTableChanges() {
+        // GIVEN
+        inlineCache.lookup(methodTable, Types.VOID, Types.INTEGER);
+        methodTable.put("name", (evaluationContext) -> DirectValue.build(4L), Types.VOID, Types.VOID, Types.INTEGER);
+
+        // WHEN
+        Method method = inlineCache.lookup(methodTable, Types.VOID, Types.INTEGER);
+
+        // THEN
+        assertThat(method.apply(null).value().internalValue()).isEqualTo(4L);
+        assertThat(methodTable.lookups).isEqualTo(2);
+        assertThat(inlineCache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void entriesAreDroppedForAnotherMethodTable() {
+        // GIVEN
+        CountingMethodTable otherMethodTable = new CountingMethodTable();
+        otherMethodTable.put("name", (evaluationContext) -> DirectValue.build(5L), Types.VOID, Types.VOID, Types.INTEGER);
+
+        inlineCache.lookup(methodTable, Types.VOID, Types.INTEGER);
+
+        // WHEN
+        Method method = inlineCache.lookup(otherMethodTable, Types.VOID, Types.INTEGER);
+
+        // THEN
+        assertThat(method.apply(null).value().internalValue()).isEqualTo(5L);
+        assertThat(otherMethodTable.lookups).isEqualTo(1);
+        assertThat(inlineCache.size()).isEqualTo(1);
+    }
+
+    private static class CountingMethodTable extends MethodTable {
+        private int lookups;
+
+        @Override
+        public Method lookup(String name, Type targetType, List<Type> parameterTypes) {
+            lookups++;
+            return super.lookup(name, targetType, parameterTypes);
+        }
+    }
+}
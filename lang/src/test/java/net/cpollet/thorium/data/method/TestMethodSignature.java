@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.data.method;
+
+import net.cpollet.thorium.types.Types;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestMethodSignature {
+    private static MethodSignature signature(List<ParameterSignature> parameterSignatures) {
+        return MethodSignatureBuilder.method("name")
+                .withTargetType(Types.VOID)
+                .withReturnType(Types.INTEGER)
+                .withParameterSignatures(parameterSignatures)
+                .build();
+    }
+
+    @Test
+    public void signaturesWithSameTypesAreEqual() {
+        // GIVEN
+        MethodSignature signature = signature(Arrays.asList(new ParameterSignature(Types.INTEGER, "a"), new ParameterSignature(Types.NULLABLE_FLOAT, "b")));
+        MethodSignature otherSignature = signature(Arrays.asList(new ParameterSignature(Types.INTEGER, "c"), new ParameterSignature(Types.NULLABLE_FLOAT, "d")));
+
+        // WHEN + THEN
+        assertThat(signature).isEqualTo(otherSignature);
+        assertThat(signature.hashCode()).isEqualTo(otherSignature.hashCode());
+        assertThat(signature).isNotEqualTo(signature(Arrays.asList(new ParameterSignature(Types.INTEGER, "a"), new ParameterSignature(Types.FLOAT, "b"))));
+    }
+
+    @Test
+    public void signatureIsNotChangedByItsParameterSignaturesList() {
+        // GIVEN
+        List<ParameterSignature> parameterSignatures = new ArrayList<>(Arrays.asList(new ParameterSignature(Types.INTEGER, "a")));
+        MethodSignature signature = signature(parameterSignatures);
+        int hash = signature.hashCode();
+
+        // WHEN
+        parameterSignatures.add(new ParameterSignature(Types.FLOAT, "b"));
+
+        // THEN
+        assertThat(signature.getParameterTypes()).containsExactly(Types.INTEGER);
+        assertThat(signature.hashCode()).isEqualTo(hash);
+    }
+}
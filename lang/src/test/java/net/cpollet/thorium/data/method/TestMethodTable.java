@@ -16,14 +16,17 @@
 
 package net.cpollet.thorium.data.method;
 
+import net.cpollet.thorium.types.Type;
 import net.cpollet.thorium.types.Types;
 import net.cpollet.thorium.values.DirectValue;
 import org.fest.assertions.Fail;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 
 import static org.fest.assertions.Assertions.assertThat;
 
@@ -209,6 +212,53 @@ public class TestMethodTable {
         fail("Exception expected");
     }
 
+    @Test
+    public void methodWithManyParameters() {
+        // GIVEN
+        Type[] parameterTypes = new Type[20];
+        Arrays.fill(parameterTypes, Types.INTEGER);
+        methodTable.put("many", methodBodies[9], Types.VOID, Types.VOID, parameterTypes);
+
+        List<Type> nullableLast = new ArrayList<>(Arrays.asList(parameterTypes));
+        nullableLast.set(19, Types.NULLABLE_INTEGER);
+        methodTable.put("many", methodBodies[0], Types.VOID, Types.VOID, nullableLast.toArray(new Type[20]));
+
+        // WHEN
+        Method method = methodTable.lookup("many", Types.VOID, Arrays.asList(parameterTypes));
+        Method cachedMethod = methodTable.lookup("many", Types.VOID, nullableLast);
+
+        // THEN
+        assertThat(method.apply(null))
+                .isEqualTo(DirectValue.build(9L));
+        assertThat(cachedMethod.apply(null))
+                .isEqualTo(DirectValue.build(0L));
+    }
+
+    @Test
+    public void manyTypeCombinations() {
+        // GIVEN
+        Type[] types = {Types.INTEGER, Types.NULLABLE_INTEGER, Types.FLOAT, Types.NULLABLE_FLOAT,
+                Types.BOOLEAN, Types.NULLABLE_BOOLEAN, Types.VOID, Types.NULLABLE_VOID};
+
+        for (int i = 0; i < types.length * types.length; i++) {
+            long value = i;
+            methodTable.put("pair", (evaluationContext) -> DirectValue.build(value), Types.VOID, Types.VOID, types[i / types.length], types[i % types.length]);
+        }
+
+        // WHEN
+        List<Method> methods = new ArrayList<>();
+
+        for (int i = 0; i < types.length * types.length; i++) {
+            methods.add(methodTable.lookup("pair", Types.VOID, Arrays.asList(types[i / types.length], types[i % types.length])));
+        }
+
+        // THEN
+        for (int i = 0; i < methods.size(); i++) {
+            assertThat(methods.get(i).apply(null))
+                    .isEqualTo(DirectValue.build((long) i));
+        }
+    }
+
     public void fail(String message) {
         //noinspection ThrowableResultOfMethodCallIgnored see method's javadoc
         Fail.fail(message);
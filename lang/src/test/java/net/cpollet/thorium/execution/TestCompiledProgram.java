@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution;
+
+import net.cpollet.thorium.analysis.exceptions.ThoriumSemanticException;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestCompiledProgram {
+    private static final String COUNTER = "" +
+            "def count = 0;" +
+            "public Integer increment(Integer n) { count = count + n; }" +
+            "increment(2);" +
+            "increment(3);";
+
+    @Test
+    public void executionsAreIndependent() {
+        // GIVEN
+        CompiledProgram program = CompiledProgram.compile(COUNTER, Engine.NODES);
+
+        // WHEN
+        ExecutionContext first = program.execute();
+        ExecutionContext second = program.execute();
+
+        // THEN
+        assertThat(first).isNotSameAs(second);
+        assertThat(first.lookupSymbol("count").value().integerValue()).isEqualTo(5L);
+        assertThat(second.lookupSymbol("count").value().integerValue()).isEqualTo(5L);
+    }
+
+    @Test
+    public void allEnginesAreSupported() {
+        for (Engine engine : Engine.values()) {
+            // GIVEN
+            CompiledProgram program = CompiledProgram.compile(COUNTER, engine);
+
+            // WHEN
+            ExecutionContext context = program.execute();
+
+            // THEN
+            assertThat(program.getEngine()).isSameAs(engine);
+            assertThat(context.lookupSymbol("count").value().integerValue()).isEqualTo(5L);
+        }
+    }
+
+    @Test
+    public void methodsWithParametersAreAnalysed() {
+        // GIVEN
+        CompiledProgram program = CompiledProgram.compile("" +
+                "public Integer fib(Integer n) {" +
+                "  if (n < 2) { 0; } else if (n < 3) { 1; } else { fib(n + -1) + fib(n + -2); }" +
+                "}" +
+                "def result = fib(10);", Engine.NODES);
+
+        // WHEN
+        ExecutionContext context = program.execute();
+
+        // THEN
+        assertThat(context.lookupSymbol("result").value().integerValue()).isEqualTo(34L);
+    }
+
+    /**
+     * The node engine's call sites cache the methods they last called, which can keep the last execution alive; no
+     * engine keeps more.
+     */
+    @Test
+    public void repeatedExecutionsOnOneThreadAreNotRetained() throws InterruptedException {
+        for (Engine engine : Engine.values()) {
+            // GIVEN
+            CompiledProgram program = CompiledProgram.compile("" +
+                    "public Integer f(Integer n) { def pad = 1; n + pad; }" +
+                    "def r = f(1);", engine);
+            List<WeakReference<ExecutionContext>> contexts = new ArrayList<>();
+
+            // WHEN
+            for (int i = 0; i < 100; i++) {
+                contexts.add(new WeakReference<>(program.execute()));
+            }
+
+            for (int i = 0; i < 10 && retained(contexts) > 1; i++) {
+                System.gc();
+                Thread.sleep(10);
+            }
+
+            // THEN
+            assertThat(retained(contexts)).as(engine.toString()).isLessThanOrEqualTo(1);
+        }
+    }
+
+    private static long retained(List<WeakReference<ExecutionContext>> contexts) {
+        return contexts.stream().filter(context -> context.get() != null).count();
+    }
+
+    @Test(expected = ParseCancellationException.class)
+    public void syntaxErrorsAreReportedAtCompilation() {
+        // WHEN
+        CompiledProgram.compile("def a = ;", Engine.NODES);
+    }
+
+    @Test(expected = ThoriumSemanticException.class)
+    public void semanticErrorsAreReportedAtCompilation() {
+        // WHEN
+        CompiledProgram.compile("def a = 1 + true;", Engine.NODES);
+    }
+}
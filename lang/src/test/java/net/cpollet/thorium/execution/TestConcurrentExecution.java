@@ -0,0 +1,153 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution;
+
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
+import org.antlr.v4.runtime.tree.ParseTree;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Executes the same compiled programs from several threads at once. The type method tables, the value caches, the
+ * inline caches and the self-rewriting nodes are shared by all executions.
+ *
+ * @author Christophe Pollet
+ */
+@RunWith(Parameterized.class)
+public class TestConcurrentExecution {
+    private static final int THREADS = Math.max(4, Runtime.getRuntime().availableProcessors());
+    private static final int EXECUTIONS = 2000;
+
+    private static final String MIXED = "" +
+            "public Float half(Float x) { x * 0.5; }" +
+            "def i = 1 + 2;" +
+            "def f = 1.5 + 2.5;" +
+            "def result = half(f) < i;";
+
+    private final Engine engine;
+    private ExecutorService executor;
+
+    public TestConcurrentExecution(Engine engine) {
+        this.engine = engine;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> engines() {
+        return Arrays.asList(new Object[][]{{Engine.VISITOR}, {Engine.NODES}, {Engine.BYTECODE}, {Engine.JVM}});
+    }
+
+    @Before
+    public void setUp() {
+        executor = Executors.newFixedThreadPool(THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    private static ParseTree parse(String program) {
+        return ParserBuilder.create().withCode(program).build().compilationUnit();
+    }
+
+    private static ParseTree load(String resource) throws IOException {
+        return ParserBuilder.create().withResource(resource).build().compilationUnit();
+    }
+
+    private static Object result(Executable executable) {
+        ExecutionContext context = ExecutionContext.createEmpty();
+        executable.execute(context);
+
+        return context.lookupSymbol("result").value().value().internalValue();
+    }
+
+    private List<Object> runAll(List<Callable<Object>> tasks) throws Exception {
+        List<Object> results = new ArrayList<>(tasks.size());
+
+        for (Future<Object> future : executor.invokeAll(tasks)) {
+            results.add(future.get());
+        }
+
+        return results;
+    }
+
+    @Test
+    public void compiledProgramsAreSharedByThreads() throws Exception {
+        // GIVEN
+        Executable fibonacci = engine.compile(load("recursive_fibonacci.th"));
+        Executable factorial = engine.compile(load("iterative_factorial.th"));
+        Executable mixed = engine.compile(parse(MIXED));
+        List<Callable<Object>> tasks = new ArrayList<>(EXECUTIONS);
+
+        for (int i = 0; i < EXECUTIONS; i++) {
+            switch (i % 3) {
+                case 0:
+                    tasks.add(() -> result(fibonacci));
+                    break;
+                case 1:
+                    tasks.add(() -> result(factorial));
+                    break;
+                default:
+                    tasks.add(() -> result(mixed));
+                    break;
+            }
+        }
+
+        // WHEN
+        List<Object> results = runAll(tasks);
+
+        // THEN
+        for (int i = 0; i < EXECUTIONS; i++) {
+            Object expected = i % 3 == 0 ? 34L : i % 3 == 1 ? 3628800L : true;
+            assertThat(results.get(i)).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void programsAreCompiledConcurrently() throws Exception {
+        // GIVEN
+        List<Callable<Object>> tasks = new ArrayList<>(EXECUTIONS / 10);
+
+        for (int i = 0; i < EXECUTIONS / 10; i++) {
+            long n = i % 10;
+            tasks.add(() -> result(engine.compile(parse("def result = " + n + " * 2 + 1;"))));
+        }
+
+        // WHEN
+        List<Object> results = runAll(tasks);
+
+        // THEN
+        for (int i = 0; i < results.size(); i++) {
+            assertThat(results.get(i)).isEqualTo((long) (i % 10) * 2 + 1);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution;
+
+import net.cpollet.thorium.execution.data.symbol.Symbol;
+import net.cpollet.thorium.values.DirectValue;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.EmptyStackException;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestExecutionContext {
+    @Test(expected = EmptyStackException.class)
+    public void wrappedContextDoesNotPopParentValues() {
+        // GIVEN
+        ExecutionContext context = ExecutionContext.createEmpty();
+        context.pushStack(DirectValue.build(1L));
+
+        // WHEN
+        context.wrap().popStack();
+    }
+
+    @Test
+    public void valuesLeftByWrappedContextAreDroppedOnUnwrap() {
+        // GIVEN
+        ExecutionContext context = ExecutionContext.createEmpty();
+        context.pushStack(DirectValue.build(1L));
+
+        ExecutionContext wrappedContext = context.wrap();
+        wrappedContext.pushStack(DirectValue.build(2L));
+        wrappedContext.pushStack(DirectValue.build(3L));
+
+        // WHEN
+        wrappedContext.unwrap();
+
+        // THEN
+        assertThat(context.popStack()).isEqualTo(DirectValue.build(1L));
+    }
+
+    @Test
+    public void unwrappedContextsAreReusedCleared() {
+        // GIVEN
+        ExecutionContext context = ExecutionContext.createEmpty();
+        ExecutionContext wrappedContext = context.wrap();
+        wrappedContext.insertSymbol(new Symbol("a", DirectValue.build(1L)));
+        wrappedContext.unwrap();
+
+        // WHEN
+        ExecutionContext reusedContext = context.wrap();
+
+        // THEN
+        assertThat(reusedContext).isSameAs(wrappedContext);
+        assertThat(reusedContext.symbolDefined("a")).isFalse();
+        assertThat(context.wrap()).isNotSameAs(reusedContext);
+    }
+}
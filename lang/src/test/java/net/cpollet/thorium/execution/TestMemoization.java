@@ -0,0 +1,107 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution;
+
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
+import net.cpollet.thorium.data.method.Memoization;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.Parameterized;
+
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(Parameterized.class)
+public class TestMemoization {
+    private static final String FIBONACCI = "" +
+            "public Integer fib(Integer n) {" +
+            "  if (n < 2) { 0; } else if (n < 3) { 1; } else { fib(n + -1) + fib(n + -2); }" +
+            "}" +
+            "def result = fib(30);";
+
+    private final Engine engine;
+
+    public TestMemoization(Engine engine) {
+        this.engine = engine;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> engines() {
+        return Arrays.asList(new Object[][]{{Engine.VISITOR}, {Engine.NODES}, {Engine.BYTECODE}});
+    }
+
+    private ExecutionContext execute(String program, Memoization memoization) {
+        ThoriumParser parser = ParserBuilder.create().withCode(program).build();
+        ExecutionContext context = ExecutionContext.createEmpty();
+
+        context.setMemoization(memoization);
+        engine.compile(parser.compilationUnit()).execute(context);
+
+        return context;
+    }
+
+    @Test
+    public void pureMethodsAreMemoized() {
+        // GIVEN
+        Memoization memoization = new Memoization(100);
+
+        // WHEN
+        ExecutionContext context = execute(FIBONACCI, memoization);
+
+        // THEN
+        assertThat(context.lookupSymbol("result").value().integerValue()).isEqualTo(514229L);
+        assertThat(memoization.getMisses()).isEqualTo(30);
+        assertThat(memoization.getHits()).isEqualTo(27);
+        assertThat(memoization.getEvictions()).isEqualTo(0);
+    }
+
+    @Test
+    public void cachesAreBounded() {
+        // GIVEN
+        Memoization memoization = new Memoization(2);
+
+        // WHEN
+        ExecutionContext context = execute(FIBONACCI.replace("fib(30)", "fib(20)"), memoization);
+
+        // THEN
+        assertThat(context.lookupSymbol("result").value().integerValue()).isEqualTo(4181L);
+        assertThat(memoization.getEvictions()).isEqualTo(memoization.getMisses() - 2);
+    }
+
+    @Test
+    public void impureMethodsAreNotMemoized() {
+        // GIVEN
+        Memoization memoization = new Memoization(100);
+
+        // WHEN
+        ExecutionContext context = execute("" +
+                "def calls = 0;" +
+                "public Integer count(Integer n) { calls = calls + 1; n; }" +
+                "count(1); count(1);" +
+                "def result = calls;", memoization);
+
+        // THEN
+        assertThat(context.lookupSymbol("result").value().integerValue()).isEqualTo(2L);
+        assertThat(memoization.getHits() + memoization.getMisses()).isEqualTo(0);
+    }
+}
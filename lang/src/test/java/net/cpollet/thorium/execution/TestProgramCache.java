@@ -0,0 +1,164 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.stream.Stream;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestProgramCache {
+    private static final String FACTORIAL = "" +
+            "public Integer factorial(Integer n) { if (n < 2) { 1; } else { n * factorial(n + -1); } }" +
+            "def result = factorial(10);";
+    private static final int PURE_METHODS_COUNT_POSITION = 40;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static long result(CompiledProgram program) {
+        return program.execute().lookupSymbol("result").value().integerValue();
+    }
+
+    @Test
+    public void programsAreCompiledOnceAcrossCaches() throws IOException {
+        // GIVEN
+        Path directory = folder.getRoot().toPath();
+        ProgramCache first = new ProgramCache(directory);
+        ProgramCache second = new ProgramCache(directory);
+
+        // WHEN
+        CompiledProgram compiled = first.load(FACTORIAL, Engine.BYTECODE);
+        CompiledProgram loaded = second.load(FACTORIAL, Engine.JVM);
+
+        // THEN
+        assertThat(first.getMisses()).isEqualTo(1);
+        assertThat(second.getHits()).isEqualTo(1);
+        assertThat(second.getMisses()).isEqualTo(0);
+        assertThat(result(compiled)).isEqualTo(3628800L);
+        assertThat(result(loaded)).isEqualTo(3628800L);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count()).isEqualTo(1);
+        }
+    }
+
+    @Test
+    public void unreadableFilesAreReplaced() throws IOException {
+        // GIVEN
+        Path directory = folder.getRoot().toPath();
+        new ProgramCache(directory).load(FACTORIAL, Engine.BYTECODE);
+        Path file;
+        try (Stream<Path> files = Files.list(directory)) {
+            file = files.findFirst().get();
+        }
+        Files.write(file, new byte[]{1, 2, 3});
+        ProgramCache cache = new ProgramCache(directory);
+
+        // WHEN
+        CompiledProgram program = cache.load(FACTORIAL, Engine.BYTECODE);
+
+        // THEN
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(result(program)).isEqualTo(3628800L);
+
+        ProgramCache replaced = new ProgramCache(directory);
+        replaced.load(FACTORIAL, Engine.BYTECODE);
+        assertThat(replaced.getHits()).isEqualTo(1);
+    }
+
+    @Test
+    public void filesWithCorruptLengthsAreMisses() throws IOException {
+        // GIVEN
+        Path directory = folder.getRoot().toPath();
+        new ProgramCache(directory).load(FACTORIAL, Engine.BYTECODE);
+        Path file;
+        try (Stream<Path> files = Files.list(directory)) {
+            file = files.findFirst().get();
+        }
+        ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file));
+        assertThat(bytes.getInt(PURE_METHODS_COUNT_POSITION)).isEqualTo(1);
+        bytes.putInt(PURE_METHODS_COUNT_POSITION + 4, Integer.MAX_VALUE);
+        Files.write(file, bytes.array());
+        ProgramCache cache = new ProgramCache(directory);
+
+        // WHEN
+        CompiledProgram program = cache.load(FACTORIAL, Engine.BYTECODE);
+
+        // THEN
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(result(program)).isEqualTo(3628800L);
+    }
+
+    @Test
+    public void programsAreReturnedWhenTheyCannotBeStored() throws IOException {
+        // GIVEN
+        Path file = folder.newFile().toPath();
+        ProgramCache cache = new ProgramCache(file.resolve("cache"));
+
+        // WHEN
+        CompiledProgram program = cache.load(FACTORIAL, Engine.BYTECODE);
+
+        // THEN
+        assertThat(cache.getMisses()).isEqualTo(1);
+        assertThat(result(program)).isEqualTo(3628800L);
+    }
+
+    @Test
+    public void temporaryFilesAreDeletedWhenStoringFails() throws IOException {
+        // GIVEN
+        Path directory = folder.getRoot().toPath();
+        new ProgramCache(directory).load(FACTORIAL, Engine.BYTECODE);
+        Path file;
+        try (Stream<Path> files = Files.list(directory)) {
+            file = files.findFirst().get();
+        }
+        Files.delete(file);
+        Files.createDirectory(file);
+        Files.createFile(file.resolve("content"));
+        ProgramCache cache = new ProgramCache(directory);
+
+        // WHEN
+        CompiledProgram program = cache.load(FACTORIAL, Engine.BYTECODE);
+
+        // THEN
+        assertThat(result(program)).isEqualTo(3628800L);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.count()).isEqualTo(1);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void onlyBytecodeEnginesAreSupported() {
+        // WHEN
+        new ProgramCache(folder.getRoot().toPath()).load(FACTORIAL, Engine.VISITOR);
+    }
+}
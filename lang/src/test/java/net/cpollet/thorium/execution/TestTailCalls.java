@@ -0,0 +1,131 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution;
+
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * Only {@link Engine#VISITOR} executes calls in tail position in a loop; the other engines recurse on the Java stack.
+ *
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestTailCalls {
+    private static ExecutionContext execute(String program) {
+        ThoriumParser parser = ParserBuilder.create().withCode(program).build();
+        ExecutionContext context = ExecutionContext.createEmpty();
+
+        Engine.VISITOR.compile(parser.compilationUnit()).execute(context);
+
+        return context;
+    }
+
+    @Test
+    public void deepTailRecursionRunsInConstantStack() {
+        // GIVEN + WHEN
+        ExecutionContext context = execute("" +
+                "public Integer sum(Integer n, Integer acc) {" +
+                "  if (n < 1) { acc; } else { sum(n + -1, acc + n); }" +
+                "}" +
+                "def result = sum(1000000, 0);");
+
+        // THEN
+        assertThat(context.lookupSymbol("result").value().integerValue()).isEqualTo(500000500000L);
+    }
+
+    @Test
+    public void deepTailRecursionWithBlockVariables() {
+        // GIVEN + WHEN
+        ExecutionContext context = execute("" +
+                "public Integer sum(Integer n, Integer acc) {" +
+                "  if (n < 1) { acc; } else { def m = acc + n; sum(n + -1, m); }" +
+                "}" +
+                "def result = sum(1000000, 0);");
+
+        // THEN
+        assertThat(context.lookupSymbol("result").value().integerValue()).isEqualTo(500000500000L);
+    }
+
+    @Test
+    public void mutualTailRecursion() {
+        // GIVEN + WHEN
+        ExecutionContext context = execute("" +
+                "public Boolean even(Integer n) { true if n < 1; odd(n + -1) unless n < 1; }" +
+                "public Boolean odd(Integer n) { if (n < 1) { false; } else { (even(n + -1)); } }" +
+                "def result = even(100001);");
+
+        // THEN
+        assertThat(context.lookupSymbol("result").value().booleanValue()).isFalse();
+    }
+
+    @Test
+    public void callsNotInTailPosition() {
+        // GIVEN + WHEN
+        ExecutionContext context = execute("" +
+                "public Integer fact(Integer n) { if (n < 2) { 1; } else { n * fact(n + -1); } }" +
+                "def result = fact(10);");
+
+        // THEN
+        assertThat(context.lookupSymbol("result").value().integerValue()).isEqualTo(3628800L);
+    }
+
+    @Test
+    public void tailCallsSeeCallerVariables() {
+        // GIVEN + WHEN
+        ExecutionContext context = execute("" +
+                "def x = 1;" +
+                "public Integer g() { x; }" +
+                "public Integer f() { def x = 2; g(); }" +
+                "def result = f();");
+
+        // THEN
+        assertThat(context.lookupSymbol("result").value().integerValue()).isEqualTo(2L);
+    }
+
+    @Test
+    public void chainedTailCallsSeeCallerBlockVariables() {
+        // GIVEN + WHEN
+        ExecutionContext context = execute("" +
+                "public Integer g(Integer n) { if (n < 1) { m; } else { g(n + -1); } }" +
+                "public Integer f() { if (true) { def m = 5; g(3); } }" +
+                "def result = f();");
+
+        // THEN
+        assertThat(context.lookupSymbol("result").value().integerValue()).isEqualTo(5L);
+    }
+
+    @Test
+    public void nestedMethodsCalledInTailPosition() {
+        // GIVEN + WHEN
+        ExecutionContext context = execute("" +
+                "public Integer outer(Integer n) {" +
+                "  def k = 10;" +
+                "  public Integer inner(Integer m) { m + k; }" +
+                "  inner(n);" +
+                "}" +
+                "def result = outer(1);");
+
+        // THEN
+        assertThat(context.lookupSymbol("result").value().integerValue()).isEqualTo(11L);
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.bytecode;
+
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
+import net.cpollet.thorium.types.Types;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.nio.ByteBuffer;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestCodeObjectSerializer {
+    private static CodeObject compile(String program) {
+        ThoriumParser parser = ParserBuilder.create().withCode(program).build();
+
+        return new BytecodeCompiler().compile(parser.compilationUnit());
+    }
+
+    @Test
+    public void roundTrip() {
+        // GIVEN
+        CodeObject codeObject = compile("" +
+                "def a = 1; def b = 2.5; def c = true; def Integer? d;" +
+                "public Float f(Float x, Boolean y) { if (y) { x * b; } else { x; } }" +
+                "for (def i = 0; i < 10; i = i + 1) { a = a * 2; }" +
+                "f(b, c);");
+
+        // WHEN
+        CodeObject read = CodeObjectSerializer.deserialize(ByteBuffer.wrap(CodeObjectSerializer.serialize(codeObject)));
+
+        // THEN
+        Disassembler disassembler = new Disassembler();
+        assertThat(disassembler.disassemble(read)).isEqualTo(disassembler.disassemble(codeObject));
+        assertThat(read.getRootVariables()).isEqualTo(codeObject.getRootVariables());
+        assertThat(read.getLastStatementValueRegister()).isEqualTo(codeObject.getLastStatementValueRegister());
+
+        CodeObject method = method(read);
+        assertThat(method.getName()).isEqualTo("f");
+        assertThat(method.getParameterSignatures().get(0).getType()).isSameAs(Types.FLOAT);
+        assertThat(method.getParameterSignatures().get(1).getName()).isEqualTo("y");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void truncatedBytesAreRejected() {
+        // GIVEN
+        byte[] bytes = CodeObjectSerializer.serialize(compile("def a = 1;"));
+
+        // WHEN
+        CodeObjectSerializer.deserialize(ByteBuffer.wrap(bytes, 0, bytes.length / 2));
+    }
+
+    private static CodeObject method(CodeObject codeObject) {
+        for (int i = 0; i < codeObject.getConstantsCount(); i++) {
+            if (codeObject.getConstant(i) instanceof CodeObject) {
+                return (CodeObject) codeObject.getConstant(i);
+            }
+        }
+
+        throw new AssertionError("No method found");
+    }
+}
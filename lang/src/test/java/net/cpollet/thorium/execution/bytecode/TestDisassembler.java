@@ -0,0 +1,85 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.bytecode;
+
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestDisassembler {
+    private static CodeObject compile(String program) {
+        ThoriumParser parser = ParserBuilder.create().withCode(program).build();
+
+        return new BytecodeCompiler().compile(parser.compilationUnit());
+    }
+
+    @Test
+    public void disassembleStatements() {
+        // GIVEN
+        CodeObject codeObject = compile("def a = 1; a + 2;");
+
+        // WHEN
+        String listing = new Disassembler().disassemble(codeObject);
+
+        // THEN
+        assertThat(listing).isEqualTo(lines(
+                "code <main> (4 registers)",
+                "  #0    Integer(1)",
+                "  #1    Integer(2)",
+                "     0  LOAD_CONSTANT         r2, #0",
+                "     3  STORE                 r1(a), r2",
+                "     6  LOAD_CONSTANT         r2, #1",
+                "     9  ADD                   r3, r1(a), r2",
+                "    13  SET_LAST              r3",
+                "    15  RETURN                r0(<last>)"
+        ));
+    }
+
+    @Test
+    public void disassembleMethods() {
+        // GIVEN
+        CodeObject codeObject = compile("def a = 1; public Integer f(Integer b) { a + b; }");
+
+        // WHEN
+        String listing = new Disassembler().disassemble(codeObject);
+
+        // THEN
+        assertThat(listing).contains("DEFINE_METHOD         #1");
+        assertThat(listing).contains("  #1    <code f>");
+        assertThat(listing).contains("code f (4 registers)");
+        assertThat(listing).contains("LOAD_GLOBAL           r2, g1");
+        assertThat(listing).contains("ADD                   r3, r2, r0(b)");
+    }
+
+    private static String lines(String... lines) {
+        StringBuilder sb = new StringBuilder();
+
+        for (String line : lines) {
+            sb.append(line).append(System.lineSeparator());
+        }
+
+        return sb.toString();
+    }
+}
@@ -52,4 +52,27 @@ public class TestSymbol {
         // THEN
         assertThat(string).isEqualTo("Symbol(name: Integer(1))");
     }
+
+    @Test
+    public void setIntegerValueIsBoxedOnDemand() {
+        // GIVEN
+        Symbol symbol = new Symbol("name", DirectValue.build(1L));
+
+        // WHEN
+        symbol.setIntegerValue(100000L);
+
+        // THEN
+        assertThat(symbol.integerValue()).isEqualTo(100000L);
+        assertThat(symbol.value()).isEqualTo(DirectValue.build(100000L));
+        assertThat(symbol.type()).isSameAs(Types.INTEGER);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void setFloatValueOnIntegerSymbol() {
+        // GIVEN
+        Symbol symbol = new Symbol("name", DirectValue.build(1L));
+
+        // WHEN
+        symbol.setFloatValue(1.0);
+    }
 }
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
+import net.cpollet.thorium.execution.ExecutionContext;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestFrameSlots {
+    private static ExecutionContext execute(String program) {
+        ThoriumParser parser = ParserBuilder.create().withCode(program).build();
+        ExecutionContext context = ExecutionContext.createEmpty();
+
+        new NodeCompiler().compile(parser.compilationUnit()).execute(context);
+
+        return context;
+    }
+
+    @Test
+    public void nestedScopeShadowsOuterVariable() {
+        // GIVEN + WHEN
+        ExecutionContext context = execute("def a = 1; def b; { def a = 2; b = a; }");
+
+        // THEN
+        assertThat(context.lookupSymbol("a").value().internalValue()).isEqualTo(1L);
+        assertThat(context.lookupSymbol("b").value().internalValue()).isEqualTo(2L);
+    }
+
+    @Test
+    public void scopeVariablesAreFreshOnEachEntry() {
+        // GIVEN + WHEN
+        ExecutionContext context = execute("def n = 0; for (def i = 0; i < 3; i = i + 1) { { def x = i; n = n + x; } }");
+
+        // THEN
+        assertThat(context.lookupSymbol("n").value().internalValue()).isEqualTo(3L);
+        assertThat(context.symbolDefined("x")).isFalse();
+        assertThat(context.symbolDefined("i")).isFalse();
+    }
+
+    @Test
+    public void methodSeesGlobalsDefinedBeforeIt() {
+        // GIVEN + WHEN
+        ExecutionContext context = execute("def base = 10; public Integer f(Integer x) { base = base + x; } f(1); f(2);");
+
+        // THEN
+        assertThat(context.lookupSymbol("base").value().internalValue()).isEqualTo(13L);
+    }
+
+    @Test
+    public void recursiveCallsHaveTheirOwnFrame() {
+        // GIVEN + WHEN
+        ExecutionContext context = execute("public Integer f(Integer n) { def r = n; if (n > 0) { f(n + -1); } r; } def result = f(3);");
+
+        // THEN
+        assertThat(context.lookupSymbol("result").value().internalValue()).isEqualTo(3L);
+    }
+
+    @Test
+    public void topLevelVariablesAreCopiedIntoContext() {
+        // GIVEN + WHEN
+        ExecutionContext context = execute("a = 1; def b = a + 1;");
+
+        // THEN
+        assertThat(context.lookupSymbol("a").value().internalValue()).isEqualTo(1L);
+        assertThat(context.lookupSymbol("b").value().internalValue()).isEqualTo(2L);
+    }
+}
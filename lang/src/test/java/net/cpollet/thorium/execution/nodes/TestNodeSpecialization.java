@@ -0,0 +1,125 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.execution.nodes;
+
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
+import net.cpollet.thorium.execution.ExecutionContext;
+import net.cpollet.thorium.values.DirectValue;
+import net.cpollet.thorium.values.Value;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestNodeSpecialization {
+    private Value execute(NodeCompiler compiler, String program) {
+        ThoriumParser parser = ParserBuilder.create().withCode(program).build();
+
+        return compiler.compile(parser.compilationUnit()).execute(ExecutionContext.createEmpty());
+    }
+
+    @Test
+    public void sameTypeOperandsSpecialize() {
+        // GIVEN
+        NodeCompiler compiler = new NodeCompiler();
+
+        // WHEN
+        execute(compiler, "def a = 0; for (def i = 0; i < 10; i = i + 1) { a = a + i; } def b = !(a > 40);");
+
+        // THEN
+        assertThat(compiler.getCounters().getSpecialized()).isEqualTo(5);
+        assertThat(compiler.getCounters().getGeneric()).isEqualTo(0);
+        assertThat(compiler.getCounters().getDespecialized()).isEqualTo(0);
+    }
+
+    @Test
+    public void mixedOperandsAreGeneric() {
+        // GIVEN
+        NodeCompiler compiler = new NodeCompiler();
+
+        // WHEN
+        execute(compiler, "def a = 1 + 2.5;");
+
+        // THEN
+        assertThat(compiler.getCounters().getSpecialized()).isEqualTo(0);
+        assertThat(compiler.getCounters().getGeneric()).isEqualTo(1);
+        assertThat(compiler.getCounters().getDespecialized()).isEqualTo(0);
+    }
+
+    @Test
+    public void specializedNodeDespecializesOnNewType() {
+        // GIVEN
+        SpecializationCounters counters = new SpecializationCounters();
+        RootNode node = new RootNode(new UninitializedBinaryOperatorNode("+",
+                new LiteralNode(DirectValue.build(1L)),
+                new SequenceNode(DirectValue.build(2L), DirectValue.build(2.5), DirectValue.build(3L)),
+                counters), new FrameDescriptor());
+        ExecutionContext context = ExecutionContext.createEmpty();
+
+        // WHEN
+        Value first = node.execute(context);
+        Value second = node.execute(context);
+        Value third = node.execute(context);
+
+        // THEN
+        assertThat(first.value().internalValue()).isEqualTo(3L);
+        assertThat(second.value().internalValue()).isEqualTo(3.5);
+        assertThat(third.value().internalValue()).isEqualTo(4L);
+        assertThat(counters.getSpecialized()).isEqualTo(1);
+        assertThat(counters.getGeneric()).isEqualTo(0);
+        assertThat(counters.getDespecialized()).isEqualTo(1);
+    }
+
+    @Test
+    public void unboxedAssignmentsRecordLastStatementValue() {
+        // GIVEN
+        NodeCompiler compiler = new NodeCompiler();
+        ThoriumParser parser = ParserBuilder.create().withCode("def a = 0; def b = 1.5; a = a + 1000; b = b * 2.0; a = a * 3;").build();
+        ExecutionContext context = ExecutionContext.createEmpty();
+
+        // WHEN
+        compiler.compile(parser.compilationUnit()).execute(context);
+
+        // THEN
+        assertThat(context.getLastStatementValue()).isEqualTo(DirectValue.build(3000L));
+        assertThat(context.lookupSymbol("b").value()).isEqualTo(DirectValue.build(3.0));
+        assertThat(compiler.getCounters().getSpecialized()).isEqualTo(3);
+        assertThat(compiler.getCounters().getDespecialized()).isEqualTo(0);
+    }
+
+    private static class SequenceNode extends Node {
+        private final Iterator<DirectValue> values;
+
+        SequenceNode(DirectValue... values) {
+            this.values = Arrays.asList(values).iterator();
+        }
+
+        @Override
+        public Value execute(Frame frame) {
+            return values.next();
+        }
+    }
+}
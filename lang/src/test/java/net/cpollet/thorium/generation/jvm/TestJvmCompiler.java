@@ -0,0 +1,140 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.generation.jvm;
+
+import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
+import net.cpollet.thorium.data.method.InlineCache;
+import net.cpollet.thorium.execution.bytecode.BytecodeCompiler;
+import net.cpollet.thorium.values.Value;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestJvmCompiler {
+    private static JvmProgram compile(String program) {
+        ThoriumParser parser = ParserBuilder.create().withCode(program).build();
+
+        return new JvmCompiler().compile(new BytecodeCompiler().compile(parser.compilationUnit()));
+    }
+
+    private static Method generatedMethod(JvmProgram program, String suffix) {
+        for (Method method : program.getGeneratedClass().getMethods()) {
+            if (method.getName().endsWith(suffix)) {
+                return method;
+            }
+        }
+
+        throw new AssertionError("No method ending with " + suffix);
+    }
+
+    @Test
+    public void primitiveTypesForNonNullableTypes() {
+        // GIVEN
+        JvmProgram program = compile("public Integer fib(Integer n) { if (n < 2) { 0; } else { fib(n + -1) + fib(n + -2); } }");
+
+        // WHEN
+        Method method = generatedMethod(program, "_fib");
+
+        // THEN
+        assertThat(method.getParameterTypes()).isEqualTo(new Class<?>[]{JvmRuntime.class, long.class});
+        assertThat(method.getReturnType()).isEqualTo(long.class);
+    }
+
+    @Test
+    public void valuesForNullableTypes() {
+        // GIVEN
+        JvmProgram program = compile("public Float f(Float? x) { x; }");
+
+        // WHEN
+        Method method = generatedMethod(program, "_f");
+
+        // THEN
+        assertThat(method.getParameterTypes()).isEqualTo(new Class<?>[]{JvmRuntime.class, Value.class});
+        assertThat(method.getReturnType()).isEqualTo(Value.class);
+    }
+
+    private static boolean hasInlineCaches(JvmProgram program) {
+        for (Field field : program.getGeneratedClass().getDeclaredFields()) {
+            if (field.getType() == InlineCache.class) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Test
+    public void staticCallToMethodDefinedBefore() {
+        // GIVEN
+        JvmProgram program = compile("public Integer f(Integer n) { n + 1; } public Integer g(Integer n) { f(n); } def r = g(1);");
+
+        // WHEN
+        boolean dynamicCalls = hasInlineCaches(program);
+
+        // THEN
+        assertThat(dynamicCalls).isFalse();
+    }
+
+    @Test
+    public void dynamicCallToMethodDefinedConditionally() {
+        // GIVEN
+        JvmProgram program = compile("if (true) { public Integer f(Integer n) { n + 1; } } def r = f(1);");
+
+        // WHEN
+        boolean dynamicCalls = hasInlineCaches(program);
+
+        // THEN
+        assertThat(dynamicCalls).isTrue();
+    }
+
+    @Test
+    public void dynamicCallToMethodDefinedAfter() {
+        // GIVEN
+        JvmProgram program = compile("public Integer g(Integer n) { f(n); } def r = g(1); public Integer f(Integer n) { n + 1; }");
+
+        // WHEN
+        boolean dynamicCalls = hasInlineCaches(program);
+
+        // THEN
+        assertThat(dynamicCalls).isTrue();
+    }
+
+    @Test
+    public void run() {
+        // GIVEN
+        JvmProgram program = compile("def a = 1.5; def b = true; public Float f(Float x) { x * 2.0; } def c = f(a); !b;");
+        JvmRuntime runtime = new JvmRuntime(program);
+
+        // WHEN
+        runtime.run();
+
+        // THEN
+        int last = program.getMain().getLastStatementValueRegister();
+        assertThat(runtime.getGlobal(last).value().internalValue()).isEqualTo(false);
+        assertThat(runtime.getGlobal(last + 3).value().internalValue()).isEqualTo(3.0);
+    }
+}
@@ -20,31 +20,43 @@ import net.cpollet.thorium.ThoriumException;
 import net.cpollet.thorium.analysis.AnalysisContext;
 import net.cpollet.thorium.analysis.SemanticAnalyser;
 import net.cpollet.thorium.analysis.exceptions.ThoriumSemanticException;
-import net.cpollet.thorium.antlr.ThoriumLexer;
 import net.cpollet.thorium.antlr.ThoriumParser;
+import net.cpollet.thorium.antlr.grammar.ParserBuilder;
+import net.cpollet.thorium.execution.Engine;
 import net.cpollet.thorium.execution.ExecutionContext;
-import net.cpollet.thorium.execution.ExecutionVisitor;
 import net.cpollet.thorium.execution.data.symbol.Symbol;
-import org.antlr.v4.runtime.ANTLRInputStream;
-import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.tree.ParseTree;
+import org.fest.assertions.Fail;
 import org.junit.Test;
 import org.junit.runner.RunWith;
-import org.junit.runners.BlockJUnit4ClassRunner;
+import org.junit.runners.Parameterized;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collection;
 
 import static org.fest.assertions.Assertions.assertThat;
 
 /**
  * @author Christophe Pollet
  */
-@RunWith(BlockJUnit4ClassRunner.class)
+@RunWith(Parameterized.class)
 public class TestIntegration {
     private final static Logger LOG = LoggerFactory.getLogger(TestIntegration.class);
 
+    private final Engine engine;
+
+    public TestIntegration(Engine engine) {
+        this.engine = engine;
+    }
+
+    @Parameterized.Parameters(name = "{0}")
+    public static Collection<Object[]> engines() {
+        return Arrays.asList(new Object[][]{{Engine.VISITOR}, {Engine.NODES}, {Engine.BYTECODE}, {Engine.JVM}});
+    }
+
     @Test
     public void iterativeFibonacci() throws IOException {
         // GIVEN + WHEN
@@ -89,12 +101,73 @@ public class TestIntegration {
                 .isEqualTo(3628800L);
     }
 
+    @Test
+    public void constantFolding() throws IOException {
+        // GIVEN + WHEN
+        ExecutionContext executionContext = eval("constant_folding.th");
+
+        // THEN
+        Symbol result = executionContext.lookupSymbol("result");
+        assertThat((Long) (result.value().internalValue()))
+                .isEqualTo(110L);
+    }
+
+    /**
+     * A loop's scope is entered once for all its iterations: a variable declared in the body of a loop is already
+     * defined on the second iteration, with every engine.
+     */
+    @Test
+    public void loopBodyDeclaration() throws IOException {
+        // GIVEN + WHEN
+        try {
+            eval("loop_body_declaration.th");
+        } catch (IllegalStateException e) {
+            // THEN
+            assertThat(e)
+                    .hasMessage("Symbol x already defined in current scope");
+            return;
+        }
+
+        Fail.fail("Exception expected");
+    }
+
+    /**
+     * A method returning a top-level variable returns the variable itself: the left operand sees the assignment done
+     * by the right one, with every engine.
+     */
+    @Test
+    public void globalMutation() throws IOException {
+        // GIVEN + WHEN
+        ExecutionContext executionContext = eval("global_mutation.th");
+
+        // THEN
+        Symbol result = executionContext.lookupSymbol("result");
+        assertThat((Long) (result.value().internalValue()))
+                .isEqualTo(24L);
+    }
+
+    /**
+     * A method is defined when its definition is executed: a method defined on a branch that is not taken cannot be
+     * called, with every engine.
+     */
+    @Test
+    public void conditionalMethodDefinition() throws IOException {
+        // GIVEN + WHEN
+        try {
+            eval("conditional_method_definition.th");
+        } catch (IllegalStateException e) {
+            // THEN
+            assertThat(e)
+                    .hasMessage("Method not defined");
+            return;
+        }
+
+        Fail.fail("Exception expected");
+    }
+
     private ExecutionContext eval(String program) throws IOException {
         // GIVEN
-        ANTLRInputStream input = new ANTLRInputStream(TestIntegration.class.getClassLoader().getResourceAsStream(program));
-        ThoriumLexer lexer = new ThoriumLexer(input);
-        CommonTokenStream tokens = new CommonTokenStream(lexer);
-        ThoriumParser parser = new ThoriumParser(tokens);
+        ThoriumParser parser = ParserBuilder.create().withResource(program).build();
         AnalysisContext analysisContext = new AnalysisContext();
 
         // WHEN
@@ -114,8 +187,7 @@ public class TestIntegration {
         }
 
         ExecutionContext executionContext = ExecutionContext.createEmpty();
-        ExecutionVisitor evaluator = new ExecutionVisitor(executionContext);
-        evaluator.visit(tree);
+        engine.compile(tree).execute(executionContext);
 
         return executionContext;
     }
@@ -18,6 +18,7 @@ package net.cpollet.thorium.jbehave.grammar.steps;
 
 import net.cpollet.thorium.ThoriumException;
 import net.cpollet.thorium.ThrowingErrorListener;
+import net.cpollet.thorium.analysis.DeclaringScopeAnalyser;
 import net.cpollet.thorium.antlr.ThoriumParser;
 import net.cpollet.thorium.antlr.grammar.ParserBuilder;
 import net.cpollet.thorium.data.method.MethodNotFoundException;
@@ -60,7 +61,7 @@ public abstract class BaseSteps {
     @When("being executed")
     public void execute() {
         storyContext.executionContext = ExecutionContext.createEmpty();
-        ExecutionVisitor executionVisitor = new ExecutionVisitor(storyContext.executionContext);
+        ExecutionVisitor executionVisitor = new ExecutionVisitor(storyContext.executionContext, new DeclaringScopeAnalyser().analyze(storyContext.tree));
 
         try {
             executionVisitor.visit(storyContext.tree);
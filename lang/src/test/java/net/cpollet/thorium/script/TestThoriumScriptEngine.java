@@ -0,0 +1,163 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.script;
+
+import net.cpollet.thorium.analysis.exceptions.ThoriumSemanticException;
+import org.fest.assertions.Fail;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
+import javax.script.ScriptEngine;
+import javax.script.ScriptEngineManager;
+import javax.script.ScriptException;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestThoriumScriptEngine {
+    @Test
+    public void engineIsRegistered() {
+        // WHEN
+        ScriptEngine engine = new ScriptEngineManager().getEngineByName("thorium");
+
+        // THEN
+        assertThat(engine).isInstanceOf(ThoriumScriptEngine.class);
+        assertThat(engine.getFactory().getExtensions()).containsOnly("th");
+    }
+
+    @Test
+    public void evalReturnsLastStatementValueAndExportsSymbols() throws ScriptException {
+        // GIVEN
+        ScriptEngine engine = new ThoriumScriptEngineFactory().getScriptEngine();
+
+        // WHEN
+        Object value = engine.eval("def a = 1; def b = 2.5; a + 1;");
+
+        // THEN
+        assertThat(value).isEqualTo(2L);
+        assertThat(engine.get("a")).isEqualTo(1L);
+        assertThat(engine.get("b")).isEqualTo(2.5);
+    }
+
+    @Test
+    public void bindingsAreSymbols() throws ScriptException {
+        // GIVEN
+        ScriptEngine engine = new ThoriumScriptEngineFactory().getScriptEngine();
+        Bindings bindings = engine.createBindings();
+        bindings.put("x", 20);
+        bindings.put("flag", true);
+        bindings.put("ignored", "not a Thorium value");
+
+        // WHEN
+        engine.eval("def result = 0; if (flag) { result = x * 2 + 2; } x = x + 1;", bindings);
+
+        // THEN
+        assertThat(bindings.get("result")).isEqualTo(42L);
+        assertThat(bindings.get("x")).isEqualTo(21L);
+        assertThat(bindings.get("ignored")).isEqualTo("not a Thorium value");
+    }
+
+    @Test
+    public void compiledScriptsAreCachedAndBounded() throws ScriptException {
+        // GIVEN
+        ThoriumScriptEngine engine = new ThoriumScriptEngine(new ThoriumScriptEngineFactory(), 2);
+
+        // WHEN
+        CompiledScript first = engine.compile("1 + 1;");
+        CompiledScript second = engine.compile("1 + 1;");
+        engine.compile("2 + 2;");
+        engine.compile("3 + 3;");
+
+        // THEN
+        assertThat(second).isSameAs(first);
+        assertThat(second.eval()).isEqualTo(2L);
+        assertThat(engine.getCacheSize()).isEqualTo(2);
+        assertThat(engine.compile("1 + 1;")).isNotSameAs(first);
+    }
+
+    @Test
+    public void compiledScriptsDependOnBindingTypes() throws ScriptException {
+        // GIVEN
+        ScriptEngine engine = new ThoriumScriptEngineFactory().getScriptEngine();
+        Bindings integers = engine.createBindings();
+        integers.put("x", 1);
+        Bindings floats = engine.createBindings();
+        floats.put("x", 1.5);
+
+        // WHEN
+        Object integer = engine.eval("x + x;", integers);
+        Object real = engine.eval("x + x;", floats);
+
+        // THEN
+        assertThat(integer).isEqualTo(2L);
+        assertThat(real).isEqualTo(3.0);
+    }
+
+    @Test(expected = ScriptException.class)
+    public void errorsAreScriptExceptions() throws ScriptException {
+        // GIVEN
+        Compilable engine = (Compilable) new ThoriumScriptEngineFactory().getScriptEngine();
+
+        // WHEN
+        engine.compile("def a = ;");
+    }
+
+    @Test
+    public void semanticErrorsAreListedWithTheirLine() {
+        // GIVEN
+        ScriptEngine engine = new ThoriumScriptEngineFactory().getScriptEngine();
+
+        // WHEN
+        try {
+            engine.eval("if (1) { 1; }\nwhile (2) { 2; }");
+        } catch (ScriptException e) {
+            // THEN
+            assertThat(e.getMessage()).contains("2 semantic errors occurred.")
+                    .contains("Invalid type found on line 1:")
+                    .contains("Invalid type found on line 2:");
+            assertThat(e.getCause()).isInstanceOf(ThoriumSemanticException.class);
+            return;
+        }
+
+        Fail.fail("Exception expected");
+    }
+
+    @Test
+    public void runtimeErrorsAreScriptExceptions() {
+        // GIVEN
+        ScriptEngine engine = new ThoriumScriptEngineFactory().getScriptEngine();
+
+        // WHEN
+        try {
+            engine.eval("if (false) { public Integer increment(Integer n) { n + 1; } } increment(1);");
+        } catch (ScriptException e) {
+            // THEN
+            assertThat(e.getMessage()).contains("Method not defined");
+            assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+            return;
+        }
+
+        Fail.fail("Exception expected");
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.types;
+
+import net.cpollet.thorium.data.method.MethodBody;
+import net.cpollet.thorium.data.method.MethodNotFoundException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.util.Collections;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestOperatorTable {
+    private static final Type[] TYPES = {
+            Types.VOID, Types.NULLABLE_VOID,
+            Types.BOOLEAN, Types.NULLABLE_BOOLEAN,
+            Types.INTEGER, Types.NULLABLE_INTEGER,
+            Types.FLOAT, Types.NULLABLE_FLOAT
+    };
+
+    private static MethodBody lookup(Operator operator, Type left, Type right) {
+        try {
+            return left.lookupMethod(operator.getSymbol(), Collections.singletonList(right)).getMethodBody();
+        } catch (MethodNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static MethodBody dispatch(Operator operator, Type left, Type right) {
+        try {
+            return OperatorTable.binary(operator, left, right);
+        } catch (MethodNotFoundException e) {
+            return null;
+        }
+    }
+
+    @Test
+    public void binaryOperatorsDispatchLikeMethodTables() {
+        for (Operator operator : Operator.values()) {
+            if (operator.isUnary()) {
+                continue;
+            }
+
+            for (Type left : TYPES) {
+                for (Type right : TYPES) {
+                    // WHEN
+                    MethodBody methodBody = dispatch(operator, left, right);
+
+                    // THEN
+                    assertThat(methodBody)
+                            .as(left + " " + operator.getSymbol() + " " + right)
+                            .isSameAs(lookup(operator, left, right));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void unaryOperatorsDispatchLikeMethodTables() {
+        // WHEN + THEN
+        assertThat(OperatorTable.unary(Operator.NOT, Types.NULLABLE_BOOLEAN))
+                .isSameAs(Types.NULLABLE_BOOLEAN.lookupMethod("!", Collections.emptyList()).getMethodBody());
+    }
+
+    @Test(expected = MethodNotFoundException.class)
+    public void missingOperatorsThrow() {
+        // WHEN
+        OperatorTable.binary(Operator.PLUS, Types.BOOLEAN, Types.INTEGER);
+    }
+}
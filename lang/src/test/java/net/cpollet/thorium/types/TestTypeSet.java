@@ -0,0 +1,77 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.types;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestTypeSet {
+    private static final Type[] TYPES = {
+            Types.VOID, Types.NULLABLE_VOID,
+            Types.BOOLEAN, Types.NULLABLE_BOOLEAN,
+            Types.INTEGER, Types.NULLABLE_INTEGER,
+            Types.FLOAT, Types.NULLABLE_FLOAT
+    };
+
+    @Test
+    public void ordinalsAreDense() {
+        for (int i = 0; i < TYPES.length; i++) {
+            // THEN
+            assertThat(TYPES[i].ordinal()).isEqualTo(i);
+            assertThat(Types.byOrdinal(i)).isSameAs(TYPES[i]);
+        }
+
+        assertThat(Types.COUNT).isEqualTo(TYPES.length);
+    }
+
+    @Test
+    public void singletonSets() {
+        for (Type type : TYPES) {
+            // WHEN
+            int set = TypeSet.of(type);
+
+            // THEN
+            assertThat(TypeSet.size(set)).isEqualTo(1);
+            assertThat(TypeSet.contains(set, type)).isTrue();
+            assertThat(TypeSet.single(set)).isSameAs(type);
+        }
+    }
+
+    @Test
+    public void nullable() {
+        // GIVEN
+        int set = TypeSet.of(Types.INTEGER, Types.NULLABLE_INTEGER, Types.FLOAT, Types.NULLABLE_BOOLEAN);
+
+        // WHEN
+        int nullableSet = TypeSet.nullable(set);
+
+        // THEN
+        assertThat(TypeSet.toList(nullableSet)).containsOnly(Types.NULLABLE_INTEGER, Types.NULLABLE_FLOAT, Types.NULLABLE_BOOLEAN);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void singleOfAmbiguousSet() {
+        TypeSet.single(TypeSet.of(Types.INTEGER, Types.FLOAT));
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2015 Christophe Pollet
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package net.cpollet.thorium.values;
+
+import net.cpollet.thorium.data.method.Method;
+import net.cpollet.thorium.data.method.MethodEvaluationContext;
+import net.cpollet.thorium.execution.ExecutionContext;
+import net.cpollet.thorium.types.Types;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+/**
+ * @author Christophe Pollet
+ */
+@RunWith(JUnit4.class)
+public class TestDirectValue {
+    private static final long OPERATIONS = 1_000_000L;
+    private static final long MAX_HEAP_GROWTH = 16L * 1024 * 1024;
+
+    @Test
+    public void smallIntegersAreShared() {
+        // GIVEN + WHEN
+        DirectValue first = DirectValue.build(1023L);
+        DirectValue second = DirectValue.build(1023L);
+
+        // THEN
+        assertThat(first).isSameAs(second);
+    }
+
+    @Test
+    public void otherValuesAreEqualButNotShared() {
+        // GIVEN + WHEN
+        DirectValue firstInteger = DirectValue.build(1024L);
+        DirectValue secondInteger = DirectValue.build(1024L);
+        DirectValue firstFloat = DirectValue.build(1.5);
+        DirectValue secondFloat = DirectValue.build(1.5);
+
+        // THEN
+        assertThat(firstInteger).isNotSameAs(secondInteger).isEqualTo(secondInteger);
+        assertThat(firstFloat).isNotSameAs(secondFloat).isEqualTo(secondFloat);
+    }
+
+    @Test
+    public void typedValuesAreSharedAcrossThreads() throws Exception {
+        // GIVEN
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        Set<DirectValue> values = Collections.newSetFromMap(new ConcurrentHashMap<>());
+        List<Callable<Void>> tasks = new ArrayList<>();
+
+        for (int i = 0; i < 64; i++) {
+            tasks.add(() -> {
+                values.add(DirectValue.build(Types.NULLABLE_FLOAT));
+                return null;
+            });
+        }
+
+        // WHEN
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        // THEN
+        assertThat(values).hasSize(1);
+        assertThat(values.iterator().next()).isSameAs(DirectValue.build(Types.NULLABLE_FLOAT));
+    }
+
+    @Test
+    public void heapStaysFlatOverMillionOperations() {
+        // GIVEN
+        Method plus = Types.FLOAT.lookupMethod("+", Collections.singletonList(Types.FLOAT));
+        ExecutionContext context = ExecutionContext.createEmpty();
+        DirectValue increment = DirectValue.build(0.5);
+        Value sum = DirectValue.build(0.0);
+        long before = usedHeapAfterGc();
+
+        // WHEN
+        for (long i = 0; i < OPERATIONS; i++) {
+            sum = plus.apply(new MethodEvaluationContext(context, sum, increment));
+        }
+
+        // THEN
+        assertThat(sum.floatValue()).isEqualTo(OPERATIONS * 0.5);
+        assertThat(usedHeapAfterGc() - before).isLessThan(MAX_HEAP_GROWTH);
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}